@@ -0,0 +1,110 @@
+package com.belezza.api.aspect;
+
+import com.belezza.api.entity.Plano;
+import com.belezza.api.entity.Role;
+import com.belezza.api.entity.Usuario;
+import com.belezza.api.repository.AuditLogRepository;
+import com.belezza.api.security.annotation.Auditable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead {@link AuditAspect} adds to an audited service call: reflection, request and user
+ * lookup, and serializing the result. Persistence is stubbed out, so the numbers are the
+ * aspect's own CPU and allocation cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class AuditAspectBenchmark {
+
+    private ServicoAuditado direto;
+    private ServicoAuditado auditado;
+    private ServletRequestAttributes requisicao;
+    private UsernamePasswordAuthenticationToken autenticacao;
+
+    @Setup
+    public void setUp() {
+        AuditLogRepository repository = (AuditLogRepository) Proxy.newProxyInstance(
+                AuditLogRepository.class.getClassLoader(), new Class<?>[]{AuditLogRepository.class},
+                (proxy, method, args) -> method.getName().equals("save") ? args[0] : null);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        direto = new ServicoAuditado();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ServicoAuditado());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new AuditAspect(repository, objectMapper));
+        auditado = factory.getProxy();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/agendamentos/42");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        request.addHeader("User-Agent", "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X)");
+        requisicao = new ServletRequestAttributes(request);
+
+        Usuario usuario = Usuario.builder()
+                .id(7L)
+                .email("admin@salon.com")
+                .password("hash")
+                .nome("Admin")
+                .role(Role.ADMIN)
+                .plano(Plano.PRO)
+                .build();
+        autenticacao = new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Resultado semAspecto() {
+        return direto.atualizar(42L);
+    }
+
+    @Benchmark
+    public Resultado auditadoSemRequisicao() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+        return auditado.atualizar(42L);
+    }
+
+    @Benchmark
+    public Resultado auditadoComUsuario() {
+        RequestContextHolder.setRequestAttributes(requisicao);
+        SecurityContextHolder.getContext().setAuthentication(autenticacao);
+        return auditado.atualizar(42L);
+    }
+
+    public static class ServicoAuditado {
+
+        private static final LocalDateTime DATA_HORA = LocalDateTime.of(2025, 6, 2, 9, 0);
+
+        @Auditable(action = "UPDATE", entityType = "Agendamento")
+        public Resultado atualizar(Long id) {
+            return new Resultado(id, "CONFIRMADO", "Corte Feminino", DATA_HORA);
+        }
+    }
+
+    public record Resultado(Long id, String status, String servico, LocalDateTime dataHora) {
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.belezza.api.dto.agendamento;
+
+import com.belezza.api.entity.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping of appointment listings, for single-service (legacy) and
+ * multi-service appointments and for a full listing page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class AgendamentoResponseBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private Agendamento servicoUnico;
+    private Agendamento variosServicos;
+    private List<Agendamento> pagina;
+
+    @Setup
+    public void setUp() {
+        Salon salon = Salon.builder().id(1L).nome("Belezza Studio").build();
+        Cliente cliente = Cliente.builder().id(10L).salon(salon).usuario(usuario(100L, "Ana Costa")).build();
+        Profissional profissional = Profissional.builder().id(20L).salon(salon).usuario(usuario(200L, "Bia Souza")).build();
+        Servico corte = servico(30L, "Corte Feminino", 60);
+        Servico escova = servico(31L, "Escova", 45);
+        Servico hidratacao = servico(32L, "Hidratação", 30);
+
+        LocalDateTime dataHora = LocalDateTime.of(2025, 6, 2, 9, 0);
+        servicoUnico = agendamento(1L, salon, cliente, profissional, dataHora);
+        servicoUnico.setServico(corte);
+
+        variosServicos = agendamento(2L, salon, cliente, profissional, dataHora);
+        variosServicos.addServico(corte, null, null);
+        variosServicos.addServico(escova, null, 5);
+        variosServicos.addServico(hidratacao, null, null);
+
+        pagina = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            pagina.add(i % 2 == 0 ? servicoUnico : variosServicos);
+        }
+    }
+
+    @Benchmark
+    public AgendamentoResponse servicoUnico() {
+        return AgendamentoResponse.fromEntity(servicoUnico);
+    }
+
+    @Benchmark
+    public AgendamentoResponse variosServicos() {
+        return AgendamentoResponse.fromEntity(variosServicos);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<AgendamentoResponse> pagina() {
+        return pagina.stream().map(AgendamentoResponse::fromEntity).toList();
+    }
+
+    private static Agendamento agendamento(Long id, Salon salon, Cliente cliente, Profissional profissional,
+                                           LocalDateTime dataHora) {
+        return Agendamento.builder()
+                .id(id)
+                .salon(salon)
+                .cliente(cliente)
+                .profissional(profissional)
+                .dataHora(dataHora)
+                .fimPrevisto(dataHora.plusMinutes(135))
+                .status(StatusAgendamento.CONFIRMADO)
+                .observacoes("Cliente prefere água sem gás")
+                .criadoEm(dataHora.minusDays(3))
+                .atualizadoEm(dataHora.minusDays(1))
+                .build();
+    }
+
+    private static Usuario usuario(Long id, String nome) {
+        return Usuario.builder()
+                .id(id)
+                .email("u" + id + "@example.com")
+                .password("hash")
+                .nome(nome)
+                .telefone("+5511999990000")
+                .role(Role.CLIENTE)
+                .plano(Plano.FREE)
+                .build();
+    }
+
+    private static Servico servico(Long id, String nome, int duracaoMinutos) {
+        return Servico.builder()
+                .id(id)
+                .nome(nome)
+                .descricao(nome + " com finalização")
+                .preco(new BigDecimal("80.00"))
+                .duracaoMinutos(duracaoMinutos)
+                .tipo(TipoServico.CABELO)
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.belezza.api.integration.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloud API payload building in {@link WhatsAppServiceImpl}, against the nested maps converted
+ * by Jackson it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class WhatsAppPayloadBenchmark {
+
+    private static final String TO = "5511987654321";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, String> params;
+
+    @Setup
+    public void setUp() {
+        params = new LinkedHashMap<>();
+        params.put("nome", "Ana Costa");
+        params.put("servico", "Corte Feminino + Escova");
+        params.put("data", "02/06/2025");
+        params.put("horario", "09:00");
+        params.put("profissional", "Bia Souza");
+    }
+
+    @Benchmark
+    public byte[] template() {
+        return WhatsAppPayloadWriter.template(TO, "confirmacao_agendamento", "pt_BR", params);
+    }
+
+    @Benchmark
+    public byte[] text() {
+        return WhatsAppPayloadWriter.text(TO, "Olá Ana! Seu horário de amanhã às 09:00 está confirmado. Até lá! 💇‍♀️");
+    }
+
+    @Benchmark
+    public byte[] image() {
+        return WhatsAppPayloadWriter.image(TO, "https://cdn.belezza.ai/posts/2025/06/antes-depois.jpg",
+                "Resultado de hoje ✨");
+    }
+
+    @Benchmark
+    public byte[] templateAsMaps() throws JsonProcessingException {
+        List<Map<String, String>> parameters = params.values().stream()
+                .map(value -> Map.of("type", "text", "text", value))
+                .toList();
+        Map<String, Object> template = new LinkedHashMap<>();
+        template.put("name", "confirmacao_agendamento");
+        template.put("language", Map.of("code", "pt_BR"));
+        template.put("components", List.of(Map.of("type", "body", "parameters", parameters)));
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("messaging_product", "whatsapp");
+        payload.put("to", TO);
+        payload.put("type", "template");
+        payload.put("template", template);
+        return objectMapper.writeValueAsBytes(payload);
+    }
+}
@@ -0,0 +1,70 @@
+package com.belezza.api.security;
+
+import com.belezza.api.entity.Plano;
+import com.belezza.api.entity.Role;
+import com.belezza.api.entity.Usuario;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done on every authenticated request (parse and validate) and on every login (sign).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", Base64.getEncoder().encodeToString(new byte[64]));
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "issuer", "belezza-api");
+        jwtService.init();
+
+        usuario = Usuario.builder()
+                .id(42L)
+                .email("maria@salon.com")
+                .password("hash")
+                .nome("Maria Silva")
+                .role(Role.ADMIN)
+                .plano(Plano.PRO)
+                .ativo(true)
+                .build();
+        token = jwtService.generateAccessToken(usuario);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    /**
+     * What the authentication filter does per request: subject check plus expiry check.
+     */
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, usuario);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(usuario);
+    }
+}
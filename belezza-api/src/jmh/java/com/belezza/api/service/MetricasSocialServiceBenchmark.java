@@ -0,0 +1,79 @@
+package com.belezza.api.service;
+
+import com.belezza.api.dto.metricas.MetricasSocialResponse;
+import com.belezza.api.dto.metricas.PeriodoFilter;
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.entity.Post;
+import com.belezza.api.entity.Salon;
+import com.belezza.api.entity.StatusPost;
+import com.belezza.api.repository.PostRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory grouping of {@link MetricasSocialService}: totals, best hour and day, per platform,
+ * top posts, daily evolution and distributions, over a month of published posts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class MetricasSocialServiceBenchmark {
+
+    private static final PlataformaSocial[] PLATAFORMAS = PlataformaSocial.values();
+
+    @Param({"100", "1000"})
+    private int posts;
+
+    private MetricasSocialService service;
+    private PeriodoFilter periodo;
+
+    @Setup
+    public void setUp() {
+        periodo = PeriodoFilter.builder()
+                .dataInicio(LocalDate.of(2025, 5, 1))
+                .dataFim(LocalDate.of(2025, 5, 31))
+                .build();
+
+        Salon salon = Salon.builder().id(1L).nome("Belezza Studio").build();
+        Random random = new Random(42);
+        List<Post> publicados = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            int alcance = 200 + random.nextInt(5000);
+            publicados.add(Post.builder()
+                    .id((long) i)
+                    .salon(salon)
+                    .imagemUrl("https://cdn.belezza.ai/posts/" + i + ".jpg")
+                    .legenda("Resultado do dia ✨ #beleza #cabelo #salao post " + i)
+                    .status(StatusPost.PUBLICADO)
+                    .publicadoEm(LocalDateTime.of(2025, 5, 1, 8, 0)
+                            .plusDays(random.nextInt(31)).plusMinutes(random.nextInt(14 * 60)))
+                    .curtidas(alcance / (10 + random.nextInt(20)))
+                    .comentarios(alcance / (100 + random.nextInt(200)))
+                    .compartilhamentos(alcance / (300 + random.nextInt(500)))
+                    .alcance(alcance)
+                    .plataformas(new ArrayList<>(List.of(PLATAFORMAS[i % PLATAFORMAS.length])))
+                    .build());
+        }
+
+        PostRepository repository = (PostRepository) Proxy.newProxyInstance(
+                PostRepository.class.getClassLoader(), new Class<?>[]{PostRepository.class},
+                (proxy, method, args) -> method.getName().equals("findBySalonIdAndStatusAndPublicadoEmBetween")
+                        ? publicados : null);
+        service = new MetricasSocialService(repository);
+    }
+
+    @Benchmark
+    public MetricasSocialResponse calcularMetricas() {
+        return service.calcularMetricas(1L, periodo);
+    }
+}
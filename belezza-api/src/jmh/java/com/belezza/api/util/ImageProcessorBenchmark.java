@@ -0,0 +1,87 @@
+package com.belezza.api.util;
+
+import com.belezza.api.util.ImageEncoder.EncodedImage;
+import com.belezza.api.util.ImageProcessor.AspectRatio;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thumbnail and crop cost for phone-sized photos.
+ *
+ * The "FromStream" variants decode only the needed region, subsampled (the upload path); the
+ * "FromDecoded" / "FromBytes" variants decode the whole image first, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@State(Scope.Benchmark)
+public class ImageProcessorBenchmark {
+
+    @Param({"1920x1080", "4032x3024"})
+    private String resolution;
+
+    private ImageProcessor imageProcessor;
+    private byte[] jpeg;
+
+    @Setup
+    public void setUp() throws IOException {
+        imageProcessor = new ImageProcessor(new ImageEncoder());
+        String[] size = resolution.split("x");
+        jpeg = photo(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    }
+
+    @Benchmark
+    public EncodedImage thumbnailFromStream() throws IOException {
+        return imageProcessor.generateThumbnail(new ByteArrayInputStream(jpeg));
+    }
+
+    @Benchmark
+    public EncodedImage thumbnailFromDecoded() throws IOException {
+        return imageProcessor.generateThumbnail(imageProcessor.decode(new ByteArrayInputStream(jpeg)));
+    }
+
+    @Benchmark
+    public EncodedImage cropPortraitFromStream() throws IOException {
+        return imageProcessor.cropFromUrl(new ByteArrayInputStream(jpeg), AspectRatio.PORTRAIT_4_5);
+    }
+
+    @Benchmark
+    public EncodedImage cropPortraitFromBytes() throws IOException {
+        return imageProcessor.cropToRatio(jpeg, AspectRatio.PORTRAIT_4_5);
+    }
+
+    // Gradients with noise, so the JPEG carries detail like a real photo
+    private static byte[] photo(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(180, 120, 90), width, height, new Color(40, 60, 110)));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                int noise = random.nextInt(24) - 12;
+                int r = Math.clamp(((rgb >> 16) & 0xff) + noise, 0, 255);
+                int g = Math.clamp(((rgb >> 8) & 0xff) + noise, 0, 255);
+                int b = Math.clamp((rgb & 0xff) + noise, 0, 255);
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
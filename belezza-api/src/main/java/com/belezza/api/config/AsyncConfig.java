@@ -1,16 +1,20 @@
 package com.belezza.api.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration for async task execution.
- * Used for sending emails asynchronously.
+ * Used for sending emails asynchronously, for publishing posts to social platforms
+ * and for CPU-bound image processing.
  */
 @Configuration
 @EnableAsync
@@ -30,4 +34,48 @@ public class AsyncConfig implements AsyncConfigurer {
         log.info("Async executor configured with core pool size: 2, max pool size: 5");
         return executor;
     }
+
+    /**
+     * Bounded pool for Meta publish calls, shared by every post and platform being published.
+     * When the queue is full the submitting thread publishes itself, which throttles the scheduler.
+     */
+    @Bean(name = "socialPublishExecutor")
+    public ThreadPoolTaskExecutor socialPublishExecutor(
+            @Value("${belezza.social.publish.max-concurrency:8}") int maxConcurrency,
+            @Value("${belezza.social.publish.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("social-publish-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        log.info("Social publish executor configured with {} threads", maxConcurrency);
+        return executor;
+    }
+
+    /**
+     * Bounded pool for image decoding, cropping and encoding, sized to the available cores.
+     * When the queue is full the request thread does the work itself instead of queueing more.
+     */
+    @Bean(name = "imageProcessingExecutor")
+    public ThreadPoolTaskExecutor imageProcessingExecutor(
+            @Value("${belezza.image.processing.threads:0}") int threads,
+            @Value("${belezza.image.processing.queue-capacity:50}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-processing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        log.info("Image processing executor configured with {} threads", poolSize);
+        return executor;
+    }
 }
@@ -2,6 +2,7 @@ package com.belezza.api.config;
 
 import com.belezza.api.security.JwtAuthenticationFilter;
 import com.belezza.api.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -49,6 +50,7 @@ public class SecurityConfig {
     private static final String[] PUBLIC_ENDPOINTS = {
         "/api/auth/**",
         "/api/public/**",
+        "/api/webhooks/**",
         "/actuator/health",
         "/actuator/health/**",
         "/actuator/info"
@@ -83,6 +85,9 @@ public class SecurityConfig {
 
             // Configure authorization rules
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches of streamed responses (SSE) continue an already authorised request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public endpoints
                 .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
                 .requestMatchers(SWAGGER_ENDPOINTS).permitAll()
@@ -1,5 +1,6 @@
 package com.belezza.api.controller;
 
+import com.belezza.api.dto.CursorPage;
 import com.belezza.api.dto.agendamento.AgendamentoRequest;
 import com.belezza.api.dto.agendamento.AgendamentoResponse;
 import com.belezza.api.dto.agendamento.CancelamentoRequest;
@@ -78,6 +79,46 @@ public class AgendamentoController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/salon/{salonId}/cursor")
+    @ProfissionalOrAdmin
+    @Operation(summary = "Listar por salão (cursor)",
+            description = "Lista agendamentos de um salão por cursor; o total só é contado com incluirTotal")
+    public ResponseEntity<CursorPage<AgendamentoResponse>> listarPorSalonCursor(
+            @PathVariable Long salonId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        CursorPage<AgendamentoResponse> response = agendamentoService.listarPorSalon(salonId, cursor, size, incluirTotal);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/cliente/{clienteId}/cursor")
+    @Operation(summary = "Listar por cliente (cursor)",
+            description = "Lista agendamentos de um cliente por cursor; o total só é contado com incluirTotal")
+    public ResponseEntity<CursorPage<AgendamentoResponse>> listarPorClienteCursor(
+            @PathVariable Long clienteId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        CursorPage<AgendamentoResponse> response =
+                agendamentoService.listarPorCliente(clienteId, cursor, size, incluirTotal);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/profissional/{profissionalId}/cursor")
+    @ProfissionalOrAdmin
+    @Operation(summary = "Listar por profissional (cursor)",
+            description = "Lista agendamentos de um profissional por cursor; o total só é contado com incluirTotal")
+    public ResponseEntity<CursorPage<AgendamentoResponse>> listarPorProfissionalCursor(
+            @PathVariable Long profissionalId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+        CursorPage<AgendamentoResponse> response =
+                agendamentoService.listarPorProfissional(profissionalId, cursor, size, incluirTotal);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/profissional/{profissionalId}/agenda-diaria")
     @ProfissionalOrAdmin
     @Operation(summary = "Agenda diária", description = "Lista agendamentos do dia de um profissional")
@@ -1,8 +1,10 @@
 package com.belezza.api.controller;
 
+import com.belezza.api.dto.CursorPage;
 import com.belezza.api.entity.AuditLog;
 import com.belezza.api.repository.AuditLogRepository;
 import com.belezza.api.security.annotation.Authenticated;
+import com.belezza.api.util.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.function.Function;
 
 /**
  * REST Controller for audit log management.
@@ -54,6 +57,32 @@ public class AuditLogController {
         return ResponseEntity.ok(logs);
     }
 
+    /**
+     * List all audit logs with keyset pagination, most recent first.
+     * Admin only.
+     */
+    @GetMapping("/cursor")
+    @Authenticated
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+        summary = "Listar logs de auditoria (cursor)",
+        description = "Retorna os logs de auditoria por cursor, dos mais recentes aos mais antigos. " +
+                     "O total só é contado com incluirTotal."
+    )
+    public ResponseEntity<CursorPage<AuditLog>> listAuditLogsCursor(
+        @Parameter(description = "Cursor da página anterior") @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "50") int size,
+        @RequestParam(defaultValue = "false") boolean incluirTotal
+    ) {
+        log.info("List audit logs by cursor");
+        KeysetCursor before = KeysetCursor.decode(cursor, true);
+        CursorPage<AuditLog> logs = CursorPage.of(
+                auditLogRepository.findAllBefore(before.valor(), before.id(), CursorPage.request(size)),
+                size, auditLog -> KeysetCursor.of(auditLog.getCriadoEm(), auditLog.getId()), Function.identity(),
+                incluirTotal ? auditLogRepository::count : null);
+        return ResponseEntity.ok(logs);
+    }
+
     /**
      * Get audit log by ID.
      * Admin only.
@@ -5,19 +5,27 @@ import com.belezza.api.dto.imagem.CaptionResponse;
 import com.belezza.api.dto.imagem.CaptionVariationsResponse;
 import com.belezza.api.integration.CaptionAIService;
 import com.belezza.api.security.annotation.Authenticated;
+import com.belezza.api.service.CaptionCache;
+import com.belezza.api.service.SalonService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller for AI-powered caption generation.
@@ -31,39 +39,61 @@ import java.util.List;
 public class CaptionController {
 
     private final CaptionAIService captionAIService;
+    private final CaptionCache captionCache;
+    private final SalonService salonService;
 
     @PostMapping("/generate")
     @Authenticated
     @Operation(
         summary = "Generate caption",
         description = "Generate an AI-powered caption for a social media post. " +
-                     "Tailored for beauty salon content with appropriate tone and hashtags."
+                     "Tailored for beauty salon content with appropriate tone and hashtags. " +
+                     "Repeat requests of a salon for the same or a near-identical description are served from cache."
     )
     public ResponseEntity<CaptionResponse> generate(
-        @Valid @RequestBody CaptionGenerateRequest request
+        @Valid @RequestBody CaptionGenerateRequest request,
+        @AuthenticationPrincipal UserDetails userDetails
     ) {
         log.info("Generate caption request for platform: {}, service: {}",
             request.getPlataforma(), request.getTipoServico());
 
-        CaptionAIService.CaptionRequest aiRequest = new CaptionAIService.CaptionRequest(
-            request.getImageDescription(),
-            request.getTipoServico(),
-            request.getEstiloSalao(),
-            request.getPlataforma(),
-            request.getTom(),
-            request.getIdioma()
-        );
+        Long salonId = salonIdOf(userDetails);
+        CaptionAIService.CaptionRequest aiRequest = toAiRequest(request);
 
-        CaptionAIService.CaptionResponse aiResponse = captionAIService.generate(aiRequest);
+        CaptionAIService.CaptionResponse aiResponse =
+            captionCache.getOrGenerate(salonId, aiRequest, () -> captionAIService.generate(aiRequest));
 
-        CaptionResponse response = CaptionResponse.builder()
-            .legenda(aiResponse.legenda())
-            .hashtags(aiResponse.hashtags())
-            .callToAction(aiResponse.callToAction())
-            .engajamentoEstimado(aiResponse.engajamentoEstimado())
-            .build();
+        return ResponseEntity.ok(toResponse(aiResponse));
+    }
 
-        return ResponseEntity.ok(response);
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Authenticated
+    @Operation(
+        summary = "Stream caption generation",
+        description = "Generate a caption as Server-Sent Events: \"delta\" events carry fragments of the " +
+                     "caption text as the AI writes it, then one \"caption\" event carries the complete caption. " +
+                     "An \"error\" event ends the stream if generation fails midway."
+    )
+    public Flux<ServerSentEvent<Object>> generateStream(
+        @Valid @RequestBody CaptionGenerateRequest request,
+        @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        log.info("Stream caption request for platform: {}, service: {}",
+            request.getPlataforma(), request.getTipoServico());
+
+        Long salonId = salonIdOf(userDetails);
+        CaptionAIService.CaptionRequest aiRequest = toAiRequest(request);
+
+        return captionCache.getOrStream(salonId, aiRequest, () -> captionAIService.generateStream(aiRequest))
+            .map(event -> event.isCompleted()
+                ? ServerSentEvent.builder((Object) toResponse(event.caption())).event("caption").build()
+                : ServerSentEvent.builder((Object) Map.of("text", event.delta())).event("delta").build())
+            .onErrorResume(e -> {
+                log.error("Error streaming caption: {}", e.getMessage());
+                return Flux.just(ServerSentEvent.builder((Object) Map.of("message", "Failed to generate caption"))
+                    .event("error")
+                    .build());
+            });
     }
 
     @PostMapping("/generate-variations")
@@ -81,25 +111,13 @@ public class CaptionController {
 
         int count = Math.min(request.getVariations(), 5); // Max 5 variations
 
-        CaptionAIService.CaptionRequest aiRequest = new CaptionAIService.CaptionRequest(
-            request.getImageDescription(),
-            request.getTipoServico(),
-            request.getEstiloSalao(),
-            request.getPlataforma(),
-            request.getTom(),
-            request.getIdioma()
-        );
+        CaptionAIService.CaptionRequest aiRequest = toAiRequest(request);
 
         List<CaptionAIService.CaptionResponse> aiResponses =
             captionAIService.generateVariations(aiRequest, count);
 
         List<CaptionResponse> variations = aiResponses.stream()
-            .map(aiResponse -> CaptionResponse.builder()
-                .legenda(aiResponse.legenda())
-                .hashtags(aiResponse.hashtags())
-                .callToAction(aiResponse.callToAction())
-                .engajamentoEstimado(aiResponse.engajamentoEstimado())
-                .build())
+            .map(this::toResponse)
             .toList();
 
         CaptionVariationsResponse response = CaptionVariationsResponse.builder()
@@ -128,6 +146,33 @@ public class CaptionController {
         return ResponseEntity.ok(styles);
     }
 
+    /**
+     * Salon the cached captions are shared in, taken from the caller so it cannot be chosen by the client.
+     */
+    private Long salonIdOf(UserDetails userDetails) {
+        return salonService.findSalonIdDoUsuario(userDetails.getUsername()).orElse(null);
+    }
+
+    private CaptionAIService.CaptionRequest toAiRequest(CaptionGenerateRequest request) {
+        return new CaptionAIService.CaptionRequest(
+            request.getImageDescription(),
+            request.getTipoServico(),
+            request.getEstiloSalao(),
+            request.getPlataforma(),
+            request.getTom(),
+            request.getIdioma()
+        );
+    }
+
+    private CaptionResponse toResponse(CaptionAIService.CaptionResponse aiResponse) {
+        return CaptionResponse.builder()
+            .legenda(aiResponse.legenda())
+            .hashtags(aiResponse.hashtags())
+            .callToAction(aiResponse.callToAction())
+            .engajamentoEstimado(aiResponse.engajamentoEstimado())
+            .build();
+    }
+
     /**
      * DTO for caption style options.
      */
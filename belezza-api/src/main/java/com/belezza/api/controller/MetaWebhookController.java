@@ -1,8 +1,10 @@
 package com.belezza.api.controller;
 
-import com.belezza.api.entity.Post;
-import com.belezza.api.entity.StatusPost;
-import com.belezza.api.repository.PostRepository;
+import com.belezza.api.security.WebhookSignatureVerifier;
+import com.belezza.api.service.PostEngagementService;
+import com.belezza.api.service.PostEngagementService.EngagementType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -11,8 +13,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Webhook controller for Meta Graph API callbacks.
@@ -25,7 +27,9 @@ import java.util.Optional;
 @Tag(name = "Webhooks", description = "Meta Graph API webhook endpoints")
 public class MetaWebhookController {
 
-    private final PostRepository postRepository;
+    private final PostEngagementService engagementService;
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final ObjectMapper objectMapper;
 
     @Value("${meta.webhook.verify-token:belezza_webhook_verify_token}")
     private String verifyToken;
@@ -61,6 +65,7 @@ public class MetaWebhookController {
     /**
      * Webhook events endpoint.
      * Receives notifications from Meta about post updates, metrics, etc.
+     * Engagement events only bump in-memory counters; {@link PostEngagementService} persists them in batches.
      */
     @PostMapping
     @Operation(
@@ -68,33 +73,36 @@ public class MetaWebhookController {
         description = "Receives event notifications from Meta (Instagram/Facebook). " +
                      "Processes post updates, metrics changes, and other events."
     )
-    public ResponseEntity<String> handleWebhook(@RequestBody Map<String, Object> payload) {
-        log.info("Webhook event received: {}", payload);
+    public ResponseEntity<String> handleWebhook(
+        @RequestBody String rawPayload,
+        @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature
+    ) {
+        if (!signatureVerifier.isValid(rawPayload, signature)) {
+            log.warn("Meta webhook rejected: invalid signature");
+            return ResponseEntity.status(403).body("Invalid signature");
+        }
 
         try {
-            // Parse webhook payload
+            Map<String, Object> payload = objectMapper.readValue(rawPayload, new TypeReference<>() {});
+            log.debug("Webhook event received: {}", payload);
+
             String object = (String) payload.get("object");
 
             if ("instagram".equals(object) || "page".equals(object)) {
                 // Process entries
-                if (payload.containsKey("entry")) {
-                    java.util.List<Map<String, Object>> entries =
-                        (java.util.List<Map<String, Object>>) payload.get("entry");
-
-                    for (Map<String, Object> entry : entries) {
-                        processEntry(entry);
+                if (payload.get("entry") instanceof List<?> entries) {
+                    for (Object entry : entries) {
+                        processEntry((Map<String, Object>) entry);
                     }
                 }
             }
 
-            // Always return 200 OK to acknowledge receipt
-            return ResponseEntity.ok("EVENT_RECEIVED");
-
         } catch (Exception e) {
             log.error("Error processing webhook: {}", e.getMessage(), e);
-            // Still return 200 to avoid retries
-            return ResponseEntity.ok("EVENT_RECEIVED");
         }
+
+        // Always return 200 OK to acknowledge receipt and avoid retries
+        return ResponseEntity.ok("EVENT_RECEIVED");
     }
 
     /**
@@ -102,18 +110,12 @@ public class MetaWebhookController {
      */
     private void processEntry(Map<String, Object> entry) {
         try {
-            String id = (String) entry.get("id");
-            Long time = (Long) entry.get("time");
-
-            log.debug("Processing entry: {} at {}", id, time);
+            log.debug("Processing entry: {} at {}", entry.get("id"), entry.get("time"));
 
             // Process changes
-            if (entry.containsKey("changes")) {
-                java.util.List<Map<String, Object>> changes =
-                    (java.util.List<Map<String, Object>>) entry.get("changes");
-
-                for (Map<String, Object> change : changes) {
-                    processChange(change);
+            if (entry.get("changes") instanceof List<?> changes) {
+                for (Object change : changes) {
+                    processChange((Map<String, Object>) change);
                 }
             }
 
@@ -130,31 +132,16 @@ public class MetaWebhookController {
             String field = (String) change.get("field");
             Map<String, Object> value = (Map<String, Object>) change.get("value");
 
-            log.debug("Processing change - Field: {}, Value: {}", field, value);
+            if (field == null || value == null) {
+                return;
+            }
 
             switch (field) {
-                case "comments":
-                    handleCommentEvent(value);
-                    break;
-
-                case "likes":
-                    handleLikeEvent(value);
-                    break;
-
-                case "shares":
-                    handleShareEvent(value);
-                    break;
-
-                case "reactions":
-                    handleReactionEvent(value);
-                    break;
-
-                case "feed":
-                    handleFeedEvent(value);
-                    break;
-
-                default:
-                    log.debug("Unhandled field type: {}", field);
+                case "comments" -> recordEngagement(value, EngagementType.COMENTARIO);
+                case "likes", "reactions" -> recordEngagement(value, EngagementType.CURTIDA);
+                case "shares" -> recordEngagement(value, EngagementType.COMPARTILHAMENTO);
+                case "feed" -> handleFeedEvent(value);
+                default -> log.debug("Unhandled field type: {}", field);
             }
 
         } catch (Exception e) {
@@ -163,105 +150,66 @@ public class MetaWebhookController {
     }
 
     /**
-     * Handle comment events.
+     * Handle feed events (Page posts, comments, reactions and shares).
      */
-    private void handleCommentEvent(Map<String, Object> value) {
-        log.info("Comment event received: {}", value);
-
-        String postId = extractPostId(value);
-        if (postId != null) {
-            updatePostMetric(postId, "comentarios", 1);
-        }
-    }
-
-    /**
-     * Handle like events.
-     */
-    private void handleLikeEvent(Map<String, Object> value) {
-        log.info("Like event received: {}", value);
-
-        String postId = extractPostId(value);
-        if (postId != null) {
-            updatePostMetric(postId, "curtidas", 1);
-        }
-    }
-
-    /**
-     * Handle share events.
-     */
-    private void handleShareEvent(Map<String, Object> value) {
-        log.info("Share event received: {}", value);
+    private void handleFeedEvent(Map<String, Object> value) {
+        String item = (String) value.get("item");
 
-        String postId = extractPostId(value);
-        if (postId != null) {
-            updatePostMetric(postId, "compartilhamentos", 1);
+        if (item == null) {
+            return;
         }
-    }
 
-    /**
-     * Handle reaction events.
-     */
-    private void handleReactionEvent(Map<String, Object> value) {
-        log.info("Reaction event received: {}", value);
-
-        String postId = extractPostId(value);
-        if (postId != null) {
-            updatePostMetric(postId, "curtidas", 1);
+        switch (item) {
+            case "comment" -> recordEngagement(value, EngagementType.COMENTARIO);
+            case "reaction", "like" -> recordEngagement(value, EngagementType.CURTIDA);
+            case "share" -> recordEngagement(value, EngagementType.COMPARTILHAMENTO);
+            default -> log.debug("Feed event {} {} for post {}", item, value.get("verb"), extractPostId(value));
         }
     }
 
     /**
-     * Handle feed events (post published, deleted, etc).
+     * Count one engagement event: "add" counts, "remove"/"delete" (unlike, deleted comment) subtract.
+     * Instagram fields carry no verb and only notify new items. Other verbs (edited, edit, hide,
+     * unhide) change an existing reaction or comment and are ignored.
      */
-    private void handleFeedEvent(Map<String, Object> value) {
-        log.info("Feed event received: {}", value);
-
-        String verb = (String) value.get("verb");
+    private void recordEngagement(Map<String, Object> value, EngagementType type) {
         String postId = extractPostId(value);
-
         if (postId == null) {
             return;
         }
 
-        if ("add".equals(verb)) {
-            log.info("Post published confirmation for: {}", postId);
+        String verb = (String) value.get("verb");
+        int delta;
+        if (verb == null || "add".equals(verb)) {
+            delta = 1;
         } else if ("remove".equals(verb) || "delete".equals(verb)) {
-            log.info("Post removed: {}", postId);
+            delta = -1;
+        } else {
+            log.debug("Ignoring {} {} for post {}", type, verb, postId);
+            return;
         }
+
+        engagementService.record(postId, type, delta);
     }
 
     /**
      * Extract post ID from webhook value.
      */
     private String extractPostId(Map<String, Object> value) {
+        // Instagram comments carry the media as a nested object; "id" is the comment id
+        if (value.get("media") instanceof Map<?, ?> media && media.get("id") != null) {
+            return String.valueOf(media.get("id"));
+        }
         // Try different field names used by Meta
         if (value.containsKey("media_id")) {
-            return (String) value.get("media_id");
+            return String.valueOf(value.get("media_id"));
         }
         if (value.containsKey("post_id")) {
-            return (String) value.get("post_id");
+            return String.valueOf(value.get("post_id"));
         }
         if (value.containsKey("id")) {
-            return (String) value.get("id");
+            return String.valueOf(value.get("id"));
         }
         return null;
     }
-
-    /**
-     * Update post metric by incrementing the counter.
-     */
-    private void updatePostMetric(String externalPostId, String metricType, int increment) {
-        try {
-            // Note: We would need to store externalPostId in Post entity to map properly
-            // For now, log the update request
-            log.info("Metric update requested - Post: {}, Type: {}, Increment: {}",
-                externalPostId, metricType, increment);
-
-            // Future enhancement: Add external_post_id column to posts table
-            // and query by that to update metrics
-
-        } catch (Exception e) {
-            log.error("Error updating post metric: {}", e.getMessage());
-        }
-    }
 }
@@ -1,5 +1,6 @@
 package com.belezza.api.controller;
 
+import com.belezza.api.dto.CursorPage;
 import com.belezza.api.dto.post.PostCreateRequest;
 import com.belezza.api.dto.post.PostResponse;
 import com.belezza.api.dto.post.PostScheduleRequest;
@@ -134,6 +135,25 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Authenticated
+    @Operation(
+        summary = "List posts by cursor",
+        description = "List posts for a salon with keyset pagination, most recent first, and optional status filter. " +
+                      "The total is only counted with incluirTotal."
+    )
+    public ResponseEntity<CursorPage<PostResponse>> listPostsCursor(
+        @Parameter(description = "Salon ID") @RequestParam Long salonId,
+        @Parameter(description = "Filter by status") @RequestParam(required = false) StatusPost status,
+        @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "false") boolean incluirTotal
+    ) {
+        log.info("List posts by cursor for salon: {} with status: {}", salonId, status);
+
+        return ResponseEntity.ok(postService.listPosts(salonId, status, cursor, size, incluirTotal));
+    }
+
     @DeleteMapping("/{id}")
     @Authenticated
     @Operation(
@@ -1,5 +1,6 @@
 package com.belezza.api.controller;
 
+import com.belezza.api.dto.CursorPage;
 import com.belezza.api.dto.whatsapp.WhatsAppMessageResponse;
 import com.belezza.api.dto.whatsapp.WhatsAppSendRequest;
 import com.belezza.api.entity.WhatsAppMessage;
@@ -7,6 +8,7 @@ import com.belezza.api.entity.WhatsAppMessageStatus;
 import com.belezza.api.integration.WhatsAppService;
 import com.belezza.api.repository.WhatsAppMessageRepository;
 import com.belezza.api.security.annotation.ProfissionalOrAdmin;
+import com.belezza.api.util.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -54,6 +57,33 @@ public class WhatsAppMessageController {
         return ResponseEntity.ok(messages.map(WhatsAppMessageResponse::fromEntity));
     }
 
+    @GetMapping("/salon/{salonId}/cursor")
+    @ProfissionalOrAdmin
+    @Operation(summary = "Listar mensagens por salão (cursor)", description = "Lista as mensagens WhatsApp de um salão por cursor, das mais recentes às mais antigas, com filtro opcional por status; o total só é contado com incluirTotal")
+    public ResponseEntity<CursorPage<WhatsAppMessageResponse>> listarPorSalonCursor(
+            @PathVariable Long salonId,
+            @RequestParam(required = false) WhatsAppMessageStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean incluirTotal) {
+
+        KeysetCursor before = KeysetCursor.decode(cursor, true);
+        List<WhatsAppMessage> messages;
+        LongSupplier total;
+        if (status != null) {
+            messages = messageRepository.findBySalonIdAndStatusBefore(
+                    salonId, status, before.valor(), before.id(), CursorPage.request(size));
+            total = () -> messageRepository.countBySalonIdAndStatus(salonId, status);
+        } else {
+            messages = messageRepository.findBySalonIdBefore(salonId, before.valor(), before.id(), CursorPage.request(size));
+            total = () -> messageRepository.countBySalonId(salonId);
+        }
+
+        return ResponseEntity.ok(CursorPage.of(messages, size,
+                message -> KeysetCursor.of(message.getCriadoEm(), message.getId()),
+                WhatsAppMessageResponse::fromEntity, incluirTotal ? total : null));
+    }
+
     @GetMapping("/agendamento/{agendamentoId}")
     @ProfissionalOrAdmin
     @Operation(summary = "Listar mensagens por agendamento", description = "Lista todas as mensagens enviadas para um agendamento específico")
@@ -0,0 +1,65 @@
+package com.belezza.api.controller;
+
+import com.belezza.api.dto.whatsapp.WhatsAppTemplateRequest;
+import com.belezza.api.dto.whatsapp.WhatsAppTemplateResponse;
+import com.belezza.api.entity.TipoMensagemWhatsApp;
+import com.belezza.api.security.annotation.AdminOnly;
+import com.belezza.api.service.WhatsAppTemplateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for salon-specific WhatsApp notification texts.
+ * Always acts on the salon of the authenticated admin.
+ */
+@RestController
+@RequestMapping("/api/whatsapp/templates")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "WhatsApp Templates", description = "Personalização das mensagens WhatsApp do salão")
+public class WhatsAppTemplateController {
+
+    private final WhatsAppTemplateService templateService;
+
+    @GetMapping
+    @AdminOnly
+    @Operation(summary = "Listar templates", description = "Lista o texto atual de cada notificação WhatsApp do salão do admin")
+    public ResponseEntity<List<WhatsAppTemplateResponse>> listar(@AuthenticationPrincipal UserDetails userDetails) {
+        List<WhatsAppTemplateResponse> templates = templateService.listTemplates(userDetails.getUsername()).entrySet().stream()
+            .map(entry -> WhatsAppTemplateResponse.of(entry.getKey(), entry.getValue()))
+            .toList();
+        return ResponseEntity.ok(templates);
+    }
+
+    @PutMapping("/{tipo}")
+    @AdminOnly
+    @Operation(summary = "Personalizar template", description = "Define o texto de uma notificação usando variáveis {{nome}}")
+    public ResponseEntity<WhatsAppTemplateResponse> salvar(
+            @PathVariable TipoMensagemWhatsApp tipo,
+            @Valid @RequestBody WhatsAppTemplateRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        log.info("Salvando template WhatsApp {} para admin {}", tipo, userDetails.getUsername());
+        templateService.saveTemplate(userDetails.getUsername(), tipo, request.getConteudo());
+        return ResponseEntity.ok(WhatsAppTemplateResponse.of(tipo, request.getConteudo()));
+    }
+
+    @DeleteMapping("/{tipo}")
+    @AdminOnly
+    @Operation(summary = "Restaurar template padrão", description = "Remove o texto personalizado e volta a usar o padrão")
+    public ResponseEntity<Void> restaurar(
+            @PathVariable TipoMensagemWhatsApp tipo,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        templateService.resetTemplate(userDetails.getUsername(), tipo);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,10 @@
 package com.belezza.api.controller;
 
-import com.belezza.api.entity.WhatsAppMessage;
-import com.belezza.api.entity.WhatsAppMessageStatus;
-import com.belezza.api.repository.WhatsAppMessageRepository;
+import com.belezza.api.dto.whatsapp.WhatsAppWebhookPayload;
+import com.belezza.api.security.WebhookSignatureVerifier;
+import com.belezza.api.service.WhatsAppStatusService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +13,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Webhook controller for WhatsApp Business API callbacks.
@@ -26,7 +27,9 @@ import java.util.Map;
 @Tag(name = "Webhooks", description = "WhatsApp webhook endpoints")
 public class WhatsAppWebhookController {
 
-    private final WhatsAppMessageRepository messageRepository;
+    private final WhatsAppStatusService statusService;
+    private final WebhookSignatureVerifier signatureVerifier;
+    private final ObjectMapper objectMapper;
 
     @Value("${whatsapp.webhook-verify-token:belezza_whatsapp_verify}")
     private String verifyToken;
@@ -61,158 +64,69 @@ public class WhatsAppWebhookController {
 
     /**
      * Webhook events endpoint.
-     * Receives status updates from WhatsApp about message delivery.
+     * Verifies the signature, enqueues status updates and acknowledges immediately;
+     * {@link WhatsAppStatusService} applies them to the database in batches.
      */
     @PostMapping
     @Operation(
         summary = "Receive webhook events",
         description = "Receives status notifications from WhatsApp (sent, delivered, read, failed). " +
-                     "Updates message status in the database."
+                     "Updates are queued and applied to the database asynchronously."
     )
-    public ResponseEntity<String> handleWebhook(@RequestBody Map<String, Object> payload) {
-        log.info("WhatsApp webhook event received: {}", payload);
-
-        try {
-            // Parse webhook payload
-            String object = (String) payload.get("object");
-
-            if ("whatsapp_business_account".equals(object)) {
-                // Process entries
-                if (payload.containsKey("entry")) {
-                    List<Map<String, Object>> entries =
-                        (List<Map<String, Object>>) payload.get("entry");
-
-                    for (Map<String, Object> entry : entries) {
-                        processEntry(entry);
-                    }
-                }
-            }
-
-            // Always return 200 OK to acknowledge receipt
-            return ResponseEntity.ok("EVENT_RECEIVED");
-
-        } catch (Exception e) {
-            log.error("Error processing WhatsApp webhook: {}", e.getMessage(), e);
-            // Still return 200 to avoid retries
-            return ResponseEntity.ok("EVENT_RECEIVED");
+    public ResponseEntity<String> handleWebhook(
+        @RequestBody String rawPayload,
+        @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature
+    ) {
+        if (!signatureVerifier.isValid(rawPayload, signature)) {
+            log.warn("WhatsApp webhook rejected: invalid signature");
+            return ResponseEntity.status(403).body("Invalid signature");
         }
-    }
 
-    /**
-     * Process a single webhook entry.
-     */
-    private void processEntry(Map<String, Object> entry) {
         try {
-            String id = (String) entry.get("id");
-
-            log.debug("Processing WhatsApp entry: {}", id);
+            WhatsAppWebhookPayload payload = objectMapper.readValue(rawPayload, WhatsAppWebhookPayload.class);
 
-            // Process changes
-            if (entry.containsKey("changes")) {
-                List<Map<String, Object>> changes =
-                    (List<Map<String, Object>>) entry.get("changes");
+            if ("whatsapp_business_account".equals(payload.object())) {
+                List<WhatsAppWebhookPayload.Status> statuses = extractStatuses(payload);
 
-                for (Map<String, Object> change : changes) {
-                    processChange(change);
+                if (!statuses.isEmpty()) {
+                    int accepted = statusService.enqueue(statuses);
+                    log.debug("WhatsApp webhook: {} status updates queued", accepted);
                 }
             }
 
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid WhatsApp webhook payload: {}", e.getOriginalMessage());
         } catch (Exception e) {
-            log.error("Error processing WhatsApp entry: {}", e.getMessage(), e);
+            log.error("Error processing WhatsApp webhook: {}", e.getMessage(), e);
         }
+
+        // Always return 200 OK to acknowledge receipt and avoid retries
+        return ResponseEntity.ok("EVENT_RECEIVED");
     }
 
     /**
-     * Process a single change event.
+     * Collect the status notifications of all "messages" changes in the payload.
      */
-    private void processChange(Map<String, Object> change) {
-        try {
-            String field = (String) change.get("field");
-            Map<String, Object> value = (Map<String, Object>) change.get("value");
-
-            log.debug("Processing WhatsApp change - Field: {}, Value: {}", field, value);
+    private List<WhatsAppWebhookPayload.Status> extractStatuses(WhatsAppWebhookPayload payload) {
+        if (payload.entry() == null) {
+            return List.of();
+        }
 
-            if ("messages".equals(field)) {
-                // Handle message status updates
-                if (value.containsKey("statuses")) {
-                    List<Map<String, Object>> statuses =
-                        (List<Map<String, Object>>) value.get("statuses");
+        List<WhatsAppWebhookPayload.Status> statuses = new ArrayList<>();
 
-                    for (Map<String, Object> status : statuses) {
-                        handleStatusUpdate(status);
-                    }
+        for (WhatsAppWebhookPayload.Entry entry : payload.entry()) {
+            if (entry.changes() == null) {
+                continue;
+            }
+            for (WhatsAppWebhookPayload.Change change : entry.changes()) {
+                if ("messages".equals(change.field())
+                    && change.value() != null
+                    && change.value().statuses() != null) {
+                    statuses.addAll(change.value().statuses());
                 }
             }
-
-        } catch (Exception e) {
-            log.error("Error processing WhatsApp change: {}", e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Handle message status update.
-     */
-    private void handleStatusUpdate(Map<String, Object> status) {
-        try {
-            String messageId = (String) status.get("id");
-            String statusValue = (String) status.get("status");
-            Long timestamp = (Long) status.get("timestamp");
-
-            log.info("WhatsApp status update - Message: {}, Status: {}, Timestamp: {}",
-                messageId, statusValue, timestamp);
-
-            // Find message in database
-            messageRepository.findByMessageId(messageId).ifPresent(message -> {
-                updateMessageStatus(message, statusValue, timestamp);
-            });
-
-        } catch (Exception e) {
-            log.error("Error handling WhatsApp status update: {}", e.getMessage(), e);
         }
-    }
-
-    /**
-     * Update message status in database.
-     */
-    private void updateMessageStatus(WhatsAppMessage message, String statusValue, Long timestamp) {
-        try {
-            LocalDateTime statusTime = timestamp != null
-                ? LocalDateTime.ofEpochSecond(timestamp, 0, java.time.ZoneOffset.UTC)
-                : LocalDateTime.now();
-
-            switch (statusValue) {
-                case "sent":
-                    message.setStatus(WhatsAppMessageStatus.SENT);
-                    break;
-
-                case "delivered":
-                    message.setStatus(WhatsAppMessageStatus.DELIVERED);
-                    message.setEntregueEm(statusTime);
-                    log.info("Mensagem {} entregue", message.getMessageId());
-                    break;
-
-                case "read":
-                    message.setStatus(WhatsAppMessageStatus.READ);
-                    message.setLidoEm(statusTime);
-                    log.info("Mensagem {} lida", message.getMessageId());
-                    break;
-
-                case "failed":
-                    message.setStatus(WhatsAppMessageStatus.FAILED);
-                    // Extract error message if available
-                    // (error info would be in the status object)
-                    log.warn("Mensagem {} falhou", message.getMessageId());
-                    break;
-
-                default:
-                    log.warn("Status WhatsApp desconhecido: {}", statusValue);
-            }
-
-            messageRepository.save(message);
-            log.debug("Status da mensagem atualizado: {} -> {}", message.getMessageId(), statusValue);
 
-        } catch (Exception e) {
-            log.error("Erro ao atualizar status da mensagem: {}", e.getMessage(), e);
-        }
+        return statuses;
     }
 }
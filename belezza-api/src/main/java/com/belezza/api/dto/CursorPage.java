@@ -0,0 +1,66 @@
+package com.belezza.api.dto;
+
+import com.belezza.api.util.KeysetCursor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Page of a keyset-paginated listing.
+ *
+ * {@code nextCursor} is passed back as {@code cursor} to read the following page. The total is
+ * only counted when the client asks for it, since counting scans every matching row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    /**
+     * Limit for the page query: one row more than the page, to know whether another page follows.
+     */
+    public static Pageable request(int size) {
+        return PageRequest.ofSize(clamp(size) + 1);
+    }
+
+    /**
+     * Build the page from the rows read with {@link #request(int)}.
+     *
+     * @param cursor position of a row, for the next cursor
+     * @param total  counts all matching rows; null to skip the count
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, KeysetCursor> cursor,
+                                          Function<E, T> mapper, LongSupplier total) {
+        int limit = clamp(size);
+        boolean hasNext = rows.size() > limit;
+        List<E> page = hasNext ? rows.subList(0, limit) : rows;
+
+        return new CursorPage<>(
+            page.stream().map(mapper).toList(),
+            limit,
+            hasNext,
+            hasNext ? cursor.apply(page.get(page.size() - 1)).encode() : null,
+            total != null ? total.getAsLong() : null);
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(MAX_SIZE, size));
+    }
+}
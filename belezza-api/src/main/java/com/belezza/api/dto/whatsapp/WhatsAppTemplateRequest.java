@@ -0,0 +1,22 @@
+package com.belezza.api.dto.whatsapp;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for customising a WhatsApp notification text.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhatsAppTemplateRequest {
+
+    @NotBlank(message = "Conteúdo é obrigatório")
+    @Size(max = 2000, message = "Conteúdo deve ter no máximo 2000 caracteres")
+    private String conteudo;
+}
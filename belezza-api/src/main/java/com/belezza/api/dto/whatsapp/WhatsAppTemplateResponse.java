@@ -0,0 +1,33 @@
+package com.belezza.api.dto.whatsapp;
+
+import com.belezza.api.entity.TipoMensagemWhatsApp;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a salon's WhatsApp notification text.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhatsAppTemplateResponse {
+
+    private TipoMensagemWhatsApp tipo;
+    private String descricao;
+    private String conteudo;
+    private List<String> variaveis;
+
+    public static WhatsAppTemplateResponse of(TipoMensagemWhatsApp tipo, String conteudo) {
+        return WhatsAppTemplateResponse.builder()
+            .tipo(tipo)
+            .descricao(tipo.getDescription())
+            .conteudo(conteudo)
+            .variaveis(tipo.getVariaveis())
+            .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.belezza.api.dto.whatsapp;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Typed view of the WhatsApp Cloud API webhook payload.
+ * Only the fields used for status tracking are mapped; everything else is ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record WhatsAppWebhookPayload(
+    String object,
+    List<Entry> entry
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Entry(
+        String id,
+        List<Change> changes
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Change(
+        String field,
+        Value value
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Value(
+        List<Status> statuses
+    ) {}
+
+    /**
+     * Delivery status notification. Meta sends the timestamp as epoch seconds in a string.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Status(
+        String id,
+        String status,
+        String timestamp,
+        @JsonProperty("recipient_id") String recipientId,
+        List<Error> errors
+    ) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Error(
+        Integer code,
+        String title,
+        String message
+    ) {}
+}
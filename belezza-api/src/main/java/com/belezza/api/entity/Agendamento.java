@@ -2,6 +2,7 @@ package com.belezza.api.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,14 +18,19 @@ import java.util.List;
  */
 @Entity
 @Table(name = "agendamentos", indexes = {
-    @Index(name = "idx_agendamento_cliente", columnList = "cliente_id"),
-    @Index(name = "idx_agendamento_profissional", columnList = "profissional_id"),
     @Index(name = "idx_agendamento_servico", columnList = "servico_id"),
-    @Index(name = "idx_agendamento_salon", columnList = "salon_id"),
-    @Index(name = "idx_agendamento_status", columnList = "status"),
     @Index(name = "idx_agendamento_data_hora", columnList = "data_hora"),
-    @Index(name = "idx_agendamento_token", columnList = "token_confirmacao")
+    @Index(name = "idx_agendamento_token", columnList = "token_confirmacao"),
+    @Index(name = "idx_agendamento_salon_data_hora", columnList = "salon_id, data_hora, id"),
+    @Index(name = "idx_agendamento_cliente_data_hora", columnList = "cliente_id, data_hora, id"),
+    @Index(name = "idx_agendamento_profissional_data_hora", columnList = "profissional_id, data_hora, id")
 })
+@NamedEntityGraph(name = Agendamento.GRAPH_LISTAGEM, attributeNodes = {
+    @NamedAttributeNode("salon"),
+    @NamedAttributeNode(value = "cliente", subgraph = "usuario"),
+    @NamedAttributeNode(value = "profissional", subgraph = "usuario"),
+    @NamedAttributeNode("servico")
+}, subgraphs = @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("usuario")))
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -33,6 +39,12 @@ import java.util.List;
 @AllArgsConstructor
 public class Agendamento {
 
+    /**
+     * Everything {@link com.belezza.api.dto.agendamento.AgendamentoResponse} reads except the
+     * services list, which is a collection and cannot be fetch-joined into a paged query.
+     */
+    public static final String GRAPH_LISTAGEM = "Agendamento.listagem";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -64,6 +76,7 @@ public class Agendamento {
      */
     @OneToMany(mappedBy = "agendamento", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("ordem ASC")
+    @BatchSize(size = 100)
     @Builder.Default
     private List<AgendamentoServico> servicos = new ArrayList<>();
 
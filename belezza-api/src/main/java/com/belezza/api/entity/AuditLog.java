@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_audit_usuario", columnList = "usuario_id"),
     @Index(name = "idx_audit_entidade", columnList = "entidade, entidade_id"),
     @Index(name = "idx_audit_acao", columnList = "acao"),
-    @Index(name = "idx_audit_criado_em", columnList = "criado_em")
+    @Index(name = "idx_audit_criado_em_id", columnList = "criado_em, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
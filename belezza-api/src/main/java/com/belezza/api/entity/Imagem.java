@@ -67,6 +67,9 @@ public class Imagem {
     @Column(length = 200)
     private String descricao;
 
+    @Column(length = 64)
+    private String hashConteudo; // SHA-256 of the original, shared with identical uploads
+
     @Column(nullable = false)
     @Builder.Default
     private int totalVersoes = 1;
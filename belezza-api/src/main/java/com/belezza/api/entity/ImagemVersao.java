@@ -50,6 +50,9 @@ public class ImagemVersao {
     @Column(nullable = false)
     private int altura;
 
+    @Column(length = 64)
+    private String hashConteudo; // SHA-256 of renditions stored in S3; null for external AI results
+
     @Column(nullable = false)
     @Builder.Default
     private int numeroVersao = 1;
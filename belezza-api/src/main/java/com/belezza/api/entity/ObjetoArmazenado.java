@@ -0,0 +1,50 @@
+package com.belezza.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * S3 object addressed by the SHA-256 of its content.
+ * Images and versions with the same content share the object; it is deleted when no longer referenced.
+ */
+@Entity
+@Table(name = "objetos_armazenados", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_objeto_hash", columnNames = "hash"),
+    @UniqueConstraint(name = "uk_objeto_chave", columnNames = "chave")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObjetoArmazenado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 500)
+    private String chave;
+
+    @Column(nullable = false)
+    private Long tamanhoBytes;
+
+    @Column(nullable = false, length = 50)
+    private String tipoMime;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int referencias = 1;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+}
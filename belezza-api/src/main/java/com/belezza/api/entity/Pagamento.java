@@ -14,8 +14,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "pagamentos", indexes = {
     @Index(name = "idx_pagamento_agendamento", columnList = "agendamento_id"),
-    @Index(name = "idx_pagamento_salon", columnList = "salon_id"),
-    @Index(name = "idx_pagamento_status", columnList = "status")
+    @Index(name = "idx_pagamento_salon_status_processado", columnList = "salon_id, status, processado_em")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
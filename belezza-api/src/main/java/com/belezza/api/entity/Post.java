@@ -15,10 +15,11 @@ import java.util.List;
  */
 @Entity
 @Table(name = "posts", indexes = {
-    @Index(name = "idx_post_salon", columnList = "salon_id"),
     @Index(name = "idx_post_criador", columnList = "criador_id"),
     @Index(name = "idx_post_status", columnList = "status"),
-    @Index(name = "idx_post_agendado_para", columnList = "agendado_para")
+    @Index(name = "idx_post_agendado_para", columnList = "agendado_para"),
+    @Index(name = "idx_post_salon_criado_em", columnList = "salon_id, criado_em, id"),
+    @Index(name = "idx_post_salon_status_criado_em", columnList = "salon_id, status, criado_em, id")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -0,0 +1,92 @@
+package com.belezza.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publication of a post on a specific platform.
+ * Maps our post to the id Meta assigned to it, used by engagement webhooks and metrics sync,
+ * and tracks the publish state so retries only republish platforms that failed.
+ */
+@Entity
+@Table(name = "post_publicacoes", indexes = {
+    @Index(name = "idx_post_publicacao_post", columnList = "post_id"),
+    @Index(name = "idx_post_publicacao_external_id", columnList = "external_post_id"),
+    @Index(name = "idx_post_publicacao_publicado_em", columnList = "publicado_em")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_post_publicacao_post_plataforma", columnNames = {"post_id", "plataforma"}),
+    @UniqueConstraint(name = "uk_post_publicacao_idempotency_key", columnNames = {"idempotency_key"})
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPublicacao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", nullable = false)
+    private Post post;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PlataformaSocial plataforma;
+
+    @Column(name = "external_post_id", length = 100)
+    private String externalPostId;
+
+    private LocalDateTime publicadoEm;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusPublicacao status = StatusPublicacao.PENDENTE;
+
+    // Attempt currently allowed to publish; set when the publication is claimed
+    @Column(name = "idempotency_key", length = 36)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int tentativas = 0;
+
+    @Column(length = 500)
+    private String erro;
+
+    // Platform metrics from the last Graph API sync; posts hold the totals across platforms
+    @Column(nullable = false)
+    @Builder.Default
+    private int curtidas = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int comentarios = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int compartilhamentos = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int alcance = 0;
+
+    private LocalDateTime metricasAtualizadasEm;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+}
@@ -2,6 +2,7 @@ package com.belezza.api.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -11,6 +12,8 @@ import java.time.LocalDateTime;
 
 /**
  * Service offered by a salon (e.g., haircut, manicure).
+ * Lazy references to services are loaded in batches, so listing appointments
+ * with their services costs one query for all of them.
  */
 @Entity
 @Table(name = "servicos", indexes = {
@@ -19,6 +22,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_servico_ativo", columnList = "ativo")
 })
 @EntityListeners(AuditingEntityListener.class)
+@BatchSize(size = 100)
 @Getter
 @Setter
 @Builder
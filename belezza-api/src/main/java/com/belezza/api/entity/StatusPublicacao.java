@@ -0,0 +1,22 @@
+package com.belezza.api.entity;
+
+/**
+ * Status of a post's publication on a single platform.
+ */
+public enum StatusPublicacao {
+
+    PENDENTE("Pendente"),
+    PUBLICANDO("Publicando"),
+    PUBLICADO("Publicado"),
+    FALHOU("Falhou");
+
+    private final String description;
+
+    StatusPublicacao(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,37 @@
+package com.belezza.api.entity;
+
+import java.util.List;
+
+/**
+ * WhatsApp notification types whose text a salon can customise.
+ * Each type lists the variables its template may use, in the order they are rendered.
+ */
+public enum TipoMensagemWhatsApp {
+
+    CONFIRMACAO_AGENDAMENTO("Confirmação de agendamento",
+        List.of("nome", "data", "hora", "servico", "profissional", "endereco", "linkConfirmacao", "linkCancelamento")),
+    LEMBRETE_24H("Lembrete 24h antes",
+        List.of("nome", "data", "hora", "servico", "linkConfirmacao", "linkCancelamento")),
+    LEMBRETE_2H("Lembrete 2h antes",
+        List.of("nome", "hora", "servico", "endereco")),
+    POS_ATENDIMENTO("Pós-atendimento",
+        List.of("nome", "linkAvaliacao")),
+    CANCELAMENTO("Cancelamento",
+        List.of("nome", "data", "hora", "servico", "motivo", "linkReagendar"));
+
+    private final String description;
+    private final List<String> variaveis;
+
+    TipoMensagemWhatsApp(String description, List<String> variaveis) {
+        this.description = description;
+        this.variaveis = variaveis;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<String> getVariaveis() {
+        return variaveis;
+    }
+}
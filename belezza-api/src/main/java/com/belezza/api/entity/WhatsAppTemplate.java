@@ -0,0 +1,49 @@
+package com.belezza.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Salon-specific text for a WhatsApp notification.
+ * Salons without a row for a type use the default text.
+ */
+@Entity
+@Table(name = "whatsapp_templates", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_whatsapp_template_salon_tipo", columnNames = {"salon_id", "tipo"})
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WhatsAppTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "salon_id", nullable = false)
+    private Salon salon;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoMensagemWhatsApp tipo;
+
+    @Column(nullable = false, length = 2000)
+    private String conteudo;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+
+    @LastModifiedDate
+    @Column(nullable = false)
+    private LocalDateTime atualizadoEm;
+}
@@ -2,25 +2,39 @@ package com.belezza.api.integration;
 
 import com.belezza.api.entity.PlataformaSocial;
 import com.belezza.api.entity.TipoServico;
+import com.belezza.api.exception.RateLimitExceededException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for AI-powered caption generation using OpenAI API.
  * Generates engaging social media captions tailored to beauty salons.
+ *
+ * All calls share one WebClient (and its connection pool) and a token bucket per API key,
+ * so concurrent requests cannot exceed the provider's request rate. Variations are asked for
+ * in a single completion with {@code n} choices.
  */
 @Service
 @Slf4j
@@ -36,9 +50,24 @@ public class CaptionAIService {
     @Value("${belezza.ai.openai.api-url:https://api.openai.com/v1}")
     private String apiUrl;
 
+    @Value("${belezza.ai.openai.requests-per-minute:60}")
+    private int requestsPerMinute = 60;
+
+    @Value("${belezza.ai.openai.max-concurrency:4}")
+    private int maxConcurrency = 4;
+
+    @Value("${belezza.ai.openai.rate-limit-max-wait-ms:5000}")
+    private long rateLimitMaxWaitMillis = 5000;
+
     private final ObjectMapper objectMapper;
 
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private volatile WebClient webClient;
+
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String STREAM_DONE = "[DONE]";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+        new ParameterizedTypeReference<>() {};
 
     /**
      * Generate a caption for a social media post.
@@ -55,39 +84,11 @@ public class CaptionAIService {
         String prompt = buildPrompt(request);
 
         try {
-            WebClient webClient = WebClient.builder()
-                .baseUrl(apiUrl)
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .build();
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("messages", List.of(
-                Map.of("role", "system", "content", getSystemPrompt()),
-                Map.of("role", "user", "content", prompt)
-            ));
-            requestBody.put("temperature", 0.7);
-            requestBody.put("max_tokens", 500);
-
-            String responseJson = webClient.post()
-                .uri("/chat/completions")
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(TIMEOUT)
-                .block();
-
-            JsonNode responseNode = objectMapper.readTree(responseJson);
-            String content = responseNode
-                .get("choices")
-                .get(0)
-                .get("message")
-                .get("content")
-                .asText();
-
-            return parseResponse(content);
+            JsonNode responseNode = complete(prompt, 1).block();
+            return parseChoice(responseNode.get("choices").get(0));
 
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error generating caption: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate caption: " + e.getMessage(), e);
@@ -96,27 +97,192 @@ public class CaptionAIService {
 
     /**
      * Generate multiple caption variations.
+     * One completion returns all of them as choices; if the model returns fewer (some models
+     * and proxies ignore {@code n}), the rest are requested concurrently, up to the configured
+     * concurrency. Failed variations are left out.
      *
      * @param request the caption generation request
      * @param count   number of variations to generate
      * @return list of caption responses
      */
     public List<CaptionResponse> generateVariations(CaptionRequest request, int count) {
+        validateApiKey();
+
+        log.info("Generating {} caption variations for platform: {}", count, request.plataforma());
+
+        String prompt = buildPrompt(request);
         List<CaptionResponse> variations = new ArrayList<>();
 
-        for (int i = 0; i < count; i++) {
-            try {
-                CaptionResponse response = generate(request);
-                variations.add(response);
-                Thread.sleep(500); // Rate limiting
-            } catch (Exception e) {
-                log.error("Error generating variation {}: {}", i + 1, e.getMessage());
+        try {
+            JsonNode responseNode = complete(prompt, count).block();
+            for (JsonNode choice : responseNode.get("choices")) {
+                if (variations.size() < count) {
+                    variations.add(parseChoice(choice));
+                }
             }
+        } catch (RateLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error generating variations: {}", e.getMessage());
+        }
+
+        int missing = count - variations.size();
+        if (missing > 0) {
+            log.debug("Completion returned {} of {} variations, requesting {} more", variations.size(), count, missing);
+            List<CaptionResponse> extra = Flux.range(0, missing)
+                .flatMap(i -> complete(prompt, 1)
+                    .map(responseNode -> parseChoice(responseNode.get("choices").get(0)))
+                    .onErrorResume(e -> {
+                        log.error("Error generating variation: {}", e.getMessage());
+                        return Mono.empty();
+                    }), Math.max(1, maxConcurrency))
+                .collectList()
+                .block();
+            variations.addAll(extra);
         }
 
         return variations;
     }
 
+    /**
+     * Stream a caption as it is generated.
+     * Emits the caption text in fragments as the model writes it, then the parsed caption.
+     * The API key and rate limit are checked before the stream is returned, so those
+     * failures surface as exceptions rather than as stream errors.
+     *
+     * @param request the caption generation request
+     * @return fragments of the caption text, followed by a single completed event
+     */
+    public Flux<CaptionStreamEvent> generateStream(CaptionRequest request) {
+        validateApiKey();
+        acquireRequestPermit();
+
+        log.info("Streaming caption for platform: {}, service: {}, tone: {}",
+            request.plataforma(), request.tipoServico(), request.tom());
+
+        Map<String, Object> requestBody = requestBody(buildPrompt(request), 1);
+        requestBody.put("stream", true);
+
+        return Flux.defer(() -> {
+            CaptionStreamParser parser = new CaptionStreamParser();
+            return client().post()
+                .uri("/chat/completions")
+                .headers(headers -> headers.setBearerAuth(apiKey))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                .timeout(TIMEOUT)
+                .map(event -> event.data() != null ? event.data() : "")
+                .takeWhile(data -> !STREAM_DONE.equals(data))
+                .filter(data -> !data.isBlank())
+                .map(data -> parser.accept(deltaContent(readTree(data))))
+                .filter(text -> !text.isEmpty())
+                .map(CaptionStreamEvent::delta)
+                .concatWith(Mono.fromCallable(() -> {
+                    if (parser.content().isBlank()) {
+                        throw new IllegalStateException("Empty caption stream");
+                    }
+                    return CaptionStreamEvent.completed(parseResponse(parser.content()));
+                }));
+        });
+    }
+
+    private static String deltaContent(JsonNode chunk) {
+        JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : "";
+    }
+
+    /**
+     * Chat completion with {@code n} choices, after taking a token from the API key's bucket.
+     */
+    private Mono<JsonNode> complete(String prompt, int n) {
+        Map<String, Object> requestBody = requestBody(prompt, n);
+
+        // Waiting for a token blocks, so it runs off the event loop
+        return Mono.fromRunnable(this::acquireRequestPermit)
+            .subscribeOn(Schedulers.boundedElastic())
+            .then(client().post()
+                .uri("/chat/completions")
+                .headers(headers -> headers.setBearerAuth(apiKey))
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(TIMEOUT))
+            .map(this::readTree);
+    }
+
+    private Map<String, Object> requestBody(String prompt, int n) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", List.of(
+            Map.of("role", "system", "content", getSystemPrompt()),
+            Map.of("role", "user", "content", prompt)
+        ));
+        requestBody.put("temperature", 0.7);
+        requestBody.put("max_tokens", 500);
+        if (n > 1) {
+            requestBody.put("n", n);
+        }
+        return requestBody;
+    }
+
+    /**
+     * Take one request from the API key's bucket, waiting up to the configured maximum.
+     *
+     * @throws RateLimitExceededException if no request is available in time
+     */
+    private void acquireRequestPermit() {
+        Bucket bucket = buckets.computeIfAbsent(apiKey, key -> createBucket());
+        try {
+            if (!bucket.asBlocking().tryConsume(1, Duration.ofMillis(rateLimitMaxWaitMillis))) {
+                log.warn("OpenAI request rate limit reached ({} per minute)", requestsPerMinute);
+                throw new RateLimitExceededException(
+                    "Limite de requisições de legendas excedido. Tente novamente em alguns segundos.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for OpenAI rate limit", e);
+        }
+    }
+
+    private Bucket createBucket() {
+        int capacity = Math.max(1, requestsPerMinute);
+        Bandwidth limit = Bandwidth.builder()
+            .capacity(capacity)
+            .refillGreedy(capacity, Duration.ofMinutes(1))
+            .build();
+        return Bucket.builder().addLimit(limit).build();
+    }
+
+    private WebClient client() {
+        WebClient client = webClient;
+        if (client == null) {
+            synchronized (this) {
+                if (webClient == null) {
+                    webClient = WebClient.builder()
+                        .baseUrl(apiUrl)
+                        .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .build();
+                }
+                client = webClient;
+            }
+        }
+        return client;
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid OpenAI response", e);
+        }
+    }
+
+    private CaptionResponse parseChoice(JsonNode choice) {
+        return parseResponse(choice.get("message").get("content").asText());
+    }
+
     private String getSystemPrompt() {
         return """
             Você é um especialista em marketing digital para salões de beleza.
@@ -261,4 +427,22 @@ public class CaptionAIService {
         String callToAction,
         int engajamentoEstimado
     ) {}
+
+    /**
+     * Event of a streamed caption: a fragment of the caption text, or the completed caption.
+     */
+    public record CaptionStreamEvent(String delta, CaptionResponse caption) {
+
+        public static CaptionStreamEvent delta(String text) {
+            return new CaptionStreamEvent(text, null);
+        }
+
+        public static CaptionStreamEvent completed(CaptionResponse caption) {
+            return new CaptionStreamEvent(null, caption);
+        }
+
+        public boolean isCompleted() {
+            return caption != null;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.belezza.api.integration;
+
+/**
+ * Incremental reader of the caption text in a streamed completion.
+ *
+ * The model answers with a JSON object whose {@code legenda} field is the caption. Deltas split
+ * it at arbitrary points, even inside an escape sequence, so the raw content is accumulated and
+ * scanned from where the previous delta stopped: only the decoded characters of the
+ * {@code legenda} string are returned, as soon as they are complete.
+ */
+final class CaptionStreamParser {
+
+    private static final String FIELD = "\"legenda\"";
+
+    private enum State { SEEKING_FIELD, SEEKING_VALUE, IN_VALUE, DONE }
+
+    private final StringBuilder content = new StringBuilder();
+    private State state = State.SEEKING_FIELD;
+    private int position;
+
+    /**
+     * Add a delta of the completion.
+     *
+     * @return caption text decoded from it, possibly empty
+     */
+    String accept(String delta) {
+        content.append(delta);
+        StringBuilder decoded = new StringBuilder();
+
+        while (position < content.length() && state != State.DONE) {
+            switch (state) {
+                case SEEKING_FIELD -> {
+                    int found = content.indexOf(FIELD, position);
+                    if (found < 0) {
+                        // The field name may be split across deltas
+                        position = Math.max(position, content.length() - FIELD.length() + 1);
+                        return decoded.toString();
+                    }
+                    position = found + FIELD.length();
+                    state = State.SEEKING_VALUE;
+                }
+                case SEEKING_VALUE -> {
+                    char c = content.charAt(position++);
+                    if (c == '"') {
+                        state = State.IN_VALUE;
+                    } else if (c != ':' && !Character.isWhitespace(c)) {
+                        state = State.SEEKING_FIELD;
+                    }
+                }
+                case IN_VALUE -> {
+                    if (!readValueChar(decoded)) {
+                        return decoded.toString();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return decoded.toString();
+    }
+
+    /**
+     * Decode one character or escape sequence of the string value.
+     *
+     * @return false if the rest of an escape sequence has not arrived yet
+     */
+    private boolean readValueChar(StringBuilder decoded) {
+        char c = content.charAt(position);
+        if (c == '"') {
+            position++;
+            state = State.DONE;
+            return true;
+        }
+        if (c != '\\') {
+            decoded.append(c);
+            position++;
+            return true;
+        }
+
+        if (position + 1 >= content.length()) {
+            return false;
+        }
+        char escaped = content.charAt(position + 1);
+        if (escaped == 'u') {
+            if (position + 6 > content.length()) {
+                return false;
+            }
+            decoded.append((char) Integer.parseInt(content.substring(position + 2, position + 6), 16));
+            position += 6;
+            return true;
+        }
+        decoded.append(switch (escaped) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            default -> escaped;
+        });
+        position += 2;
+        return true;
+    }
+
+    /**
+     * Everything received so far.
+     */
+    String content() {
+        return content.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.belezza.api.integration;
+
+import com.belezza.api.util.ContentHash;
+
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageInputStreamImpl;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Downloaded image bytes, kept on the heap when small or spilled to a temporary file, with the
+ * SHA-256 computed while they were downloaded. Closing it deletes the temporary file.
+ */
+public final class DownloadedImage implements Closeable {
+
+    private final byte[] data;
+    private final Path file;
+    private final long size;
+    private final String contentHash;
+
+    private DownloadedImage(byte[] data, Path file, long size, String contentHash) {
+        this.data = data;
+        this.file = file;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    public static DownloadedImage inMemory(byte[] data) {
+        return inMemory(data, ContentHash.sha256(data));
+    }
+
+    static DownloadedImage inMemory(byte[] data, String contentHash) {
+        return new DownloadedImage(data, null, data.length, contentHash);
+    }
+
+    static DownloadedImage onDisk(Path file, long size, String contentHash) {
+        return new DownloadedImage(null, file, size, contentHash);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * SHA-256 of the downloaded bytes.
+     */
+    public String contentHash() {
+        return contentHash;
+    }
+
+    public boolean isOnDisk() {
+        return file != null;
+    }
+
+    /**
+     * Open a plain stream over the downloaded bytes.
+     */
+    public InputStream openStream() throws IOException {
+        return file == null ? new ByteArrayInputStream(data) : Files.newInputStream(file);
+    }
+
+    /**
+     * Open a stream for the image decoder. Spilled files are memory-mapped,
+     * so decoding does not copy them back onto the heap.
+     */
+    public ImageInputStream openImageStream() throws IOException {
+        if (file == null) {
+            return new MemoryCacheImageInputStream(new ByteArrayInputStream(data));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MappedImageInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Random-access image stream over a mapped file.
+     */
+    private static final class MappedImageInputStream extends ImageInputStreamImpl {
+
+        private final MappedByteBuffer buffer;
+
+        MappedImageInputStream(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            streamPos++;
+            return buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkClosed();
+            bitOffset = 0;
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            streamPos += count;
+            return count;
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            super.seek(pos);
+            buffer.position((int) Math.min(pos, buffer.limit()));
+        }
+
+        @Override
+        public long length() {
+            return buffer.limit();
+        }
+    }
+}
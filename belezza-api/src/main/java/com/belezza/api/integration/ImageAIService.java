@@ -88,7 +88,10 @@ public class ImageAIService {
      * @param imageUrl  the URL of the image
      * @param intensity blur intensity (1-100)
      * @return the URL of the image with blurred background
+     * @deprecated only removes the background; {@code ImageService} blurs and composites locally
+     *             with {@link com.belezza.api.util.ImageOperations}
      */
+    @Deprecated
     public String blurBackground(String imageUrl, int intensity) {
         validateApiToken();
 
@@ -112,7 +115,10 @@ public class ImageAIService {
      * @param imageUrl the URL of the image
      * @param style    the style to apply
      * @return the URL of the styled image
+     * @deprecated only enhances the image; {@code ImageService} applies the style's colour grade
+     *             locally with {@link com.belezza.api.util.ImageOperations}
      */
+    @Deprecated
     public String applyStyle(String imageUrl, StyleType style) {
         validateApiToken();
 
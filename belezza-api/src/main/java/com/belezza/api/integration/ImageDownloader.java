@@ -0,0 +1,150 @@
+package com.belezza.api.integration;
+
+import jakarta.annotation.PostConstruct;
+import com.belezza.api.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.time.Duration;
+
+/**
+ * Streams images from S3/CloudFront (or AI provider URLs) with a shared, pooled HTTP client.
+ *
+ * Downloads are capped in size and time. Small images stay on the heap; larger ones are
+ * spilled to a temporary file while streaming, so an upscaled result is never buffered whole.
+ * The content hash is computed on the same pass.
+ */
+@Component
+@Slf4j
+public class ImageDownloader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${belezza.image.download.max-bytes:52428800}")
+    private long maxBytes;
+
+    @Value("${belezza.image.download.memory-threshold-bytes:4194304}")
+    private long memoryThresholdBytes;
+
+    @Value("${belezza.image.download.connect-timeout-seconds:5}")
+    private long connectTimeoutSeconds;
+
+    @Value("${belezza.image.download.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    private HttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+
+    /**
+     * Download an image. The caller must close the result to release any temporary file.
+     *
+     * @param imageUrl the image URL
+     * @return the downloaded image
+     * @throws IOException if the request fails, times out or the image exceeds the size cap
+     */
+    public DownloadedImage download(String imageUrl) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(imageUrl))
+            .timeout(Duration.ofSeconds(timeoutSeconds))
+            .GET()
+            .build();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(timeoutSeconds).toNanos();
+
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Image download interrupted");
+        }
+
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Image download failed with status " + response.statusCode());
+            }
+
+            long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (contentLength > maxBytes) {
+                throw new IOException("Image exceeds maximum download size of " + maxBytes + " bytes");
+            }
+
+            return read(ContentHash.digesting(body), contentLength, deadline);
+        }
+    }
+
+    private DownloadedImage read(DigestInputStream body, long contentLength, long deadline) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        // Known large bodies go straight to disk; otherwise buffer until the threshold is crossed
+        ByteArrayOutputStream memory = null;
+        if (contentLength < 0 || contentLength <= memoryThresholdBytes) {
+            memory = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : BUFFER_SIZE);
+        }
+
+        Path file = null;
+        OutputStream out = memory;
+        long total = 0;
+
+        try {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new IOException("Image exceeds maximum download size of " + maxBytes + " bytes");
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("Image download timed out");
+                }
+
+                if (out == null || (file == null && total > memoryThresholdBytes)) {
+                    file = Files.createTempFile("belezza-download-", ".img");
+                    OutputStream fileOut = Files.newOutputStream(file);
+                    if (memory != null) {
+                        memory.writeTo(fileOut);
+                        memory = null;
+                    }
+                    out = fileOut;
+                }
+                out.write(buffer, 0, read);
+            }
+
+            String contentHash = ContentHash.finish(body);
+            if (file == null) {
+                return DownloadedImage.inMemory(memory != null ? memory.toByteArray() : new byte[0], contentHash);
+            }
+            out.close();
+            log.debug("Image download spilled to disk: {} bytes", total);
+            return DownloadedImage.onDisk(file, total, contentHash);
+
+        } catch (IOException | RuntimeException e) {
+            if (file != null) {
+                try {
+                    out.close();
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            }
+            throw e;
+        }
+    }
+}
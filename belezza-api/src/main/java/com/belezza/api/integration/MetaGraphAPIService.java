@@ -3,6 +3,8 @@ package com.belezza.api.integration;
 import com.belezza.api.entity.PlataformaSocial;
 import com.belezza.api.exception.BusinessException;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,16 +13,20 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for Meta Graph API integration (Instagram & Facebook).
- * Handles OAuth, media upload, and post publishing.
+ * Handles OAuth, media upload, post publishing, and metrics.
  */
 @Service
 @Slf4j
@@ -48,6 +54,24 @@ public class MetaGraphAPIService {
     private static final String OAUTH_URL = "https://www.facebook.com/v19.0/dialog/oauth";
     private static final String TOKEN_URL = "https://graph.facebook.com/v19.0/oauth/access_token";
 
+    /**
+     * Maximum number of sub-requests accepted by the Graph API batch endpoint.
+     */
+    public static final int MAX_BATCH_SIZE = 50;
+
+    /**
+     * Posts per metrics batch: each post takes a fields and an insights sub-request.
+     */
+    public static final int MAX_POSTS_PER_BATCH = MAX_BATCH_SIZE / 2;
+
+    private static final String INSTAGRAM_METRICS_FIELDS = "like_count,comments_count,media_url,timestamp";
+    private static final String FACEBOOK_METRICS_FIELDS = "likes.summary(true),comments.summary(true),shares";
+    private static final String INSTAGRAM_REACH_METRIC = "reach";
+    private static final String FACEBOOK_REACH_METRIC = "post_impressions_unique";
+
+    // Application, user, page and business use case throttling
+    private static final Set<Integer> RATE_LIMIT_ERROR_CODES = Set.of(4, 17, 32, 613, 80001, 80002);
+
     // ====================================
     // 7.1 OAuth Flow
     // ====================================
@@ -339,7 +363,7 @@ public class MetaGraphAPIService {
         try {
             String url = buildApiUrl("/" + postId);
             url = UriComponentsBuilder.fromHttpUrl(url)
-                .queryParam("fields", "like_count,comments_count,media_url,timestamp")
+                .queryParam("fields", INSTAGRAM_METRICS_FIELDS)
                 .queryParam("access_token", accessToken)
                 .build()
                 .toUriString();
@@ -347,14 +371,7 @@ public class MetaGraphAPIService {
             ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-
-                return PostMetrics.builder()
-                    .likes((Integer) body.getOrDefault("like_count", 0))
-                    .comments((Integer) body.getOrDefault("comments_count", 0))
-                    .shares(0) // Instagram API doesn't provide shares
-                    .reach(0) // Requires additional API call to insights
-                    .build();
+                return parseInstagramMetrics(response.getBody());
             }
 
             return PostMetrics.builder().build();
@@ -372,7 +389,7 @@ public class MetaGraphAPIService {
         try {
             String url = buildApiUrl("/" + postId);
             url = UriComponentsBuilder.fromHttpUrl(url)
-                .queryParam("fields", "likes.summary(true),comments.summary(true),shares")
+                .queryParam("fields", FACEBOOK_METRICS_FIELDS)
                 .queryParam("access_token", accessToken)
                 .build()
                 .toUriString();
@@ -380,41 +397,128 @@ public class MetaGraphAPIService {
             ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
+                return parseFacebookMetrics(response.getBody());
+            }
+
+            return PostMetrics.builder().build();
+
+        } catch (RestClientException | IllegalArgumentException e) {
+            log.error("Error getting Facebook metrics: {}", e.getMessage(), e);
+            return PostMetrics.builder().build();
+        }
+    }
+
+
+    /**
+     * Get metrics for up to {@value #MAX_POSTS_PER_BATCH} posts of one account in a single
+     * Graph API batch request: the post fields first, then the reach insight of each post.
+     * Posts whose fields sub-request fails are left out of the result; a failed insights
+     * sub-request only leaves the reach unknown (null).
+     * The app/business usage headers are returned so callers can back off before
+     * Meta starts throttling the token.
+     */
+    public BatchMetricsResult getPostMetricsBatch(String accessToken, PlataformaSocial plataforma,
+                                                  List<String> postIds) {
+        if (postIds.size() > MAX_POSTS_PER_BATCH) {
+            throw new IllegalArgumentException("Graph API batch supports at most " + MAX_POSTS_PER_BATCH + " posts");
+        }
+
+        boolean instagram = plataforma == PlataformaSocial.INSTAGRAM;
+        String fields = instagram ? INSTAGRAM_METRICS_FIELDS : FACEBOOK_METRICS_FIELDS;
+        String reachMetric = instagram ? INSTAGRAM_REACH_METRIC : FACEBOOK_REACH_METRIC;
 
-                int likes = 0;
-                if (body.containsKey("likes")) {
-                    Map<String, Object> likesData = (Map<String, Object>) body.get("likes");
-                    Map<String, Object> summary = (Map<String, Object>) likesData.get("summary");
-                    likes = (Integer) summary.getOrDefault("total_count", 0);
+        try {
+            List<Map<String, String>> batch = new ArrayList<>(postIds.size() * 2);
+            for (String postId : postIds) {
+                batch.add(Map.of("method", "GET", "relative_url", apiVersion + "/" + postId + "?fields=" + fields));
+            }
+            for (String postId : postIds) {
+                batch.add(Map.of("method", "GET", "relative_url", apiVersion + "/" + postId + "/insights?metric=" + reachMetric));
+            }
+
+            MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+            form.add("access_token", accessToken);
+            form.add("include_headers", "false");
+            form.add("batch", objectMapper.writeValueAsString(batch));
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+            ResponseEntity<String> response = restTemplate.postForEntity(
+                baseUrl, new HttpEntity<>(form, headers), String.class);
+
+            List<Map<String, Object>> items = objectMapper.readValue(
+                response.getBody(), new TypeReference<List<Map<String, Object>>>() {});
+
+            Map<String, PostMetrics> metrics = new HashMap<>();
+            boolean rateLimited = false;
+
+            for (int i = 0; i < items.size() && i < postIds.size(); i++) {
+                Map<String, Object> item = items.get(i);
+                if (item == null) {
+                    // Sub-request timed out on Meta's side
+                    continue;
                 }
 
-                int comments = 0;
-                if (body.containsKey("comments")) {
-                    Map<String, Object> commentsData = (Map<String, Object>) body.get("comments");
-                    Map<String, Object> summary = (Map<String, Object>) commentsData.get("summary");
-                    comments = (Integer) summary.getOrDefault("total_count", 0);
+                if (!(item.get("body") instanceof String json)) {
+                    log.warn("Skipping metrics response without body for post {}", postIds.get(i));
+                    continue;
                 }
 
-                int shares = 0;
-                if (body.containsKey("shares")) {
-                    Map<String, Object> sharesData = (Map<String, Object>) body.get("shares");
-                    shares = (Integer) sharesData.getOrDefault("count", 0);
+                try {
+                    int code = item.get("code") instanceof Number number ? number.intValue() : 0;
+                    Map<String, Object> body = objectMapper.readValue(json, Map.class);
+
+                    if (code == 200) {
+                        metrics.put(postIds.get(i), plataforma == PlataformaSocial.INSTAGRAM
+                            ? parseInstagramMetrics(body)
+                            : parseFacebookMetrics(body));
+                    } else {
+                        rateLimited |= isRateLimitError(body);
+                        log.debug("Metrics request for post {} failed with status {}", postIds.get(i), code);
+                    }
+                } catch (JsonProcessingException | RuntimeException e) {
+                    log.warn("Skipping malformed metrics response for post {}: {}", postIds.get(i), e.getMessage());
                 }
+            }
 
-                return PostMetrics.builder()
-                    .likes(likes)
-                    .comments(comments)
-                    .shares(shares)
-                    .reach(0) // Requires additional API call to insights
-                    .build();
+            // Insights sub-requests follow the fields sub-requests, in the same post order
+            for (int i = 0; i < postIds.size() && postIds.size() + i < items.size(); i++) {
+                PostMetrics postMetrics = metrics.get(postIds.get(i));
+                Map<String, Object> item = items.get(postIds.size() + i);
+                if (postMetrics == null || item == null || !(item.get("body") instanceof String json)) {
+                    continue;
+                }
+
+                try {
+                    int code = item.get("code") instanceof Number number ? number.intValue() : 0;
+                    Map<String, Object> body = objectMapper.readValue(json, Map.class);
+
+                    if (code == 200) {
+                        metrics.put(postIds.get(i), postMetrics.withReach(parseInsight(body, reachMetric)));
+                    } else {
+                        rateLimited |= isRateLimitError(body);
+                        log.debug("Insights request for post {} failed with status {}", postIds.get(i), code);
+                    }
+                } catch (JsonProcessingException | RuntimeException e) {
+                    log.warn("Skipping malformed insights response for post {}: {}", postIds.get(i), e.getMessage());
+                }
             }
 
-            return PostMetrics.builder().build();
+            return withUsage(response.getHeaders(), metrics, rateLimited);
 
-        } catch (RestClientException e) {
-            log.error("Error getting Facebook metrics: {}", e.getMessage(), e);
-            return PostMetrics.builder().build();
+        } catch (HttpStatusCodeException e) {
+            Map<String, Object> body = readJson(e.getResponseBodyAsString());
+            if (isRateLimitError(body)) {
+                log.warn("Meta rate limit reached while fetching {} metrics", plataforma);
+                return withUsage(e.getResponseHeaders(), Map.of(), true);
+            }
+            log.error("Error getting metrics batch: {}", e.getMessage(), e);
+            throw new BusinessException("Failed to get post metrics: " + e.getMessage());
+
+        } catch (RestClientException | JsonProcessingException e) {
+            log.error("Error getting metrics batch: {}", e.getMessage(), e);
+            throw new BusinessException("Failed to get post metrics: " + e.getMessage());
         }
     }
 
@@ -426,6 +530,121 @@ public class MetaGraphAPIService {
         return baseUrl + "/" + apiVersion + path;
     }
 
+    private PostMetrics parseInstagramMetrics(Map<String, Object> body) {
+        return PostMetrics.builder()
+            .likes(((Number) body.getOrDefault("like_count", 0)).intValue())
+            .comments(((Number) body.getOrDefault("comments_count", 0)).intValue())
+            .shares(0) // Instagram API doesn't provide shares
+            .build();
+    }
+
+    private PostMetrics parseFacebookMetrics(Map<String, Object> body) {
+        int shares = 0;
+        if (body.get("shares") instanceof Map<?, ?> sharesData && sharesData.get("count") instanceof Number count) {
+            shares = count.intValue();
+        }
+
+        return PostMetrics.builder()
+            .likes(summaryTotalCount(body, "likes"))
+            .comments(summaryTotalCount(body, "comments"))
+            .shares(shares)
+            .build();
+    }
+
+    /**
+     * Lifetime value of an insights metric; null when the response does not include it.
+     */
+    private Integer parseInsight(Map<String, Object> body, String metric) {
+        if (!(body.get("data") instanceof List<?> data)) {
+            return null;
+        }
+        for (Object entry : data) {
+            if (entry instanceof Map<?, ?> insight && metric.equals(insight.get("name"))
+                    && insight.get("values") instanceof List<?> values && !values.isEmpty()
+                    && values.get(0) instanceof Map<?, ?> value && value.get("value") instanceof Number number) {
+                return number.intValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * total_count of an edge requested with summary(true); 0 when the post has no such edge.
+     *
+     * @throws IllegalArgumentException if the edge came back without its summary
+     */
+    private int summaryTotalCount(Map<String, Object> body, String edge) {
+        if (!(body.get(edge) instanceof Map<?, ?> edgeData)) {
+            return 0;
+        }
+        if (edgeData.get("summary") instanceof Map<?, ?> summary
+                && summary.get("total_count") instanceof Number total) {
+            return total.intValue();
+        }
+        throw new IllegalArgumentException("Graph API returned " + edge + " without summary");
+    }
+
+    private boolean isRateLimitError(Map<String, Object> body) {
+        if (body.get("error") instanceof Map<?, ?> error && error.get("code") instanceof Number code) {
+            return RATE_LIMIT_ERROR_CODES.contains(code.intValue());
+        }
+        return false;
+    }
+
+    /**
+     * Read X-App-Usage and X-Business-Use-Case-Usage. Both report percentages of the
+     * quota consumed; the highest one is what matters for backing off.
+     */
+    private BatchMetricsResult withUsage(HttpHeaders headers, Map<String, PostMetrics> metrics, boolean rateLimited) {
+        int usagePercent = 0;
+        int regainAccessMinutes = 0;
+
+        if (headers != null) {
+            String appUsage = headers.getFirst("X-App-Usage");
+            if (appUsage != null) {
+                usagePercent = maxUsage(readJson(appUsage));
+            }
+
+            String businessUsage = headers.getFirst("X-Business-Use-Case-Usage");
+            if (businessUsage != null) {
+                for (Object entries : readJson(businessUsage).values()) {
+                    if (!(entries instanceof List<?> list)) {
+                        continue;
+                    }
+                    for (Object entry : list) {
+                        if (entry instanceof Map<?, ?> usage) {
+                            usagePercent = Math.max(usagePercent, maxUsage((Map<String, Object>) usage));
+                            if (usage.get("estimated_time_to_regain_access") instanceof Number minutes) {
+                                regainAccessMinutes = Math.max(regainAccessMinutes, minutes.intValue());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new BatchMetricsResult(metrics, usagePercent, regainAccessMinutes, rateLimited);
+    }
+
+    private int maxUsage(Map<String, Object> usage) {
+        int max = 0;
+        for (String key : List.of("call_count", "total_cputime", "total_time")) {
+            if (usage.get(key) instanceof Number value) {
+                max = Math.max(max, value.intValue());
+            }
+        }
+        return max;
+    }
+
+    private Map<String, Object> readJson(String json) {
+        try {
+            return json == null || json.isBlank() ? Map.of() : objectMapper.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            log.debug("Ignoring unparseable Graph API JSON: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
     // ====================================
     // DTOs
     // ====================================
@@ -540,21 +759,28 @@ public class MetaGraphAPIService {
         }
     }
 
+    /**
+     * Metrics of one post. {@code reach} is null when it was not fetched.
+     */
     public record PostMetrics(
         int likes,
         int comments,
         int shares,
-        int reach
+        Integer reach
     ) {
         public static Builder builder() {
             return new Builder();
         }
 
+        public PostMetrics withReach(Integer reach) {
+            return new PostMetrics(likes, comments, shares, reach);
+        }
+
         public static class Builder {
             private int likes;
             private int comments;
             private int shares;
-            private int reach;
+            private Integer reach;
 
             public Builder likes(int likes) {
                 this.likes = likes;
@@ -571,7 +797,7 @@ public class MetaGraphAPIService {
                 return this;
             }
 
-            public Builder reach(int reach) {
+            public Builder reach(Integer reach) {
                 this.reach = reach;
                 return this;
             }
@@ -581,4 +807,14 @@ public class MetaGraphAPIService {
             }
         }
     }
+
+    /**
+     * Result of a metrics batch: metrics by post id plus the token's quota usage.
+     */
+    public record BatchMetricsResult(
+        Map<String, PostMetrics> metrics,
+        int usagePercent,
+        int regainAccessMinutes,
+        boolean rateLimited
+    ) {}
 }
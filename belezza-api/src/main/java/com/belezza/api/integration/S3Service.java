@@ -6,9 +6,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -18,13 +23,24 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.net.URL;
 import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Service for managing file uploads to AWS S3.
  * Handles image storage for the Social Studio module.
+ *
+ * Uploads go through {@link S3AsyncClient}, which switches to parallel multipart uploads above
+ * the configured threshold and sends a CRC32 checksum with every object. An endpoint override
+ * with path-style access allows running against MinIO or LocalStack.
  */
 @Service
 @Slf4j
@@ -48,9 +64,28 @@ public class S3Service {
     @Value("${belezza.aws.s3.presigned-url-expiration:3600}")
     private long presignedUrlExpiration;
 
+    @Value("${belezza.aws.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${belezza.aws.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    @Value("${belezza.aws.s3.multipart.threshold-bytes:8388608}")
+    private long multipartThresholdBytes;
+
+    @Value("${belezza.aws.s3.multipart.part-size-bytes:8388608}")
+    private long multipartPartSizeBytes;
+
+    @Value("${belezza.aws.s3.stream-threads:4}")
+    private int streamThreads;
+
     private S3Client s3Client;
+    private S3AsyncClient s3AsyncClient;
     private S3Presigner s3Presigner;
 
+    // Reads InputStream request bodies and feeds them to the async client
+    private ExecutorService streamExecutor;
+
     @PostConstruct
     public void init() {
         if (accessKey == null || accessKey.isEmpty()) {
@@ -58,17 +93,42 @@ public class S3Service {
             return;
         }
 
-        AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKey, secretKey);
+        StaticCredentialsProvider credentials =
+            StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+            .pathStyleAccessEnabled(pathStyleAccess)
+            .build();
 
-        this.s3Client = S3Client.builder()
+        S3ClientBuilder clientBuilder = S3Client.builder()
             .region(Region.of(region))
-            .credentialsProvider(StaticCredentialsProvider.create(credentials))
-            .build();
+            .credentialsProvider(credentials)
+            .serviceConfiguration(serviceConfiguration);
 
-        this.s3Presigner = S3Presigner.builder()
+        S3AsyncClientBuilder asyncClientBuilder = S3AsyncClient.builder()
             .region(Region.of(region))
-            .credentialsProvider(StaticCredentialsProvider.create(credentials))
-            .build();
+            .credentialsProvider(credentials)
+            .serviceConfiguration(serviceConfiguration)
+            .multipartEnabled(true)
+            .multipartConfiguration(multipart -> multipart
+                .thresholdInBytes(multipartThresholdBytes)
+                .minimumPartSizeInBytes(multipartPartSizeBytes));
+
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentials)
+            .serviceConfiguration(serviceConfiguration);
+
+        if (endpoint != null && !endpoint.isEmpty()) {
+            URI endpointUri = URI.create(endpoint);
+            clientBuilder.endpointOverride(endpointUri);
+            asyncClientBuilder.endpointOverride(endpointUri);
+            presignerBuilder.endpointOverride(endpointUri);
+        }
+
+        this.s3Client = clientBuilder.build();
+        this.s3AsyncClient = asyncClientBuilder.build();
+        this.s3Presigner = presignerBuilder.build();
+        this.streamExecutor = Executors.newFixedThreadPool(streamThreads);
 
         log.info("S3Service initialized successfully for bucket: {}", bucketName);
     }
@@ -78,6 +138,12 @@ public class S3Service {
         if (s3Client != null) {
             s3Client.close();
         }
+        if (s3AsyncClient != null) {
+            s3AsyncClient.close();
+        }
+        if (streamExecutor != null) {
+            streamExecutor.shutdown();
+        }
         if (s3Presigner != null) {
             s3Presigner.close();
         }
@@ -146,6 +212,115 @@ public class S3Service {
         }
     }
 
+    /**
+     * Upload a file to S3 without blocking the caller.
+     * The file is streamed from its InputStream; large files are split into parallel parts.
+     *
+     * @param file   the file to upload
+     * @param prefix the S3 prefix/folder (e.g., "originals/", "edited/")
+     * @return future completed with the S3 key, or failed with an {@link IOException}
+     */
+    public CompletableFuture<String> uploadFileAsync(MultipartFile file, String prefix) {
+        return uploadFileToKeyAsync(file, prefix + generateFileName(file.getOriginalFilename()));
+    }
+
+    /**
+     * Upload a file to S3 under an exact key without blocking the caller.
+     *
+     * @param file the file to upload
+     * @param key  the S3 key
+     * @return future completed with the S3 key, or failed with an {@link IOException}
+     */
+    public CompletableFuture<String> uploadFileToKeyAsync(MultipartFile file, String key) {
+        validateClient();
+
+        InputStream inputStream;
+        try {
+            inputStream = file.getInputStream();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .contentType(file.getContentType())
+            .contentLength(file.getSize())
+            .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+            .build();
+
+        AsyncRequestBody body = AsyncRequestBody.fromInputStream(inputStream, file.getSize(), streamExecutor);
+
+        return putObjectAsync(putObjectRequest, body, "file")
+            .whenComplete((uploadedKey, error) -> closeQuietly(inputStream));
+    }
+
+    /**
+     * Upload raw bytes to S3 without blocking the caller.
+     * Several renditions can be uploaded concurrently over the async client.
+     *
+     * @param data        the byte array data
+     * @param contentType the content type
+     * @param prefix      the S3 prefix/folder
+     * @return future completed with the S3 key, or failed with an {@link IOException}
+     */
+    public CompletableFuture<String> uploadBytesAsync(byte[] data, String contentType, String prefix) {
+        return uploadBytesToKeyAsync(data, contentType, prefix + generateFileName("image.jpg"));
+    }
+
+    /**
+     * Upload raw bytes to S3 under an exact key without blocking the caller.
+     *
+     * @param data        the byte array data
+     * @param contentType the content type
+     * @param key         the S3 key
+     * @return future completed with the S3 key, or failed with an {@link IOException}
+     */
+    public CompletableFuture<String> uploadBytesToKeyAsync(byte[] data, String contentType, String key) {
+        return uploadBytesToKeyAsync(data, contentType, key, Map.of());
+    }
+
+    /**
+     * Upload raw bytes to S3 under an exact key, with user metadata readable through
+     * {@link #getObjectMetadataAsync} without downloading the object.
+     *
+     * @param data        the byte array data
+     * @param contentType the content type
+     * @param key         the S3 key
+     * @param metadata    user metadata (keys are stored lower-case)
+     * @return future completed with the S3 key, or failed with an {@link IOException}
+     */
+    public CompletableFuture<String> uploadBytesToKeyAsync(byte[] data, String contentType, String key,
+                                                           Map<String, String> metadata) {
+        validateClient();
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .contentType(contentType)
+            .contentLength((long) data.length)
+            .metadata(metadata)
+            .checksumAlgorithm(ChecksumAlgorithm.CRC32)
+            .build();
+
+        return putObjectAsync(putObjectRequest, AsyncRequestBody.fromBytes(data), "bytes");
+    }
+
+    private CompletableFuture<String> putObjectAsync(PutObjectRequest request, AsyncRequestBody body, String description) {
+        String key = request.key();
+        return s3AsyncClient.putObject(request, body)
+            .handle((response, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    log.error("Error uploading {} to S3: {}", description, cause.getMessage(), cause);
+                    throw new CompletionException(new IOException("Failed to upload " + description + " to S3", cause));
+                }
+                log.info("Uploaded {} successfully: {}", description, key);
+                return key;
+            });
+    }
+
     /**
      * Get public URL for an S3 object.
      * Uses CloudFront domain if configured, otherwise S3 URL.
@@ -229,6 +404,37 @@ public class S3Service {
         }
     }
 
+    /**
+     * Read the user metadata of an object with a HEAD request, without blocking the caller.
+     *
+     * @param key the S3 key
+     * @return future completed with the metadata, empty if the object does not exist,
+     *         or failed with an {@link IOException}
+     */
+    public CompletableFuture<Optional<Map<String, String>>> getObjectMetadataAsync(String key) {
+        validateClient();
+
+        HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+            .bucket(bucketName)
+            .key(key)
+            .build();
+
+        return s3AsyncClient.headObject(headObjectRequest)
+            .handle((response, error) -> {
+                if (error == null) {
+                    return Optional.of(response.metadata());
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                if (cause instanceof NoSuchKeyException
+                    || (cause instanceof S3Exception s3Exception && s3Exception.statusCode() == 404)) {
+                    return Optional.empty();
+                }
+                log.error("Error reading object metadata: {}", cause.getMessage(), cause);
+                throw new CompletionException(new IOException("Failed to read object metadata from S3", cause));
+            });
+    }
+
     /**
      * Get file size in bytes.
      *
@@ -266,6 +472,14 @@ public class S3Service {
         return UUID.randomUUID().toString() + extension;
     }
 
+    private void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.debug("Error closing upload stream: {}", e.getMessage());
+        }
+    }
+
     private void validateClient() {
         if (s3Client == null) {
             throw new IllegalStateException("S3 client not initialized. Check AWS credentials configuration.");
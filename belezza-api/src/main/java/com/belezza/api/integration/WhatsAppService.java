@@ -50,7 +50,26 @@ public interface WhatsAppService {
      * @param linkConfirmacao Confirmation link
      * @return Message ID
      */
+    default String enviarConfirmacaoAgendamento(
+        String telefone,
+        String nomeCliente,
+        String data,
+        String hora,
+        String servico,
+        String profissional,
+        String endereco,
+        String linkConfirmacao
+    ) {
+        return enviarConfirmacaoAgendamento(null, telefone, nomeCliente, data, hora, servico, profissional, endereco, linkConfirmacao);
+    }
+
+    /**
+     * Same as {@link #enviarConfirmacaoAgendamento} using the salon's custom text, if it has one.
+     *
+     * @param salonId Salon whose template is used (null for the default text)
+     */
     String enviarConfirmacaoAgendamento(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String data,
@@ -72,7 +91,24 @@ public interface WhatsAppService {
      * @param linkConfirmacao Confirmation link
      * @return Message ID
      */
+    default String enviarLembrete24h(
+        String telefone,
+        String nomeCliente,
+        String data,
+        String hora,
+        String servico,
+        String linkConfirmacao
+    ) {
+        return enviarLembrete24h(null, telefone, nomeCliente, data, hora, servico, linkConfirmacao);
+    }
+
+    /**
+     * Same as {@link #enviarLembrete24h} using the salon's custom text, if it has one.
+     *
+     * @param salonId Salon whose template is used (null for the default text)
+     */
     String enviarLembrete24h(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String data,
@@ -91,7 +127,23 @@ public interface WhatsAppService {
      * @param endereco Salon address
      * @return Message ID
      */
+    default String enviarLembrete2h(
+        String telefone,
+        String nomeCliente,
+        String hora,
+        String servico,
+        String endereco
+    ) {
+        return enviarLembrete2h(null, telefone, nomeCliente, hora, servico, endereco);
+    }
+
+    /**
+     * Same as {@link #enviarLembrete2h} using the salon's custom text, if it has one.
+     *
+     * @param salonId Salon whose template is used (null for the default text)
+     */
     String enviarLembrete2h(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String hora,
@@ -107,7 +159,21 @@ public interface WhatsAppService {
      * @param linkAvaliacao Review link
      * @return Message ID
      */
+    default String enviarPosAtendimento(
+        String telefone,
+        String nomeCliente,
+        String linkAvaliacao
+    ) {
+        return enviarPosAtendimento(null, telefone, nomeCliente, linkAvaliacao);
+    }
+
+    /**
+     * Same as {@link #enviarPosAtendimento} using the salon's custom text, if it has one.
+     *
+     * @param salonId Salon whose template is used (null for the default text)
+     */
     String enviarPosAtendimento(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String linkAvaliacao
@@ -125,7 +191,25 @@ public interface WhatsAppService {
      * @param linkReagendar Link to reschedule
      * @return Message ID
      */
+    default String enviarCancelamento(
+        String telefone,
+        String nomeCliente,
+        String data,
+        String hora,
+        String servico,
+        String motivoCancelamento,
+        String linkReagendar
+    ) {
+        return enviarCancelamento(null, telefone, nomeCliente, data, hora, servico, motivoCancelamento, linkReagendar);
+    }
+
+    /**
+     * Same as {@link #enviarCancelamento} using the salon's custom text, if it has one.
+     *
+     * @param salonId Salon whose template is used (null for the default text)
+     */
     String enviarCancelamento(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String data,
@@ -0,0 +1,98 @@
+package com.belezza.api.integration.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Writes Cloud API message payloads straight to UTF-8 JSON bytes with a streaming generator,
+ * instead of building nested maps for RestTemplate to convert.
+ */
+final class WhatsAppPayloadWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Envelope fields and punctuation; message content is added on top
+    private static final int BASE_SIZE = 128;
+
+    private WhatsAppPayloadWriter() {
+    }
+
+    static byte[] text(String to, String body) {
+        return write(BASE_SIZE + body.length() * 2, json -> {
+            writeEnvelope(json, to, "text");
+            json.writeObjectFieldStart("text");
+            json.writeStringField("body", body);
+            json.writeEndObject();
+        });
+    }
+
+    static byte[] image(String to, String link, String caption) {
+        return write(BASE_SIZE + link.length() + (caption != null ? caption.length() * 2 : 0), json -> {
+            writeEnvelope(json, to, "image");
+            json.writeObjectFieldStart("image");
+            json.writeStringField("link", link);
+            if (caption != null && !caption.isEmpty()) {
+                json.writeStringField("caption", caption);
+            }
+            json.writeEndObject();
+        });
+    }
+
+    static byte[] template(String to, String name, String languageCode, Map<String, String> params) {
+        return write(BASE_SIZE * 2, json -> {
+            writeEnvelope(json, to, "template");
+            json.writeObjectFieldStart("template");
+            json.writeStringField("name", name);
+            json.writeObjectFieldStart("language");
+            json.writeStringField("code", languageCode);
+            json.writeEndObject();
+
+            if (params != null && !params.isEmpty()) {
+                json.writeArrayFieldStart("components");
+                json.writeStartObject();
+                json.writeStringField("type", "body");
+                json.writeArrayFieldStart("parameters");
+                for (String value : params.values()) {
+                    json.writeStartObject();
+                    json.writeStringField("type", "text");
+                    json.writeStringField("text", value);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeEndArray();
+            }
+
+            json.writeEndObject();
+        });
+    }
+
+    private static void writeEnvelope(JsonGenerator json, String to, String type) throws IOException {
+        json.writeStringField("messaging_product", "whatsapp");
+        json.writeStringField("to", to);
+        json.writeStringField("type", type);
+    }
+
+    private static byte[] write(int sizeHint, PayloadBody body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            body.writeTo(json);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gerar payload WhatsApp", e);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface PayloadBody {
+        void writeTo(JsonGenerator json) throws IOException;
+    }
+}
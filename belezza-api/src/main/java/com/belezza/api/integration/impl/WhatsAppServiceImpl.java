@@ -2,10 +2,12 @@ package com.belezza.api.integration.impl;
 
 import com.belezza.api.entity.Agendamento;
 import com.belezza.api.entity.Salon;
+import com.belezza.api.entity.TipoMensagemWhatsApp;
 import com.belezza.api.entity.WhatsAppMessage;
 import com.belezza.api.entity.WhatsAppMessageStatus;
 import com.belezza.api.integration.WhatsAppService;
 import com.belezza.api.repository.WhatsAppMessageRepository;
+import com.belezza.api.service.WhatsAppTemplateService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +17,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +31,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final WhatsAppMessageRepository messageRepository;
+    private final WhatsAppTemplateService templateService;
 
     @Value("${belezza.whatsapp.phone-number-id:}")
     private String phoneNumberId;
@@ -46,38 +48,11 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     @Override
     public String enviarMensagem(String telefone, String templateName, Map<String, String> params) {
         try {
-            String url = String.format("%s/%s/%s/messages", apiUrl, apiVersion, phoneNumberId);
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("messaging_product", "whatsapp");
-            payload.put("to", normalizarTelefone(telefone));
-            payload.put("type", "template");
-
-            // Build template object
-            Map<String, Object> template = new HashMap<>();
-            template.put("name", templateName);
-            template.put("language", Map.of("code", "pt_BR"));
-
-            // Build components with parameters
-            if (params != null && !params.isEmpty()) {
-                List<Map<String, Object>> components = List.of(
-                    Map.of(
-                        "type", "body",
-                        "parameters", params.entrySet().stream()
-                            .map(entry -> Map.of("type", "text", "text", entry.getValue()))
-                            .toList()
-                    )
-                );
-                template.put("components", components);
-            }
-
-            payload.put("template", template);
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+            byte[] payload = WhatsAppPayloadWriter.template(normalizarTelefone(telefone), templateName, "pt_BR", params);
+            HttpEntity<byte[]> request = new HttpEntity<>(payload, createHeaders());
 
             log.info("Enviando mensagem WhatsApp para {} usando template {}", telefone, templateName);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            ResponseEntity<Map> response = restTemplate.exchange(messagesUrl(), HttpMethod.POST, request, Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> body = response.getBody();
@@ -105,19 +80,11 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         String errorMsg = null;
 
         try {
-            String url = String.format("%s/%s/%s/messages", apiUrl, apiVersion, phoneNumberId);
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("messaging_product", "whatsapp");
-            payload.put("to", normalizarTelefone(telefone));
-            payload.put("type", "text");
-            payload.put("text", Map.of("body", mensagem));
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+            byte[] payload = WhatsAppPayloadWriter.text(normalizarTelefone(telefone), mensagem);
+            HttpEntity<byte[]> request = new HttpEntity<>(payload, createHeaders());
 
             log.info("Enviando mensagem direta WhatsApp para {}", telefone);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            ResponseEntity<Map> response = restTemplate.exchange(messagesUrl(), HttpMethod.POST, request, Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> body = response.getBody();
@@ -151,25 +118,11 @@ public class WhatsAppServiceImpl implements WhatsAppService {
     @Override
     public String enviarImagem(String telefone, String imageUrl, String caption) {
         try {
-            String url = String.format("%s/%s/%s/messages", apiUrl, apiVersion, phoneNumberId);
-
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("messaging_product", "whatsapp");
-            payload.put("to", normalizarTelefone(telefone));
-            payload.put("type", "image");
-
-            Map<String, String> image = new HashMap<>();
-            image.put("link", imageUrl);
-            if (caption != null && !caption.isEmpty()) {
-                image.put("caption", caption);
-            }
-            payload.put("image", image);
-
-            HttpHeaders headers = createHeaders();
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
+            byte[] payload = WhatsAppPayloadWriter.image(normalizarTelefone(telefone), imageUrl, caption);
+            HttpEntity<byte[]> request = new HttpEntity<>(payload, createHeaders());
 
             log.info("Enviando imagem WhatsApp para {}", telefone);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            ResponseEntity<Map> response = restTemplate.exchange(messagesUrl(), HttpMethod.POST, request, Map.class);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> body = response.getBody();
@@ -192,6 +145,7 @@ public class WhatsAppServiceImpl implements WhatsAppService {
 
     @Override
     public String enviarConfirmacaoAgendamento(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String data,
@@ -201,31 +155,16 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         String endereco,
         String linkConfirmacao
     ) {
-        // Gerar link de cancelamento a partir do link de confirmação
-        String linkCancelamento = linkConfirmacao.replace("/confirmar-agendamento/", "/cancelar-agendamento/");
-
-        String mensagem = String.format(
-            """
-            Olá %s! 👋
-
-            Seu agendamento foi confirmado:
-            📅 %s às %s
-            💇 %s com %s
-            📍 %s
-
-            ✅ Confirmar presença: %s
-            ❌ Cancelar agendamento: %s
-
-            Aguardamos você!
-            """,
-            nomeCliente, data, hora, servico, profissional, endereco, linkConfirmacao, linkCancelamento
-        );
+        String mensagem = templateService.getTemplate(salonId, TipoMensagemWhatsApp.CONFIRMACAO_AGENDAMENTO)
+            .render(nomeCliente, data, hora, servico, profissional, endereco,
+                linkConfirmacao, linkCancelamento(linkConfirmacao));
 
         return enviarMensagemDireta(telefone, mensagem);
     }
 
     @Override
     public String enviarLembrete24h(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String data,
@@ -233,78 +172,43 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         String servico,
         String linkConfirmacao
     ) {
-        // Gerar link de cancelamento a partir do link de confirmação
-        String linkCancelamento = linkConfirmacao.replace("/confirmar-agendamento/", "/cancelar-agendamento/");
-
-        String mensagem = String.format(
-            """
-            Olá %s! 🔔
-
-            Lembrete: Você tem um agendamento amanhã!
-            📅 %s às %s
-            💇 %s
-
-            ✅ Confirme sua presença: %s
-            ❌ Precisa cancelar? %s
-
-            Até breve!
-            """,
-            nomeCliente, data, hora, servico, linkConfirmacao, linkCancelamento
-        );
+        String mensagem = templateService.getTemplate(salonId, TipoMensagemWhatsApp.LEMBRETE_24H)
+            .render(nomeCliente, data, hora, servico, linkConfirmacao, linkCancelamento(linkConfirmacao));
 
         return enviarMensagemDireta(telefone, mensagem);
     }
 
     @Override
     public String enviarLembrete2h(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String hora,
         String servico,
         String endereco
     ) {
-        String mensagem = String.format(
-            """
-            Olá %s! ⏰
-
-            Seu horário está chegando!
-            ⏰ Daqui a 2 horas: %s
-            💇 %s
-            📍 %s
-
-            Aguardamos você!
-            """,
-            nomeCliente, hora, servico, endereco
-        );
+        String mensagem = templateService.getTemplate(salonId, TipoMensagemWhatsApp.LEMBRETE_2H)
+            .render(nomeCliente, hora, servico, endereco);
 
         return enviarMensagemDireta(telefone, mensagem);
     }
 
     @Override
     public String enviarPosAtendimento(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String linkAvaliacao
     ) {
-        String mensagem = String.format(
-            """
-            Olá %s! 😊
-
-            Obrigado pela visita!
-
-            Que tal avaliar nosso atendimento?
-            ⭐ %s
-
-            Sua opinião é muito importante para nós!
-            """,
-            nomeCliente, linkAvaliacao
-        );
+        String mensagem = templateService.getTemplate(salonId, TipoMensagemWhatsApp.POS_ATENDIMENTO)
+            .render(nomeCliente, linkAvaliacao);
 
         return enviarMensagemDireta(telefone, mensagem);
     }
 
     @Override
     public String enviarCancelamento(
+        Long salonId,
         String telefone,
         String nomeCliente,
         String data,
@@ -317,27 +221,19 @@ public class WhatsAppServiceImpl implements WhatsAppService {
             ? motivoCancelamento
             : "Não informado";
 
-        String mensagem = String.format(
-            """
-            Olá %s! 😔
-
-            Seu agendamento foi cancelado:
-            📅 %s às %s
-            💇 %s
-
-            Motivo: %s
-
-            Que tal reagendar?
-            📅 %s
-
-            Esperamos vê-lo(a) em breve!
-            """,
-            nomeCliente, data, hora, servico, motivo, linkReagendar
-        );
+        String mensagem = templateService.getTemplate(salonId, TipoMensagemWhatsApp.CANCELAMENTO)
+            .render(nomeCliente, data, hora, servico, motivo, linkReagendar);
 
         return enviarMensagemDireta(telefone, mensagem);
     }
 
+    /**
+     * Gerar link de cancelamento a partir do link de confirmação.
+     */
+    private String linkCancelamento(String linkConfirmacao) {
+        return linkConfirmacao.replace("/confirmar-agendamento/", "/cancelar-agendamento/");
+    }
+
     /**
      * Normalize phone number to international format.
      * Removes spaces, dashes, parentheses, and ensures it starts with +
@@ -358,6 +254,10 @@ public class WhatsAppServiceImpl implements WhatsAppService {
         return normalized;
     }
 
+    private String messagesUrl() {
+        return apiUrl + "/" + apiVersion + "/" + phoneNumberId + "/messages";
+    }
+
     /**
      * Create HTTP headers with authorization.
      */
@@ -4,6 +4,7 @@ import com.belezza.api.entity.Agendamento;
 import com.belezza.api.entity.StatusAgendamento;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,12 +19,58 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
 
     Optional<Agendamento> findByTokenConfirmacao(String token);
 
+    // Listings: salon, client, professional and legacy service are joined in the page query,
+    // the services list is batch-loaded for the whole page
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
     Page<Agendamento> findBySalonId(Long salonId, Pageable pageable);
 
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
     Page<Agendamento> findByClienteId(Long clienteId, Pageable pageable);
 
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
     Page<Agendamento> findByProfissionalId(Long profissionalId, Pageable pageable);
 
+    // Keyset listings: the rows after (dataHora, id) in that order, read from the
+    // (…, data_hora, id) indexes; the redundant >= bounds the index scan
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
+    @Query("SELECT a FROM Agendamento a WHERE a.salon.id = :salonId " +
+           "AND a.dataHora >= :dataHora AND (a.dataHora > :dataHora OR a.id > :id) " +
+           "ORDER BY a.dataHora, a.id")
+    List<Agendamento> findBySalonIdAfter(
+        @Param("salonId") Long salonId,
+        @Param("dataHora") LocalDateTime dataHora,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
+    @Query("SELECT a FROM Agendamento a WHERE a.cliente.id = :clienteId " +
+           "AND a.dataHora >= :dataHora AND (a.dataHora > :dataHora OR a.id > :id) " +
+           "ORDER BY a.dataHora, a.id")
+    List<Agendamento> findByClienteIdAfter(
+        @Param("clienteId") Long clienteId,
+        @Param("dataHora") LocalDateTime dataHora,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
+    @Query("SELECT a FROM Agendamento a WHERE a.profissional.id = :profId " +
+           "AND a.dataHora >= :dataHora AND (a.dataHora > :dataHora OR a.id > :id) " +
+           "ORDER BY a.dataHora, a.id")
+    List<Agendamento> findByProfissionalIdAfter(
+        @Param("profId") Long profissionalId,
+        @Param("dataHora") LocalDateTime dataHora,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    long countBySalonId(Long salonId);
+
+    long countByClienteId(Long clienteId);
+
+    long countByProfissionalId(Long profissionalId);
+
     List<Agendamento> findBySalonIdAndStatus(Long salonId, StatusAgendamento status);
 
     // Check for scheduling conflicts
@@ -60,6 +107,7 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
     List<Agendamento> findNoShowCandidates(@Param("cutoff") LocalDateTime cutoff);
 
     // Daily appointments for a professional
+    @EntityGraph(Agendamento.GRAPH_LISTAGEM)
     @Query("SELECT a FROM Agendamento a WHERE a.profissional.id = :profId " +
            "AND a.dataHora >= :dayStart AND a.dataHora < :dayEnd " +
            "AND a.status NOT IN ('CANCELADO', 'NO_SHOW') " +
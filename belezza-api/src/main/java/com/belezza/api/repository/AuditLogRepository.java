@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repository for AuditLog entity.
@@ -42,6 +43,18 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
      */
     Page<AuditLog> findAllByOrderByCriadoEmDesc(Pageable pageable);
 
+    /**
+     * Keyset listing: audit logs older than (criadoEm, id), most recent first.
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.criadoEm <= :criadoEm " +
+           "AND (a.criadoEm < :criadoEm OR a.id < :id) " +
+           "ORDER BY a.criadoEm DESC, a.id DESC")
+    List<AuditLog> findAllBefore(
+        @Param("criadoEm") LocalDateTime criadoEm,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
     /**
      * Find audit logs within a date range.
      */
@@ -40,9 +40,11 @@ public interface ImagemRepository extends JpaRepository<Imagem, Long> {
     // Count images by salon
     long countBySalonAndAtivoTrue(Salon salon);
 
-    // Count total storage used by salon
-    @Query("SELECT COALESCE(SUM(i.tamanhoBytes), 0) FROM Imagem i " +
-           "WHERE i.salon = :salon AND i.ativo = true")
+    // Count total storage used by salon; identical uploads share storage and count once
+    @Query(value = "SELECT COALESCE(SUM(t.tamanho_bytes), 0) FROM (" +
+                   "SELECT DISTINCT ON (COALESCE(i.hash_conteudo, CAST(i.id AS VARCHAR))) i.tamanho_bytes " +
+                   "FROM imagens i WHERE i.salon_id = :#{#salon.id} AND i.ativo = true) t",
+           nativeQuery = true)
     long calculateTotalStorageBytes(@Param("salon") Salon salon);
 
     // Find oldest images for cleanup
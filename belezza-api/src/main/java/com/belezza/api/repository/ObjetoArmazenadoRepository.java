@@ -0,0 +1,55 @@
+package com.belezza.api.repository;
+
+import com.belezza.api.entity.ObjetoArmazenado;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ObjetoArmazenadoRepository extends JpaRepository<ObjetoArmazenado, Long> {
+
+    Optional<ObjetoArmazenado> findByHash(String hash);
+
+    /**
+     * Load the row and lock it until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM ObjetoArmazenado o WHERE o.hash = :hash")
+    Optional<ObjetoArmazenado> findByHashForUpdate(@Param("hash") String hash);
+
+    /**
+     * Current key, read from the database even if the row is already loaded in the persistence context.
+     */
+    @Query("SELECT o.chave FROM ObjetoArmazenado o WHERE o.hash = :hash")
+    Optional<String> findChaveByHash(@Param("hash") String hash);
+
+    /**
+     * Current reference count, read from the database even if the row is already loaded in the persistence context.
+     */
+    @Query("SELECT o.referencias FROM ObjetoArmazenado o WHERE o.hash = :hash")
+    Optional<Integer> findReferenciasByHash(@Param("hash") String hash);
+
+    /**
+     * Add a reference to an existing row. The row stays locked until the transaction ends.
+     *
+     * @return 1, or 0 if there is no row for the hash yet
+     */
+    @Modifying
+    @Query("UPDATE ObjetoArmazenado o SET o.referencias = o.referencias + 1 WHERE o.hash = :hash")
+    int addReference(@Param("hash") String hash);
+
+    @Modifying
+    @Query("UPDATE ObjetoArmazenado o SET o.referencias = o.referencias - 1 " +
+           "WHERE o.hash = :hash AND o.referencias > 0")
+    int removeReference(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM ObjetoArmazenado o WHERE o.hash = :hash AND o.referencias = 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
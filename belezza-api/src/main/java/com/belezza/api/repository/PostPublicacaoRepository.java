@@ -0,0 +1,114 @@
+package com.belezza.api.repository;
+
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.entity.PostPublicacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PostPublicacaoRepository extends JpaRepository<PostPublicacao, Long> {
+
+    List<PostPublicacao> findByPostId(Long postId);
+
+    Optional<PostPublicacao> findByPostIdAndPlataforma(Long postId, PlataformaSocial plataforma);
+
+    // Resolve Meta post ids from webhook events to our post ids: rows of [externalPostId, postId]
+    @Query("SELECT pp.externalPostId, pp.post.id FROM PostPublicacao pp " +
+           "WHERE pp.externalPostId IN :externalPostIds")
+    List<Object[]> findPostIdsByExternalPostIds(@Param("externalPostIds") Collection<String> externalPostIds);
+
+    // Salons with publications recent enough to keep their metrics in sync
+    @Query("SELECT DISTINCT pp.post.salon.id FROM PostPublicacao pp " +
+           "WHERE pp.externalPostId IS NOT NULL AND pp.plataforma IN :plataformas " +
+           "AND pp.publicadoEm >= :since")
+    List<Long> findSalonIdsWithPublicationsSince(
+        @Param("plataformas") Collection<PlataformaSocial> plataformas,
+        @Param("since") LocalDateTime since
+    );
+
+    @Query("SELECT pp FROM PostPublicacao pp " +
+           "WHERE pp.post.salon.id = :salonId AND pp.externalPostId IS NOT NULL " +
+           "AND pp.plataforma IN :plataformas AND pp.publicadoEm >= :since")
+    List<PostPublicacao> findMetricsSyncCandidates(
+        @Param("salonId") Long salonId,
+        @Param("plataformas") Collection<PlataformaSocial> plataformas,
+        @Param("since") LocalDateTime since
+    );
+
+    /**
+     * Claim a publication for one publish attempt. Only pending or failed publications can be
+     * claimed, or ones stuck in PUBLICANDO since before {@code staleBefore} (the worker died).
+     *
+     * @return 1 if this attempt owns the publication, 0 if it was published or claimed elsewhere
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostPublicacao pp SET pp.status = com.belezza.api.entity.StatusPublicacao.PUBLICANDO, " +
+           "pp.idempotencyKey = :key, pp.tentativas = pp.tentativas + 1, pp.erro = NULL, pp.atualizadoEm = :now " +
+           "WHERE pp.post.id = :postId AND pp.plataforma = :plataforma " +
+           "AND (pp.status IN (com.belezza.api.entity.StatusPublicacao.PENDENTE, com.belezza.api.entity.StatusPublicacao.FALHOU) " +
+           "OR (pp.status = com.belezza.api.entity.StatusPublicacao.PUBLICANDO AND pp.atualizadoEm < :staleBefore))")
+    int claimForPublishing(
+        @Param("postId") Long postId,
+        @Param("plataforma") PlataformaSocial plataforma,
+        @Param("key") String key,
+        @Param("now") LocalDateTime now,
+        @Param("staleBefore") LocalDateTime staleBefore
+    );
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostPublicacao pp SET pp.status = com.belezza.api.entity.StatusPublicacao.PUBLICADO, " +
+           "pp.externalPostId = :externalPostId, pp.publicadoEm = :now, pp.atualizadoEm = :now " +
+           "WHERE pp.post.id = :postId AND pp.plataforma = :plataforma AND pp.idempotencyKey = :key " +
+           "AND pp.status = com.belezza.api.entity.StatusPublicacao.PUBLICANDO")
+    int markPublished(
+        @Param("postId") Long postId,
+        @Param("plataforma") PlataformaSocial plataforma,
+        @Param("key") String key,
+        @Param("externalPostId") String externalPostId,
+        @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Record a post the platform accepted after this attempt's claim was taken over by another one.
+     * The post is live, so the publication is marked published unless the other attempt already did.
+     *
+     * @return 1 if the id was recorded, 0 if the publication was already published (a duplicate post)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostPublicacao pp SET pp.status = com.belezza.api.entity.StatusPublicacao.PUBLICADO, " +
+           "pp.externalPostId = :externalPostId, pp.publicadoEm = :now, pp.erro = NULL, pp.atualizadoEm = :now " +
+           "WHERE pp.post.id = :postId AND pp.plataforma = :plataforma " +
+           "AND pp.status <> com.belezza.api.entity.StatusPublicacao.PUBLICADO")
+    int markPublishedAfterTakeover(
+        @Param("postId") Long postId,
+        @Param("plataforma") PlataformaSocial plataforma,
+        @Param("externalPostId") String externalPostId,
+        @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PostPublicacao pp SET pp.status = com.belezza.api.entity.StatusPublicacao.FALHOU, " +
+           "pp.erro = :erro, pp.atualizadoEm = :now " +
+           "WHERE pp.post.id = :postId AND pp.plataforma = :plataforma AND pp.idempotencyKey = :key " +
+           "AND pp.status = com.belezza.api.entity.StatusPublicacao.PUBLICANDO")
+    int markFailed(
+        @Param("postId") Long postId,
+        @Param("plataforma") PlataformaSocial plataforma,
+        @Param("key") String key,
+        @Param("erro") String erro,
+        @Param("now") LocalDateTime now
+    );
+}
@@ -4,6 +4,7 @@ import com.belezza.api.entity.Post;
 import com.belezza.api.entity.StatusPost;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,6 +25,34 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
     Page<Post> findBySalonAndStatus(com.belezza.api.entity.Salon salon, StatusPost status, Pageable pageable);
 
+    // Keyset listings: posts older than (criadoEm, id), most recent first
+    @EntityGraph(attributePaths = "criador")
+    @Query("SELECT p FROM Post p WHERE p.salon.id = :salonId " +
+           "AND p.criadoEm <= :criadoEm AND (p.criadoEm < :criadoEm OR p.id < :id) " +
+           "ORDER BY p.criadoEm DESC, p.id DESC")
+    List<Post> findBySalonIdBefore(
+        @Param("salonId") Long salonId,
+        @Param("criadoEm") LocalDateTime criadoEm,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    @EntityGraph(attributePaths = "criador")
+    @Query("SELECT p FROM Post p WHERE p.salon.id = :salonId AND p.status = :status " +
+           "AND p.criadoEm <= :criadoEm AND (p.criadoEm < :criadoEm OR p.id < :id) " +
+           "ORDER BY p.criadoEm DESC, p.id DESC")
+    List<Post> findBySalonIdAndStatusBefore(
+        @Param("salonId") Long salonId,
+        @Param("status") StatusPost status,
+        @Param("criadoEm") LocalDateTime criadoEm,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    long countBySalonId(Long salonId);
+
+    long countBySalonIdAndStatus(Long salonId, StatusPost status);
+
     java.util.Optional<Post> findByIdAndSalon(Long id, com.belezza.api.entity.Salon salon);
 
     List<Post> findByCriadorId(Long criadorId);
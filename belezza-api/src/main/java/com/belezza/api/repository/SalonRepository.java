@@ -1,5 +1,6 @@
 package com.belezza.api.repository;
 
+import com.belezza.api.entity.Plano;
 import com.belezza.api.entity.Salon;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -28,6 +29,9 @@ public interface SalonRepository extends JpaRepository<Salon, Long> {
     @Query("SELECT s FROM Salon s WHERE s.estado = :estado AND s.ativo = true")
     List<Salon> findActiveByEstado(@Param("estado") String estado);
 
+    @Query("SELECT s.admin.plano FROM Salon s WHERE s.id = :id")
+    Optional<Plano> findPlanoById(@Param("id") Long id);
+
     @Query("SELECT COUNT(s) FROM Salon s WHERE s.ativo = true")
     long countActive();
 }
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,11 @@ public interface WhatsAppMessageRepository extends JpaRepository<WhatsAppMessage
      */
     Optional<WhatsAppMessage> findByMessageId(String messageId);
 
+    /**
+     * Find messages by a batch of WhatsApp API message IDs (webhook status flush).
+     */
+    List<WhatsAppMessage> findByMessageIdIn(Collection<String> messageIds);
+
     /**
      * Find all messages for a specific appointment.
      */
@@ -34,6 +40,43 @@ public interface WhatsAppMessageRepository extends JpaRepository<WhatsAppMessage
      */
     Page<WhatsAppMessage> findBySalonIdAndStatus(Long salonId, WhatsAppMessageStatus status, Pageable pageable);
 
+    /**
+     * Keyset listing: a salon's messages older than (criadoEm, id), most recent first.
+     */
+    @Query("""
+        SELECT m FROM WhatsAppMessage m
+        WHERE m.salon.id = :salonId
+        AND m.criadoEm <= :criadoEm AND (m.criadoEm < :criadoEm OR m.id < :id)
+        ORDER BY m.criadoEm DESC, m.id DESC
+        """)
+    List<WhatsAppMessage> findBySalonIdBefore(
+        @Param("salonId") Long salonId,
+        @Param("criadoEm") LocalDateTime criadoEm,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    /**
+     * Keyset listing by status: a salon's messages older than (criadoEm, id), most recent first.
+     */
+    @Query("""
+        SELECT m FROM WhatsAppMessage m
+        WHERE m.salon.id = :salonId AND m.status = :status
+        AND m.criadoEm <= :criadoEm AND (m.criadoEm < :criadoEm OR m.id < :id)
+        ORDER BY m.criadoEm DESC, m.id DESC
+        """)
+    List<WhatsAppMessage> findBySalonIdAndStatusBefore(
+        @Param("salonId") Long salonId,
+        @Param("status") WhatsAppMessageStatus status,
+        @Param("criadoEm") LocalDateTime criadoEm,
+        @Param("id") Long id,
+        Pageable limit
+    );
+
+    long countBySalonId(Long salonId);
+
+    long countBySalonIdAndStatus(Long salonId, WhatsAppMessageStatus status);
+
     /**
      * Find failed messages that can be retried.
      */
@@ -0,0 +1,17 @@
+package com.belezza.api.repository;
+
+import com.belezza.api.entity.TipoMensagemWhatsApp;
+import com.belezza.api.entity.WhatsAppTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WhatsAppTemplateRepository extends JpaRepository<WhatsAppTemplate, Long> {
+
+    List<WhatsAppTemplate> findBySalonId(Long salonId);
+
+    Optional<WhatsAppTemplate> findBySalonIdAndTipo(Long salonId, TipoMensagemWhatsApp tipo);
+}
@@ -134,9 +134,10 @@ public class LembreteAgendamentoJob {
 
         // Generate confirmation link with token
         String token = agendamento.getTokenConfirmacao();
-        String linkConfirmacao = String.format("%s/confirmar-agendamento/%s", frontendUrl, token);
+        String linkConfirmacao = frontendUrl + "/confirmar-agendamento/" + token;
 
         whatsAppService.enviarLembrete24h(
+            agendamento.getSalon() != null ? agendamento.getSalon().getId() : null,
             cliente.getUsuario().getTelefone(),
             nomeCliente,
             data,
@@ -166,6 +167,7 @@ public class LembreteAgendamentoJob {
             : "Salão";
 
         whatsAppService.enviarLembrete2h(
+            agendamento.getSalon() != null ? agendamento.getSalon().getId() : null,
             cliente.getUsuario().getTelefone(),
             nomeCliente,
             hora,
@@ -0,0 +1,49 @@
+package com.belezza.api.scheduler;
+
+import com.belezza.api.service.PostEngagementService;
+import com.belezza.api.service.PostEngagementService.EngagementDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Scheduled job that writes engagement counters aggregated from Meta webhooks to the posts table.
+ * Runs every 5 seconds by default.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostEngagementFlushJob {
+
+    private final PostEngagementService engagementService;
+
+    @Scheduled(fixedDelayString = "${belezza.meta.engagement-flush.interval-ms:5000}")
+    public void flushEngagement() {
+        Map<String, EngagementDelta> deltas = engagementService.drain();
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            int updated = engagementService.apply(deltas);
+            log.debug("Engagement flush: {} posts updated", updated);
+        } catch (Exception e) {
+            log.error("Error flushing post engagement, keeping {} deltas for next run: {}",
+                deltas.size(), e.getMessage(), e);
+            engagementService.restore(deltas);
+        }
+    }
+
+    /**
+     * Flush pending counters before the application stops.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushEngagement();
+    }
+}
@@ -0,0 +1,42 @@
+package com.belezza.api.scheduler;
+
+import com.belezza.api.service.PostMetricsSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Scheduled job that refreshes metrics of recently published posts from the Meta Graph API.
+ * Runs every 15 minutes by default; each publication is only fetched when its refresh tier is due.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostMetricsSyncJob {
+
+    private final PostMetricsSyncService metricsSyncService;
+
+    @Scheduled(
+        fixedDelayString = "${belezza.meta.metrics-sync.interval-ms:900000}",
+        initialDelayString = "${belezza.meta.metrics-sync.initial-delay-ms:60000}"
+    )
+    public void syncMetrics() {
+        List<Long> salonIds = metricsSyncService.findSalonsToSync();
+        int updated = 0;
+
+        for (Long salonId : salonIds) {
+            try {
+                updated += metricsSyncService.syncSalon(salonId);
+            } catch (Exception e) {
+                log.error("Error syncing post metrics for salon {}: {}", salonId, e.getMessage(), e);
+            }
+        }
+
+        if (updated > 0) {
+            log.info("Post metrics sync completed: {} posts updated across {} salons", updated, salonIds.size());
+        }
+    }
+}
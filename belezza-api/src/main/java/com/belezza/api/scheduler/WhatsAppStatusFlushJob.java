@@ -0,0 +1,57 @@
+package com.belezza.api.scheduler;
+
+import com.belezza.api.service.WhatsAppStatusService;
+import com.belezza.api.service.WhatsAppStatusService.StatusUpdate;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Scheduled job that flushes WhatsApp status callbacks buffered by the webhook.
+ * Runs every second; each run drains the buffer in batches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WhatsAppStatusFlushJob {
+
+    private final WhatsAppStatusService statusService;
+
+    @Value("${belezza.whatsapp.status-flush.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${belezza.whatsapp.status-flush.interval-ms:1000}")
+    public void flushStatusUpdates() {
+        List<StatusUpdate> batch = statusService.drain(batchSize);
+
+        while (!batch.isEmpty()) {
+            try {
+                int updated = statusService.applyBatch(batch);
+                log.debug("Flush de status WhatsApp: {} mensagens atualizadas", updated);
+            } catch (Exception e) {
+                log.error("Erro ao aplicar status WhatsApp, reenfileirando {} atualizações: {}",
+                    batch.size(), e.getMessage(), e);
+                statusService.requeue(batch);
+                return;
+            }
+
+            batch = statusService.drain(batchSize);
+        }
+    }
+
+    /**
+     * Flush whatever is still buffered before the application stops.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (statusService.getPendingCount() > 0) {
+            log.info("Aplicando {} status WhatsApp pendentes antes do shutdown", statusService.getPendingCount());
+            flushStatusUpdates();
+        }
+    }
+}
@@ -105,8 +105,10 @@ public class RateLimitFilter extends OncePerRequestFilter {
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
-        // Skip rate limiting for health checks and actuator endpoints
+        // Skip rate limiting for health checks, actuator endpoints and Meta webhooks
+        // (deliveries burst from a few addresses and are authenticated by their signature)
         return path.startsWith("/actuator/") ||
+               path.startsWith("/api/webhooks/") ||
                path.startsWith("/api/public/health") ||
                path.startsWith("/api/public/ping");
     }
@@ -0,0 +1,64 @@
+package com.belezza.api.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies the X-Hub-Signature-256 header sent by Meta on webhook deliveries.
+ * The signature is an HMAC-SHA256 of the raw request body keyed with the app secret.
+ * Without an app secret every delivery is rejected, so set META_APP_SECRET wherever webhooks are received.
+ */
+@Component
+@Slf4j
+public class WebhookSignatureVerifier {
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${belezza.meta.app-secret:}")
+    private String appSecret;
+
+    private final AtomicBoolean missingSecretLogged = new AtomicBoolean();
+
+    /**
+     * Check the signature header against the raw payload.
+     *
+     * @param rawPayload      the request body exactly as received
+     * @param signatureHeader the X-Hub-Signature-256 header value (may be null)
+     * @return true if the signature is valid; false if it is not or no app secret is configured
+     */
+    public boolean isValid(String rawPayload, String signatureHeader) {
+        if (appSecret == null || appSecret.isEmpty()) {
+            if (missingSecretLogged.compareAndSet(false, true)) {
+                log.error("belezza.meta.app-secret is not configured; rejecting all webhook deliveries");
+            }
+            return false;
+        }
+
+        if (signatureHeader == null || !signatureHeader.startsWith(SIGNATURE_PREFIX)) {
+            log.warn("Webhook request without a valid signature header");
+            return false;
+        }
+
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(appSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            byte[] expected = mac.doFinal(rawPayload.getBytes(StandardCharsets.UTF_8));
+            byte[] received = HexFormat.of().parseHex(signatureHeader.substring(SIGNATURE_PREFIX.length()));
+
+            return MessageDigest.isEqual(expected, received);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            log.warn("Could not verify webhook signature: {}", e.getMessage());
+            return false;
+        }
+    }
+}
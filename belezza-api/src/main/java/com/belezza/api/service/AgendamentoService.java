@@ -1,5 +1,6 @@
 package com.belezza.api.service;
 
+import com.belezza.api.dto.CursorPage;
 import com.belezza.api.dto.agendamento.AgendamentoRequest;
 import com.belezza.api.dto.agendamento.AgendamentoResponse;
 import com.belezza.api.dto.agendamento.CancelamentoRequest;
@@ -11,6 +12,7 @@ import com.belezza.api.integration.WhatsAppService;
 import com.belezza.api.repository.AgendamentoRepository;
 import com.belezza.api.repository.ClienteRepository;
 import com.belezza.api.repository.HorarioTrabalhoRepository;
+import com.belezza.api.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -32,6 +34,9 @@ import java.util.UUID;
 @Slf4j
 public class AgendamentoService {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
     private final AgendamentoRepository agendamentoRepository;
     private final ClienteRepository clienteRepository;
     private final HorarioTrabalhoRepository horarioTrabalhoRepository;
@@ -217,6 +222,45 @@ public class AgendamentoService {
                 .map(AgendamentoResponse::fromEntity);
     }
 
+    /**
+     * Keyset variant of the salon listing, ordered by date and time.
+     *
+     * @param cursor       token from the previous page; null for the first one
+     * @param incluirTotal whether to count all the salon's appointments
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AgendamentoResponse> listarPorSalon(Long salonId, String cursor, int size, boolean incluirTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return CursorPage.of(
+                agendamentoRepository.findBySalonIdAfter(salonId, after.valor(), after.id(), CursorPage.request(size)),
+                size, AgendamentoService::cursorOf, AgendamentoResponse::fromEntity,
+                incluirTotal ? () -> agendamentoRepository.countBySalonId(salonId) : null);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AgendamentoResponse> listarPorCliente(Long clienteId, String cursor, int size, boolean incluirTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return CursorPage.of(
+                agendamentoRepository.findByClienteIdAfter(clienteId, after.valor(), after.id(), CursorPage.request(size)),
+                size, AgendamentoService::cursorOf, AgendamentoResponse::fromEntity,
+                incluirTotal ? () -> agendamentoRepository.countByClienteId(clienteId) : null);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AgendamentoResponse> listarPorProfissional(Long profissionalId, String cursor, int size,
+                                                                 boolean incluirTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor, false);
+        return CursorPage.of(
+                agendamentoRepository.findByProfissionalIdAfter(profissionalId, after.valor(), after.id(),
+                        CursorPage.request(size)),
+                size, AgendamentoService::cursorOf, AgendamentoResponse::fromEntity,
+                incluirTotal ? () -> agendamentoRepository.countByProfissionalId(profissionalId) : null);
+    }
+
+    private static KeysetCursor cursorOf(Agendamento agendamento) {
+        return KeysetCursor.of(agendamento.getDataHora(), agendamento.getId());
+    }
+
     @Transactional(readOnly = true)
     public List<AgendamentoResponse> listarAgendaDiaria(Long profissionalId, LocalDateTime data) {
         LocalDateTime dayStart = data.toLocalDate().atStartOfDay();
@@ -519,12 +563,9 @@ public class AgendamentoService {
                 return;
             }
 
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-
             String nomeCliente = cliente.getUsuario().getNome() != null ? cliente.getUsuario().getNome() : "Cliente";
-            String data = agendamento.getDataHora().format(dateFormatter);
-            String hora = agendamento.getDataHora().format(timeFormatter);
+            String data = agendamento.getDataHora().format(DATE_FORMATTER);
+            String hora = agendamento.getDataHora().format(TIME_FORMATTER);
 
             // Get service name (from single service or first service in list)
             String servico = "Serviço";
@@ -548,6 +589,7 @@ public class AgendamentoService {
             String linkConfirmacao = frontendUrl + "/confirmar-agendamento/" + agendamento.getTokenConfirmacao();
 
             whatsAppService.enviarConfirmacaoAgendamento(
+                salon.getId(),
                 cliente.getUsuario().getTelefone(),
                 nomeCliente,
                 data,
@@ -580,6 +622,7 @@ public class AgendamentoService {
             String linkAvaliacao = frontendUrl + "/avaliar/" + agendamento.getTokenConfirmacao();
 
             whatsAppService.enviarPosAtendimento(
+                agendamento.getSalon().getId(),
                 cliente.getUsuario().getTelefone(),
                 nomeCliente,
                 linkAvaliacao
@@ -603,12 +646,9 @@ public class AgendamentoService {
                 return;
             }
 
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-
             String nomeCliente = cliente.getUsuario().getNome() != null ? cliente.getUsuario().getNome() : "Cliente";
-            String data = agendamento.getDataHora().format(dateFormatter);
-            String hora = agendamento.getDataHora().format(timeFormatter);
+            String data = agendamento.getDataHora().format(DATE_FORMATTER);
+            String hora = agendamento.getDataHora().format(TIME_FORMATTER);
 
             // Get service name (from single service or first service in list)
             String servico = "Serviço";
@@ -621,6 +661,7 @@ public class AgendamentoService {
             String linkReagendar = frontendUrl + "/agendar/" + agendamento.getSalon().getId();
 
             whatsAppService.enviarCancelamento(
+                agendamento.getSalon().getId(),
                 cliente.getUsuario().getTelefone(),
                 nomeCliente,
                 data,
@@ -0,0 +1,303 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.Plano;
+import com.belezza.api.integration.CaptionAIService.CaptionRequest;
+import com.belezza.api.integration.CaptionAIService.CaptionResponse;
+import com.belezza.api.integration.CaptionAIService.CaptionStreamEvent;
+import com.belezza.api.repository.SalonRepository;
+import com.belezza.api.util.ContentHash;
+import com.belezza.api.util.MinHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory cache of generated captions, per salon.
+ *
+ * Requests are normalised (case, accents, punctuation, spacing) before they are fingerprinted,
+ * so trivially different inputs hit the same entry. When there is no exact match, a caption
+ * generated for a near-identical description with the same platform, service, tone, language
+ * and style is reused: descriptions are compared by MinHash estimates of their shingle
+ * similarity. Entries live for a TTL that depends on the salon's plan, and the hit ratio is
+ * exported as {@code belezza.caption.cache.hit.ratio}.
+ */
+@Service
+@Slf4j
+public class CaptionCache {
+
+    private static final int SIGNATURE_SIZE = 64;
+    private static final long SIGNATURE_SEED = 0x5EEDCAB1L;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final SalonRepository salonRepository;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final double similarityThreshold;
+    private final Duration defaultTtl;
+    private final Map<Plano, Duration> ttlByPlan = new EnumMap<>(Plano.class);
+    private final MinHash minHash = new MinHash(SIGNATURE_SIZE, SIGNATURE_SEED);
+
+    // Access order, so the least recently used entry is evicted first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Similarity candidates by context; scanning them leaves the access order alone
+    private final Map<String, Map<String, Entry>> entriesByContext = new HashMap<>();
+
+    private final Counter exactHits;
+    private final Counter similarHits;
+    private final Counter misses;
+
+    public CaptionCache(SalonRepository salonRepository,
+                        @Value("${belezza.ai.caption-cache.enabled:true}") boolean enabled,
+                        @Value("${belezza.ai.caption-cache.max-entries:10000}") int maxEntries,
+                        @Value("${belezza.ai.caption-cache.similarity-threshold:0.8}") double similarityThreshold,
+                        @Value("${belezza.ai.caption-cache.ttl-minutes.default:1440}") long defaultTtlMinutes,
+                        @Value("${belezza.ai.caption-cache.ttl-minutes.free:10080}") long freeTtlMinutes,
+                        @Value("${belezza.ai.caption-cache.ttl-minutes.pro:1440}") long proTtlMinutes,
+                        @Value("${belezza.ai.caption-cache.ttl-minutes.premium:360}") long premiumTtlMinutes,
+                        MeterRegistry meterRegistry) {
+        this.salonRepository = salonRepository;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.similarityThreshold = similarityThreshold;
+        this.defaultTtl = Duration.ofMinutes(defaultTtlMinutes);
+        ttlByPlan.put(Plano.FREE, Duration.ofMinutes(freeTtlMinutes));
+        ttlByPlan.put(Plano.PRO, Duration.ofMinutes(proTtlMinutes));
+        ttlByPlan.put(Plano.PREMIUM, Duration.ofMinutes(premiumTtlMinutes));
+
+        this.exactHits = requests(meterRegistry, "exact");
+        this.similarHits = requests(meterRegistry, "similar");
+        this.misses = requests(meterRegistry, "miss");
+        Gauge.builder("belezza.caption.cache.hit.ratio", this, CaptionCache::hitRatio)
+            .description("Share of caption requests served from the cache")
+            .register(meterRegistry);
+        Gauge.builder("belezza.caption.cache.size", this, CaptionCache::size)
+            .description("Cached captions")
+            .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("belezza.caption.cache.requests")
+            .description("Caption requests by cache result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Cached caption for the request, or generate one and cache it.
+     *
+     * @param salonId salon the caption is for; null for requests outside a salon
+     */
+    public CaptionResponse getOrGenerate(Long salonId, CaptionRequest request, Supplier<CaptionResponse> generator) {
+        if (!enabled) {
+            return generator.get();
+        }
+
+        Optional<CaptionResponse> cached = lookup(salonId, request);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        CaptionResponse response = generator.get();
+        put(salonId, request, response);
+        return response;
+    }
+
+    /**
+     * Streaming variant: a cached caption is emitted at once as a completed event; otherwise the
+     * generated stream is relayed and its completed caption cached. The lookup and the generator
+     * call happen before returning, on the caller's thread.
+     */
+    public Flux<CaptionStreamEvent> getOrStream(Long salonId, CaptionRequest request,
+                                                Supplier<Flux<CaptionStreamEvent>> generator) {
+        if (!enabled) {
+            return generator.get();
+        }
+
+        Optional<CaptionResponse> cached = lookup(salonId, request);
+        if (cached.isPresent()) {
+            return Flux.just(CaptionStreamEvent.completed(cached.get()));
+        }
+
+        // Resolved here: the stream completes on an I/O thread, where the database must not be used
+        Duration ttl = ttlFor(salonId);
+        return generator.get()
+            .doOnNext(event -> {
+                if (event.isCompleted()) {
+                    store(salonId, request, event.caption(), ttl);
+                }
+            });
+    }
+
+    /**
+     * Exact match on the normalised request first, then the most similar description in the same context.
+     */
+    Optional<CaptionResponse> lookup(Long salonId, CaptionRequest request) {
+        String context = contextKey(salonId, request);
+        String description = normalize(request.imageDescription());
+        String key = exactKey(context, description);
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            Entry exact = entries.get(key);
+            if (exact != null) {
+                if (!exact.isExpired(now)) {
+                    exactHits.increment();
+                    return Optional.of(exact.response());
+                }
+                remove(key);
+            }
+
+            if (similarityThreshold <= 1.0) {
+                Entry similar = mostSimilar(context, minHash.signature(description), now);
+                if (similar != null) {
+                    similarHits.increment();
+                    log.debug("Caption for salon {} served from a similar description", salonId);
+                    return Optional.of(similar.response());
+                }
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Cache a generated caption for the salon's TTL.
+     */
+    void put(Long salonId, CaptionRequest request, CaptionResponse response) {
+        store(salonId, request, response, ttlFor(salonId));
+    }
+
+    private void store(Long salonId, CaptionRequest request, CaptionResponse response, Duration ttl) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+
+        String context = contextKey(salonId, request);
+        String description = normalize(request.imageDescription());
+        String key = exactKey(context, description);
+        Entry entry = new Entry(context, minHash.signature(description), response, System.nanoTime() + ttl.toNanos());
+
+        synchronized (this) {
+            entries.put(key, entry);
+            entriesByContext.computeIfAbsent(context, c -> new HashMap<>()).put(key, entry);
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                unindex(evicted.getKey(), evicted.getValue().context());
+            }
+        }
+    }
+
+    private Entry mostSimilar(String context, long[] signature, long now) {
+        Map<String, Entry> candidates = entriesByContext.get(context);
+        if (candidates == null) {
+            return null;
+        }
+
+        String bestKey = null;
+        double bestSimilarity = similarityThreshold;
+        for (Map.Entry<String, Entry> candidate : List.copyOf(candidates.entrySet())) {
+            if (candidate.getValue().isExpired(now)) {
+                remove(candidate.getKey());
+                continue;
+            }
+            double similarity = MinHash.similarity(signature, candidate.getValue().signature());
+            if (similarity >= bestSimilarity) {
+                bestKey = candidate.getKey();
+                bestSimilarity = similarity;
+            }
+        }
+        // Only the entry served counts as used
+        return bestKey == null ? null : entries.get(bestKey);
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            unindex(key, removed.context());
+        }
+    }
+
+    private void unindex(String key, String context) {
+        Map<String, Entry> candidates = entriesByContext.get(context);
+        if (candidates != null) {
+            candidates.remove(key);
+            if (candidates.isEmpty()) {
+                entriesByContext.remove(context);
+            }
+        }
+    }
+
+    /**
+     * TTL by plan: paying salons get fresher captions, free salons reuse them longer.
+     */
+    private Duration ttlFor(Long salonId) {
+        if (salonId == null) {
+            return defaultTtl;
+        }
+        return salonRepository.findPlanoById(salonId)
+            .map(ttlByPlan::get)
+            .orElse(defaultTtl);
+    }
+
+    /**
+     * Everything but the description: only captions generated for the same salon, platform,
+     * service, tone, language and style are candidates for reuse.
+     */
+    private static String contextKey(Long salonId, CaptionRequest request) {
+        return String.join("|",
+            String.valueOf(salonId),
+            String.valueOf(request.plataforma()),
+            String.valueOf(request.tipoServico()),
+            normalize(request.tom()),
+            normalize(request.idioma()),
+            normalize(request.estiloSalao()));
+    }
+
+    private static String exactKey(String context, String description) {
+        return ContentHash.sha256((context + "|" + description).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lower case without accents, punctuation or repeated spaces.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutAccents = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    double hitRatio() {
+        double hits = exactHits.count() + similarHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(String context, long[] signature, CaptionResponse response, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.ObjetoArmazenado;
+import com.belezza.api.integration.S3Service;
+import com.belezza.api.repository.ObjetoArmazenadoRepository;
+import com.belezza.api.util.ImageEncoder.EncodedImage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image storage.
+ *
+ * Objects are stored under a key derived from the SHA-256 of their content, so an identical
+ * upload finds the existing object and only adds a reference. Renditions are stored through
+ * {@link RenditionCache} and referenced here.
+ *
+ * The reference is normally taken before deciding whether to upload. Taking it locks the row until
+ * the caller's transaction ends, and unreferenced objects are only deleted under that same lock, so
+ * content found stored cannot be deleted before the caller commits. Image uploads, which must not
+ * hold that lock while uploading, look the content up with {@link #findKey}, upload, and then commit
+ * the reference on its own; if it is the first one they check the content is still in S3.
+ */
+@Service
+@Slf4j
+public class ContentStorageService {
+
+    private static final String THUMBNAIL_PREFIX = "thumbnails/";
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("\\.[a-z0-9]{1,5}");
+
+    private final ObjetoArmazenadoRepository objetoRepository;
+    private final S3Service s3Service;
+    private final TransactionTemplate newTransaction;
+
+    public ContentStorageService(ObjetoArmazenadoRepository objetoRepository,
+                                 S3Service s3Service,
+                                 PlatformTransactionManager transactionManager) {
+        this.objetoRepository = objetoRepository;
+        this.s3Service = s3Service;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * A reference held by the caller's transaction.
+     *
+     * @param key    S3 key of the content
+     * @param stored whether the content was already stored; if not, the caller must upload it to the key
+     */
+    public record Reference(String key, boolean stored) {
+    }
+
+    /**
+     * Stored content referenced by the caller's transaction, uploaded unless it already was.
+     *
+     * @param reused whether the content was already stored and no upload was needed
+     * @param key    future completed with the key once the content is in S3
+     */
+    public record StoredContent(boolean reused, CompletableFuture<String> key) {
+    }
+
+    /**
+     * S3 key for content with the given hash, fanned out by the first hash byte.
+     */
+    public static String contentKey(String prefix, String hash, String extension) {
+        return prefix + hash.substring(0, 2) + "/" + hash + extension;
+    }
+
+    /**
+     * S3 key of the thumbnail derived from an original. It lives and dies with the original.
+     * The key has no extension: the encoder picks the format and the object carries its content type.
+     */
+    public static String thumbnailKey(String hash) {
+        return THUMBNAIL_PREFIX + hash;
+    }
+
+    /**
+     * Key of already stored content, if any. Only a hint: use {@link #reference} before relying on it.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findKey(String hash) {
+        return objetoRepository.findByHash(hash).map(ObjetoArmazenado::getChave);
+    }
+
+    /**
+     * S3 key for an uploaded file, keeping its extension.
+     */
+    public static String fileKey(MultipartFile file, String hash, String prefix) {
+        return contentKey(prefix, hash, extension(file.getOriginalFilename()));
+    }
+
+    /**
+     * Reference an encoded image (e.g. a local edit), uploading it unless content with the same hash is already stored.
+     */
+    @Transactional
+    public StoredContent storeEncoded(EncodedImage image, String hash, String prefix) {
+        Reference reference = reference(hash, contentKey(prefix, hash, image.format().getExtension()),
+            image.data().length, image.contentType());
+        if (reference.stored()) {
+            log.debug("Content {} already stored, skipping upload", hash);
+            return new StoredContent(true, CompletableFuture.completedFuture(reference.key()));
+        }
+        return new StoredContent(false, s3Service.uploadBytesToKeyAsync(image.data(), image.contentType(), reference.key()));
+    }
+
+    /**
+     * Record one more image or version pointing at content, creating its row if needed.
+     * If the content was not already stored, the caller uploads it to the returned key
+     * before its transaction commits.
+     */
+    @Transactional
+    public Reference reference(String hash, String key, long tamanhoBytes, String tipoMime) {
+        if (objetoRepository.addReference(hash) == 0) {
+            insertUnreferenced(hash, key, tamanhoBytes, tipoMime);
+            if (objetoRepository.addReference(hash) == 0) {
+                throw new IllegalStateException("Stored content " + hash + " was deleted while being referenced");
+            }
+        }
+
+        // Our reference is counted; any other one was committed by a transaction that stored the content
+        int referencias = objetoRepository.findReferenciasByHash(hash).orElseThrow();
+        String storedKey = objetoRepository.findChaveByHash(hash).orElseThrow();
+        return new Reference(storedKey, referencias > 1);
+    }
+
+    /**
+     * Drop a reference. When none remain, the S3 object (and its thumbnail) is deleted
+     * after the transaction commits.
+     */
+    @Transactional
+    public void release(String hash) {
+        if (hash == null || objetoRepository.removeReference(hash) == 0) {
+            return;
+        }
+
+        if (objetoRepository.findReferenciasByHash(hash).orElse(0) == 0) {
+            runAfterCommit(() -> deleteIfUnreferenced(hash));
+        }
+    }
+
+    /**
+     * Insert the row without references in its own transaction, so a unique violation from a
+     * concurrent insert of the same content does not abort the caller's transaction.
+     */
+    private void insertUnreferenced(String hash, String key, long tamanhoBytes, String tipoMime) {
+        try {
+            newTransaction.executeWithoutResult(status -> objetoRepository.saveAndFlush(ObjetoArmazenado.builder()
+                .hash(hash)
+                .chave(key)
+                .tamanhoBytes(tamanhoBytes)
+                .tipoMime(tipoMime)
+                .referencias(0)
+                .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Content {} was stored concurrently, adding the reference to it", hash);
+        }
+    }
+
+    /**
+     * Delete content that is still unreferenced. The S3 objects are deleted while the row is locked,
+     * so a concurrent {@link #reference} waits, then finds no row and uploads the content again.
+     */
+    private void deleteIfUnreferenced(String hash) {
+        try {
+            newTransaction.executeWithoutResult(status -> objetoRepository.findByHashForUpdate(hash)
+                .filter(objeto -> objeto.getReferencias() == 0)
+                .ifPresent(objeto -> {
+                    s3Service.deleteFile(objeto.getChave());
+                    s3Service.deleteFile(thumbnailKey(hash));
+                    objetoRepository.deleteIfUnreferenced(hash);
+                    log.info("Unreferenced content {} deleted from S3", hash);
+                }));
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete unreferenced content {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String extension(String filename) {
+        if (filename != null && filename.contains(".")) {
+            String extension = filename.substring(filename.lastIndexOf(".")).toLowerCase();
+            if (EXTENSION_PATTERN.matcher(extension).matches()) {
+                return extension;
+            }
+        }
+        return "";
+    }
+}
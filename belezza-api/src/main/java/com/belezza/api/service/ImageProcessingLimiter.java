@@ -0,0 +1,207 @@
+package com.belezza.api.service;
+
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for image decoding, by estimated decoded size (pixels x 4 bytes).
+ *
+ * Work is admitted while the estimates of everything in flight fit the memory budget, and a
+ * single salon may hold at most its share of it, so one salon uploading a batch cannot starve
+ * the others. Work that does not fit waits in arrival order, skipping waiters whose salon is at
+ * its share, and is rejected with 429 after the maximum wait. Wait and processing time are
+ * exported as {@code belezza.image.admission.wait} and {@code belezza.image.processing.time}.
+ */
+@Service
+@Slf4j
+public class ImageProcessingLimiter {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final long budgetBytes;
+    private final long salonBudgetBytes;
+    private final long maxWaitMillis;
+    private final MeterRegistry meterRegistry;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final Map<Long, Long> salonBytes = new HashMap<>();
+    private long inUseBytes;
+
+    public ImageProcessingLimiter(@Value("${belezza.image.processing.memory-budget-mb:0}") long memoryBudgetMb,
+                                  @Value("${belezza.image.processing.salon-share:0.5}") double salonShare,
+                                  @Value("${belezza.image.processing.max-wait-ms:10000}") long maxWaitMillis,
+                                  MeterRegistry meterRegistry) {
+        // 0 = a quarter of the maximum heap
+        this.budgetBytes = memoryBudgetMb > 0 ? memoryBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 4;
+        this.salonBudgetBytes = Math.max(1, (long) (budgetBytes * salonShare));
+        this.maxWaitMillis = maxWaitMillis;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("belezza.image.processing.memory.in-use", this, ImageProcessingLimiter::inUseBytes)
+            .baseUnit("bytes")
+            .description("Estimated memory of decoded images in flight")
+            .register(meterRegistry);
+
+        log.info("Image processing memory budget: {} MB ({} MB per salon)",
+            budgetBytes / (1024 * 1024), salonBudgetBytes / (1024 * 1024));
+    }
+
+    /**
+     * Estimated heap needed to decode an image of the given size.
+     */
+    public static long estimateBytes(long width, long height) {
+        return width * height * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * Wait until the estimated bytes fit the budget.
+     * An estimate larger than the salon's share is capped to it, so such images run alone.
+     *
+     * @param salonId   salon the work is done for
+     * @param bytes     estimated decoded size
+     * @param operation tag for the processing timer (e.g. "thumbnail", "versions")
+     * @return permit to close when the decoded pixels are no longer referenced
+     * @throws RateLimitExceededException if the work cannot be admitted within the maximum wait
+     */
+    public Permit acquire(Long salonId, long bytes, String operation) {
+        Waiter waiter = new Waiter(salonId, Math.min(bytes, salonBudgetBytes));
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        synchronized (this) {
+            waiters.addLast(waiter);
+            try {
+                while (!canAdmit(waiter)) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        recordWait(start, "rejected");
+                        log.warn("Image processing rejected for salon {}: {} bytes, {} of {} in use",
+                            salonId, waiter.bytes(), inUseBytes, budgetBytes);
+                        throw new RateLimitExceededException(
+                            "Processamento de imagens sobrecarregado. Tente novamente em alguns segundos.");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("Image processing interrupted");
+            } finally {
+                waiters.remove(waiter);
+                // Waiters behind this one may be admissible now
+                notifyAll();
+            }
+
+            inUseBytes += waiter.bytes();
+            salonBytes.merge(salonId, waiter.bytes(), Long::sum);
+        }
+
+        recordWait(start, "admitted");
+        return new Permit(waiter, Timer.start(meterRegistry), operation);
+    }
+
+    /**
+     * First waiter in arrival order that fits. Waiters that do not fit (the budget, or their
+     * salon's share) are skipped, so a salon at its share does not block the others.
+     */
+    private boolean canAdmit(Waiter waiter) {
+        if (!fits(waiter)) {
+            return false;
+        }
+        for (Waiter earlier : waiters) {
+            if (earlier == waiter) {
+                return true;
+            }
+            if (fits(earlier)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fits(Waiter waiter) {
+        return inUseBytes + waiter.bytes() <= budgetBytes
+            && salonBytes.getOrDefault(waiter.salonId(), 0L) + waiter.bytes() <= salonBudgetBytes;
+    }
+
+    private synchronized void release(Waiter waiter) {
+        inUseBytes -= waiter.bytes();
+        salonBytes.computeIfPresent(waiter.salonId(), (salonId, bytes) -> bytes == waiter.bytes() ? null : bytes - waiter.bytes());
+        notifyAll();
+    }
+
+    private void recordWait(long start, String outcome) {
+        Timer.builder("belezza.image.admission.wait")
+            .description("Time image processing waited for the memory budget")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized long inUseBytes() {
+        return inUseBytes;
+    }
+
+    /**
+     * Queued or admitted work. Compared by identity: two requests of the same size are two waiters.
+     */
+    private static final class Waiter {
+
+        private final Long salonId;
+        private final long bytes;
+
+        private Waiter(Long salonId, long bytes) {
+            this.salonId = salonId;
+            this.bytes = bytes;
+        }
+
+        Long salonId() {
+            return salonId;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * Admitted work. Closing it returns the bytes to the budget and records the processing time.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final Waiter waiter;
+        private final Timer.Sample sample;
+        private final String operation;
+        private boolean released;
+
+        private Permit(Waiter waiter, Timer.Sample sample, String operation) {
+            this.waiter = waiter;
+            this.sample = sample;
+            this.operation = operation;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            sample.stop(Timer.builder("belezza.image.processing.time")
+                .description("Time image processing held its memory budget")
+                .tag("operation", operation)
+                .register(meterRegistry));
+            release(waiter);
+        }
+    }
+}
@@ -4,27 +4,43 @@ import com.belezza.api.dto.imagem.*;
 import com.belezza.api.entity.*;
 import com.belezza.api.exception.BusinessException;
 import com.belezza.api.exception.ResourceNotFoundException;
+import com.belezza.api.integration.DownloadedImage;
 import com.belezza.api.integration.ImageAIService;
+import com.belezza.api.integration.ImageDownloader;
 import com.belezza.api.integration.S3Service;
 import com.belezza.api.repository.ImagemRepository;
 import com.belezza.api.repository.SalonRepository;
 import com.belezza.api.repository.UsuarioRepository;
+import com.belezza.api.service.RenditionCache.CachedRendition;
+import com.belezza.api.util.ColorGrade;
+import com.belezza.api.util.ContentHash;
+import com.belezza.api.util.ImageEncoder.EncodedImage;
+import com.belezza.api.util.ImageOperations;
 import com.belezza.api.util.ImageProcessor;
 import com.belezza.api.util.ImageProcessor.AspectRatio;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.net.URI;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +49,6 @@ import java.util.stream.Collectors;
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 @Transactional
 public class ImageService {
 
@@ -43,66 +58,148 @@ public class ImageService {
     private final S3Service s3Service;
     private final ImageAIService imageAIService;
     private final ImageProcessor imageProcessor;
+    private final ImageOperations imageOperations;
+    private final ImageDownloader imageDownloader;
+    private final ContentStorageService contentStorageService;
+    private final RenditionCache renditionCache;
+    private final ImageProcessingLimiter processingLimiter;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor imageProcessingExecutor;
+
+    public ImageService(ImagemRepository imagemRepository,
+                        SalonRepository salonRepository,
+                        UsuarioRepository usuarioRepository,
+                        S3Service s3Service,
+                        ImageAIService imageAIService,
+                        ImageProcessor imageProcessor,
+                        ImageOperations imageOperations,
+                        ImageDownloader imageDownloader,
+                        ContentStorageService contentStorageService,
+                        RenditionCache renditionCache,
+                        ImageProcessingLimiter processingLimiter,
+                        SingleFlight singleFlight,
+                        TransactionTemplate transactionTemplate,
+                        @Qualifier("imageProcessingExecutor") Executor imageProcessingExecutor) {
+        this.imagemRepository = imagemRepository;
+        this.salonRepository = salonRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.s3Service = s3Service;
+        this.imageAIService = imageAIService;
+        this.imageProcessor = imageProcessor;
+        this.imageOperations = imageOperations;
+        this.imageDownloader = imageDownloader;
+        this.contentStorageService = contentStorageService;
+        this.renditionCache = renditionCache;
+        this.processingLimiter = processingLimiter;
+        this.singleFlight = singleFlight;
+        this.transactionTemplate = transactionTemplate;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+    }
 
     private static final List<String> ALLOWED_TYPES = Arrays.asList(
         "image/jpeg", "image/jpg", "image/png", "image/webp"
     );
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10 MB
+    private static final long MAX_PIXELS = 50_000_000L; // 50 MP
 
     /**
      * Upload a new image.
+     * Hashing, the thumbnail and the S3 uploads run outside any transaction. The content reference is
+     * committed in a short transaction before the image is saved in another one, and released if that fails.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImagemUploadResponse upload(Long salonId, Long usuarioId, MultipartFile file, String descricao) {
         // Validate file
         validateFile(file);
 
-        // Get salon and usuario
-        Salon salon = salonRepository.findById(salonId)
-            .orElseThrow(() -> new ResourceNotFoundException("Salon not found"));
+        // Get salon and usuario, and check storage limits
+        UploadOwner owner = transactionTemplate.execute(status -> {
+            Salon salon = salonRepository.findById(salonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Salon not found"));
 
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        // Check storage limits
-        checkStorageLimits(salon);
+            checkStorageLimits(salon);
+            return new UploadOwner(salon, usuario);
+        });
 
         try {
-            // Upload original to S3
-            String s3Key = s3Service.uploadFile(file, "originals/");
-            String urlOriginal = s3Service.getPublicUrl(s3Key);
-
-            // Generate and upload real thumbnail (300x300 center crop)
-            byte[] thumbnailData = imageProcessor.generateThumbnail(file);
-            String thumbnailKey = s3Service.uploadBytes(thumbnailData, "image/jpeg", "thumbnails/");
-            String thumbnailUrl = s3Service.getPublicUrl(thumbnailKey);
-
-            // Get image dimensions
-            BufferedImage bufferedImage = ImageIO.read(file.getInputStream());
-            int largura = bufferedImage.getWidth();
-            int altura = bufferedImage.getHeight();
-
-            // Create entity
-            Imagem imagem = Imagem.builder()
-                .salon(salon)
-                .criador(usuario)
-                .urlOriginal(urlOriginal)
-                .urlAtual(urlOriginal)
-                .thumbnailUrl(thumbnailUrl)
-                .nomeArquivo(file.getOriginalFilename())
-                .tamanhoBytes(file.getSize())
-                .tipoMime(file.getContentType())
-                .largura(largura)
-                .altura(altura)
-                .descricao(descricao)
-                .totalVersoes(1)
-                .ativo(true)
-                .build();
-
-            imagem = imagemRepository.save(imagem);
-
-            log.info("Image uploaded successfully: {}", imagem.getId());
-
-            return mapToUploadResponse(imagem);
+            // Read dimensions from the header and reject oversized images before decoding pixels;
+            // the same pass then hashes the rest of the file. The key depends on the hash, so the
+            // upload reads the file once more.
+            ImageProcessor.ImageDimensions dimensions;
+            String hash;
+            try (DigestInputStream inputStream = ContentHash.digesting(file.getInputStream())) {
+                dimensions = imageProcessor.readDimensions(inputStream);
+                validateResolution(dimensions);
+                hash = ContentHash.finish(inputStream);
+            }
+
+            // Identical content that looks stored is not uploaded again, and its thumbnail only when missing.
+            // Otherwise the original streams to S3 while the thumbnail is generated.
+            Optional<String> storedKey = contentStorageService.findKey(hash);
+            String originalKey = storedKey.orElseGet(() -> ContentStorageService.fileKey(file, hash, ORIGINALS_PREFIX));
+            String thumbnailKey = ContentStorageService.thumbnailKey(hash);
+
+            CompletableFuture<String> originalUpload = storedKey.isPresent()
+                ? CompletableFuture.completedFuture(originalKey)
+                : s3Service.uploadFileToKeyAsync(file, originalKey);
+            CompletableFuture<String> thumbnailUpload = storedKey.isPresent() && s3Service.fileExists(thumbnailKey)
+                ? CompletableFuture.completedFuture(thumbnailKey)
+                : uploadThumbnail(salonId, file, dimensions, thumbnailKey);
+            awaitUpload(originalUpload);
+            awaitUpload(thumbnailUpload);
+
+            // Once the reference is committed the content can no longer be deleted
+            ContentStorageService.Reference reference = transactionTemplate.execute(status ->
+                contentStorageService.reference(hash, originalKey, file.getSize(), file.getContentType()));
+
+            try {
+                if (storedKey.isEmpty() && !reference.key().equals(originalKey)) {
+                    // Stored concurrently under another key (another file extension); ours is unreferenced
+                    s3Service.deleteFile(originalKey);
+                }
+                if (!reference.stored()) {
+                    // First reference: the content may have been deleted after the lookup, or the row
+                    // may be left over from an upload that failed
+                    if (!s3Service.fileExists(reference.key())) {
+                        awaitUpload(s3Service.uploadFileToKeyAsync(file, reference.key()));
+                    }
+                    if (!s3Service.fileExists(thumbnailKey)) {
+                        awaitUpload(uploadThumbnail(salonId, file, dimensions, thumbnailKey));
+                    }
+                }
+
+                // Create entity
+                Imagem imagem = Imagem.builder()
+                    .salon(owner.salon())
+                    .criador(owner.usuario())
+                    .urlOriginal(s3Service.getPublicUrl(reference.key()))
+                    .urlAtual(s3Service.getPublicUrl(reference.key()))
+                    .thumbnailUrl(s3Service.getPublicUrl(thumbnailKey))
+                    .nomeArquivo(file.getOriginalFilename())
+                    .tamanhoBytes(file.getSize())
+                    .tipoMime(file.getContentType())
+                    .largura(dimensions.width())
+                    .altura(dimensions.height())
+                    .descricao(descricao)
+                    .hashConteudo(hash)
+                    .totalVersoes(1)
+                    .ativo(true)
+                    .build();
+
+                Imagem saved = transactionTemplate.execute(status -> imagemRepository.save(imagem));
+
+                log.info("Image uploaded successfully: {}", saved.getId());
+
+                return mapToUploadResponse(saved);
+
+            } catch (IOException | RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> contentStorageService.release(hash));
+                throw e;
+            }
 
         } catch (IOException e) {
             log.error("Error uploading image: {}", e.getMessage(), e);
@@ -138,24 +235,24 @@ public class ImageService {
 
     /**
      * Enhance image quality using AI.
+     * The prediction is awaited outside any transaction; only the new version is saved in one.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImagemResponse enhance(Long salonId, Long imagemId) {
-        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+        String imageUrl = currentUrl(salonId, imagemId);
 
         try {
             // Process with AI
-            String enhancedUrl = imageAIService.enhance(imagem.getUrlAtual());
-
-            // Create version
-            ImagemVersao versao = createVersion(imagem, enhancedUrl, "enhance", null);
+            String enhancedUrl = singleFlight.execute(
+                SingleFlight.key(imageUrl, "enhance", null),
+                () -> imageAIService.enhance(imageUrl));
 
-            // Update current URL
-            imagem.setUrlAtual(enhancedUrl);
-            imagemRepository.save(imagem);
+            ImagemResponse response = transactionTemplate.execute(status ->
+                saveAIVersion(salonId, imagemId, enhancedUrl, "enhance", null, 1));
 
             log.info("Image enhanced successfully: {}", imagemId);
 
-            return mapToResponse(imagem);
+            return response;
 
         } catch (Exception e) {
             log.error("Error enhancing image: {}", e.getMessage(), e);
@@ -165,21 +262,21 @@ public class ImageService {
 
     /**
      * Remove background from image.
+     * The prediction is awaited outside any transaction; only the new version is saved in one.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImagemResponse removeBackground(Long salonId, Long imagemId) {
-        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+        String imageUrl = currentUrl(salonId, imagemId);
 
         try {
-            String noBgUrl = imageAIService.removeBackground(imagem.getUrlAtual());
-
-            ImagemVersao versao = createVersion(imagem, noBgUrl, "remove-background", null);
+            String noBgUrl = removeBackgroundOnce(imageUrl);
 
-            imagem.setUrlAtual(noBgUrl);
-            imagemRepository.save(imagem);
+            ImagemResponse response = transactionTemplate.execute(status ->
+                saveAIVersion(salonId, imagemId, noBgUrl, "remove-background", null, 1));
 
             log.info("Background removed successfully: {}", imagemId);
 
-            return mapToResponse(imagem);
+            return response;
 
         } catch (Exception e) {
             log.error("Error removing background: {}", e.getMessage(), e);
@@ -189,23 +286,31 @@ public class ImageService {
 
     /**
      * Blur background of image.
+     * Only the subject mask comes from the AI provider; blur and compositing run locally,
+     * outside any transaction.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImagemResponse blurBackground(Long salonId, Long imagemId, int intensity) {
-        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+        String imageUrl = currentUrl(salonId, imagemId);
 
         try {
-            String blurredUrl = imageAIService.blurBackground(imagem.getUrlAtual(), intensity);
+            String cutoutUrl = removeBackgroundOnce(imageUrl);
 
-            String params = "{\"intensity\": " + intensity + "}";
-            ImagemVersao versao = createVersion(imagem, blurredUrl, "blur-background", params);
+            // Source, mask, blurred background and result are held at the same time
+            EncodedImage blurred = editImage(salonId, "blur-background", imageUrl, cutoutUrl, 4,
+                (source, mask) -> imageOperations.composite(source,
+                    imageOperations.gaussianBlur(source, blurSigma(source, intensity)), mask));
 
-            imagem.setUrlAtual(blurredUrl);
-            imagemRepository.save(imagem);
+            String params = "{\"intensity\": " + intensity + "}";
+            ImagemResponse response = transactionTemplate.execute(status ->
+                saveEditedVersion(salonId, imagemId, blurred, "blur-background", params));
 
             log.info("Background blurred successfully: {}", imagemId);
 
-            return mapToResponse(imagem);
+            return response;
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error blurring background: {}", e.getMessage(), e);
             throw new BusinessException("Failed to blur background: " + e.getMessage());
@@ -213,24 +318,26 @@ public class ImageService {
     }
 
     /**
-     * Apply style to image.
+     * Apply style to image: the style's colour grade, computed locally outside any transaction.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImagemResponse applyStyle(Long salonId, Long imagemId, StyleType style) {
-        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+        String imageUrl = currentUrl(salonId, imagemId);
 
         try {
-            String styledUrl = imageAIService.applyStyle(imagem.getUrlAtual(), style);
+            EncodedImage styled = editImage(salonId, "apply-style", imageUrl, null, 2,
+                (source, mask) -> imageOperations.applyGrade(source, ColorGrade.of(style)));
 
             String params = "{\"style\": \"" + style.name() + "\"}";
-            ImagemVersao versao = createVersion(imagem, styledUrl, "apply-style", params);
-
-            imagem.setUrlAtual(styledUrl);
-            imagemRepository.save(imagem);
+            ImagemResponse response = transactionTemplate.execute(status ->
+                saveEditedVersion(salonId, imagemId, styled, "apply-style", params));
 
             log.info("Style applied successfully: {}", imagemId);
 
-            return mapToResponse(imagem);
+            return response;
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error applying style: {}", e.getMessage(), e);
             throw new BusinessException("Failed to apply style: " + e.getMessage());
@@ -239,24 +346,24 @@ public class ImageService {
 
     /**
      * Upscale image resolution.
+     * The prediction is awaited outside any transaction; only the new version is saved in one.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImagemResponse upscale(Long salonId, Long imagemId, int factor) {
-        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+        String imageUrl = currentUrl(salonId, imagemId);
 
         try {
-            String upscaledUrl = imageAIService.upscale(imagem.getUrlAtual(), factor);
-
             String params = "{\"factor\": " + factor + "}";
-            ImagemVersao versao = createVersion(imagem, upscaledUrl, "upscale", params);
+            String upscaledUrl = singleFlight.execute(
+                SingleFlight.key(imageUrl, "upscale", params),
+                () -> imageAIService.upscale(imageUrl, factor));
 
-            imagem.setUrlAtual(upscaledUrl);
-            imagem.setLargura(imagem.getLargura() * factor);
-            imagem.setAltura(imagem.getAltura() * factor);
-            imagemRepository.save(imagem);
+            ImagemResponse response = transactionTemplate.execute(status ->
+                saveAIVersion(salonId, imagemId, upscaledUrl, "upscale", params, factor));
 
             log.info("Image upscaled successfully: {}", imagemId);
 
-            return mapToResponse(imagem);
+            return response;
 
         } catch (Exception e) {
             log.error("Error upscaling image: {}", e.getMessage(), e);
@@ -306,6 +413,10 @@ public class ImageService {
         imagem.setAtivo(false);
         imagemRepository.save(imagem);
 
+        // Stored content is shared; S3 objects go away with their last reference
+        contentStorageService.release(imagem.getHashConteudo());
+        imagem.getVersoes().forEach(versao -> contentStorageService.release(versao.getHashConteudo()));
+
         log.info("Image deleted (soft): {}", imagemId);
     }
 
@@ -313,84 +424,361 @@ public class ImageService {
      * Generate cropped versions for different social media platforms.
      * Creates versions for: Instagram Feed (1:1), Instagram Portrait (4:5),
      * Stories/Reels (9:16), and Facebook Cover (16:9).
+     *
+     * Crops are looked up in the rendition cache by source content hash first; only missing ones
+     * are rendered. The image is then decoded once and each missing version is cropped and encoded
+     * on the image processing pool.
+     *
+     * Waiting for the memory permit and rendering happen outside any transaction, so a connection is
+     * only held to read the image and, once every crop is rendered, to reference, upload and save them.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ImageVersionsResponse generateVersions(Long salonId, Long imagemId) {
-        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+        VersionSource versionSource = transactionTemplate.execute(status -> {
+            Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+            return new VersionSource(imagem.getUrlAtual(), knownContentHash(imagem));
+        });
 
+        DownloadedImage download = null;
+        ImageProcessingLimiter.Permit permit = null;
         try {
-            // Download current image from URL
-            byte[] imageData = downloadImage(imagem.getUrlAtual());
-            String contentType = imagem.getTipoMime();
-
-            Map<String, ImageVersionsResponse.ImageVersionInfo> versions = new LinkedHashMap<>();
+            // The hash of the current image is known unless it came from an AI provider
+            String sourceHash = versionSource.contentHash();
+            if (sourceHash == null) {
+                download = imageDownloader.download(versionSource.url());
+                sourceHash = download.contentHash();
+            }
 
-            // Generate each aspect ratio version
+            Map<AspectRatio, CompletableFuture<Optional<CachedRendition>>> lookups = new EnumMap<>(AspectRatio.class);
             for (AspectRatio ratio : AspectRatio.values()) {
-                try {
-                    byte[] croppedData = imageProcessor.cropToRatio(imageData, contentType, ratio);
-                    ImageProcessor.ImageDimensions dimensions = imageProcessor.getDimensions(croppedData);
-
-                    // Upload to S3
-                    String key = s3Service.uploadBytes(croppedData, "image/jpeg", "edited/");
-                    String url = s3Service.getPublicUrl(key);
-
-                    // Create version info
-                    ImageVersionsResponse.ImageVersionInfo versionInfo = ImageVersionsResponse.ImageVersionInfo.builder()
-                        .url(url)
-                        .width(dimensions.width())
-                        .height(dimensions.height())
-                        .aspectRatio(ratio.name().toLowerCase())
-                        .platform(ratio.getDescription())
-                        .build();
-
-                    versions.put(ratio.name().toLowerCase(), versionInfo);
-
-                    // Save as image version
-                    String params = "{\"aspectRatio\": \"" + ratio.name() + "\", \"platform\": \"" + ratio.getDescription() + "\"}";
-                    ImagemVersao versao = ImagemVersao.builder()
-                        .url(url)
-                        .operacao("crop")
-                        .parametros(params)
-                        .tamanhoBytes((long) croppedData.length)
-                        .largura(dimensions.width())
-                        .altura(dimensions.height())
-                        .numeroVersao(imagem.getTotalVersoes() + 1)
-                        .build();
-                    imagem.addVersao(versao);
-
-                    log.debug("Generated {} version for image {}", ratio.name(), imagemId);
+                lookups.put(ratio, renditionCache.lookup(sourceHash, CROP_OPERATION, cropParams(ratio)));
+            }
 
-                } catch (Exception e) {
-                    log.warn("Failed to generate {} version: {}", ratio.name(), e.getMessage());
+            Map<AspectRatio, CachedRendition> cached = new EnumMap<>(AspectRatio.class);
+            Map<AspectRatio, CompletableFuture<Rendition>> rendered = new EnumMap<>(AspectRatio.class);
+            BufferedImage source = null;
+            for (Map.Entry<AspectRatio, CompletableFuture<Optional<CachedRendition>>> entry : lookups.entrySet()) {
+                AspectRatio ratio = entry.getKey();
+                Optional<CachedRendition> hit = entry.getValue().join();
+                if (hit.isPresent()) {
+                    cached.put(ratio, hit.get());
+                    continue;
                 }
-            }
 
-            imagemRepository.save(imagem);
+                // Decode once, only when some crop is missing; every aspect ratio is cropped from the same raster
+                if (source == null) {
+                    if (download == null) {
+                        download = imageDownloader.download(versionSource.url());
+                    }
+                    ImageProcessor.ImageDimensions dimensions = readDimensions(download);
+                    permit = processingLimiter.acquire(salonId,
+                        ImageProcessingLimiter.estimateBytes(dimensions.width(), dimensions.height()), "versions");
+                    DownloadedImage downloaded = download;
+                    source = runOnProcessingPool(() -> imageProcessor.decode(downloaded.openImageStream()));
+                }
+
+                BufferedImage decoded = source;
+                rendered.put(ratio, CompletableFuture.supplyAsync(() -> renderCrop(decoded, ratio), imageProcessingExecutor));
+            }
 
-            log.info("Generated {} versions for image {}", versions.size(), imagemId);
+            // Every crop is encoded before the transaction starts; the decoded source is no longer referenced
+            CompletableFuture.allOf(rendered.values().toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            source = null;
+            if (permit != null) {
+                permit.close();
+            }
 
-            return ImageVersionsResponse.builder()
-                .imageId(imagemId)
-                .versions(versions)
-                .build();
+            String renderedHash = sourceHash;
+            return transactionTemplate.execute(status -> saveVersions(salonId, imagemId, renderedHash, cached, rendered));
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error generating versions: {}", e.getMessage(), e);
             throw new BusinessException("Failed to generate image versions: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+            closeQuietly(download);
         }
     }
 
     /**
-     * Download image from URL.
+     * Reference the cached and rendered crops and save them as versions of the image.
+     * Each crop is uploaded only if its content is not stored yet.
      */
-    private byte[] downloadImage(String imageUrl) throws IOException {
-        try (var inputStream = URI.create(imageUrl).toURL().openStream()) {
-            return inputStream.readAllBytes();
+    private ImageVersionsResponse saveVersions(Long salonId, Long imagemId, String sourceHash,
+                                               Map<AspectRatio, CachedRendition> cached,
+                                               Map<AspectRatio, CompletableFuture<Rendition>> rendered) {
+        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+
+        Map<AspectRatio, CompletableFuture<CachedRendition>> renditions = new EnumMap<>(AspectRatio.class);
+        Map<AspectRatio, String> referencedHashes = new EnumMap<>(AspectRatio.class);
+        for (AspectRatio ratio : AspectRatio.values()) {
+            CachedRendition hit = cached.get(ratio);
+            if (hit != null) {
+                // Rare: deleted since the lookup; the next request renders it again
+                renditions.put(ratio, referenceCached(hit).map(CompletableFuture::completedFuture)
+                    .orElseGet(() -> CompletableFuture.failedFuture(
+                        new IllegalStateException("cached rendition was deleted"))));
+                continue;
+            }
+
+            Rendition rendition;
+            try {
+                rendition = rendered.get(ratio).join();
+            } catch (CompletionException e) {
+                renditions.put(ratio, CompletableFuture.failedFuture(e.getCause() != null ? e.getCause() : e));
+                continue;
+            }
+
+            String params = cropParams(ratio);
+            ContentStorageService.Reference reference = contentStorageService.reference(rendition.hash(),
+                RenditionCache.key(sourceHash, CROP_OPERATION, params), rendition.data().length, RENDITION_CONTENT_TYPE);
+            referencedHashes.put(ratio, rendition.hash());
+            renditions.put(ratio, reference.stored()
+                ? CompletableFuture.completedFuture(new CachedRendition(reference.key(), rendition.hash(),
+                    rendition.width(), rendition.height(), rendition.data().length))
+                : renditionCache.store(sourceHash, CROP_OPERATION, params,
+                    rendition.data(), rendition.hash(), rendition.width(), rendition.height()));
         }
+
+        Map<String, ImageVersionsResponse.ImageVersionInfo> versions = new LinkedHashMap<>();
+
+        // Entity changes stay on the request thread, in aspect ratio order
+        for (Map.Entry<AspectRatio, CompletableFuture<CachedRendition>> entry : renditions.entrySet()) {
+            AspectRatio ratio = entry.getKey();
+            try {
+                CachedRendition rendition = entry.getValue().join();
+                String url = s3Service.getPublicUrl(rendition.key());
+
+                // Create version info
+                ImageVersionsResponse.ImageVersionInfo versionInfo = ImageVersionsResponse.ImageVersionInfo.builder()
+                    .url(url)
+                    .width(rendition.width())
+                    .height(rendition.height())
+                    .aspectRatio(ratio.name().toLowerCase())
+                    .platform(ratio.getDescription())
+                    .build();
+
+                versions.put(ratio.name().toLowerCase(), versionInfo);
+
+                // Save as image version
+                String params = "{\"aspectRatio\": \"" + ratio.name() + "\", \"platform\": \"" + ratio.getDescription() + "\"}";
+                ImagemVersao versao = ImagemVersao.builder()
+                    .url(url)
+                    .operacao("crop")
+                    .parametros(params)
+                    .tamanhoBytes(rendition.size())
+                    .largura(rendition.width())
+                    .altura(rendition.height())
+                    .numeroVersao(imagem.getTotalVersoes() + 1)
+                    .hashConteudo(rendition.hash())
+                    .build();
+                imagem.addVersao(versao);
+
+                log.debug("Generated {} version for image {}", ratio.name(), imagemId);
+
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Failed to generate {} version: {}", ratio.name(), cause.getMessage());
+                // The upload failed after the crop was referenced
+                contentStorageService.release(referencedHashes.get(ratio));
+            }
+        }
+
+        imagemRepository.save(imagem);
+
+        log.info("Generated {} versions for image {}", versions.size(), imagemId);
+
+        return ImageVersionsResponse.builder()
+            .imageId(imagemId)
+            .versions(versions)
+            .build();
+    }
+
+    /**
+     * Reference a cached rendition. One nobody else referenced may have been deleted since the lookup;
+     * once referenced its row is locked, so the existence check cannot go stale before commit.
+     *
+     * @return the rendition under the key holding its content, or empty if it has to be rendered again
+     */
+    private Optional<CachedRendition> referenceCached(CachedRendition cached) {
+        ContentStorageService.Reference reference = contentStorageService.reference(
+            cached.hash(), cached.key(), cached.size(), RENDITION_CONTENT_TYPE);
+        if (reference.stored() || s3Service.fileExists(reference.key())) {
+            return Optional.of(new CachedRendition(reference.key(), cached.hash(), cached.width(), cached.height(), cached.size()));
+        }
+        contentStorageService.release(cached.hash());
+        return Optional.empty();
+    }
+
+    /**
+     * Crop, encode and hash one aspect ratio. Dimensions come from the encoder,
+     * so the encoded bytes never need to be decoded again.
+     */
+    private Rendition renderCrop(BufferedImage source, AspectRatio ratio) {
+        try {
+            EncodedImage crop = imageProcessor.cropToRatio(source, ratio);
+            return new Rendition(crop.data(), ContentHash.sha256(crop.data()), crop.width(), crop.height());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Content hash of the current image when it is one we stored: the original or a stored version.
+     */
+    private String knownContentHash(Imagem imagem) {
+        String urlAtual = imagem.getUrlAtual();
+        if (imagem.getHashConteudo() != null && urlAtual.equals(imagem.getUrlOriginal())) {
+            return imagem.getHashConteudo();
+        }
+        return imagem.getVersoes().stream()
+            .filter(versao -> versao.getHashConteudo() != null && urlAtual.equals(versao.getUrl()))
+            .map(ImagemVersao::getHashConteudo)
+            .findFirst()
+            .orElse(null);
     }
 
     // Helper methods
 
+    private static final String ORIGINALS_PREFIX = "originals/";
+    private static final String CROP_OPERATION = "crop";
+    private static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+    private static final String EDITED_PREFIX = "edited/";
+
+    /**
+     * Download, decode and edit an image on the processing pool, under a memory permit.
+     *
+     * @param maskUrl       second image passed to the edit (e.g. a subject cutout), or null
+     * @param workingCopies decoded images the edit holds at once, for the memory estimate
+     * @param edit          receives the source and the mask (null when there is none)
+     */
+    private EncodedImage editImage(Long salonId, String operation, String imageUrl, String maskUrl,
+                                   int workingCopies, BinaryOperator<BufferedImage> edit) throws IOException {
+        DownloadedImage download = null;
+        DownloadedImage maskDownload = null;
+        try {
+            download = imageDownloader.download(imageUrl);
+            if (maskUrl != null) {
+                maskDownload = imageDownloader.download(maskUrl);
+            }
+
+            ImageProcessor.ImageDimensions dimensions = readDimensions(download);
+            validateResolution(dimensions);
+
+            DownloadedImage source = download;
+            DownloadedImage mask = maskDownload;
+            try (ImageProcessingLimiter.Permit permit = processingLimiter.acquire(salonId,
+                    ImageProcessingLimiter.estimateBytes(dimensions.width(), dimensions.height()) * workingCopies,
+                    operation)) {
+                return runOnProcessingPool(() -> {
+                    BufferedImage decoded = imageProcessor.decode(source.openImageStream());
+                    BufferedImage decodedMask = mask != null ? imageProcessor.decode(mask.openImageStream()) : null;
+                    return imageProcessor.encodeEdited(edit.apply(decoded, decodedMask));
+                });
+            }
+        } finally {
+            closeQuietly(download);
+            closeQuietly(maskDownload);
+        }
+    }
+
+    /**
+     * Background removal of an image version; remove-background and blur-background on the same
+     * version share one prediction.
+     */
+    private String removeBackgroundOnce(String imageUrl) {
+        return singleFlight.execute(
+            SingleFlight.key(imageUrl, "remove-background", null),
+            () -> imageAIService.removeBackground(imageUrl));
+    }
+
+    /**
+     * Generate the thumbnail (300x300 center crop), decoding only a subsampled center region, and upload it.
+     */
+    private CompletableFuture<String> uploadThumbnail(Long salonId, MultipartFile file,
+                                                      ImageProcessor.ImageDimensions dimensions,
+                                                      String key) throws IOException {
+        ImageProcessor.ImageDimensions decoded = ImageProcessor.thumbnailDecodeDimensions(dimensions);
+        EncodedImage thumbnail;
+        try (ImageProcessingLimiter.Permit permit = processingLimiter.acquire(salonId,
+                ImageProcessingLimiter.estimateBytes(decoded.width(), decoded.height()), "thumbnail")) {
+            thumbnail = runOnProcessingPool(() -> imageProcessor.generateThumbnail(file));
+        }
+        return s3Service.uploadBytesToKeyAsync(thumbnail.data(), thumbnail.contentType(), key);
+    }
+
+    /**
+     * Blur radius for an intensity of 1-100, relative to the image size so the look
+     * does not depend on resolution: 100 is 2% of the longer side.
+     */
+    private static double blurSigma(BufferedImage image, int intensity) {
+        int longerSide = Math.max(image.getWidth(), image.getHeight());
+        return Math.max(1.0, intensity / 100.0 * longerSide * 0.02);
+    }
+
+    /**
+     * Store an edited image by content hash and make it the current version.
+     */
+    private ImagemResponse saveEditedVersion(Long salonId, Long imagemId, EncodedImage edited,
+                                             String operacao, String parametros) {
+        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+
+        String hash = ContentHash.sha256(edited.data());
+        String key;
+        try {
+            key = awaitUpload(contentStorageService.storeEncoded(edited, hash, EDITED_PREFIX).key());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+        String url = s3Service.getPublicUrl(key);
+
+        ImagemVersao versao = ImagemVersao.builder()
+            .url(url)
+            .operacao(operacao)
+            .parametros(parametros)
+            .tamanhoBytes((long) edited.data().length)
+            .largura(edited.width())
+            .altura(edited.height())
+            .numeroVersao(imagem.getTotalVersoes() + 1)
+            .hashConteudo(hash)
+            .build();
+        imagem.addVersao(versao);
+
+        imagem.setUrlAtual(url);
+        imagem.setLargura(edited.width());
+        imagem.setAltura(edited.height());
+        imagemRepository.save(imagem);
+
+        return mapToResponse(imagem);
+    }
+
+    private record Rendition(byte[] data, String hash, int width, int height) {
+    }
+
+    private record UploadOwner(Salon salon, Usuario usuario) {
+    }
+
+    /**
+     * What rendering needs from the image, read before its transaction ends.
+     */
+    private record VersionSource(String url, String contentHash) {
+    }
+
+    private String cropParams(AspectRatio ratio) {
+        return ratio.name().toLowerCase() + "_" + imageProcessor.encodingTag();
+    }
+
+    /**
+     * Current URL of an image, read in a short transaction by methods that process it outside one.
+     */
+    private String currentUrl(Long salonId, Long imagemId) {
+        return transactionTemplate.execute(status -> getImagemBySalonAndId(salonId, imagemId).getUrlAtual());
+    }
+
     private Imagem getImagemBySalonAndId(Long salonId, Long imagemId) {
         Salon salon = salonRepository.findById(salonId)
             .orElseThrow(() -> new ResourceNotFoundException("Salon not found"));
@@ -399,6 +787,27 @@ public class ImageService {
             .orElseThrow(() -> new ResourceNotFoundException("Image not found"));
     }
 
+    /**
+     * Make an image produced by the AI provider the current version.
+     *
+     * @param scale factor the provider changed the dimensions by (1 when unchanged)
+     */
+    private ImagemResponse saveAIVersion(Long salonId, Long imagemId, String url,
+                                         String operacao, String parametros, int scale) {
+        Imagem imagem = getImagemBySalonAndId(salonId, imagemId);
+
+        createVersion(imagem, url, operacao, parametros);
+
+        imagem.setUrlAtual(url);
+        if (scale != 1) {
+            imagem.setLargura(imagem.getLargura() * scale);
+            imagem.setAltura(imagem.getAltura() * scale);
+        }
+        imagemRepository.save(imagem);
+
+        return mapToResponse(imagem);
+    }
+
     private ImagemVersao createVersion(Imagem imagem, String url, String operacao, String parametros) {
         ImagemVersao versao = ImagemVersao.builder()
             .url(url)
@@ -428,6 +837,62 @@ public class ImageService {
         }
     }
 
+    private void closeQuietly(DownloadedImage download) {
+        if (download == null) {
+            return;
+        }
+        try {
+            download.close();
+        } catch (IOException e) {
+            log.debug("Error deleting downloaded image: {}", e.getMessage());
+        }
+    }
+
+    private ImageProcessor.ImageDimensions readDimensions(DownloadedImage download) throws IOException {
+        try (InputStream inputStream = download.openStream()) {
+            return imageProcessor.readDimensions(inputStream);
+        }
+    }
+
+    /**
+     * Run decoding or encoding on the image processing pool, off the request thread.
+     */
+    private <T> T runOnProcessingPool(Callable<T> task) throws IOException {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.call();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, imageProcessingExecutor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private String awaitUpload(CompletableFuture<String> upload) throws IOException {
+        try {
+            return upload.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
+
+    private void validateResolution(ImageProcessor.ImageDimensions dimensions) {
+        if ((long) dimensions.width() * dimensions.height() > MAX_PIXELS) {
+            throw new BusinessException("Image resolution exceeds maximum of 50 megapixels");
+        }
+    }
+
     private void checkStorageLimits(Salon salon) {
         long currentStorage = imagemRepository.calculateTotalStorageBytes(salon);
         long maxStorage = getMaxStorageForPlan(salon.getAdmin().getPlano());
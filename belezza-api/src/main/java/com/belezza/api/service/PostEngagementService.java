@@ -0,0 +1,262 @@
+package com.belezza.api.service;
+
+import com.belezza.api.repository.PostPublicacaoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates engagement events from Meta webhooks in memory and flushes them to the posts table.
+ *
+ * Webhook threads only bump {@link LongAdder} counters keyed by the Meta post id, so bursts of
+ * likes/comments never touch the database. {@link com.belezza.api.scheduler.PostEngagementFlushJob}
+ * periodically resolves the Meta ids to our posts and applies the deltas with batched UPDATEs.
+ * Absolute metrics from {@link PostMetricsSyncService} are written here as well.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostEngagementService {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private static final String UPDATE_SQL = """
+        UPDATE posts
+        SET curtidas = GREATEST(curtidas + ?, 0),
+            comentarios = GREATEST(comentarios + ?, 0),
+            compartilhamentos = GREATEST(compartilhamentos + ?, 0)
+        WHERE id = ?
+        """;
+
+    private static final String UPDATE_PUBLICATION_SQL = """
+        UPDATE post_publicacoes
+        SET curtidas = ?, comentarios = ?, compartilhamentos = ?, alcance = COALESCE(?, alcance),
+            metricas_atualizadas_em = ?
+        WHERE id = ?
+        """;
+
+    // Post totals are the sum of the latest synced metrics of each platform
+    private static final String REFRESH_POST_TOTALS_SQL = """
+        UPDATE posts
+        SET (curtidas, comentarios, compartilhamentos, alcance) = (
+            SELECT COALESCE(SUM(pp.curtidas), 0), COALESCE(SUM(pp.comentarios), 0),
+                   COALESCE(SUM(pp.compartilhamentos), 0), COALESCE(SUM(pp.alcance), 0)
+            FROM post_publicacoes pp
+            WHERE pp.post_id = ?
+        )
+        WHERE id = ?
+        """;
+
+    private final PostPublicacaoRepository postPublicacaoRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<String, EngagementCounters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Record an engagement event for a Meta post id. Negative deltas undo a like/reaction.
+     */
+    public void record(String externalPostId, EngagementType type, int delta) {
+        counters.computeIfAbsent(externalPostId, id -> new EngagementCounters()).add(type, delta);
+    }
+
+    /**
+     * Take the accumulated deltas, leaving counters at zero. Idle counters are evicted.
+     */
+    public Map<String, EngagementDelta> drain() {
+        Map<String, EngagementDelta> deltas = new HashMap<>();
+
+        for (Map.Entry<String, EngagementCounters> entry : counters.entrySet()) {
+            EngagementDelta delta = entry.getValue().take();
+
+            if (delta != null) {
+                deltas.put(entry.getKey(), delta);
+            } else if (counters.remove(entry.getKey(), entry.getValue())) {
+                // An event may have landed between take() and remove(); keep it
+                EngagementDelta late = entry.getValue().take();
+                if (late != null) {
+                    restore(entry.getKey(), late);
+                }
+            }
+        }
+
+        return deltas;
+    }
+
+    /**
+     * Put deltas back after a failed flush.
+     */
+    public void restore(Map<String, EngagementDelta> deltas) {
+        deltas.forEach(this::restore);
+    }
+
+    private void restore(String externalPostId, EngagementDelta delta) {
+        EngagementCounters target = counters.computeIfAbsent(externalPostId, id -> new EngagementCounters());
+        target.add(EngagementType.CURTIDA, delta.curtidas());
+        target.add(EngagementType.COMENTARIO, delta.comentarios());
+        target.add(EngagementType.COMPARTILHAMENTO, delta.compartilhamentos());
+    }
+
+    /**
+     * Resolve Meta post ids to posts and apply the deltas in one JDBC batch.
+     *
+     * @return number of posts updated
+     */
+    @Transactional
+    public int apply(Map<String, EngagementDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Long> postIds = resolvePostIds(deltas.keySet());
+
+        // Several Meta ids (Instagram + Facebook) can point to the same post
+        SortedMap<Long, EngagementDelta> byPost = new TreeMap<>();
+        deltas.forEach((externalPostId, delta) -> {
+            Long postId = postIds.get(externalPostId);
+            if (postId != null) {
+                byPost.merge(postId, delta, EngagementDelta::plus);
+            }
+        });
+
+        if (postIds.size() < deltas.size()) {
+            log.debug("Ignoring engagement for {} unknown Meta post ids", deltas.size() - postIds.size());
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(byPost.size());
+        byPost.forEach((postId, delta) -> batchArgs.add(new Object[]{
+            delta.curtidas(), delta.comentarios(), delta.compartilhamentos(), postId
+        }));
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs);
+
+        log.debug("Engagement flushed for {} posts", batchArgs.size());
+        return batchArgs.size();
+    }
+
+    /**
+     * Store metrics fetched from the Graph API and recompute the totals of the affected posts.
+     * Absolute values from Meta replace whatever webhook deltas were applied since the last sync;
+     * a reach that was not fetched keeps the last known value.
+     *
+     * @return number of posts updated
+     */
+    @Transactional
+    public int applySyncedMetrics(List<PublicationMetrics> metrics, LocalDateTime syncedAt) {
+        if (metrics.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp syncedAtTs = Timestamp.valueOf(syncedAt);
+        List<Object[]> publicationArgs = metrics.stream()
+            .map(m -> new Object[]{
+                m.curtidas(), m.comentarios(), m.compartilhamentos(), m.alcance(), syncedAtTs, m.publicacaoId()
+            })
+            .toList();
+        jdbcTemplate.batchUpdate(UPDATE_PUBLICATION_SQL, publicationArgs);
+
+        SortedSet<Long> postIds = new TreeSet<>();
+        metrics.forEach(m -> postIds.add(m.postId()));
+
+        List<Object[]> postArgs = postIds.stream()
+            .map(postId -> new Object[]{postId, postId})
+            .toList();
+        jdbcTemplate.batchUpdate(REFRESH_POST_TOTALS_SQL, postArgs);
+
+        log.debug("Synced metrics stored for {} publications of {} posts", metrics.size(), postIds.size());
+        return postIds.size();
+    }
+
+    private Map<String, Long> resolvePostIds(Set<String> externalPostIds) {
+        Map<String, Long> postIds = new HashMap<>();
+        List<String> ids = new ArrayList<>(externalPostIds);
+
+        for (int i = 0; i < ids.size(); i += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, ids.size()));
+            for (Object[] row : postPublicacaoRepository.findPostIdsByExternalPostIds(chunk)) {
+                postIds.put((String) row[0], (Long) row[1]);
+            }
+        }
+
+        return postIds;
+    }
+
+    public enum EngagementType {
+        CURTIDA,
+        COMENTARIO,
+        COMPARTILHAMENTO
+    }
+
+    /**
+     * Engagement deltas accumulated for one post between flushes.
+     */
+    public record EngagementDelta(int curtidas, int comentarios, int compartilhamentos) {
+
+        EngagementDelta plus(EngagementDelta other) {
+            return new EngagementDelta(
+                curtidas + other.curtidas,
+                comentarios + other.comentarios,
+                compartilhamentos + other.compartilhamentos
+            );
+        }
+    }
+
+    /**
+     * Metrics of one publication as returned by the Graph API. {@code alcance} is null when it was not fetched.
+     */
+    public record PublicationMetrics(
+        Long publicacaoId,
+        Long postId,
+        int curtidas,
+        int comentarios,
+        int compartilhamentos,
+        Integer alcance
+    ) {}
+
+    /**
+     * Contention-free counters for one Meta post id.
+     */
+    private static final class EngagementCounters {
+
+        private final LongAdder curtidas = new LongAdder();
+        private final LongAdder comentarios = new LongAdder();
+        private final LongAdder compartilhamentos = new LongAdder();
+
+        void add(EngagementType type, long delta) {
+            switch (type) {
+                case CURTIDA -> curtidas.add(delta);
+                case COMENTARIO -> comentarios.add(delta);
+                case COMPARTILHAMENTO -> compartilhamentos.add(delta);
+            }
+        }
+
+        /**
+         * Subtract what was read instead of resetting, so concurrent increments are never lost.
+         */
+        EngagementDelta take() {
+            long c = takeFrom(curtidas);
+            long m = takeFrom(comentarios);
+            long s = takeFrom(compartilhamentos);
+
+            if (c == 0 && m == 0 && s == 0) {
+                return null;
+            }
+            return new EngagementDelta((int) c, (int) m, (int) s);
+        }
+
+        private static long takeFrom(LongAdder adder) {
+            long value = adder.sum();
+            if (value != 0) {
+                adder.add(-value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.ContaSocial;
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.entity.PostPublicacao;
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.integration.MetaGraphAPIService;
+import com.belezza.api.integration.MetaGraphAPIService.BatchMetricsResult;
+import com.belezza.api.integration.MetaGraphAPIService.PostMetrics;
+import com.belezza.api.repository.ContaSocialRepository;
+import com.belezza.api.repository.PostPublicacaoRepository;
+import com.belezza.api.service.PostEngagementService.PublicationMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk sync of post metrics from the Meta Graph API.
+ *
+ * Publications are grouped per account token and fetched with batch requests of up to
+ * {@link MetaGraphAPIService#MAX_BATCH_SIZE} posts. Recent posts are refreshed often and older
+ * ones progressively less, and a token is paused when Meta reports its quota is nearly used.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PostMetricsSyncService {
+
+    static final Set<PlataformaSocial> SYNCED_PLATFORMS =
+        EnumSet.of(PlataformaSocial.INSTAGRAM, PlataformaSocial.FACEBOOK);
+
+    private final PostPublicacaoRepository postPublicacaoRepository;
+    private final ContaSocialRepository contaSocialRepository;
+    private final MetaGraphAPIService metaGraphAPIService;
+    private final PostEngagementService engagementService;
+
+    @Value("${belezza.meta.metrics-sync.max-age-days:90}")
+    private int maxAgeDays;
+
+    @Value("${belezza.meta.metrics-sync.usage-threshold-percent:80}")
+    private int usageThresholdPercent;
+
+    @Value("${belezza.meta.metrics-sync.cooldown-minutes:15}")
+    private int cooldownMinutes;
+
+    // Social account id -> instant until which its token is left alone
+    private final Map<Long, Instant> throttledUntil = new ConcurrentHashMap<>();
+
+    /**
+     * Salons that have publications within the sync window.
+     */
+    public List<Long> findSalonsToSync() {
+        return postPublicacaoRepository.findSalonIdsWithPublicationsSince(
+            SYNCED_PLATFORMS, LocalDateTime.now().minusDays(maxAgeDays));
+    }
+
+    /**
+     * Refresh metrics of the salon's publications that are due, based on their age.
+     *
+     * @return number of posts updated
+     */
+    public int syncSalon(Long salonId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<PostPublicacao> due = postPublicacaoRepository
+            .findMetricsSyncCandidates(salonId, SYNCED_PLATFORMS, now.minusDays(maxAgeDays))
+            .stream()
+            .filter(publicacao -> isDue(publicacao, now))
+            .toList();
+
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, PostMetrics> metrics = fetchMetrics(salonId, due);
+
+        List<PublicationMetrics> updates = due.stream()
+            .filter(publicacao -> metrics.containsKey(publicacao.getId()))
+            .map(publicacao -> {
+                PostMetrics m = metrics.get(publicacao.getId());
+                return new PublicationMetrics(publicacao.getId(), publicacao.getPost().getId(),
+                    m.likes(), m.comments(), m.shares(), m.reach());
+            })
+            .toList();
+
+        int updated = engagementService.applySyncedMetrics(updates, now);
+
+        log.info("Metrics sync for salon {}: {} of {} due publications refreshed, {} posts updated",
+            salonId, updates.size(), due.size(), updated);
+        return updated;
+    }
+
+    /**
+     * Fetch metrics for the given publications, one batch request per 25 posts of each account.
+     * Accounts without an active connection or currently throttled are skipped.
+     *
+     * @return metrics by publication id
+     */
+    public Map<Long, PostMetrics> fetchMetrics(Long salonId, Collection<PostPublicacao> publicacoes) {
+        Map<PlataformaSocial, List<PostPublicacao>> byPlatform = publicacoes.stream()
+            .filter(publicacao -> publicacao.getExternalPostId() != null)
+            .filter(publicacao -> SYNCED_PLATFORMS.contains(publicacao.getPlataforma()))
+            .collect(Collectors.groupingBy(PostPublicacao::getPlataforma,
+                () -> new EnumMap<>(PlataformaSocial.class), Collectors.toList()));
+
+        Map<Long, PostMetrics> result = new HashMap<>();
+
+        byPlatform.forEach((plataforma, list) -> {
+            Optional<ContaSocial> conta = contaSocialRepository.findBySalonIdAndPlataformaAndAtivaTrue(salonId, plataforma);
+            if (conta.isEmpty()) {
+                log.debug("No active {} account for salon {}, skipping metrics sync", plataforma, salonId);
+                return;
+            }
+
+            fetchAccountMetrics(conta.get(), plataforma, list, result);
+        });
+
+        return result;
+    }
+
+    private void fetchAccountMetrics(ContaSocial conta, PlataformaSocial plataforma,
+                                     List<PostPublicacao> publicacoes, Map<Long, PostMetrics> result) {
+        for (int i = 0; i < publicacoes.size(); i += MetaGraphAPIService.MAX_POSTS_PER_BATCH) {
+            if (isThrottled(conta.getId())) {
+                log.info("{} account {} is throttled, leaving {} publications for a later sync",
+                    plataforma, conta.getId(), publicacoes.size() - i);
+                return;
+            }
+
+            Map<String, PostPublicacao> chunk = publicacoes
+                .subList(i, Math.min(i + MetaGraphAPIService.MAX_POSTS_PER_BATCH, publicacoes.size()))
+                .stream()
+                .collect(Collectors.toMap(PostPublicacao::getExternalPostId, Function.identity(), (a, b) -> a));
+
+            BatchMetricsResult batch;
+            try {
+                batch = metaGraphAPIService.getPostMetricsBatch(
+                    conta.getAccessToken(), plataforma, new ArrayList<>(chunk.keySet()));
+            } catch (BusinessException e) {
+                log.warn("Failed to fetch {} metrics for account {}: {}", plataforma, conta.getId(), e.getMessage());
+                return;
+            }
+
+            batch.metrics().forEach((externalPostId, metrics) ->
+                result.put(chunk.get(externalPostId).getId(), metrics));
+
+            recordUsage(conta.getId(), batch);
+        }
+    }
+
+    private void recordUsage(Long contaId, BatchMetricsResult batch) {
+        if (!batch.rateLimited() && batch.usagePercent() < usageThresholdPercent) {
+            return;
+        }
+
+        long minutes = batch.regainAccessMinutes() > 0 ? batch.regainAccessMinutes() : cooldownMinutes;
+        throttledUntil.put(contaId, Instant.now().plus(minutes, ChronoUnit.MINUTES));
+
+        log.warn("Pausing metrics sync for account {} for {} minutes (usage: {}%, rate limited: {})",
+            contaId, minutes, batch.usagePercent(), batch.rateLimited());
+    }
+
+    private boolean isThrottled(Long contaId) {
+        Instant until = throttledUntil.get(contaId);
+        if (until == null) {
+            return false;
+        }
+        if (until.isAfter(Instant.now())) {
+            return true;
+        }
+        throttledUntil.remove(contaId, until);
+        return false;
+    }
+
+    /**
+     * Engagement settles quickly after publishing, so refresh intervals grow with the post's age.
+     */
+    static boolean isDue(PostPublicacao publicacao, LocalDateTime now) {
+        LocalDateTime lastSync = publicacao.getMetricasAtualizadasEm();
+        if (lastSync == null || publicacao.getPublicadoEm() == null) {
+            return true;
+        }
+
+        Duration age = Duration.between(publicacao.getPublicadoEm(), now);
+        Duration interval;
+        if (age.compareTo(Duration.ofDays(1)) < 0) {
+            interval = Duration.ofMinutes(15);
+        } else if (age.compareTo(Duration.ofDays(7)) < 0) {
+            interval = Duration.ofHours(1);
+        } else if (age.compareTo(Duration.ofDays(30)) < 0) {
+            interval = Duration.ofHours(6);
+        } else {
+            interval = Duration.ofDays(1);
+        }
+
+        return !lastSync.plus(interval).isAfter(now);
+    }
+}
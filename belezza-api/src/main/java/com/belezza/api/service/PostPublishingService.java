@@ -0,0 +1,376 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.*;
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.exception.ResourceNotFoundException;
+import com.belezza.api.integration.MetaGraphAPIService;
+import com.belezza.api.repository.PostPublicacaoRepository;
+import com.belezza.api.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes posts to social platforms.
+ *
+ * Meta calls run outside any transaction on a bounded executor, fanned out across platforms
+ * and posts. Each (post, platform) publication is claimed with a fresh idempotency key before
+ * calling Meta and only that attempt may record the result, so retries and concurrent runs
+ * never publish the same platform twice.
+ */
+@Service
+@Slf4j
+public class PostPublishingService {
+
+    private static final int MAX_POST_ERROR_LENGTH = 200;
+    private static final int MAX_PUBLICATION_ERROR_LENGTH = 500;
+    private static final int RECORD_ATTEMPTS = 3;
+    private static final long RECORD_RETRY_DELAY_MS = 100;
+
+    private final PostRepository postRepository;
+    private final PostPublicacaoRepository postPublicacaoRepository;
+    private final SocialAccountService socialAccountService;
+    private final MetaGraphAPIService metaGraphAPIService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor publishExecutor;
+
+    @Value("${belezza.social.publish.claim-timeout-minutes:15}")
+    private int claimTimeoutMinutes;
+
+    public PostPublishingService(PostRepository postRepository,
+                                 PostPublicacaoRepository postPublicacaoRepository,
+                                 SocialAccountService socialAccountService,
+                                 MetaGraphAPIService metaGraphAPIService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Qualifier("socialPublishExecutor") Executor publishExecutor) {
+        this.postRepository = postRepository;
+        this.postPublicacaoRepository = postPublicacaoRepository;
+        this.socialAccountService = socialAccountService;
+        this.metaGraphAPIService = metaGraphAPIService;
+        this.transactionTemplate = transactionTemplate;
+        this.publishExecutor = publishExecutor;
+    }
+
+    /**
+     * Publish one post to all its platforms and wait for the outcome.
+     */
+    public Post publish(Long salonId, Long postId) {
+        PublishJob job = transactionTemplate.execute(status -> preparePublish(salonId, postId));
+        return complete(job, submit(job));
+    }
+
+    /**
+     * Publish several posts at once. Every platform of every post is submitted before waiting,
+     * so one slow post does not hold back the others.
+     */
+    public void publishAll(List<Post> posts) {
+        Map<PublishJob, CompletableFuture<Void>> inFlight = new LinkedHashMap<>();
+
+        for (Post post : posts) {
+            Long salonId = post.getSalon().getId();
+            try {
+                PublishJob job = transactionTemplate.execute(status -> preparePublish(salonId, post.getId()));
+                inFlight.put(job, submit(job));
+            } catch (Exception e) {
+                log.error("Error preparing post {} for publishing: {}", post.getId(), e.getMessage());
+                markPostFailed(post.getId(), e.getMessage());
+            }
+        }
+
+        inFlight.forEach((job, publishing) -> {
+            try {
+                complete(job, publishing);
+            } catch (Exception e) {
+                log.error("Error completing publication of post {}: {}", job.postId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Check that a post can be published (or scheduled).
+     */
+    public void validateForPublishing(Post post) {
+        if (post.getImagemUrl() == null || post.getImagemUrl().isBlank()) {
+            throw new BusinessException("Post must have an image");
+        }
+
+        if (post.getPlataformas() == null || post.getPlataformas().isEmpty()) {
+            throw new BusinessException("Post must have at least one target platform");
+        }
+
+        // Check if salon has active accounts for all platforms
+        for (PlataformaSocial plataforma : post.getPlataformas()) {
+            if (!socialAccountService.hasActiveAccount(post.getSalon().getId(), plataforma)) {
+                throw new BusinessException("No active " + plataforma + " account connected");
+            }
+        }
+    }
+
+    // ====================================
+    // Publishing Steps
+    // ====================================
+
+    /**
+     * Mark the post as publishing and make sure every platform has a publication row.
+     * Runs in a short transaction; platforms already published are left out of the job.
+     */
+    private PublishJob preparePublish(Long salonId, Long postId) {
+        Post post = postRepository.findById(postId)
+            .filter(p -> p.getSalon().getId().equals(salonId))
+            .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+
+        validateForPublishing(post);
+
+        post.setStatus(StatusPost.PUBLICANDO);
+        post.setTentativasPublicacao(post.getTentativasPublicacao() + 1);
+        postRepository.save(post);
+
+        Map<PlataformaSocial, PostPublicacao> existing = postPublicacaoRepository.findByPostId(postId).stream()
+            .collect(Collectors.toMap(PostPublicacao::getPlataforma, Function.identity()));
+
+        List<PlataformaSocial> plataformas = new ArrayList<>();
+        for (PlataformaSocial plataforma : post.getPlataformas()) {
+            PostPublicacao publicacao = existing.get(plataforma);
+
+            if (publicacao == null) {
+                postPublicacaoRepository.save(PostPublicacao.builder()
+                    .post(post)
+                    .plataforma(plataforma)
+                    .status(StatusPublicacao.PENDENTE)
+                    .build());
+            } else if (publicacao.getStatus() == StatusPublicacao.PUBLICADO) {
+                log.debug("Post {} already published to {}, skipping", postId, plataforma);
+                continue;
+            }
+
+            plataformas.add(plataforma);
+        }
+
+        return new PublishJob(postId, salonId, post.getImagemUrl(),
+            buildCaption(post.getLegenda(), post.getHashtags()), List.copyOf(plataformas));
+    }
+
+    private CompletableFuture<Void> submit(PublishJob job) {
+        return CompletableFuture.allOf(job.plataformas().stream()
+            .map(plataforma -> CompletableFuture.runAsync(() -> publishToPlatform(job, plataforma), publishExecutor))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Claim the publication, call Meta and record the result. Never throws: failures are
+     * stored on the publication and picked up when the post is completed. Once Meta accepted
+     * the post the publication is never marked failed, or a retry would publish it again.
+     */
+    private void publishToPlatform(PublishJob job, PlataformaSocial plataforma) {
+        String key = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        int claimed = postPublicacaoRepository.claimForPublishing(
+            job.postId(), plataforma, key, now, now.minusMinutes(claimTimeoutMinutes));
+
+        if (claimed == 0) {
+            log.info("Post {} on {} is already published or being published, skipping", job.postId(), plataforma);
+            return;
+        }
+
+        String externalPostId;
+        try {
+            externalPostId = callPlatform(job, plataforma);
+        } catch (Exception e) {
+            log.error("Failed to publish post {} to {}: {}", job.postId(), plataforma, e.getMessage());
+            try {
+                postPublicacaoRepository.markFailed(job.postId(), plataforma, key,
+                    truncate(e.getMessage(), MAX_PUBLICATION_ERROR_LENGTH), LocalDateTime.now());
+            } catch (Exception recordError) {
+                log.error("Could not record publish failure for post {} on {}: {}",
+                    job.postId(), plataforma, recordError.getMessage());
+            }
+            return;
+        }
+
+        recordPublished(job, plataforma, key, externalPostId);
+    }
+
+    /**
+     * Store the id of a post Meta accepted, retrying database errors. If the stale claim was taken
+     * over meanwhile, the id is still recorded unless the other attempt already published. If it
+     * cannot be stored the publication stays PUBLICANDO and the id is logged for reconciliation.
+     */
+    private void recordPublished(PublishJob job, PlataformaSocial plataforma, String key, String externalPostId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                if (postPublicacaoRepository.markPublished(job.postId(), plataforma, key, externalPostId, now) == 1) {
+                    log.info("Published post {} to {} successfully. Post ID: {}", job.postId(), plataforma, externalPostId);
+                } else if (postPublicacaoRepository.markPublishedAfterTakeover(job.postId(), plataforma, externalPostId, now) == 1) {
+                    log.warn("Published post {} to {} after its claim was taken over. Post ID: {}",
+                        job.postId(), plataforma, externalPostId);
+                } else {
+                    log.error("Post {} was published to {} twice; duplicate post ID to remove: {}",
+                        job.postId(), plataforma, externalPostId);
+                }
+                return;
+
+            } catch (Exception e) {
+                if (attempt >= RECORD_ATTEMPTS) {
+                    log.error("Post {} was published to {} but the result could not be stored, leaving it PUBLICANDO. Post ID: {}",
+                        job.postId(), plataforma, externalPostId, e);
+                    return;
+                }
+                log.warn("Could not store publication of post {} on {} (attempt {}): {}",
+                    job.postId(), plataforma, attempt, e.getMessage());
+                if (!sleep(RECORD_RETRY_DELAY_MS * attempt)) {
+                    log.error("Interrupted storing publication of post {} on {}, leaving it PUBLICANDO. Post ID: {}",
+                        job.postId(), plataforma, externalPostId);
+                    return;
+                }
+            }
+        }
+    }
+
+    private String callPlatform(PublishJob job, PlataformaSocial plataforma) {
+        // Get active account for platform
+        ContaSocial conta = socialAccountService.getAccountByPlatform(job.salonId(), plataforma);
+
+        MetaGraphAPIService.PublishRequest request = new MetaGraphAPIService.PublishRequest(
+            job.imagemUrl(),
+            job.caption()
+        );
+
+        MetaGraphAPIService.PublishResponse response;
+
+        if (plataforma == PlataformaSocial.INSTAGRAM) {
+            response = metaGraphAPIService.publishToInstagram(conta.getAccessToken(), conta.getAccountId(), request);
+        } else if (plataforma == PlataformaSocial.FACEBOOK) {
+            response = metaGraphAPIService.publishToFacebook(conta.getAccessToken(), conta.getAccountId(), request);
+        } else {
+            throw new BusinessException("Publishing to " + plataforma + " not yet implemented");
+        }
+
+        if (!response.success()) {
+            throw new BusinessException(response.errorMessage());
+        }
+
+        return response.postId();
+    }
+
+    private Post complete(PublishJob job, CompletableFuture<Void> publishing) {
+        publishing.join();
+        return transactionTemplate.execute(status -> completePublish(job.postId()));
+    }
+
+    /**
+     * Derive the post status from its publications. A publication still being published by
+     * another attempt leaves the post in PUBLICANDO; that attempt completes it.
+     */
+    private Post completePublish(Long postId) {
+        Post post = postRepository.findById(postId)
+            .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+
+        Map<PlataformaSocial, PostPublicacao> publicacoes = postPublicacaoRepository.findByPostId(postId).stream()
+            .collect(Collectors.toMap(PostPublicacao::getPlataforma, Function.identity()));
+
+        StringBuilder errors = new StringBuilder();
+        boolean inProgress = false;
+        LocalDateTime publicadoEm = null;
+
+        for (PlataformaSocial plataforma : post.getPlataformas()) {
+            PostPublicacao publicacao = publicacoes.get(plataforma);
+            StatusPublicacao status = publicacao != null ? publicacao.getStatus() : StatusPublicacao.PENDENTE;
+
+            switch (status) {
+                case PUBLICADO -> {
+                    LocalDateTime platformPublishedAt = publicacao.getPublicadoEm();
+                    if (platformPublishedAt != null && (publicadoEm == null || platformPublishedAt.isAfter(publicadoEm))) {
+                        publicadoEm = platformPublishedAt;
+                    }
+                }
+                case FALHOU -> errors.append(plataforma).append(": ").append(publicacao.getErro()).append("; ");
+                default -> inProgress = true;
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            post.setStatus(StatusPost.FALHOU);
+            post.setPublishErrorMessage(truncate(errors.toString(), MAX_POST_ERROR_LENGTH));
+            log.error("Post publishing failed: {}", postId);
+        } else if (!inProgress) {
+            post.setStatus(StatusPost.PUBLICADO);
+            post.setPublicadoEm(publicadoEm != null ? publicadoEm : LocalDateTime.now());
+            post.setPublishErrorMessage(null);
+            log.info("Post published successfully: {}", postId);
+        }
+
+        return postRepository.save(post);
+    }
+
+    private void markPostFailed(Long postId, String message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> postRepository.findById(postId).ifPresent(post -> {
+                post.setStatus(StatusPost.FALHOU);
+                post.setPublishErrorMessage(truncate(message, MAX_POST_ERROR_LENGTH));
+                postRepository.save(post);
+            }));
+        } catch (Exception e) {
+            log.error("Could not mark post {} as failed: {}", postId, e.getMessage());
+        }
+    }
+
+    // ====================================
+    // Helper Methods
+    // ====================================
+
+    private String buildCaption(String legenda, List<String> hashtags) {
+        StringBuilder caption = new StringBuilder();
+
+        if (legenda != null && !legenda.isBlank()) {
+            caption.append(legenda);
+        }
+
+        if (hashtags != null && !hashtags.isEmpty()) {
+            if (caption.length() > 0) {
+                caption.append("\n\n");
+            }
+            caption.append(String.join(" ", hashtags));
+        }
+
+        return caption.toString();
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+
+    /**
+     * Everything needed to publish a post, read up front so Meta calls need no open session.
+     */
+    private record PublishJob(
+        Long postId,
+        Long salonId,
+        String imagemUrl,
+        String caption,
+        List<PlataformaSocial> plataformas
+    ) {}
+}
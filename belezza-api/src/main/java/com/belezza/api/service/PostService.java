@@ -1,22 +1,29 @@
 package com.belezza.api.service;
 
+import com.belezza.api.dto.CursorPage;
+import com.belezza.api.dto.post.PostResponse;
 import com.belezza.api.entity.*;
 import com.belezza.api.exception.BusinessException;
 import com.belezza.api.exception.ResourceNotFoundException;
 import com.belezza.api.integration.MetaGraphAPIService;
+import com.belezza.api.repository.PostPublicacaoRepository;
 import com.belezza.api.repository.PostRepository;
 import com.belezza.api.repository.SalonRepository;
 import com.belezza.api.repository.UsuarioRepository;
+import com.belezza.api.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
 
 /**
  * Service for managing social media posts.
@@ -29,10 +36,11 @@ import java.util.List;
 public class PostService {
 
     private final PostRepository postRepository;
+    private final PostPublicacaoRepository postPublicacaoRepository;
     private final SalonRepository salonRepository;
     private final UsuarioRepository usuarioRepository;
-    private final SocialAccountService socialAccountService;
-    private final MetaGraphAPIService metaGraphAPIService;
+    private final PostPublishingService postPublishingService;
+    private final PostMetricsSyncService postMetricsSyncService;
 
     private static final int MAX_RETRY_ATTEMPTS = 3;
 
@@ -130,6 +138,30 @@ public class PostService {
         return postRepository.findBySalon(salon, pageable);
     }
 
+    /**
+     * List posts by salon with keyset pagination, most recent first.
+     *
+     * @param cursor       token from the previous page; null for the first one
+     * @param includeTotal whether to count all matching posts
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> listPosts(Long salonId, StatusPost status, String cursor, int size,
+                                              boolean includeTotal) {
+        getSalonById(salonId);
+        KeysetCursor before = KeysetCursor.decode(cursor, true);
+
+        List<Post> rows = status != null
+            ? postRepository.findBySalonIdAndStatusBefore(salonId, status, before.valor(), before.id(),
+                CursorPage.request(size))
+            : postRepository.findBySalonIdBefore(salonId, before.valor(), before.id(), CursorPage.request(size));
+        LongSupplier total = status != null
+            ? () -> postRepository.countBySalonIdAndStatus(salonId, status)
+            : () -> postRepository.countBySalonId(salonId);
+
+        return CursorPage.of(rows, size, post -> KeysetCursor.of(post.getCriadoEm(), post.getId()),
+            PostResponse::fromEntity, includeTotal ? total : null);
+    }
+
     /**
      * Delete post (soft delete by marking as draft).
      */
@@ -152,96 +184,11 @@ public class PostService {
 
     /**
      * Publish post immediately to selected platforms.
+     * Runs outside the service transaction so no connection is held while waiting on Meta.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Post publishPost(Long salonId, Long postId) {
-        Post post = getPostBySalonAndId(salonId, postId);
-
-        // Validate post can be published
-        validatePostForPublishing(post);
-
-        // Update status
-        post.setStatus(StatusPost.PUBLICANDO);
-        post.setTentativasPublicacao(post.getTentativasPublicacao() + 1);
-        postRepository.save(post);
-
-        try {
-            // Publish to each platform
-            boolean allSuccess = true;
-            StringBuilder errors = new StringBuilder();
-
-            for (PlataformaSocial plataforma : post.getPlataformas()) {
-                try {
-                    publishToPlatform(post, plataforma);
-                } catch (Exception e) {
-                    allSuccess = false;
-                    errors.append(plataforma).append(": ").append(e.getMessage()).append("; ");
-                    log.error("Failed to publish to {}: {}", plataforma, e.getMessage());
-                }
-            }
-
-            if (allSuccess) {
-                post.setStatus(StatusPost.PUBLICADO);
-                post.setPublicadoEm(LocalDateTime.now());
-                post.setPublishErrorMessage(null);
-                log.info("Post published successfully: {}", postId);
-            } else {
-                post.setStatus(StatusPost.FALHOU);
-                post.setPublishErrorMessage(errors.toString());
-                log.error("Post publishing failed: {}", postId);
-            }
-
-        } catch (Exception e) {
-            post.setStatus(StatusPost.FALHOU);
-            post.setPublishErrorMessage(e.getMessage());
-            log.error("Error publishing post {}: {}", postId, e.getMessage(), e);
-        }
-
-        return postRepository.save(post);
-    }
-
-    /**
-     * Publish to a specific platform.
-     */
-    private void publishToPlatform(Post post, PlataformaSocial plataforma) {
-        // Get active account for platform
-        ContaSocial conta = socialAccountService.getAccountByPlatform(
-            post.getSalon().getId(),
-            plataforma
-        );
-
-        // Build caption with hashtags
-        String caption = buildCaption(post.getLegenda(), post.getHashtags());
-
-        // Create publish request
-        MetaGraphAPIService.PublishRequest request = new MetaGraphAPIService.PublishRequest(
-            post.getImagemUrl(),
-            caption
-        );
-
-        // Publish
-        MetaGraphAPIService.PublishResponse response;
-
-        if (plataforma == PlataformaSocial.INSTAGRAM) {
-            response = metaGraphAPIService.publishToInstagram(
-                conta.getAccessToken(),
-                conta.getAccountId(),
-                request
-            );
-        } else if (plataforma == PlataformaSocial.FACEBOOK) {
-            response = metaGraphAPIService.publishToFacebook(
-                conta.getAccessToken(),
-                conta.getAccountId(),
-                request
-            );
-        } else {
-            throw new BusinessException("Publishing to " + plataforma + " not yet implemented");
-        }
-
-        if (!response.success()) {
-            throw new BusinessException(response.errorMessage());
-        }
-
-        log.info("Published to {} successfully. Post ID: {}", plataforma, response.postId());
+        return postPublishingService.publish(salonId, postId);
     }
 
     // ====================================
@@ -255,7 +202,7 @@ public class PostService {
         Post post = getPostBySalonAndId(salonId, postId);
 
         // Validate post can be scheduled
-        validatePostForPublishing(post);
+        postPublishingService.validateForPublishing(post);
 
         // Validate scheduled time is in the future
         if (scheduledTime.isBefore(LocalDateTime.now())) {
@@ -272,42 +219,33 @@ public class PostService {
 
     /**
      * Process scheduled posts that are ready to publish.
-     * Called by scheduler job.
+     * Called by scheduler job; all due posts are published in parallel.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processScheduledPosts() {
         List<Post> readyPosts = postRepository.findReadyToPublish(LocalDateTime.now());
 
         log.info("Processing {} scheduled posts", readyPosts.size());
 
-        for (Post post : readyPosts) {
-            try {
-                publishPost(post.getSalon().getId(), post.getId());
-            } catch (Exception e) {
-                log.error("Error processing scheduled post {}: {}", post.getId(), e.getMessage());
-                post.setStatus(StatusPost.FALHOU);
-                post.setPublishErrorMessage(e.getMessage());
-                postRepository.save(post);
-            }
+        if (!readyPosts.isEmpty()) {
+            postPublishingService.publishAll(readyPosts);
         }
     }
 
     /**
      * Retry failed posts.
-     * Called by scheduler job.
+     * Called by scheduler job. Only platforms that failed are published again.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void retryFailedPosts() {
-        List<Post> retryablePosts = postRepository.findRetryable();
+        List<Post> retryablePosts = postRepository.findRetryable().stream()
+            .filter(post -> post.getTentativasPublicacao() < MAX_RETRY_ATTEMPTS)
+            .toList();
 
         log.info("Retrying {} failed posts", retryablePosts.size());
 
-        for (Post post : retryablePosts) {
-            if (post.getTentativasPublicacao() < MAX_RETRY_ATTEMPTS) {
-                try {
-                    publishPost(post.getSalon().getId(), post.getId());
-                } catch (Exception e) {
-                    log.error("Retry failed for post {}: {}", post.getId(), e.getMessage());
-                }
-            }
+        if (!retryablePosts.isEmpty()) {
+            postPublishingService.publishAll(retryablePosts);
         }
     }
 
@@ -325,48 +263,47 @@ public class PostService {
             throw new BusinessException("Can only sync metrics for published posts");
         }
 
-        try {
-            int totalLikes = 0;
-            int totalComments = 0;
-            int totalShares = 0;
-            int totalReach = 0;
-
-            for (PlataformaSocial plataforma : post.getPlataformas()) {
-                try {
-                    ContaSocial conta = socialAccountService.getAccountByPlatform(salonId, plataforma);
-
-                    // Would need to store platform-specific post IDs
-                    // For now, skip metrics sync for all platforms
-                    if (plataforma == PlataformaSocial.INSTAGRAM ||
-                        plataforma == PlataformaSocial.FACEBOOK ||
-                        plataforma == PlataformaSocial.WHATSAPP_STATUS) {
-                        continue;
-                    }
-
-                    // Future: Fetch metrics from Meta Graph API
-                    // MetaGraphAPIService.PostMetrics metrics = metaGraphAPIService.getPostMetrics(...);
-                    // totalLikes += metrics.likes();
-                    // totalComments += metrics.comments();
-                    // totalShares += metrics.shares();
-                    // totalReach += metrics.reach();
-
-                } catch (Exception e) {
-                    log.warn("Failed to sync metrics from {}: {}", plataforma, e.getMessage());
+        List<PostPublicacao> publicacoes = postPublicacaoRepository.findByPostId(postId);
+        Map<Long, MetaGraphAPIService.PostMetrics> metrics = postMetricsSyncService.fetchMetrics(salonId, publicacoes);
+
+        if (metrics.isEmpty()) {
+            log.warn("No metrics available for post: {}", postId);
+            return post;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int totalLikes = 0;
+        int totalComments = 0;
+        int totalShares = 0;
+        int totalReach = 0;
+
+        // Totals include platforms not refreshed now, using their last synced values
+        for (PostPublicacao publicacao : publicacoes) {
+            MetaGraphAPIService.PostMetrics platformMetrics = metrics.get(publicacao.getId());
+            if (platformMetrics != null) {
+                publicacao.setCurtidas(platformMetrics.likes());
+                publicacao.setComentarios(platformMetrics.comments());
+                publicacao.setCompartilhamentos(platformMetrics.shares());
+                if (platformMetrics.reach() != null) {
+                    publicacao.setAlcance(platformMetrics.reach());
                 }
+                publicacao.setMetricasAtualizadasEm(now);
             }
 
-            post.setCurtidas(totalLikes);
-            post.setComentarios(totalComments);
-            post.setCompartilhamentos(totalShares);
-            post.setAlcance(totalReach);
+            totalLikes += publicacao.getCurtidas();
+            totalComments += publicacao.getComentarios();
+            totalShares += publicacao.getCompartilhamentos();
+            totalReach += publicacao.getAlcance();
+        }
 
-            post = postRepository.save(post);
+        post.setCurtidas(totalLikes);
+        post.setComentarios(totalComments);
+        post.setCompartilhamentos(totalShares);
+        post.setAlcance(totalReach);
 
-            log.info("Metrics synced for post: {}", postId);
+        post = postRepository.save(post);
 
-        } catch (Exception e) {
-            log.error("Error syncing metrics for post {}: {}", postId, e.getMessage());
-        }
+        log.info("Metrics synced for post: {} ({} platforms)", postId, metrics.size());
 
         return post;
     }
@@ -375,23 +312,6 @@ public class PostService {
     // Validation & Helper Methods
     // ====================================
 
-    private void validatePostForPublishing(Post post) {
-        if (post.getImagemUrl() == null || post.getImagemUrl().isBlank()) {
-            throw new BusinessException("Post must have an image");
-        }
-
-        if (post.getPlataformas() == null || post.getPlataformas().isEmpty()) {
-            throw new BusinessException("Post must have at least one target platform");
-        }
-
-        // Check if salon has active accounts for all platforms
-        for (PlataformaSocial plataforma : post.getPlataformas()) {
-            if (!socialAccountService.hasActiveAccount(post.getSalon().getId(), plataforma)) {
-                throw new BusinessException("No active " + plataforma + " account connected");
-            }
-        }
-    }
-
     private void validatePostLimits(Salon salon) {
         Plano plano = salon.getAdmin().getPlano();
 
@@ -413,23 +333,6 @@ public class PostService {
         }
     }
 
-    private String buildCaption(String legenda, List<String> hashtags) {
-        StringBuilder caption = new StringBuilder();
-
-        if (legenda != null && !legenda.isBlank()) {
-            caption.append(legenda);
-        }
-
-        if (hashtags != null && !hashtags.isEmpty()) {
-            if (caption.length() > 0) {
-                caption.append("\n\n");
-            }
-            caption.append(String.join(" ", hashtags));
-        }
-
-        return caption.toString();
-    }
-
     private Post getPostBySalonAndId(Long salonId, Long postId) {
         Salon salon = getSalonById(salonId);
         return postRepository.findByIdAndSalon(postId, salon)
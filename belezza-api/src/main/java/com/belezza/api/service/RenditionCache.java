@@ -0,0 +1,229 @@
+package com.belezza.api.service;
+
+import com.belezza.api.integration.S3Service;
+import com.belezza.api.util.ContentHash;
+import com.belezza.api.util.ImageEncoder;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of derived renditions (crops, resizes) keyed by source content hash, operation and parameters.
+ *
+ * Renditions live in S3 under a deterministic key, with their own hash and dimensions in the
+ * object metadata, so a repeated request costs a HEAD instead of a decode, encode and upload.
+ * A local disk LRU in front of S3 answers repeated requests on this instance without the HEAD,
+ * and restores the S3 object without re-rendering if it was removed after its last reference.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RenditionCache {
+
+    private static final String PREFIX = "renditions/";
+    // Crops are always JPEG: social platforms do not accept WebP
+    private static final String CONTENT_TYPE = ImageEncoder.Format.JPEG.getContentType();
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[a-z0-9_.-]+");
+
+    static final String META_HASH = "sha256";
+    static final String META_WIDTH = "width";
+    static final String META_HEIGHT = "height";
+    static final String META_SIZE = "size";
+
+    private final S3Service s3Service;
+    private final ContentStorageService contentStorageService;
+
+    @Value("${belezza.image.rendition-cache.directory:${java.io.tmpdir}/belezza-renditions}")
+    private String directory;
+
+    @Value("${belezza.image.rendition-cache.max-bytes:268435456}")
+    private long maxBytes;
+
+    private Path root;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, LocalEntry> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Path.of(directory);
+        // The index is in memory only, so files left by a previous run cannot be trusted
+        FileSystemUtils.deleteRecursively(root);
+        Files.createDirectories(root);
+        log.info("Rendition cache at {} (max {} bytes)", root, maxBytes);
+    }
+
+    /**
+     * A cached rendition and what is needed to reference it without reading it back.
+     */
+    public record CachedRendition(String key, String hash, int width, int height, long size) {
+    }
+
+    /**
+     * S3 key of a rendition: {@code renditions/<ab>/<source hash>/<operation>-<params>.jpg}.
+     */
+    public static String key(String sourceHash, String operation, String params) {
+        if (!TOKEN_PATTERN.matcher(operation).matches() || !TOKEN_PATTERN.matcher(params).matches()) {
+            throw new IllegalArgumentException("Invalid rendition operation or parameters: " + operation + "/" + params);
+        }
+        return PREFIX + sourceHash.substring(0, 2) + "/" + sourceHash + "/" + operation + "-" + params + ".jpg";
+    }
+
+    /**
+     * Look a rendition up: local disk first, then a HEAD on S3.
+     *
+     * @return future completed with the rendition, or empty if it has to be rendered
+     */
+    public CompletableFuture<Optional<CachedRendition>> lookup(String sourceHash, String operation, String params) {
+        String key = key(sourceHash, operation, params);
+
+        LocalEntry local = getLocal(key);
+        // A stored-content row means the S3 object is still there
+        if (local != null && contentStorageService.findKey(local.rendition().hash()).isPresent()) {
+            return CompletableFuture.completedFuture(Optional.of(local.rendition()));
+        }
+
+        return s3Service.getObjectMetadataAsync(key)
+            .thenCompose(metadata -> {
+                if (metadata.isPresent()) {
+                    return CompletableFuture.completedFuture(fromMetadata(key, metadata.get()));
+                }
+                if (local != null) {
+                    return restore(local);
+                }
+                return CompletableFuture.completedFuture(Optional.<CachedRendition>empty());
+            })
+            .exceptionally(error -> {
+                log.warn("Rendition cache lookup failed for {}: {}", key, error.getMessage());
+                return Optional.empty();
+            });
+    }
+
+    /**
+     * Store a freshly rendered rendition on local disk and in S3.
+     *
+     * @return future completed with the stored rendition, or failed with an {@link IOException}
+     */
+    public CompletableFuture<CachedRendition> store(String sourceHash, String operation, String params,
+                                                    byte[] data, String hash, int width, int height) {
+        CachedRendition rendition = new CachedRendition(
+            key(sourceHash, operation, params), hash, width, height, data.length);
+
+        putLocal(rendition, data);
+
+        return s3Service.uploadBytesToKeyAsync(data, CONTENT_TYPE, rendition.key(), metadata(rendition))
+            .thenApply(key -> rendition);
+    }
+
+    private Optional<CachedRendition> fromMetadata(String key, Map<String, String> metadata) {
+        try {
+            return Optional.of(new CachedRendition(
+                key,
+                metadata.get(META_HASH),
+                Integer.parseInt(metadata.get(META_WIDTH)),
+                Integer.parseInt(metadata.get(META_HEIGHT)),
+                Long.parseLong(metadata.get(META_SIZE))));
+        } catch (RuntimeException e) {
+            // Objects without our metadata are rendered again and overwritten
+            log.warn("Rendition {} has no usable metadata", key);
+            return Optional.empty();
+        }
+    }
+
+    private CompletableFuture<Optional<CachedRendition>> restore(LocalEntry local) {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(local.file());
+        } catch (IOException e) {
+            removeLocal(local.rendition().key());
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        log.debug("Restoring rendition {} from local cache", local.rendition().key());
+        return s3Service.uploadBytesToKeyAsync(data, CONTENT_TYPE, local.rendition().key(), metadata(local.rendition()))
+            .thenApply(key -> Optional.of(local.rendition()));
+    }
+
+    private static Map<String, String> metadata(CachedRendition rendition) {
+        return Map.of(
+            META_HASH, rendition.hash(),
+            META_WIDTH, String.valueOf(rendition.width()),
+            META_HEIGHT, String.valueOf(rendition.height()),
+            META_SIZE, String.valueOf(rendition.size()));
+    }
+
+    // Local disk tier
+
+    private record LocalEntry(CachedRendition rendition, Path file) {
+    }
+
+    private synchronized LocalEntry getLocal(String key) {
+        return index.get(key);
+    }
+
+    private void putLocal(CachedRendition rendition, byte[] data) {
+        if (data.length > maxBytes) {
+            return;
+        }
+
+        Path file = root.resolve(ContentHash.sha256(rendition.key().getBytes()) + ".jpg");
+        try {
+            Files.write(file, data);
+        } catch (IOException e) {
+            log.warn("Failed to write rendition {} to local cache: {}", rendition.key(), e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            LocalEntry previous = index.put(rendition.key(), new LocalEntry(rendition, file));
+            if (previous != null) {
+                totalBytes -= previous.rendition().size();
+            }
+            totalBytes += rendition.size();
+            evict();
+        }
+    }
+
+    private synchronized void removeLocal(String key) {
+        LocalEntry entry = index.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.rendition().size();
+            deleteQuietly(entry.file());
+        }
+    }
+
+    private void evict() {
+        Iterator<LocalEntry> iterator = index.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            LocalEntry eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.rendition().size();
+            deleteQuietly(eldest.file());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Error deleting cached rendition {}: {}", file, e.getMessage());
+        }
+    }
+
+    synchronized long localBytes() {
+        return totalBytes;
+    }
+}
@@ -2,12 +2,14 @@ package com.belezza.api.service;
 
 import com.belezza.api.dto.salon.SalonRequest;
 import com.belezza.api.dto.salon.SalonResponse;
+import com.belezza.api.entity.Profissional;
 import com.belezza.api.entity.Role;
 import com.belezza.api.entity.Salon;
 import com.belezza.api.entity.Usuario;
 import com.belezza.api.exception.BusinessException;
 import com.belezza.api.exception.DuplicateResourceException;
 import com.belezza.api.exception.ResourceNotFoundException;
+import com.belezza.api.repository.ProfissionalRepository;
 import com.belezza.api.repository.SalonRepository;
 import com.belezza.api.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +28,7 @@ public class SalonService {
 
     private final SalonRepository salonRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ProfissionalRepository profissionalRepository;
 
     @Transactional
     public SalonResponse criar(SalonRequest request, String emailAdmin) {
@@ -158,6 +162,22 @@ public class SalonService {
                 .orElseThrow(() -> new ResourceNotFoundException("Salão", "admin", emailAdmin));
     }
 
+    // Helper to get the salon a user works at: the one an admin owns or a professional works for.
+    // Empty for users outside a salon, such as clients
+    @Transactional(readOnly = true)
+    public Optional<Long> findSalonIdDoUsuario(String email) {
+        Usuario usuario = usuarioRepository.findByEmailAndAtivoTrue(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuário", "email", email));
+
+        return switch (usuario.getRole()) {
+            case ADMIN -> salonRepository.findByAdminIdAndAtivoTrue(usuario.getId()).map(Salon::getId);
+            case PROFISSIONAL -> profissionalRepository.findByUsuarioIdAndAtivoTrue(usuario.getId())
+                    .map(Profissional::getSalon)
+                    .map(Salon::getId);
+            case CLIENTE -> Optional.empty();
+        };
+    }
+
     private LocalTime parseTime(String time, String defaultTime) {
         if (time == null || time.isBlank()) {
             return LocalTime.parse(defaultTime);
@@ -0,0 +1,193 @@
+package com.belezza.api.service;
+
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.util.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical expensive calls (AI predictions) onto one execution.
+ *
+ * Within a node, callers with the same key wait for the call already in flight. Across nodes,
+ * the node that runs the call holds a Redis lock for the key and publishes the result under it
+ * for a short TTL; other nodes wait for that result instead of starting their own call, and
+ * repeats right after completion (a double click) reuse it. If Redis is disabled or unavailable,
+ * only callers on the same node are coalesced. Results are strings (the URLs predictions return).
+ */
+@Service
+@Slf4j
+public class SingleFlight {
+
+    private static final String LOCK_PREFIX = "ai:single-flight:lock:";
+    private static final String RESULT_PREFIX = "ai:single-flight:result:";
+
+    // Delete the lock only if this node still holds it
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration lockTtl;
+    private final Duration resultTtl;
+    private final Duration maxWait;
+    private final Duration pollInterval;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(ObjectProvider<StringRedisTemplate> redisTemplate,
+                        @Value("${spring.data.redis.enabled:true}") boolean redisEnabled,
+                        @Value("${belezza.ai.single-flight.lock-ttl-seconds:300}") long lockTtlSeconds,
+                        @Value("${belezza.ai.single-flight.result-ttl-seconds:600}") long resultTtlSeconds,
+                        @Value("${belezza.ai.single-flight.max-wait-seconds:300}") long maxWaitSeconds,
+                        @Value("${belezza.ai.single-flight.poll-interval-ms:1000}") long pollIntervalMillis) {
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.lockTtl = Duration.ofSeconds(lockTtlSeconds);
+        this.resultTtl = Duration.ofSeconds(resultTtlSeconds);
+        this.maxWait = Duration.ofSeconds(maxWaitSeconds);
+        this.pollInterval = Duration.ofMillis(pollIntervalMillis);
+    }
+
+    /**
+     * Key of an operation on a specific image version.
+     *
+     * @param source    what the operation reads, e.g. the current image URL
+     * @param operation operation name
+     * @param params    operation parameters, or null
+     */
+    public static String key(String source, String operation, String params) {
+        String identity = source + "|" + operation + "|" + (params != null ? params : "");
+        return operation + ":" + ContentHash.sha256(identity.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Run the call, or wait for the identical call already running on this or another node.
+     * Failures of the call are rethrown to every caller waiting on it.
+     */
+    public String execute(String key, Supplier<String> call) {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            log.info("Coalescing {} onto the call already in flight", key);
+            return await(existing);
+        }
+
+        try {
+            String result = executeAcrossNodes(key, call);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private String executeAcrossNodes(String key, Supplier<String> call) {
+        if (redisTemplate == null) {
+            return call.get();
+        }
+
+        String token = UUID.randomUUID().toString();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            RemoteState state;
+            try {
+                state = claim(key, token);
+            } catch (RuntimeException e) {
+                // Fail open: without Redis, coalesce on this node only
+                log.warn("Redis unavailable for single-flight {}: {}", key, e.getMessage());
+                return call.get();
+            }
+
+            if (state.result() != null) {
+                log.info("Reusing result of {} from another request", key);
+                return state.result();
+            }
+            if (state.acquired()) {
+                return runHoldingLock(key, token, call);
+            }
+
+            if (System.nanoTime() > deadline) {
+                throw new BusinessException("Timed out waiting for an identical operation in progress");
+            }
+            sleep();
+        }
+    }
+
+    /**
+     * Published result, or else try to take the lock.
+     */
+    private RemoteState claim(String key, String token) {
+        String result = redisTemplate.opsForValue().get(RESULT_PREFIX + key);
+        if (result != null) {
+            return new RemoteState(result, false);
+        }
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_PREFIX + key, token, lockTtl);
+        return new RemoteState(null, Boolean.TRUE.equals(acquired));
+    }
+
+    private String runHoldingLock(String key, String token, Supplier<String> call) {
+        try {
+            String result = call.get();
+            try {
+                redisTemplate.opsForValue().set(RESULT_PREFIX + key, result, resultTtl);
+            } catch (RuntimeException e) {
+                log.warn("Could not publish single-flight result {}: {}", key, e.getMessage());
+            }
+            return result;
+        } finally {
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_PREFIX + key), token);
+            } catch (RuntimeException e) {
+                // The lock expires on its own
+                log.warn("Could not release single-flight lock {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private String await(CompletableFuture<String> flight) {
+        try {
+            return flight.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException("Operation failed: " + e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            throw new BusinessException("Timed out waiting for an identical operation in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for an identical operation");
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for an identical operation");
+        }
+    }
+
+    private record RemoteState(String result, boolean acquired) {
+    }
+}
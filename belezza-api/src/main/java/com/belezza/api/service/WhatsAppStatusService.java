@@ -0,0 +1,220 @@
+package com.belezza.api.service;
+
+import com.belezza.api.dto.whatsapp.WhatsAppWebhookPayload;
+import com.belezza.api.entity.WhatsAppMessage;
+import com.belezza.api.entity.WhatsAppMessageStatus;
+import com.belezza.api.repository.WhatsAppMessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers WhatsApp delivery status callbacks and applies them in batches.
+ *
+ * The webhook only enqueues; statuses for the same message are coalesced in memory
+ * (latest wins) and {@link com.belezza.api.scheduler.WhatsAppStatusFlushJob} writes
+ * them with one lookup query and batched updates per drain.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WhatsAppStatusService {
+
+    private final WhatsAppMessageRepository messageRepository;
+
+    private final ConcurrentHashMap<String, StatusUpdate> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Enqueue status notifications received from the webhook.
+     *
+     * @return number of statuses accepted
+     */
+    public int enqueue(List<WhatsAppWebhookPayload.Status> statuses) {
+        int accepted = 0;
+
+        for (WhatsAppWebhookPayload.Status status : statuses) {
+            StatusUpdate update = StatusUpdate.from(status);
+            if (update == null) {
+                log.warn("Status WhatsApp ignorado: {} ({})", status.status(), status.id());
+                continue;
+            }
+            enqueue(update);
+            accepted++;
+        }
+
+        return accepted;
+    }
+
+    /**
+     * Enqueue a single update, merging it with any pending update for the same message.
+     */
+    public void enqueue(StatusUpdate update) {
+        pending.merge(update.messageId(), update, StatusUpdate::merge);
+    }
+
+    /**
+     * Remove up to {@code maxSize} pending updates from the buffer.
+     */
+    public List<StatusUpdate> drain(int maxSize) {
+        List<StatusUpdate> batch = new ArrayList<>(Math.min(maxSize, pending.size()));
+
+        Iterator<String> keys = pending.keySet().iterator();
+        while (keys.hasNext() && batch.size() < maxSize) {
+            StatusUpdate update = pending.remove(keys.next());
+            if (update != null) {
+                batch.add(update);
+            }
+        }
+
+        return batch;
+    }
+
+    /**
+     * Put updates back after a failed flush. Newer updates received meanwhile still win.
+     */
+    public void requeue(Collection<StatusUpdate> updates) {
+        updates.forEach(this::enqueue);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Apply a batch of updates: one IN query to load the messages, then batched UPDATEs on commit.
+     *
+     * @return number of messages updated
+     */
+    @Transactional
+    public int applyBatch(Collection<StatusUpdate> updates) {
+        Map<String, StatusUpdate> byMessageId = new HashMap<>();
+        updates.forEach(update -> byMessageId.put(update.messageId(), update));
+
+        List<WhatsAppMessage> messages = messageRepository.findByMessageIdIn(byMessageId.keySet());
+        List<WhatsAppMessage> changed = new ArrayList<>(messages.size());
+
+        for (WhatsAppMessage message : messages) {
+            if (byMessageId.get(message.getMessageId()).applyTo(message)) {
+                changed.add(message);
+            }
+        }
+
+        messageRepository.saveAll(changed);
+
+        log.debug("Status WhatsApp aplicados: {} de {} recebidos ({} mensagens desconhecidas)",
+            changed.size(), updates.size(), byMessageId.size() - messages.size());
+
+        return changed.size();
+    }
+
+    /**
+     * Coalesced status for one message.
+     * Keeps the most recent status plus the first delivery/read timestamps seen.
+     */
+    public record StatusUpdate(
+        String messageId,
+        WhatsAppMessageStatus status,
+        LocalDateTime statusTime,
+        LocalDateTime entregueEm,
+        LocalDateTime lidoEm,
+        String errorMessage
+    ) {
+
+        static StatusUpdate from(WhatsAppWebhookPayload.Status status) {
+            if (status.id() == null || status.status() == null) {
+                return null;
+            }
+
+            LocalDateTime statusTime = parseTimestamp(status.timestamp());
+
+            return switch (status.status()) {
+                case "sent" -> new StatusUpdate(status.id(), WhatsAppMessageStatus.SENT, statusTime, null, null, null);
+                case "delivered" -> new StatusUpdate(status.id(), WhatsAppMessageStatus.DELIVERED, statusTime, statusTime, null, null);
+                case "read" -> new StatusUpdate(status.id(), WhatsAppMessageStatus.READ, statusTime, null, statusTime, null);
+                case "failed" -> new StatusUpdate(status.id(), WhatsAppMessageStatus.FAILED, statusTime, null, null,
+                    extractError(status));
+                default -> null;
+            };
+        }
+
+        StatusUpdate merge(StatusUpdate other) {
+            boolean otherIsNewer = other.statusTime.isAfter(statusTime)
+                || (other.statusTime.isEqual(statusTime) && rank(other.status) > rank(status));
+            StatusUpdate newer = otherIsNewer ? other : this;
+
+            return new StatusUpdate(
+                messageId,
+                newer.status,
+                newer.statusTime,
+                entregueEm != null ? entregueEm : other.entregueEm,
+                lidoEm != null ? lidoEm : other.lidoEm,
+                newer.errorMessage
+            );
+        }
+
+        /**
+         * Apply this update to the entity without moving a delivered/read message backwards.
+         *
+         * @return true if the entity was modified
+         */
+        boolean applyTo(WhatsAppMessage message) {
+            boolean changed = false;
+
+            if (rank(status) >= rank(message.getStatus()) && status != message.getStatus()) {
+                message.setStatus(status);
+                changed = true;
+            }
+            if (entregueEm != null && message.getEntregueEm() == null) {
+                message.setEntregueEm(entregueEm);
+                changed = true;
+            }
+            if (lidoEm != null && message.getLidoEm() == null) {
+                message.setLidoEm(lidoEm);
+                changed = true;
+            }
+            if (status == WhatsAppMessageStatus.FAILED && errorMessage != null) {
+                message.setErrorMessage(errorMessage);
+                changed = true;
+            }
+
+            return changed;
+        }
+
+        private static int rank(WhatsAppMessageStatus status) {
+            if (status == null) {
+                return 0;
+            }
+            return switch (status) {
+                case RETRYING, SENT -> 1;
+                case DELIVERED -> 2;
+                case READ -> 3;
+                case FAILED -> 4;
+            };
+        }
+
+        private static LocalDateTime parseTimestamp(String timestamp) {
+            if (timestamp != null) {
+                try {
+                    return LocalDateTime.ofEpochSecond(Long.parseLong(timestamp), 0, ZoneOffset.UTC);
+                } catch (NumberFormatException ignored) {
+                    // fall through to receive time
+                }
+            }
+            return LocalDateTime.now(ZoneOffset.UTC);
+        }
+
+        private static String extractError(WhatsAppWebhookPayload.Status status) {
+            if (status.errors() == null || status.errors().isEmpty()) {
+                return null;
+            }
+            WhatsAppWebhookPayload.Error error = status.errors().get(0);
+            return error.code() + ": " + (error.message() != null ? error.message() : error.title());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.Salon;
+import com.belezza.api.entity.TipoMensagemWhatsApp;
+import com.belezza.api.entity.WhatsAppTemplate;
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.repository.WhatsAppTemplateRepository;
+import com.belezza.api.util.MessageTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WhatsApp notification templates, compiled once and cached per salon.
+ *
+ * Salons may override the text of each {@link TipoMensagemWhatsApp}; the rest use the defaults
+ * below. Compiled templates are kept in memory for a short TTL so changes made on another
+ * instance show up without a restart. Admins edit the templates of the salon they own, resolved
+ * from their e-mail, never from a salon id sent by the client.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class WhatsAppTemplateService {
+
+    private static final Map<TipoMensagemWhatsApp, MessageTemplate> DEFAULT_TEMPLATES =
+        new EnumMap<>(TipoMensagemWhatsApp.class);
+
+    static {
+        registerDefault(TipoMensagemWhatsApp.CONFIRMACAO_AGENDAMENTO, """
+            Olá {{nome}}! 👋
+
+            Seu agendamento foi confirmado:
+            📅 {{data}} às {{hora}}
+            💇 {{servico}} com {{profissional}}
+            📍 {{endereco}}
+
+            ✅ Confirmar presença: {{linkConfirmacao}}
+            ❌ Cancelar agendamento: {{linkCancelamento}}
+
+            Aguardamos você!
+            """);
+
+        registerDefault(TipoMensagemWhatsApp.LEMBRETE_24H, """
+            Olá {{nome}}! 🔔
+
+            Lembrete: Você tem um agendamento amanhã!
+            📅 {{data}} às {{hora}}
+            💇 {{servico}}
+
+            ✅ Confirme sua presença: {{linkConfirmacao}}
+            ❌ Precisa cancelar? {{linkCancelamento}}
+
+            Até breve!
+            """);
+
+        registerDefault(TipoMensagemWhatsApp.LEMBRETE_2H, """
+            Olá {{nome}}! ⏰
+
+            Seu horário está chegando!
+            ⏰ Daqui a 2 horas: {{hora}}
+            💇 {{servico}}
+            📍 {{endereco}}
+
+            Aguardamos você!
+            """);
+
+        registerDefault(TipoMensagemWhatsApp.POS_ATENDIMENTO, """
+            Olá {{nome}}! 😊
+
+            Obrigado pela visita!
+
+            Que tal avaliar nosso atendimento?
+            ⭐ {{linkAvaliacao}}
+
+            Sua opinião é muito importante para nós!
+            """);
+
+        registerDefault(TipoMensagemWhatsApp.CANCELAMENTO, """
+            Olá {{nome}}! 😔
+
+            Seu agendamento foi cancelado:
+            📅 {{data}} às {{hora}}
+            💇 {{servico}}
+
+            Motivo: {{motivo}}
+
+            Que tal reagendar?
+            📅 {{linkReagendar}}
+
+            Esperamos vê-lo(a) em breve!
+            """);
+    }
+
+    private final WhatsAppTemplateRepository templateRepository;
+    private final SalonService salonService;
+
+    @Value("${belezza.whatsapp.templates.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private final ConcurrentHashMap<TemplateKey, CachedTemplate> cache = new ConcurrentHashMap<>();
+
+    private static void registerDefault(TipoMensagemWhatsApp tipo, String text) {
+        DEFAULT_TEMPLATES.put(tipo, MessageTemplate.compile(text, tipo.getVariaveis()));
+    }
+
+    /**
+     * Default template of a notification type.
+     */
+    public static MessageTemplate defaultTemplate(TipoMensagemWhatsApp tipo) {
+        return DEFAULT_TEMPLATES.get(tipo);
+    }
+
+    /**
+     * Template to use for a salon, falling back to the default when it has no custom text.
+     */
+    public MessageTemplate getTemplate(Long salonId, TipoMensagemWhatsApp tipo) {
+        if (salonId == null) {
+            return defaultTemplate(tipo);
+        }
+
+        TemplateKey key = new TemplateKey(salonId, tipo);
+        CachedTemplate cached = cache.get(key);
+        if (cached != null && !cached.isExpired(cacheTtlSeconds)) {
+            return cached.template();
+        }
+
+        MessageTemplate template = loadTemplate(salonId, tipo);
+        cache.put(key, new CachedTemplate(template, System.nanoTime()));
+        return template;
+    }
+
+    /**
+     * Current text of every notification type for the admin's salon (custom or default).
+     */
+    @Transactional(readOnly = true)
+    public Map<TipoMensagemWhatsApp, String> listTemplates(String emailAdmin) {
+        Long salonId = salonService.getSalonByAdminEmail(emailAdmin).getId();
+
+        Map<TipoMensagemWhatsApp, String> templates = new EnumMap<>(TipoMensagemWhatsApp.class);
+        DEFAULT_TEMPLATES.forEach((tipo, template) -> templates.put(tipo, template.getSource()));
+
+        for (WhatsAppTemplate custom : templateRepository.findBySalonId(salonId)) {
+            templates.put(custom.getTipo(), custom.getConteudo());
+        }
+        return templates;
+    }
+
+    /**
+     * Save a custom text for the admin's salon. The text is compiled first, so unknown variables are rejected.
+     */
+    @Transactional
+    public WhatsAppTemplate saveTemplate(String emailAdmin, TipoMensagemWhatsApp tipo, String conteudo) {
+        MessageTemplate compiled = compile(tipo, conteudo);
+        Salon salon = salonService.getSalonByAdminEmail(emailAdmin);
+        Long salonId = salon.getId();
+
+        WhatsAppTemplate template = templateRepository.findBySalonIdAndTipo(salonId, tipo)
+            .orElseGet(() -> WhatsAppTemplate.builder()
+                .salon(salon)
+                .tipo(tipo)
+                .build());
+        template.setConteudo(conteudo);
+        template = templateRepository.save(template);
+
+        cache.put(new TemplateKey(salonId, tipo), new CachedTemplate(compiled, System.nanoTime()));
+
+        log.info("Template WhatsApp {} atualizado para o salão {}", tipo, salonId);
+        return template;
+    }
+
+    /**
+     * Remove the custom text of the admin's salon so the default is used again.
+     */
+    @Transactional
+    public void resetTemplate(String emailAdmin, TipoMensagemWhatsApp tipo) {
+        Long salonId = salonService.getSalonByAdminEmail(emailAdmin).getId();
+        templateRepository.findBySalonIdAndTipo(salonId, tipo).ifPresent(templateRepository::delete);
+        cache.remove(new TemplateKey(salonId, tipo));
+
+        log.info("Template WhatsApp {} restaurado para o padrão no salão {}", tipo, salonId);
+    }
+
+    private MessageTemplate loadTemplate(Long salonId, TipoMensagemWhatsApp tipo) {
+        return templateRepository.findBySalonIdAndTipo(salonId, tipo)
+            .map(custom -> {
+                try {
+                    return MessageTemplate.compile(custom.getConteudo(), tipo.getVariaveis());
+                } catch (IllegalArgumentException e) {
+                    log.warn("Template WhatsApp {} inválido no salão {}, usando padrão: {}",
+                        tipo, salonId, e.getMessage());
+                    return defaultTemplate(tipo);
+                }
+            })
+            .orElseGet(() -> defaultTemplate(tipo));
+    }
+
+    private MessageTemplate compile(TipoMensagemWhatsApp tipo, String conteudo) {
+        if (conteudo == null || conteudo.isBlank()) {
+            throw new BusinessException("Conteúdo do template é obrigatório");
+        }
+        try {
+            return MessageTemplate.compile(conteudo, tipo.getVariaveis());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Template inválido: " + e.getMessage());
+        }
+    }
+
+    private record TemplateKey(Long salonId, TipoMensagemWhatsApp tipo) {}
+
+    private record CachedTemplate(MessageTemplate template, long loadedAtNanos) {
+
+        boolean isExpired(long ttlSeconds) {
+            return System.nanoTime() - loadedAtNanos > ttlSeconds * 1_000_000_000L;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.belezza.api.util;
+
+import com.belezza.api.entity.StyleType;
+
+/**
+ * Colour grade applied by {@link ImageOperations#applyGrade}: per-channel adjustments baked into
+ * lookup tables, plus a saturation factor applied per pixel.
+ *
+ * @param brightness offset added to every channel (-1 to 1)
+ * @param contrast   factor around mid grey (1 = unchanged)
+ * @param saturation factor around the pixel's luma (1 = unchanged, 0 = grey)
+ * @param warmth     shifts red up and blue down (negative cools)
+ * @param gamma      exponent applied after contrast (1 = unchanged)
+ * @param fade       lifts the blacks, for a matte look (0 to 1)
+ */
+public record ColorGrade(double brightness, double contrast, double saturation,
+                         double warmth, double gamma, double fade) {
+
+    /**
+     * Preset grade for each style.
+     */
+    public static ColorGrade of(StyleType style) {
+        return switch (style) {
+            case PROFESSIONAL -> new ColorGrade(0.02, 1.10, 1.05, 0.00, 1.00, 0.00);
+            case ARTISTIC -> new ColorGrade(0.00, 1.20, 1.30, 0.05, 1.00, 0.00);
+            case VINTAGE -> new ColorGrade(0.00, 0.90, 0.70, 0.12, 1.00, 0.12);
+            case MODERN -> new ColorGrade(0.00, 1.15, 0.90, -0.05, 1.00, 0.00);
+            case GLAMOUR -> new ColorGrade(0.05, 1.10, 1.10, 0.06, 0.95, 0.00);
+            case NATURAL -> new ColorGrade(0.02, 1.00, 1.05, 0.02, 1.00, 0.00);
+            case DRAMATIC -> new ColorGrade(-0.03, 1.35, 1.20, 0.00, 1.10, 0.00);
+            case SOFT -> new ColorGrade(0.04, 0.85, 0.90, 0.03, 1.00, 0.08);
+        };
+    }
+
+    /**
+     * Lookup tables for red, green and blue.
+     */
+    int[][] lookupTables() {
+        int[][] tables = new int[3][256];
+        double[] channelWarmth = {1 + warmth, 1, 1 - warmth};
+        for (int channel = 0; channel < 3; channel++) {
+            for (int value = 0; value < 256; value++) {
+                double v = value / 255.0 + brightness;
+                v = (v - 0.5) * contrast + 0.5;
+                v = Math.pow(clamp(v), gamma);
+                v = v * channelWarmth[channel];
+                v = fade + clamp(v) * (1 - fade);
+                tables[channel][value] = (int) Math.round(clamp(v) * 255);
+            }
+        }
+        return tables;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
@@ -0,0 +1,56 @@
+package com.belezza.api.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 content hashes, used as storage addresses for images.
+ */
+public final class ContentHash {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentHash() {
+    }
+
+    /**
+     * Hash a stream in fixed-size chunks, without holding the content in memory.
+     */
+    public static String sha256(InputStream inputStream) throws IOException {
+        return finish(digesting(inputStream));
+    }
+
+    /**
+     * Wrap a stream so its content is hashed while the caller reads it.
+     */
+    public static DigestInputStream digesting(InputStream inputStream) {
+        return new DigestInputStream(inputStream, newDigest());
+    }
+
+    /**
+     * Read whatever the caller left unread and return the hash of everything that went through the stream.
+     */
+    public static String finish(DigestInputStream inputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (inputStream.read(buffer) != -1) {
+            // Only the digest needs the bytes
+        }
+        return HexFormat.of().formatHex(inputStream.getMessageDigest().digest());
+    }
+
+    public static String sha256(byte[] data) {
+        return HexFormat.of().formatHex(newDigest().digest(data));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.belezza.api.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Encodes renditions with explicit settings instead of the ImageIO defaults.
+ *
+ * JPEG is written at a configured quality, optionally progressive. Only pixels are written,
+ * so EXIF (camera, GPS) and other metadata of the upload never reach a rendition. Each call
+ * takes a size budget: quality is lowered in steps and, if that is not enough, the image is
+ * downscaled until it fits. Edited images keep transparency as PNG.
+ */
+@Component
+@Slf4j
+public class ImageEncoder {
+
+    private static final float DEFAULT_JPEG_QUALITY = 0.85f;
+    private static final float MIN_JPEG_QUALITY = 0.5f;
+    private static final float QUALITY_STEP = 0.1f;
+    private static final int MIN_DIMENSION = 64;
+
+    private final float jpegQuality;
+    private final boolean progressive;
+
+    @Autowired
+    public ImageEncoder(@Value("${belezza.image.encoding.jpeg-quality:0.85}") float jpegQuality,
+                        @Value("${belezza.image.encoding.progressive:true}") boolean progressive) {
+        this.jpegQuality = jpegQuality;
+        this.progressive = progressive;
+    }
+
+    public ImageEncoder() {
+        this(DEFAULT_JPEG_QUALITY, true);
+    }
+
+    /**
+     * Encode as JPEG, e.g. for social platforms that only accept JPEG.
+     *
+     * @param image    the image to encode; transparency is flattened onto white
+     * @param maxBytes size budget
+     * @return the encoded image, with the dimensions it was encoded at
+     */
+    public EncodedImage encodeJpeg(BufferedImage image, long maxBytes) throws IOException {
+        return encodeWithinBudget(toRgb(image), Format.JPEG, maxBytes);
+    }
+
+    /**
+     * Encode an edited image: PNG when it has transparency (e.g. a removed background), else JPEG.
+     */
+    public EncodedImage encodeEdited(BufferedImage image, long maxBytes) throws IOException {
+        if (image.getColorModel().hasAlpha()) {
+            return encodeWithinBudget(image, Format.PNG, maxBytes);
+        }
+        return encodeJpeg(image, maxBytes);
+    }
+
+    /**
+     * Short tag for the current settings, so cached renditions are re-encoded when they change.
+     */
+    public String settingsTag() {
+        return "q" + Math.round(jpegQuality * 100) + (progressive ? "p" : "");
+    }
+
+    private EncodedImage encodeWithinBudget(BufferedImage image, Format format, long maxBytes) throws IOException {
+        BufferedImage current = image;
+        float quality = jpegQuality;
+
+        while (true) {
+            byte[] data = write(current, format, quality);
+            if (data.length <= maxBytes
+                || (current.getWidth() <= MIN_DIMENSION || current.getHeight() <= MIN_DIMENSION)) {
+                return new EncodedImage(data, format, current.getWidth(), current.getHeight());
+            }
+
+            if (quality - QUALITY_STEP >= MIN_JPEG_QUALITY - 0.001f) {
+                quality -= QUALITY_STEP;
+            } else {
+                // Bytes scale roughly with pixel count
+                double factor = Math.max(0.5, Math.sqrt((double) maxBytes / data.length) * 0.95);
+                current = scale(current, (int) (current.getWidth() * factor), (int) (current.getHeight() * factor));
+            }
+            log.debug("Rendition of {} bytes over budget of {}; retrying at quality {} and {}x{}",
+                data.length, maxBytes, quality, current.getWidth(), current.getHeight());
+        }
+    }
+
+    private byte[] write(BufferedImage image, Format format, float quality) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(format.getContentType());
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for " + format.getContentType());
+        }
+        ImageWriter writer = writers.next();
+
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (param.canWriteCompressed()) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                param.setCompressionType(param.getCompressionTypes()[0]);
+            }
+            param.setCompressionQuality(quality);
+        }
+        if (format == Format.JPEG && progressive && param.canWriteProgressive()) {
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            // No metadata: nothing from the source file is carried over
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * JPEG has no alpha channel, and indexed or custom image types are not written correctly.
+     */
+    private BufferedImage toRgb(BufferedImage image) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_3BYTE_BGR
+            || type == BufferedImage.TYPE_BYTE_GRAY) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = rgb.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return rgb;
+    }
+
+    private BufferedImage scale(BufferedImage original, int width, int height) {
+        int type = original.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(original, 0, 0, width, height, null);
+        g2d.dispose();
+        return scaled;
+    }
+
+    /**
+     * Output formats with their content type and file extension.
+     */
+    public enum Format {
+        JPEG("image/jpeg", ".jpg"),
+        PNG("image/png", ".png");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Encoded bytes with the format and dimensions they were written at.
+     */
+    public record EncodedImage(byte[] data, Format format, int width, int height) {
+
+        public String contentType() {
+            return format.getContentType();
+        }
+    }
+}
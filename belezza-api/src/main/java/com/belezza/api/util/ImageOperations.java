@@ -0,0 +1,256 @@
+package com.belezza.api.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * In-process pixel operations: Gaussian blur, colour grading and mask compositing.
+ *
+ * Pixels are unpacked into int arrays once and each pass runs in parallel over bands of rows
+ * on a dedicated fork-join pool. Only segmentation (the subject mask) needs a model and stays
+ * with {@link com.belezza.api.integration.ImageAIService}.
+ */
+@Component
+@Slf4j
+public class ImageOperations {
+
+    private static final int BAND_ROWS = 64;
+
+    // Larger sigmas are blurred on a downscaled copy: the result is visually the same
+    // and the kernel stays short
+    private static final double MAX_KERNEL_SIGMA = 6.0;
+
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public ImageOperations(@Value("${belezza.image.operations.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        log.info("Image operations pool configured with {} threads", threads);
+    }
+
+    public ImageOperations() {
+        this(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Separable Gaussian blur.
+     *
+     * @param image the image to blur
+     * @param sigma standard deviation in pixels
+     * @return a new opaque RGB image
+     */
+    public BufferedImage gaussianBlur(BufferedImage image, double sigma) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+
+        if (sigma > MAX_KERNEL_SIGMA) {
+            double factor = MAX_KERNEL_SIGMA / sigma;
+            int scaledWidth = Math.max(1, (int) Math.round(width * factor));
+            int scaledHeight = Math.max(1, (int) Math.round(height * factor));
+            BufferedImage blurred = gaussianBlur(scale(image, scaledWidth, scaledHeight), MAX_KERNEL_SIGMA);
+            return scale(blurred, width, height);
+        }
+
+        int[] source = pixels(image);
+        int[] horizontal = new int[source.length];
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] target = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+        float[] kernel = kernel(sigma);
+        int radius = kernel.length / 2;
+
+        forEachBand(height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                int row = y * width;
+                for (int x = 0; x < width; x++) {
+                    float r = 0, g = 0, b = 0;
+                    for (int k = -radius; k <= radius; k++) {
+                        int pixel = source[row + Math.min(width - 1, Math.max(0, x + k))];
+                        float weight = kernel[k + radius];
+                        r += ((pixel >> 16) & 0xff) * weight;
+                        g += ((pixel >> 8) & 0xff) * weight;
+                        b += (pixel & 0xff) * weight;
+                    }
+                    horizontal[row + x] = rgb(r, g, b);
+                }
+            }
+        });
+
+        forEachBand(height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                for (int x = 0; x < width; x++) {
+                    float r = 0, g = 0, b = 0;
+                    for (int k = -radius; k <= radius; k++) {
+                        int pixel = horizontal[Math.min(height - 1, Math.max(0, y + k)) * width + x];
+                        float weight = kernel[k + radius];
+                        r += ((pixel >> 16) & 0xff) * weight;
+                        g += ((pixel >> 8) & 0xff) * weight;
+                        b += (pixel & 0xff) * weight;
+                    }
+                    target[y * width + x] = rgb(r, g, b);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Apply a colour grade. Transparency is kept.
+     */
+    public BufferedImage applyGrade(BufferedImage image, ColorGrade grade) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean alpha = image.getColorModel().hasAlpha();
+
+        int[] source = pixels(image);
+        BufferedImage result = new BufferedImage(width, height,
+            alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        int[] target = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+        int[][] tables = grade.lookupTables();
+        double saturation = grade.saturation();
+
+        forEachBand(height, (from, to) -> {
+            for (int i = from * width; i < to * width; i++) {
+                int pixel = source[i];
+                double r = tables[0][(pixel >> 16) & 0xff];
+                double g = tables[1][(pixel >> 8) & 0xff];
+                double b = tables[2][pixel & 0xff];
+                double luma = 0.299 * r + 0.587 * g + 0.114 * b;
+                target[i] = (pixel & 0xff000000) | rgb(
+                    (float) (luma + (r - luma) * saturation),
+                    (float) (luma + (g - luma) * saturation),
+                    (float) (luma + (b - luma) * saturation));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Composite a foreground over a background through a mask: the mask's alpha channel, or its
+     * luminance when it has none. A mask of another size is scaled to the foreground.
+     *
+     * @return a new opaque RGB image the size of the foreground
+     */
+    public BufferedImage composite(BufferedImage foreground, BufferedImage background, BufferedImage mask) {
+        int width = foreground.getWidth();
+        int height = foreground.getHeight();
+
+        int[] front = pixels(foreground);
+        int[] back = pixels(background.getWidth() == width && background.getHeight() == height
+            ? background : scale(background, width, height));
+        BufferedImage fittedMask = mask.getWidth() == width && mask.getHeight() == height
+            ? mask : scale(mask, width, height);
+        boolean maskAlpha = fittedMask.getColorModel().hasAlpha();
+        int[] weights = pixels(fittedMask);
+
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] target = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+
+        forEachBand(height, (from, to) -> {
+            for (int i = from * width; i < to * width; i++) {
+                int m = weights[i];
+                float a = (maskAlpha
+                    ? (m >>> 24)
+                    : (int) (0.299 * ((m >> 16) & 0xff) + 0.587 * ((m >> 8) & 0xff) + 0.114 * (m & 0xff))) / 255f;
+                int f = front[i];
+                int b = back[i];
+                target[i] = rgb(
+                    ((f >> 16) & 0xff) * a + ((b >> 16) & 0xff) * (1 - a),
+                    ((f >> 8) & 0xff) * a + ((b >> 8) & 0xff) * (1 - a),
+                    (f & 0xff) * a + (b & 0xff) * (1 - a));
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Normalised Gaussian kernel covering three standard deviations.
+     */
+    static float[] kernel(double sigma) {
+        int radius = Math.max(1, (int) Math.ceil(sigma * 3));
+        float[] kernel = new float[radius * 2 + 1];
+        double sum = 0;
+        for (int i = -radius; i <= radius; i++) {
+            double value = Math.exp(-(i * i) / (2 * sigma * sigma));
+            kernel[i + radius] = (float) value;
+            sum += value;
+        }
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] /= (float) sum;
+        }
+        return kernel;
+    }
+
+    private interface Band {
+        void process(int fromRow, int toRow);
+    }
+
+    private void forEachBand(int height, Band band) {
+        pool.invoke(new BandTask(0, height, band));
+    }
+
+    /**
+     * Splits rows in halves until a band is small enough to process directly.
+     */
+    private static final class BandTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final Band band;
+
+        BandTask(int from, int to, Band band) {
+            this.from = from;
+            this.to = to;
+            this.band = band;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BAND_ROWS) {
+                band.process(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BandTask(from, middle, band), new BandTask(middle, to, band));
+        }
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static int rgb(float r, float g, float b) {
+        return (channel(r) << 16) | (channel(g) << 8) | channel(b);
+    }
+
+    private static int channel(float value) {
+        return Math.max(0, Math.min(255, Math.round(value)));
+    }
+
+    private static BufferedImage scale(BufferedImage original, int width, int height) {
+        int type = original.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g2d = scaled.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(original, 0, 0, width, height, null);
+        g2d.dispose();
+        return scaled;
+    }
+}
@@ -1,66 +1,113 @@
 package com.belezza.api.util;
 
+import com.belezza.api.util.ImageEncoder.EncodedImage;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 
 /**
  * Utility class for image processing operations.
  * Handles thumbnail generation and cropping for different social media formats.
+ *
+ * When reading from a stream, only the crop region is decoded, subsampled close to the
+ * target size; downscaling then halves in steps so large photos do not alias.
+ * Encoding is left to {@link ImageEncoder}: crops are JPEG within the platform's size budget and
+ * thumbnails JPEG within 100 KB, both with transparency flattened onto white; edited images are
+ * PNG when they have transparency, JPEG otherwise.
  */
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class ImageProcessor {
 
     private static final int THUMBNAIL_SIZE = 300;
-    private static final String DEFAULT_FORMAT = "jpg";
+    private static final long THUMBNAIL_MAX_BYTES = 100 * 1024;
+    private static final long MB = 1024 * 1024;
+    private static final long EDITED_MAX_BYTES = 20 * MB;
+
+    private final ImageEncoder imageEncoder;
 
     /**
      * Generate a thumbnail from the original image.
      * Resizes to 300x300 maintaining aspect ratio with center crop.
      *
      * @param file the original image file
-     * @return byte array of the thumbnail
+     * @return the encoded thumbnail
+     */
+    public EncodedImage generateThumbnail(MultipartFile file) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return generateThumbnail(inputStream);
+        }
+    }
+
+    /**
+     * Generate a thumbnail straight from an encoded stream.
+     * Only the center square is decoded, subsampled to about twice the thumbnail size.
+     *
+     * @param inputStream the original image data
+     * @return the encoded thumbnail
+     */
+    public EncodedImage generateThumbnail(InputStream inputStream) throws IOException {
+        BufferedImage region = decodeRegion(inputStream, 1.0, THUMBNAIL_SIZE);
+        BufferedImage thumbnail = resize(region, THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+        return imageEncoder.encodeJpeg(thumbnail, THUMBNAIL_MAX_BYTES);
+    }
+
+    /**
+     * Generate a thumbnail from an already decoded image.
+     * The source is cropped in place, so it can be shared with other renditions.
+     *
+     * @param image the decoded original image
+     * @return the encoded thumbnail
      */
-    public byte[] generateThumbnail(MultipartFile file) throws IOException {
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        BufferedImage thumbnail = createSquareCrop(originalImage, THUMBNAIL_SIZE);
-        return toByteArray(thumbnail, getFormat(file.getContentType()));
+    public EncodedImage generateThumbnail(BufferedImage image) throws IOException {
+        BufferedImage thumbnail = createSquareCrop(image, THUMBNAIL_SIZE);
+        return imageEncoder.encodeJpeg(thumbnail, THUMBNAIL_MAX_BYTES);
     }
 
     /**
      * Generate a thumbnail from raw bytes.
      *
      * @param imageData the original image data
-     * @param contentType the image content type
-     * @return byte array of the thumbnail
+     * @return the encoded thumbnail
      */
-    public byte[] generateThumbnail(byte[] imageData, String contentType) throws IOException {
-        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(imageData));
-        BufferedImage thumbnail = createSquareCrop(originalImage, THUMBNAIL_SIZE);
-        return toByteArray(thumbnail, getFormat(contentType));
+    public EncodedImage generateThumbnail(byte[] imageData) throws IOException {
+        return generateThumbnail(new ByteArrayInputStream(imageData));
     }
 
     /**
      * Crop an image to a specific aspect ratio.
      *
      * @param imageData the original image data
-     * @param contentType the image content type
      * @param aspectRatio the aspect ratio as "width:height"
-     * @return byte array of the cropped image
+     * @return the encoded crop
      */
-    public byte[] cropToRatio(byte[] imageData, String contentType, AspectRatio aspectRatio) throws IOException {
-        BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(imageData));
-        BufferedImage cropped = cropToAspectRatio(originalImage, aspectRatio);
-        return toByteArray(cropped, getFormat(contentType));
+    public EncodedImage cropToRatio(byte[] imageData, AspectRatio aspectRatio) throws IOException {
+        return cropToRatio(decode(new ByteArrayInputStream(imageData)), aspectRatio);
+    }
+
+    /**
+     * Crop an already decoded image to a specific aspect ratio.
+     *
+     * @param image the decoded original image
+     * @param aspectRatio the aspect ratio
+     * @return the encoded crop, JPEG within the platform's size budget
+     */
+    public EncodedImage cropToRatio(BufferedImage image, AspectRatio aspectRatio) throws IOException {
+        BufferedImage cropped = cropToAspectRatio(image, aspectRatio);
+        return imageEncoder.encodeJpeg(cropped, aspectRatio.getMaxBytes());
     }
 
     /**
@@ -68,29 +115,147 @@ public class ImageProcessor {
      *
      * @param file the original image file
      * @param aspectRatio the aspect ratio
-     * @return byte array of the cropped image
+     * @return the encoded crop
      */
-    public byte[] cropToRatio(MultipartFile file, AspectRatio aspectRatio) throws IOException {
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        BufferedImage cropped = cropToAspectRatio(originalImage, aspectRatio);
-        return toByteArray(cropped, getFormat(file.getContentType()));
+    public EncodedImage cropToRatio(MultipartFile file, AspectRatio aspectRatio) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return cropToRatio(decode(inputStream), aspectRatio);
+        }
     }
 
     /**
      * Crop image from URL bytes to aspect ratio.
      */
-    public byte[] cropFromUrl(InputStream inputStream, AspectRatio aspectRatio) throws IOException {
-        BufferedImage originalImage = ImageIO.read(inputStream);
-        BufferedImage cropped = cropToAspectRatio(originalImage, aspectRatio);
-        return toByteArray(cropped, DEFAULT_FORMAT);
+    public EncodedImage cropFromUrl(InputStream inputStream, AspectRatio aspectRatio) throws IOException {
+        BufferedImage cropped = decodeRegion(inputStream, aspectRatio.getRatioValue(), 0);
+        return imageEncoder.encodeJpeg(cropped, aspectRatio.getMaxBytes());
+    }
+
+    /**
+     * Size of the region {@link #generateThumbnail(InputStream)} decodes: the center square,
+     * subsampled to about twice the thumbnail size.
+     */
+    public static ImageDimensions thumbnailDecodeDimensions(ImageDimensions dimensions) {
+        int side = Math.min(dimensions.width(), dimensions.height());
+        int subsampling = Math.max(1, side / (THUMBNAIL_SIZE * 2));
+        int decodedSide = (side + subsampling - 1) / subsampling;
+        return new ImageDimensions(decodedSide, decodedSide);
+    }
+
+    /**
+     * Encode the result of a local edit (blur, style), at full size when it fits.
+     */
+    public EncodedImage encodeEdited(BufferedImage image) throws IOException {
+        return imageEncoder.encodeEdited(image, EDITED_MAX_BYTES);
+    }
+
+    /**
+     * Tag of the encoder settings, part of rendition cache keys.
+     */
+    public String encodingTag() {
+        return imageEncoder.settingsTag();
     }
 
     /**
      * Get image dimensions.
      */
     public ImageDimensions getDimensions(byte[] imageData) throws IOException {
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
-        return new ImageDimensions(image.getWidth(), image.getHeight());
+        return readDimensions(new ByteArrayInputStream(imageData));
+    }
+
+    /**
+     * Read image dimensions from the file header, without decoding any pixels.
+     */
+    public ImageDimensions readDimensions(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(inputStream)) {
+            ImageReader reader = getReader(imageStream);
+            try {
+                reader.setInput(imageStream, true, true);
+                return new ImageDimensions(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decode an image once so thumbnails and crops can share the same pixels.
+     */
+    public BufferedImage decode(InputStream inputStream) throws IOException {
+        BufferedImage image = ImageIO.read(inputStream);
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return image;
+    }
+
+    /**
+     * Center crop rectangle of the given aspect ratio inside an image.
+     */
+    public static Rectangle cropRectangle(int width, int height, double targetRatio) {
+        double originalRatio = (double) width / height;
+
+        int cropWidth, cropHeight;
+
+        if (originalRatio > targetRatio) {
+            // Image is wider than target, crop width
+            cropHeight = height;
+            cropWidth = (int) (height * targetRatio);
+        } else {
+            // Image is taller than target, crop height
+            cropWidth = width;
+            cropHeight = (int) (width / targetRatio);
+        }
+
+        // Center crop
+        return new Rectangle((width - cropWidth) / 2, (height - cropHeight) / 2, cropWidth, cropHeight);
+    }
+
+    /**
+     * Decode only the center crop of the given ratio. With a target width, the region is
+     * subsampled while it stays at least twice that width, leaving the rest to {@link #resize}.
+     */
+    private BufferedImage decodeRegion(InputStream inputStream, double targetRatio, int targetWidth) throws IOException {
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(inputStream)) {
+            ImageReader reader = getReader(imageStream);
+            try {
+                reader.setInput(imageStream, true, true);
+                Rectangle region = cropRectangle(reader.getWidth(0), reader.getHeight(0), targetRatio);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                if (targetWidth > 0) {
+                    int subsampling = Math.max(1, region.width / (targetWidth * 2));
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decode an image from a random-access stream (e.g. a memory-mapped download).
+     * The stream is closed once the image is read.
+     */
+    public BufferedImage decode(ImageInputStream imageStream) throws IOException {
+        BufferedImage image = ImageIO.read(imageStream);
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return image;
+    }
+
+    private ImageReader getReader(ImageInputStream imageStream) throws IOException {
+        if (imageStream == null) {
+            throw new IOException("Unable to read image");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+        if (!readers.hasNext()) {
+            throw new IOException("Unsupported image format");
+        }
+        return readers.next();
     }
 
     /**
@@ -116,35 +281,33 @@ public class ImageProcessor {
      * Crops image to specified aspect ratio (center crop).
      */
     private BufferedImage cropToAspectRatio(BufferedImage original, AspectRatio ratio) {
-        int originalWidth = original.getWidth();
-        int originalHeight = original.getHeight();
-
-        double targetRatio = ratio.getRatioValue();
-        double originalRatio = (double) originalWidth / originalHeight;
-
-        int cropWidth, cropHeight;
+        Rectangle crop = cropRectangle(original.getWidth(), original.getHeight(), ratio.getRatioValue());
+        return original.getSubimage(crop.x, crop.y, crop.width, crop.height);
+    }
 
-        if (originalRatio > targetRatio) {
-            // Image is wider than target, crop width
-            cropHeight = originalHeight;
-            cropWidth = (int) (originalHeight * targetRatio);
-        } else {
-            // Image is taller than target, crop height
-            cropWidth = originalWidth;
-            cropHeight = (int) (originalWidth / targetRatio);
+    /**
+     * Resize an image to the specified dimensions.
+     * Downscaling halves the image in steps first: a single bilinear pass over a large ratio
+     * samples only a few source pixels and aliases.
+     */
+    private BufferedImage resize(BufferedImage original, int width, int height) {
+        BufferedImage current = original;
+        int currentWidth = original.getWidth();
+        int currentHeight = original.getHeight();
+
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            current = scale(current, currentWidth, currentHeight);
         }
 
-        // Center crop
-        int x = (originalWidth - cropWidth) / 2;
-        int y = (originalHeight - cropHeight) / 2;
-
-        return original.getSubimage(x, y, cropWidth, cropHeight);
+        return scale(current, width, height);
     }
 
     /**
-     * Resize an image to the specified dimensions.
+     * Draw an image into a new RGB image of the given size.
      */
-    private BufferedImage resize(BufferedImage original, int width, int height) {
+    private BufferedImage scale(BufferedImage original, int width, int height) {
         BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
         Graphics2D g2d = resized.createGraphics();
 
@@ -160,47 +323,25 @@ public class ImageProcessor {
     }
 
     /**
-     * Convert BufferedImage to byte array.
-     */
-    private byte[] toByteArray(BufferedImage image, String format) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, format, baos);
-        return baos.toByteArray();
-    }
-
-    /**
-     * Get image format from content type.
-     */
-    private String getFormat(String contentType) {
-        if (contentType == null) {
-            return DEFAULT_FORMAT;
-        }
-        return switch (contentType.toLowerCase()) {
-            case "image/png" -> "png";
-            case "image/webp" -> "webp";
-            case "image/gif" -> "gif";
-            default -> "jpg";
-        };
-    }
-
-    /**
-     * Aspect ratios for different social media platforms.
+     * Aspect ratios for different social media platforms, with the platform's size limit.
      */
     public enum AspectRatio {
-        SQUARE_1_1(1, 1, "Instagram Feed"),
-        PORTRAIT_4_5(4, 5, "Instagram Portrait"),
-        STORY_9_16(9, 16, "Stories/Reels"),
-        LANDSCAPE_16_9(16, 9, "Facebook Cover"),
-        LANDSCAPE_1_91_1(1.91, 1, "Facebook Link Preview");
+        SQUARE_1_1(1, 1, "Instagram Feed", 8 * MB),
+        PORTRAIT_4_5(4, 5, "Instagram Portrait", 8 * MB),
+        STORY_9_16(9, 16, "Stories/Reels", 8 * MB),
+        LANDSCAPE_16_9(16, 9, "Facebook Cover", 4 * MB),
+        LANDSCAPE_1_91_1(1.91, 1, "Facebook Link Preview", 4 * MB);
 
         private final double widthRatio;
         private final double heightRatio;
         private final String description;
+        private final long maxBytes;
 
-        AspectRatio(double widthRatio, double heightRatio, String description) {
+        AspectRatio(double widthRatio, double heightRatio, String description, long maxBytes) {
             this.widthRatio = widthRatio;
             this.heightRatio = heightRatio;
             this.description = description;
+            this.maxBytes = maxBytes;
         }
 
         public double getRatioValue() {
@@ -210,6 +351,10 @@ public class ImageProcessor {
         public String getDescription() {
             return description;
         }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
     }
 
     /**
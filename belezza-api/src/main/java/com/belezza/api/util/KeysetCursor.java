@@ -0,0 +1,57 @@
+package com.belezza.api.util;
+
+import com.belezza.api.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by a timestamp and then by id, for keyset pagination.
+ *
+ * The next page is read with {@code WHERE (ts, id) > (cursor)} on an index starting with the same
+ * columns, so a deep page costs the same as the first one. Clients get the position as an opaque
+ * token and send it back unchanged.
+ */
+public record KeysetCursor(LocalDateTime valor, long id) {
+
+    // Outside any stored value: the first page runs the same query as the following ones
+    private static final KeysetCursor INICIO_ASC = new KeysetCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+    private static final KeysetCursor INICIO_DESC =
+        new KeysetCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '|';
+
+    public static KeysetCursor of(LocalDateTime valor, Long id) {
+        return new KeysetCursor(valor, id);
+    }
+
+    /**
+     * Position from a client token; the start of the listing when there is none.
+     *
+     * @param descending whether the listing is newest first
+     * @throws BusinessException if the token was not issued by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token, boolean descending) {
+        if (token == null || token.isBlank()) {
+            return descending ? INICIO_DESC : INICIO_ASC;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BusinessException("Cursor inválido");
+            }
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Cursor inválido");
+        }
+    }
+
+    public String encode() {
+        String value = valor.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
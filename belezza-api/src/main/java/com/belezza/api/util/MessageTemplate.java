@@ -0,0 +1,115 @@
+package com.belezza.api.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message template with {@code {{variavel}}} placeholders, parsed once into segment arrays.
+ *
+ * Rendering walks the precompiled literals and variable slots and appends straight into a
+ * presized {@link StringBuilder}, with no format-string parsing or intermediate strings.
+ */
+public final class MessageTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String source;
+    private final List<String> variables;
+
+    // literals[i] is followed by the value of variables[slots[i]]; the last literal closes the text
+    private final String[] literals;
+    private final int[] slots;
+    private final int literalLength;
+
+    private MessageTemplate(String source, List<String> variables, String[] literals, int[] slots) {
+        this.source = source;
+        this.variables = variables;
+        this.literals = literals;
+        this.slots = slots;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parse a template. Placeholders must name one of {@code variables}.
+     *
+     * @throws IllegalArgumentException if a placeholder is unknown or not closed
+     */
+    public static MessageTemplate compile(String source, List<String> variables) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Placeholder não fechado na posição " + open);
+            }
+
+            String name = source.substring(open + OPEN.length(), close).trim();
+            int slot = variables.indexOf(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Variável desconhecida: {{" + name + "}}. Disponíveis: " + variables);
+            }
+
+            literals.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+
+        return new MessageTemplate(
+            source,
+            List.copyOf(variables),
+            literals.toArray(String[]::new),
+            slots.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    /**
+     * Render with values given in the order of the variables the template was compiled with.
+     * Null values render as empty text.
+     */
+    public String render(String... values) {
+        if (values.length != variables.size()) {
+            throw new IllegalArgumentException(
+                "Esperados " + variables.size() + " valores, recebidos " + values.length);
+        }
+
+        int capacity = literalLength;
+        for (int slot : slots) {
+            String value = values[slot];
+            capacity += value != null ? value.length() : 0;
+        }
+
+        StringBuilder out = new StringBuilder(capacity);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            String value = values[slots[i]];
+            if (value != null) {
+                out.append(value);
+            }
+        }
+        out.append(literals[slots.length]);
+
+        return out.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+}
@@ -0,0 +1,90 @@
+package com.belezza.api.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * MinHash signatures over character shingles, to estimate how similar two short texts are.
+ *
+ * Two signatures agree in a fraction of their positions that estimates the Jaccard similarity
+ * of the texts' shingle sets. Signatures from instances built with the same size and seed are
+ * comparable, so the seed must stay fixed.
+ */
+public final class MinHash {
+
+    private static final int SHINGLE_SIZE = 3;
+
+    private final long[] multipliers;
+    private final long[] increments;
+
+    public MinHash(int size, long seed) {
+        Random random = new Random(seed);
+        this.multipliers = new long[size];
+        this.increments = new long[size];
+        for (int i = 0; i < size; i++) {
+            // Multiply-shift hashing needs odd multipliers
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Signature of a text: for each hash function, the smallest hash of any shingle.
+     */
+    public long[] signature(String text) {
+        long[] signature = new long[multipliers.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String shingle : shingles(text)) {
+            long value = mix(shingle.hashCode());
+            for (int i = 0; i < signature.length; i++) {
+                long hash = (multipliers[i] * value + increments[i]) >>> 1;
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the texts two signatures were computed from.
+     */
+    public static double similarity(long[] first, long[] second) {
+        if (first.length != second.length) {
+            throw new IllegalArgumentException("Signatures of different sizes");
+        }
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    /**
+     * Overlapping character shingles; a text shorter than a shingle is its own single shingle.
+     */
+    static Set<String> shingles(String text) {
+        Set<String> shingles = new HashSet<>();
+        if (text.length() <= SHINGLE_SIZE) {
+            shingles.add(text);
+            return shingles;
+        }
+        for (int i = 0; i <= text.length() - SHINGLE_SIZE; i++) {
+            shingles.add(text.substring(i, i + SHINGLE_SIZE));
+        }
+        return shingles;
+    }
+
+    /**
+     * Spread the 32-bit string hash over 64 bits before multiply-shift hashing.
+     */
+    private static long mix(int hash) {
+        long value = hash * 0x9E3779B97F4A7C15L;
+        value ^= value >>> 32;
+        return value * 0xBF58476D1CE4E5B9L;
+    }
+}
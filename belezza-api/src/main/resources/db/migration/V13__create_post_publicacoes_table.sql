@@ -0,0 +1,21 @@
+-- Belezza API - Migration V13
+-- Per-platform publication of posts (maps posts to Meta post ids)
+
+CREATE TABLE IF NOT EXISTS post_publicacoes (
+    id BIGSERIAL PRIMARY KEY,
+    post_id BIGINT NOT NULL,
+    plataforma VARCHAR(20) NOT NULL,
+    external_post_id VARCHAR(100),
+    publicado_em TIMESTAMP,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_post_publicacao_post FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    CONSTRAINT uk_post_publicacao_post_plataforma UNIQUE (post_id, plataforma),
+    CONSTRAINT chk_post_publicacao_plataforma CHECK (plataforma IN ('INSTAGRAM', 'FACEBOOK', 'WHATSAPP_STATUS'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_post_publicacao_post ON post_publicacoes(post_id);
+CREATE INDEX IF NOT EXISTS idx_post_publicacao_external_id ON post_publicacoes(external_post_id);
+
+COMMENT ON TABLE post_publicacoes IS 'Publication of a post on each social platform';
+COMMENT ON COLUMN post_publicacoes.external_post_id IS 'Post/media id returned by the Meta Graph API';
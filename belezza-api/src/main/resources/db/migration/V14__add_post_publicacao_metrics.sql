@@ -0,0 +1,14 @@
+-- Belezza API - Migration V14
+-- Per-platform metrics synced from the Meta Graph API
+
+ALTER TABLE post_publicacoes
+    ADD COLUMN IF NOT EXISTS curtidas INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS comentarios INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS compartilhamentos INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS alcance INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS metricas_atualizadas_em TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_post_publicacao_publicado_em ON post_publicacoes(publicado_em);
+
+COMMENT ON COLUMN post_publicacoes.curtidas IS 'Likes on this platform as of the last metrics sync';
+COMMENT ON COLUMN post_publicacoes.metricas_atualizadas_em IS 'Last metrics sync; older posts are refreshed less often';
@@ -0,0 +1,19 @@
+-- Belezza API - Migration V15
+-- Per-platform publish state with idempotency keys, so retries never publish a platform twice
+
+ALTER TABLE post_publicacoes
+    ADD COLUMN IF NOT EXISTS status VARCHAR(20) NOT NULL DEFAULT 'PUBLICADO',
+    ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(36),
+    ADD COLUMN IF NOT EXISTS tentativas INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS erro VARCHAR(500),
+    ADD COLUMN IF NOT EXISTS atualizado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Existing rows were only recorded after a successful publish; new rows start pending
+ALTER TABLE post_publicacoes ALTER COLUMN status SET DEFAULT 'PENDENTE';
+
+ALTER TABLE post_publicacoes
+    ADD CONSTRAINT chk_post_publicacao_status CHECK (status IN ('PENDENTE', 'PUBLICANDO', 'PUBLICADO', 'FALHOU')),
+    ADD CONSTRAINT uk_post_publicacao_idempotency_key UNIQUE (idempotency_key);
+
+COMMENT ON COLUMN post_publicacoes.status IS 'Publish state on this platform: PENDENTE, PUBLICANDO, PUBLICADO, FALHOU';
+COMMENT ON COLUMN post_publicacoes.idempotency_key IS 'Key of the attempt that claimed this publication; results from other attempts are ignored';
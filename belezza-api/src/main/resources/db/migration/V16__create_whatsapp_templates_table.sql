@@ -0,0 +1,20 @@
+-- Belezza API - Migration V16
+-- Salon-specific WhatsApp notification texts
+
+CREATE TABLE IF NOT EXISTS whatsapp_templates (
+    id BIGSERIAL PRIMARY KEY,
+    salon_id BIGINT NOT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    conteudo VARCHAR(2000) NOT NULL,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_whatsapp_template_salon FOREIGN KEY (salon_id) REFERENCES salons(id) ON DELETE CASCADE,
+    CONSTRAINT uk_whatsapp_template_salon_tipo UNIQUE (salon_id, tipo),
+    CONSTRAINT chk_whatsapp_template_tipo CHECK (tipo IN (
+        'CONFIRMACAO_AGENDAMENTO', 'LEMBRETE_24H', 'LEMBRETE_2H', 'POS_ATENDIMENTO', 'CANCELAMENTO'
+    ))
+);
+
+COMMENT ON TABLE whatsapp_templates IS 'Custom WhatsApp notification texts per salon';
+COMMENT ON COLUMN whatsapp_templates.conteudo IS 'Message text with {{variavel}} placeholders';
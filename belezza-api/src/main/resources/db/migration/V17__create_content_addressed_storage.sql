@@ -0,0 +1,26 @@
+-- Belezza API - Migration V17
+-- Content-addressed image storage: identical files share one S3 object
+
+CREATE TABLE IF NOT EXISTS objetos_armazenados (
+    id BIGSERIAL PRIMARY KEY,
+    hash VARCHAR(64) NOT NULL,
+    chave VARCHAR(500) NOT NULL,
+    tamanho_bytes BIGINT NOT NULL,
+    tipo_mime VARCHAR(50) NOT NULL,
+    referencias INT NOT NULL DEFAULT 1,
+    criado_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_objeto_hash UNIQUE (hash),
+    CONSTRAINT uk_objeto_chave UNIQUE (chave),
+    CONSTRAINT chk_objeto_referencias CHECK (referencias >= 0)
+);
+
+ALTER TABLE imagens ADD COLUMN IF NOT EXISTS hash_conteudo VARCHAR(64);
+ALTER TABLE imagem_versoes ADD COLUMN IF NOT EXISTS hash_conteudo VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_imagem_hash_conteudo ON imagens(hash_conteudo);
+
+COMMENT ON TABLE objetos_armazenados IS 'S3 objects addressed by the SHA-256 of their content';
+COMMENT ON COLUMN objetos_armazenados.referencias IS 'Images and versions pointing to the object; deleted from S3 at zero';
+COMMENT ON COLUMN imagens.hash_conteudo IS 'SHA-256 of the original file (NULL for uploads before V17)';
+COMMENT ON COLUMN imagem_versoes.hash_conteudo IS 'SHA-256 of the stored rendition (NULL for external AI results)';
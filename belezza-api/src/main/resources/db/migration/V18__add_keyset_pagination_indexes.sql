@@ -0,0 +1,20 @@
+-- Belezza API - Migration V18
+-- Composite indexes for keyset (cursor) pagination: each listing filters on the leading
+-- columns and walks (timestamp, id) in index order, so a deep page costs the same as the first
+
+-- Appointments, oldest first by salon, client and professional
+CREATE INDEX IF NOT EXISTS idx_agendamento_salon_data_hora ON agendamentos(salon_id, data_hora, id);
+CREATE INDEX IF NOT EXISTS idx_agendamento_cliente_data_hora ON agendamentos(cliente_id, data_hora, id);
+CREATE INDEX IF NOT EXISTS idx_agendamento_profissional_data_hora ON agendamentos(profissional_id, data_hora, id);
+
+-- Audit logs, newest first (scanned backwards)
+CREATE INDEX IF NOT EXISTS idx_audit_criado_em_id ON audit_logs(criado_em, id);
+
+-- WhatsApp messages by salon, with and without the status filter, newest first
+CREATE INDEX IF NOT EXISTS idx_whatsapp_messages_salon_criado_em ON whatsapp_messages(salon_id, criado_em, id);
+CREATE INDEX IF NOT EXISTS idx_whatsapp_messages_salon_status_criado_em
+    ON whatsapp_messages(salon_id, status, criado_em, id);
+
+-- Posts by salon, with and without the status filter, newest first
+CREATE INDEX IF NOT EXISTS idx_post_salon_criado_em ON posts(salon_id, criado_em, id);
+CREATE INDEX IF NOT EXISTS idx_post_salon_status_criado_em ON posts(salon_id, status, criado_em, id);
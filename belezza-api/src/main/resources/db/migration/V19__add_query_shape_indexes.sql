@@ -0,0 +1,51 @@
+-- Belezza API - Migration V19
+-- Composite and partial indexes matched to the hot query shapes, replacing single-column
+-- indexes the planner could only combine with bitmap ANDs or filter after the fact.
+-- The plans are checked by QueryPlanIT against a synthetic dataset.
+
+-- Scheduling conflicts and the daily agenda (findConflicts, findDailyByProfissional):
+-- a professional's active appointments by start time; fim_previsto is carried in the
+-- index so the overlap check needs no heap access
+CREATE INDEX IF NOT EXISTS idx_agendamento_profissional_ativos
+    ON agendamentos(profissional_id, data_hora) INCLUDE (fim_previsto)
+    WHERE status NOT IN ('CANCELADO', 'NO_SHOW');
+
+-- Reminders (findNeedingReminder24h / 2h): only confirmed appointments still waiting for
+-- the reminder, a small and shrinking subset of the table
+CREATE INDEX IF NOT EXISTS idx_agendamento_lembrete_24h
+    ON agendamentos(data_hora)
+    WHERE status = 'CONFIRMADO' AND lembrete_enviado24h = FALSE;
+CREATE INDEX IF NOT EXISTS idx_agendamento_lembrete_2h
+    ON agendamentos(data_hora)
+    WHERE status = 'CONFIRMADO' AND lembrete_enviado2h = FALSE;
+
+-- No-show detection (findNoShowCandidates): confirmed appointments by start time
+CREATE INDEX IF NOT EXISTS idx_agendamento_confirmados
+    ON agendamentos(data_hora)
+    WHERE status = 'CONFIRMADO';
+
+-- Financial metrics (findBySalonIdAndStatusAndPeriod): a salon's payments in a status by date
+CREATE INDEX IF NOT EXISTS idx_pagamento_salon_status_processado
+    ON pagamentos(salon_id, status, processado_em);
+
+-- WhatsApp retries (findRetryableFailed): failed messages with attempts left, by date
+CREATE INDEX IF NOT EXISTS idx_whatsapp_messages_retry
+    ON whatsapp_messages(criado_em)
+    WHERE status = 'FAILED' AND tentativas < 3;
+
+-- findBySalonIdAndDataHoraBetween and the status counts by period use
+-- idx_agendamento_salon_data_hora (V18)
+
+-- Covered by the composite indexes above or in V18 (same leading column), or replaced by
+-- the partial indexes (status alone is too unselective to be used). The entities declare
+-- the same indexes, so H2 create-drop schemas match.
+DROP INDEX IF EXISTS idx_agendamento_salon;
+DROP INDEX IF EXISTS idx_agendamento_cliente;
+DROP INDEX IF EXISTS idx_agendamento_profissional;
+DROP INDEX IF EXISTS idx_agendamento_status;
+DROP INDEX IF EXISTS idx_pagamento_salon;
+DROP INDEX IF EXISTS idx_pagamento_status;
+DROP INDEX IF EXISTS idx_audit_criado_em;
+DROP INDEX IF EXISTS idx_whatsapp_messages_salon;
+DROP INDEX IF EXISTS idx_whatsapp_messages_status;
+DROP INDEX IF EXISTS idx_post_salon;
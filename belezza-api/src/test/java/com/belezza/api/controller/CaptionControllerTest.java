@@ -0,0 +1,80 @@
+package com.belezza.api.controller;
+
+import com.belezza.api.dto.imagem.CaptionGenerateRequest;
+import com.belezza.api.dto.imagem.CaptionResponse;
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.integration.CaptionAIService;
+import com.belezza.api.service.CaptionCache;
+import com.belezza.api.service.SalonService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CaptionController Tests")
+class CaptionControllerTest {
+
+    @Mock
+    private CaptionAIService captionAIService;
+
+    @Mock
+    private CaptionCache captionCache;
+
+    @Mock
+    private SalonService salonService;
+
+    private CaptionController controller;
+
+    private final CaptionGenerateRequest request = CaptionGenerateRequest.builder()
+        .imageDescription("Corte bob com luzes")
+        .plataforma(PlataformaSocial.INSTAGRAM)
+        .build();
+
+    private final CaptionAIService.CaptionResponse caption =
+        new CaptionAIService.CaptionResponse("Legenda", List.of("#cabelo"), "Agende já", 80);
+
+    @BeforeEach
+    void setUp() {
+        controller = new CaptionController(captionAIService, captionCache, salonService);
+    }
+
+    private static UserDetails user(String email) {
+        return User.withUsername(email).password("secret").roles("ADMIN").build();
+    }
+
+    @Test
+    @DisplayName("Should cache captions under the salon of the authenticated user")
+    void shouldUseSalonOfPrincipal() {
+        when(salonService.findSalonIdDoUsuario("admin@salao.com")).thenReturn(Optional.of(7L));
+        when(captionCache.getOrGenerate(eq(7L), any(), any())).thenReturn(caption);
+
+        CaptionResponse response = controller.generate(request, user("admin@salao.com")).getBody();
+
+        assertThat(response.getLegenda()).isEqualTo("Legenda");
+    }
+
+    @Test
+    @DisplayName("Should cache captions outside any salon for users without one")
+    void shouldUseNoSalonForClients() {
+        when(salonService.findSalonIdDoUsuario("cliente@email.com")).thenReturn(Optional.empty());
+        when(captionCache.getOrGenerate(isNull(), any(), any())).thenReturn(caption);
+
+        CaptionResponse response = controller.generate(request, user("cliente@email.com")).getBody();
+
+        assertThat(response.getLegenda()).isEqualTo("Legenda");
+    }
+}
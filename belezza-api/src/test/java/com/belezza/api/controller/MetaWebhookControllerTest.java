@@ -0,0 +1,74 @@
+package com.belezza.api.controller;
+
+import com.belezza.api.security.WebhookSignatureVerifier;
+import com.belezza.api.service.PostEngagementService;
+import com.belezza.api.service.PostEngagementService.EngagementType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MetaWebhookController Tests")
+class MetaWebhookControllerTest {
+
+    @Mock
+    private PostEngagementService engagementService;
+
+    @Mock
+    private WebhookSignatureVerifier signatureVerifier;
+
+    private MetaWebhookController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new MetaWebhookController(engagementService, signatureVerifier, new ObjectMapper());
+        when(signatureVerifier.isValid(anyString(), any())).thenReturn(true);
+    }
+
+    private static String feedEvent(String item, String verb) {
+        return """
+            {"object": "page", "entry": [{"id": "1", "time": 1700000000, "changes": [{"field": "feed",
+             "value": {"item": "%s", "verb": "%s", "post_id": "fb_10"}}]}]}""".formatted(item, verb);
+    }
+
+    @Test
+    @DisplayName("Should count added and subtract removed reactions")
+    void shouldCountAddAndRemove() {
+        controller.handleWebhook(feedEvent("reaction", "add"), "sha256=ok");
+        controller.handleWebhook(feedEvent("reaction", "remove"), "sha256=ok");
+
+        verify(engagementService).record("fb_10", EngagementType.CURTIDA, 1);
+        verify(engagementService).record("fb_10", EngagementType.CURTIDA, -1);
+    }
+
+    @Test
+    @DisplayName("Should ignore edited reactions and comments")
+    void shouldIgnoreEditedChanges() {
+        assertThat(controller.handleWebhook(feedEvent("reaction", "edited"), "sha256=ok").getBody())
+            .isEqualTo("EVENT_RECEIVED");
+        controller.handleWebhook(feedEvent("comment", "edited"), "sha256=ok");
+        controller.handleWebhook(feedEvent("comment", "hide"), "sha256=ok");
+
+        verify(engagementService, never()).record(anyString(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should count Instagram comments, which carry no verb")
+    void shouldCountInstagramComments() {
+        controller.handleWebhook("""
+            {"object": "instagram", "entry": [{"id": "1", "time": 1700000000, "changes": [{"field": "comments",
+             "value": {"id": "c_1", "text": "Lindo!", "media": {"id": "ig_20"}}}]}]}""", "sha256=ok");
+
+        verify(engagementService).record("ig_20", EngagementType.COMENTARIO, 1);
+    }
+}
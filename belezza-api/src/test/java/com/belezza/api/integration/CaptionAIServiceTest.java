@@ -2,6 +2,7 @@ package com.belezza.api.integration;
 
 import com.belezza.api.entity.PlataformaSocial;
 import com.belezza.api.entity.TipoServico;
+import com.belezza.api.exception.RateLimitExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -460,6 +461,146 @@ class CaptionAIServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Completion Choices Tests")
+    class CompletionChoicesTests {
+
+        private String choice(String legenda) {
+            String content = """
+                {"legenda": "%s", "hashtags": ["#teste"], "callToAction": "Teste!", "engajamentoEstimado": 80}
+                """.formatted(legenda);
+            return """
+                {"message": {"content": "%s"}}
+                """.formatted(content.replace("\"", "\\\"").replace("\n", ""));
+        }
+
+        @Test
+        @DisplayName("Should request all variations in a single completion")
+        void shouldRequestVariationsInSingleCompletion() throws InterruptedException {
+            // Given
+            mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                    {"id": "chatcmpl-1", "choices": [%s, %s, %s]}
+                    """.formatted(choice("Um"), choice("Dois"), choice("Três")))
+                .addHeader("Content-Type", "application/json"));
+
+            CaptionAIService.CaptionRequest request = new CaptionAIService.CaptionRequest(
+                "Foto de maquiagem",
+                TipoServico.MAQUIAGEM,
+                "glamour",
+                PlataformaSocial.INSTAGRAM,
+                "profissional",
+                "português"
+            );
+
+            // When
+            List<CaptionAIService.CaptionResponse> variations = captionAIService.generateVariations(request, 3);
+
+            // Then
+            assertThat(variations).extracting(CaptionAIService.CaptionResponse::legenda)
+                .containsExactly("Um", "Dois", "Três");
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+            assertThat(mockWebServer.takeRequest().getBody().readUtf8()).contains("\"n\":3");
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming Tests")
+    class StreamingTests {
+
+        private String chunk(String content) {
+            String escaped = content.replace("\\", "\\\\").replace("\"", "\\\"");
+            return "data: {\"choices\": [{\"delta\": {\"content\": \"" + escaped + "\"}}]}\n\n";
+        }
+
+        @Test
+        @DisplayName("Should relay caption fragments and then the parsed caption")
+        void shouldStreamCaption() throws InterruptedException {
+            // Given
+            String body = chunk("{\"legenda\": \"Cabelo ")
+                + chunk("renovado!\", \"hashtags\": [\"#cabelo\"], ")
+                + chunk("\"callToAction\": \"Agende!\", \"engajamentoEstimado\": 90}")
+                + "data: [DONE]\n\n";
+            mockWebServer.enqueue(new MockResponse()
+                .setBody(body)
+                .addHeader("Content-Type", "text/event-stream"));
+
+            CaptionAIService.CaptionRequest request = new CaptionAIService.CaptionRequest(
+                "Foto de cabelo",
+                TipoServico.CABELO,
+                "moderno",
+                PlataformaSocial.INSTAGRAM,
+                "profissional",
+                "português"
+            );
+
+            // When
+            List<CaptionAIService.CaptionStreamEvent> events = captionAIService.generateStream(request)
+                .collectList()
+                .block();
+
+            // Then
+            assertThat(events).extracting(CaptionAIService.CaptionStreamEvent::delta)
+                .containsExactly("Cabelo ", "renovado!", null);
+            CaptionAIService.CaptionResponse caption = events.get(events.size() - 1).caption();
+            assertThat(caption.legenda()).isEqualTo("Cabelo renovado!");
+            assertThat(caption.hashtags()).containsExactly("#cabelo");
+            assertThat(caption.engajamentoEstimado()).isEqualTo(90);
+            assertThat(mockWebServer.takeRequest().getBody().readUtf8()).contains("\"stream\":true");
+        }
+
+        @Test
+        @DisplayName("Should fail before streaming when the API key is missing")
+        void shouldFailEagerlyWithoutApiKey() {
+            ReflectionTestUtils.setField(captionAIService, "apiKey", "");
+            CaptionAIService.CaptionRequest request = new CaptionAIService.CaptionRequest(
+                "Foto de cabelo",
+                TipoServico.CABELO,
+                "moderno",
+                PlataformaSocial.INSTAGRAM,
+                "profissional",
+                "português"
+            );
+
+            assertThatThrownBy(() -> captionAIService.generateStream(request))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(mockWebServer.getRequestCount()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Rate Limit Tests")
+    class RateLimitTests {
+
+        @Test
+        @DisplayName("Should reject with 429 when the API key has no requests left")
+        void shouldRejectWhenBucketEmpty() {
+            // Given
+            ReflectionTestUtils.setField(captionAIService, "requestsPerMinute", 1);
+            ReflectionTestUtils.setField(captionAIService, "rateLimitMaxWaitMillis", 100L);
+            mockWebServer.enqueue(new MockResponse()
+                .setBody("""
+                    {"id": "chatcmpl-1", "choices": [{"message": {"content": "Legenda"}}]}
+                    """)
+                .addHeader("Content-Type", "application/json"));
+
+            CaptionAIService.CaptionRequest request = new CaptionAIService.CaptionRequest(
+                "Foto de cabelo",
+                TipoServico.CABELO,
+                "moderno",
+                PlataformaSocial.INSTAGRAM,
+                "profissional",
+                "português"
+            );
+            captionAIService.generate(request);
+
+            // When/Then
+            assertThatThrownBy(() -> captionAIService.generate(request))
+                    .isInstanceOf(RateLimitExceededException.class);
+            assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        }
+    }
+
     @Nested
     @DisplayName("Error Handling Tests")
     class ErrorHandlingTests {
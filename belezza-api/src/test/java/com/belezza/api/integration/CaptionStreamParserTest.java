@@ -0,0 +1,63 @@
+package com.belezza.api.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CaptionStreamParser Tests")
+class CaptionStreamParserTest {
+
+    private static String feed(CaptionStreamParser parser, String... deltas) {
+        StringBuilder decoded = new StringBuilder();
+        for (String delta : deltas) {
+            decoded.append(parser.accept(delta));
+        }
+        return decoded.toString();
+    }
+
+    @Test
+    @DisplayName("Should emit caption text as soon as it arrives")
+    void shouldEmitIncrementally() {
+        CaptionStreamParser parser = new CaptionStreamParser();
+
+        assertThat(parser.accept("{\"legenda\": \"Transfor")).isEqualTo("Transfor");
+        assertThat(parser.accept("mação incrível")).isEqualTo("mação incrível");
+        assertThat(parser.accept("!\", \"hashtags\": [\"#cabelo\"]}")).isEqualTo("!");
+    }
+
+    @Test
+    @DisplayName("Should find the field when its name is split across deltas")
+    void shouldHandleSplitFieldName() {
+        CaptionStreamParser parser = new CaptionStreamParser();
+
+        assertThat(feed(parser, "```json\n{\"leg", "enda\"", " : ", "\"Olá\"}")).isEqualTo("Olá");
+    }
+
+    @Test
+    @DisplayName("Should decode escape sequences split across deltas")
+    void shouldDecodeSplitEscapes() {
+        CaptionStreamParser parser = new CaptionStreamParser();
+
+        assertThat(feed(parser, "{\"legenda\": \"Linha 1\\", "nLinha \\\"2\\", "\" \\u00e", "9 \\u2728\"}"))
+            .isEqualTo("Linha 1\nLinha \"2\" é ✨");
+    }
+
+    @Test
+    @DisplayName("Should keep the raw content for the final parse")
+    void shouldKeepRawContent() {
+        CaptionStreamParser parser = new CaptionStreamParser();
+
+        feed(parser, "{\"legenda\": \"A\", ", "\"callToAction\": \"B\"}");
+
+        assertThat(parser.content()).isEqualTo("{\"legenda\": \"A\", \"callToAction\": \"B\"}");
+    }
+
+    @Test
+    @DisplayName("Should emit nothing when the answer is not JSON")
+    void shouldIgnorePlainText() {
+        CaptionStreamParser parser = new CaptionStreamParser();
+
+        assertThat(feed(parser, "Uma legenda ", "sem JSON")).isEmpty();
+    }
+}
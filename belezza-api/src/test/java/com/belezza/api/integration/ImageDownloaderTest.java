@@ -0,0 +1,125 @@
+package com.belezza.api.integration;
+
+import com.belezza.api.util.ImageEncoder;
+import com.belezza.api.util.ImageProcessor;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageDownloader Tests")
+class ImageDownloaderTest {
+
+    private ImageDownloader imageDownloader;
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        imageDownloader = new ImageDownloader();
+        ReflectionTestUtils.setField(imageDownloader, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(imageDownloader, "memoryThresholdBytes", 10_000L);
+        ReflectionTestUtils.setField(imageDownloader, "connectTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(imageDownloader, "timeoutSeconds", 5L);
+        imageDownloader.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    private String url() {
+        return mockWebServer.url("/image.png").toString();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            image.setRGB(x, x % height, x * 7919);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Nested
+    @DisplayName("Buffering Tests")
+    class BufferingTests {
+
+        @Test
+        @DisplayName("Should keep small images in memory")
+        void shouldKeepSmallImageInMemory() throws IOException {
+            byte[] data = png(10, 10);
+            mockWebServer.enqueue(new MockResponse().setBody(new Buffer().write(data)));
+
+            try (DownloadedImage image = imageDownloader.download(url())) {
+                assertThat(image.isOnDisk()).isFalse();
+                assertThat(image.size()).isEqualTo(data.length);
+            }
+        }
+
+        @Test
+        @DisplayName("Should spill large images to disk and decode them from the mapped file")
+        void shouldSpillLargeImageToDisk() throws IOException {
+            byte[] data = png(2000, 100);
+            assertThat(data.length).isGreaterThan(10_000);
+            mockWebServer.enqueue(new MockResponse().setBody(new Buffer().write(data)));
+
+            try (DownloadedImage image = imageDownloader.download(url())) {
+                assertThat(image.isOnDisk()).isTrue();
+                assertThat(image.size()).isEqualTo(data.length);
+
+                BufferedImage decoded = new ImageProcessor(new ImageEncoder()).decode(image.openImageStream());
+                assertThat(decoded.getWidth()).isEqualTo(2000);
+                assertThat(decoded.getHeight()).isEqualTo(100);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Limit Tests")
+    class LimitTests {
+
+        @Test
+        @DisplayName("Should reject images larger than the size cap")
+        void shouldRejectOversizedImage() {
+            mockWebServer.enqueue(new MockResponse().setBody(new Buffer().write(new byte[1_500_000])));
+
+            assertThatThrownBy(() -> imageDownloader.download(url()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("maximum download size");
+        }
+
+        @Test
+        @DisplayName("Should reject oversized chunked responses while streaming")
+        void shouldRejectOversizedChunkedImage() {
+            mockWebServer.enqueue(new MockResponse().setChunkedBody(new Buffer().write(new byte[1_500_000]), 64 * 1024));
+
+            assertThatThrownBy(() -> imageDownloader.download(url()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("maximum download size");
+        }
+
+        @Test
+        @DisplayName("Should fail on error status")
+        void shouldFailOnErrorStatus() {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+
+            assertThatThrownBy(() -> imageDownloader.download(url()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("404");
+        }
+    }
+}
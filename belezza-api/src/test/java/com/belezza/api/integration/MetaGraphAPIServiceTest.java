@@ -0,0 +1,95 @@
+package com.belezza.api.integration;
+
+import com.belezza.api.entity.PlataformaSocial;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MetaGraphAPIService Tests")
+class MetaGraphAPIServiceTest {
+
+    private MetaGraphAPIService metaGraphAPIService;
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        metaGraphAPIService = new MetaGraphAPIService(new RestTemplate(), new ObjectMapper());
+        ReflectionTestUtils.setField(metaGraphAPIService, "baseUrl", mockWebServer.url("/").toString());
+        ReflectionTestUtils.setField(metaGraphAPIService, "apiVersion", "v19.0");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Metrics Batch Tests")
+    class MetricsBatchTests {
+
+        @Test
+        @DisplayName("Should skip malformed sub-responses and keep the rest of the batch")
+        void shouldSkipMalformedSubResponses() {
+            mockWebServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("""
+                    [
+                      {"code": 200, "body": "{\\"likes\\": {\\"summary\\": {\\"total_count\\": 12}}, \\"comments\\": {\\"summary\\": {\\"total_count\\": 3}}, \\"shares\\": {\\"count\\": 2}}"},
+                      {"code": 200},
+                      {"code": 200, "body": "{\\"likes\\": {\\"data\\": []}, \\"comments\\": {}}"},
+                      {"code": 200, "body": "{\\"id\\": \\"fb_6\\"}"},
+                      {"code": 200, "body": "not json"},
+                      null
+                    ]"""));
+
+            MetaGraphAPIService.BatchMetricsResult result = metaGraphAPIService.getPostMetricsBatch(
+                "token", PlataformaSocial.FACEBOOK, List.of("fb_1", "fb_2", "fb_3", "fb_6", "fb_4", "fb_5"));
+
+            assertThat(result.metrics()).containsOnlyKeys("fb_1", "fb_6");
+            assertThat(result.metrics().get("fb_1").likes()).isEqualTo(12);
+            assertThat(result.metrics().get("fb_1").comments()).isEqualTo(3);
+            assertThat(result.metrics().get("fb_1").shares()).isEqualTo(2);
+            assertThat(result.metrics().get("fb_6").likes()).isZero();
+            assertThat(result.metrics().get("fb_1").reach()).isNull();
+            assertThat(result.rateLimited()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should fetch reach from insights in the same batch and leave it unknown when they fail")
+        void shouldFetchReachFromInsights() throws Exception {
+            mockWebServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("""
+                    [
+                      {"code": 200, "body": "{\\"like_count\\": 40, \\"comments_count\\": 5}"},
+                      {"code": 200, "body": "{\\"like_count\\": 7, \\"comments_count\\": 1}"},
+                      {"code": 200, "body": "{\\"data\\": [{\\"name\\": \\"reach\\", \\"period\\": \\"lifetime\\", \\"values\\": [{\\"value\\": 830}]}]}"},
+                      {"code": 400, "body": "{\\"error\\": {\\"code\\": 10, \\"message\\": \\"Not enough viewers for the media to show insights\\"}}"}
+                    ]"""));
+
+            MetaGraphAPIService.BatchMetricsResult result = metaGraphAPIService.getPostMetricsBatch(
+                "token", PlataformaSocial.INSTAGRAM, List.of("ig_1", "ig_2"));
+
+            assertThat(result.metrics().get("ig_1").likes()).isEqualTo(40);
+            assertThat(result.metrics().get("ig_1").reach()).isEqualTo(830);
+            assertThat(result.metrics().get("ig_2").likes()).isEqualTo(7);
+            assertThat(result.metrics().get("ig_2").reach()).isNull();
+
+            String batch = URLDecoder.decode(mockWebServer.takeRequest().getBody().readUtf8(), StandardCharsets.UTF_8);
+            assertThat(batch).contains("v19.0/ig_1/insights?metric=reach", "v19.0/ig_2/insights?metric=reach");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.belezza.api.integration;
+
+import org.junit.jupiter.api.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uploads against a MinIO container standing in for S3.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("S3Service Integration Tests")
+class S3ServiceIT {
+
+    private static final String BUCKET = "belezza-test";
+    private static final String ACCESS_KEY = "minioadmin";
+    private static final String SECRET_KEY = "minioadmin";
+
+    @Container
+    private static final GenericContainer<?> MINIO = new GenericContainer<>("minio/minio:latest")
+        .withCommand("server", "/data")
+        .withEnv("MINIO_ROOT_USER", ACCESS_KEY)
+        .withEnv("MINIO_ROOT_PASSWORD", SECRET_KEY)
+        .withExposedPorts(9000)
+        .waitingFor(Wait.forHttp("/minio/health/live").forPort(9000));
+
+    private static S3Client adminClient;
+
+    private S3Service s3Service;
+
+    @BeforeAll
+    static void createBucket() {
+        adminClient = S3Client.builder()
+            .region(Region.US_EAST_1)
+            .endpointOverride(URI.create(endpoint()))
+            .forcePathStyle(true)
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(ACCESS_KEY, SECRET_KEY)))
+            .build();
+        adminClient.createBucket(request -> request.bucket(BUCKET));
+    }
+
+    @AfterAll
+    static void closeClient() {
+        adminClient.close();
+    }
+
+    private static String endpoint() {
+        return "http://" + MINIO.getHost() + ":" + MINIO.getMappedPort(9000);
+    }
+
+    @BeforeEach
+    void setUp() {
+        s3Service = new S3Service();
+        ReflectionTestUtils.setField(s3Service, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(s3Service, "region", "us-east-1");
+        ReflectionTestUtils.setField(s3Service, "accessKey", ACCESS_KEY);
+        ReflectionTestUtils.setField(s3Service, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(s3Service, "endpoint", endpoint());
+        ReflectionTestUtils.setField(s3Service, "pathStyleAccess", true);
+        ReflectionTestUtils.setField(s3Service, "multipartThresholdBytes", 5L * 1024 * 1024);
+        ReflectionTestUtils.setField(s3Service, "multipartPartSizeBytes", 5L * 1024 * 1024);
+        ReflectionTestUtils.setField(s3Service, "streamThreads", 2);
+        s3Service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Service.cleanup();
+    }
+
+    private byte[] download(String key) {
+        ResponseBytes<GetObjectResponse> object = adminClient.getObjectAsBytes(request -> request.bucket(BUCKET).key(key));
+        return object.asByteArray();
+    }
+
+    @Test
+    @DisplayName("Should upload bytes asynchronously")
+    void shouldUploadBytes() {
+        byte[] data = "thumbnail".getBytes();
+
+        String key = s3Service.uploadBytesAsync(data, "image/jpeg", "thumbnails/").join();
+
+        assertThat(key).startsWith("thumbnails/");
+        assertThat(download(key)).isEqualTo(data);
+    }
+
+    @Test
+    @DisplayName("Should stream a large file as a multipart upload")
+    void shouldUploadLargeFileInParts() {
+        byte[] data = new byte[12 * 1024 * 1024];
+        new Random(42).nextBytes(data);
+        MockMultipartFile file = new MockMultipartFile("file", "foto.jpg", "image/jpeg", data);
+
+        String key = s3Service.uploadFileAsync(file, "originals/").join();
+
+        assertThat(key).startsWith("originals/").endsWith(".jpg");
+        assertThat(download(key)).isEqualTo(data);
+        assertThat(s3Service.getFileSize(key)).isEqualTo(data.length);
+    }
+
+    @Test
+    @DisplayName("Should read user metadata with a HEAD")
+    void shouldReadMetadata() {
+        s3Service.uploadBytesToKeyAsync("crop".getBytes(), "image/jpeg", "renditions/ab/crop.jpg",
+            Map.of("sha256", "cd34", "width", "100")).join();
+
+        assertThat(s3Service.getObjectMetadataAsync("renditions/ab/crop.jpg").join())
+            .hasValueSatisfying(metadata -> assertThat(metadata).containsEntry("sha256", "cd34").containsEntry("width", "100"));
+        assertThat(s3Service.getObjectMetadataAsync("renditions/ab/missing.jpg").join()).isEmpty();
+    }
+}
@@ -1,7 +1,10 @@
 package com.belezza.api.integration;
 
+import com.belezza.api.entity.TipoMensagemWhatsApp;
 import com.belezza.api.integration.impl.WhatsAppServiceImpl;
 import com.belezza.api.repository.WhatsAppMessageRepository;
+import com.belezza.api.service.WhatsAppTemplateService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -38,6 +41,9 @@ class WhatsAppServiceTest {
     @Mock
     private WhatsAppMessageRepository messageRepository;
 
+    @Mock
+    private WhatsAppTemplateService templateService;
+
     @InjectMocks
     private WhatsAppServiceImpl whatsAppService;
 
@@ -47,6 +53,9 @@ class WhatsAppServiceTest {
         ReflectionTestUtils.setField(whatsAppService, "accessToken", "test-token");
         ReflectionTestUtils.setField(whatsAppService, "apiVersion", "v18.0");
         ReflectionTestUtils.setField(whatsAppService, "apiUrl", "https://graph.facebook.com");
+
+        lenient().when(templateService.getTemplate(any(), any(TipoMensagemWhatsApp.class)))
+            .thenAnswer(invocation -> WhatsAppTemplateService.defaultTemplate(invocation.getArgument(1)));
     }
 
     @Test
@@ -86,7 +95,7 @@ class WhatsAppServiceTest {
 
     @Test
     @DisplayName("Should normalize phone number correctly")
-    void shouldNormalizePhoneNumberCorrectly() {
+    void shouldNormalizePhoneNumberCorrectly() throws Exception {
         // Given
         String telefone = "(11) 99999-9999";
         String mensagem = "Teste";
@@ -112,10 +121,10 @@ class WhatsAppServiceTest {
         whatsAppService.enviarMensagemDireta(telefone, mensagem);
 
         // Then
-        HttpEntity<Map<String, Object>> capturedEntity = captor.getValue();
-        Map<String, Object> payload = capturedEntity.getBody();
+        HttpEntity<byte[]> capturedEntity = captor.getValue();
+        JsonNode payload = new ObjectMapper().readTree(capturedEntity.getBody());
         assertThat(payload).isNotNull();
-        assertThat(payload.get("to")).isEqualTo("+5511999999999");
+        assertThat(payload.get("to").asText()).isEqualTo("+5511999999999");
     }
 
     @Test
@@ -0,0 +1,216 @@
+package com.belezza.api.performance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static com.belezza.api.performance.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Monday-morning booking rush against the synthetic dataset.
+ *
+ * Clients log in, look at a salon's services and professionals and book a slot on the same Monday.
+ * Salon demand is skewed (the first salons get most of the traffic) and most clients want the
+ * salon's most booked professional in one of four prime slots, so many requests race for the
+ * same professional and time; a client whose slot was taken tries once more. Afterwards one
+ * admin per busy salon checks the day's agenda of the popular professional for double bookings.
+ *
+ * Needs the dataset feeders (target/dataset). Extra properties:
+ * - booking.weeksAhead: how far ahead the contested Monday is (default 4)
+ *
+ * Run with: mvn gatling:test -Dgatling.simulationClass=com.belezza.api.performance.BookingRushSimulation
+ */
+public class BookingRushSimulation extends Simulation {
+
+    static final String CONFLITO = "Profissional já possui agendamento neste horário";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Slots inside the shift and outside the break of every generated professional
+    private static final List<LocalTime> HORARIOS_NOBRES = Stream.of("10:00", "10:30", "14:00", "14:30")
+            .map(LocalTime::parse).toList();
+    private static final List<LocalTime> HORARIOS = Stream.of("10:00", "10:30", "14:00", "14:30", "15:00",
+            "15:30", "16:00", "16:30", "17:00", "17:30").map(LocalTime::parse).toList();
+
+    private final LocalDate segunda = LocalDate.now()
+            .plusWeeks(Integer.getInteger("booking.weeksAhead", 4))
+            .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+    private final List<Map<String, Object>> salons = datasetFeeder("salons.csv").readRecords();
+    private final List<Map<String, Object>> salonsMovimentados =
+            salons.subList(0, Math.max(1, salons.size() / 10));
+
+    HttpProtocolBuilder httpProtocol = httpProtocol();
+
+    // ====================================
+    // Clients booking
+    // ====================================
+
+    HttpRequestActionBuilder criarAgendamento = http("Create Appointment")
+            .post("/api/agendamentos")
+            .header("Authorization", "Bearer #{token}")
+            .body(StringBody("""
+                {"profissionalId": #{profissionalId}, "servicoId": #{servicoId}, "dataHora": "#{dataHora}"}"""))
+            .check(status().in(201, 400))
+            .checkIf((response, session) -> response.status().code() == 201)
+                .then(jsonPath("$.id").saveAs("agendamentoId"))
+            // Losing the race for a slot is expected; any other rejection is a failure
+            .checkIf((response, session) -> response.status().code() == 400)
+                .then(jsonPath("$.message").is(CONFLITO));
+
+    ScenarioBuilder rush = scenario("Monday Morning Booking Rush")
+            .feed(datasetFeeder("users.csv").circular())
+            .exec(login())
+            .exec(session -> escolherSalon(session))
+            .exec(
+                http("List Salon Services")
+                    .get("/api/servicos/salon/#{salonId}")
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200))
+            )
+            .exec(
+                http("List Online Professionals")
+                    .get("/api/profissionais/salon/#{salonId}/disponiveis")
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200))
+            )
+            .pause(Duration.ofSeconds(1), Duration.ofSeconds(4))
+            .exec(session -> escolherHorario(session))
+            .exec(criarAgendamento)
+            .doIf(session -> !session.contains("agendamentoId")).then(
+                pause(Duration.ofSeconds(1), Duration.ofSeconds(3))
+                .exec(session -> escolherHorario(session))
+                .exec(criarAgendamento)
+            )
+            .doIf(session -> session.contains("agendamentoId")).then(
+                exec(
+                    http("Get Appointment")
+                        .get("/api/agendamentos/#{agendamentoId}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(200))
+                )
+            );
+
+    // ====================================
+    // Double booking audit
+    // ====================================
+
+    ScenarioBuilder auditoria = scenario("Double Booking Audit")
+            .feed(listFeeder(salonsMovimentados).queue())
+            .exec(login())
+            .exec(
+                http("Audit Daily Agenda")
+                    .get("/api/agendamentos/profissional/#{profissionalDestaque}/agenda-diaria")
+                    .queryParam("data", segunda.atStartOfDay().toString())
+                    .header("Authorization", "Bearer #{token}")
+                    .check(status().is(200))
+                    .check(bodyString().transform(BookingRushSimulation::sobreposicoes).is(0))
+            );
+
+    // ====================================
+    // Simulation Setup
+    // ====================================
+
+    {
+        List<Assertion> assertions = new ArrayList<>();
+        assertions.addAll(slo("Login", 1500, 3000));
+        assertions.addAll(slo("List Salon Services", 300, 800));
+        assertions.addAll(slo("List Online Professionals", 300, 800));
+        assertions.addAll(slo("Create Appointment", 800, 1500));
+        assertions.addAll(slo("Get Appointment", 200, 500));
+        assertions.add(details("Audit Daily Agenda").failedRequests().count().is(0L));
+        assertions.add(global().successfulRequests().percent().gt(99.0));
+
+        setUp(
+            // Salons open at 8: arrivals climb, peak for a few minutes, then fade
+            rush.injectOpen(
+                rampUsersPerSec(rate(2)).to(rate(30)).during(Duration.ofMinutes(2)),
+                constantUsersPerSec(rate(30)).during(Duration.ofMinutes(3)),
+                rampUsersPerSec(rate(30)).to(rate(5)).during(Duration.ofMinutes(1))
+            ).andThen(
+                auditoria.injectOpen(atOnceUsers(salonsMovimentados.size()))
+            )
+        )
+        .protocols(httpProtocol)
+        .assertions(assertions);
+    }
+
+    /**
+     * Salon of the session: the busiest salons first, with a long tail.
+     */
+    private Session escolherSalon(Session session) {
+        double r = ThreadLocalRandom.current().nextDouble();
+        Map<String, Object> salon = salons.get((int) (salons.size() * r * r * r));
+        return session
+                .set("salonId", salon.get("salonId"))
+                .set("profissionalDestaque", salon.get("profissionalDestaque"))
+                .set("profissionais", salon.get("profissionais"))
+                .set("servicos", salon.get("servicos"));
+    }
+
+    /**
+     * Professional, service and time of the next booking attempt; 70% go for the popular
+     * professional in a prime slot.
+     */
+    private Session escolherHorario(Session session) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] profissionais = session.getString("profissionais").split(";");
+        String[] servicos = session.getString("servicos").split(";");
+
+        boolean destaque = random.nextDouble() < 0.7;
+        String profissionalId = destaque ? session.getString("profissionalDestaque")
+                : profissionais[random.nextInt(profissionais.length)];
+        List<LocalTime> horarios = destaque ? HORARIOS_NOBRES : HORARIOS;
+        LocalDateTime dataHora = segunda.atTime(horarios.get(random.nextInt(horarios.size())));
+
+        return session
+                .set("profissionalId", profissionalId)
+                .set("servicoId", servicos[random.nextInt(servicos.length)])
+                .set("dataHora", dataHora.toString());
+    }
+
+    /**
+     * Pairs of overlapping active appointments in an agenda.
+     */
+    static int sobreposicoes(String agenda) {
+        try {
+            List<LocalDateTime[]> ativos = new ArrayList<>();
+            for (JsonNode agendamento : MAPPER.readTree(agenda)) {
+                String status = agendamento.path("status").asText();
+                if (!status.equals("CANCELADO") && !status.equals("NO_SHOW")) {
+                    ativos.add(new LocalDateTime[] {
+                        LocalDateTime.parse(agendamento.path("dataHora").asText()),
+                        LocalDateTime.parse(agendamento.path("fimPrevisto").asText())
+                    });
+                }
+            }
+            ativos.sort(Comparator.comparing(periodo -> periodo[0]));
+
+            int sobreposicoes = 0;
+            for (int i = 0; i < ativos.size(); i++) {
+                for (int j = i + 1; j < ativos.size() && ativos.get(j)[0].isBefore(ativos.get(i)[1]); j++) {
+                    sobreposicoes++;
+                }
+            }
+            return sobreposicoes;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Unexpected agenda: " + agenda, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.belezza.api.performance;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.belezza.api.performance.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Dashboard refresh storm: salon admins keep the metrics dashboard open and refresh it.
+ *
+ * Each refresh loads the scheduling, financial and social metrics at once, as the dashboard does,
+ * mostly for the current month and sometimes for a quarter or a year. Admins are modelled as a
+ * closed population (one open dashboard each) that first settles at one per salon, then jumps to
+ * four per salon, like everybody opening the dashboard after the day's closing.
+ *
+ * Needs the dataset feeders (target/dataset).
+ *
+ * Run with: mvn gatling:test -Dgatling.simulationClass=com.belezza.api.performance.DashboardStormSimulation
+ */
+public class DashboardStormSimulation extends Simulation {
+
+    private static final int REFRESHES = 10;
+
+    private final int salons = datasetFeeder("salons.csv").readRecords().size();
+
+    HttpProtocolBuilder httpProtocol = httpProtocol();
+
+    ScenarioBuilder storm = scenario("Dashboard Refresh Storm")
+            .feed(datasetFeeder("salons.csv").circular())
+            .exec(login())
+            .repeat(REFRESHES).on(
+                exec(session -> escolherPeriodo(session))
+                .exec(
+                    http("Scheduling Metrics")
+                        .get("/api/metricas/agendamentos?salonId=#{salonId}&dataInicio=#{dataInicio}&dataFim=#{dataFim}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(200))
+                        .resources(
+                            http("Financial Metrics")
+                                .get("/api/metricas/faturamento?salonId=#{salonId}&dataInicio=#{dataInicio}&dataFim=#{dataFim}")
+                                .header("Authorization", "Bearer #{token}")
+                                .check(status().is(200)),
+                            http("Social Metrics")
+                                .get("/api/metricas/social?salonId=#{salonId}&dataInicio=#{dataInicio}&dataFim=#{dataFim}")
+                                .header("Authorization", "Bearer #{token}")
+                                .check(status().is(200))
+                        )
+                )
+                .pause(Duration.ofSeconds(5), Duration.ofSeconds(15))
+            );
+
+    {
+        List<Assertion> assertions = new ArrayList<>();
+        assertions.addAll(slo("Login", 1500, 3000));
+        assertions.addAll(slo("Scheduling Metrics", 800, 2000));
+        assertions.addAll(slo("Financial Metrics", 800, 2000));
+        assertions.addAll(slo("Social Metrics", 500, 1500));
+        assertions.add(global().successfulRequests().percent().gt(99.0));
+
+        setUp(
+            storm.injectClosed(
+                rampConcurrentUsers(0).to(users(salons)).during(Duration.ofMinutes(1)),
+                constantConcurrentUsers(users(salons)).during(Duration.ofMinutes(2)),
+                rampConcurrentUsers(users(salons)).to(users(salons * 4)).during(Duration.ofSeconds(10)),
+                constantConcurrentUsers(users(salons * 4)).during(Duration.ofMinutes(2))
+            )
+        )
+        .protocols(httpProtocol)
+        .assertions(assertions);
+    }
+
+    /**
+     * Period of the next refresh: the current month most of the time.
+     */
+    private static Session escolherPeriodo(Session session) {
+        LocalDate hoje = LocalDate.now();
+        double r = ThreadLocalRandom.current().nextDouble();
+        LocalDate inicio = r < 0.7 ? hoje.withDayOfMonth(1)
+                : r < 0.9 ? hoje.minusMonths(3)
+                : hoje.minusYears(1);
+        return session
+                .set("dataInicio", inicio.toString())
+                .set("dataFim", hoje.toString());
+    }
+}
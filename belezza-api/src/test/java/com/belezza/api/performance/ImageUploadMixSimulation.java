@@ -0,0 +1,175 @@
+package com.belezza.api.performance;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.belezza.api.performance.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Image upload mix of the Social Studio: salon staff uploading photos and running AI edits.
+ *
+ * Uploads are feed-sized portraits, Full HD frames and full-resolution phone photos. Every upload
+ * has different bytes (a unique JPEG comment), so none is served by the content deduplication.
+ * After the upload the image is opened, enhanced or has its background removed; the AI edits
+ * go to Replicate, which the load test stack mocks with a fixed latency.
+ *
+ * Needs the dataset feeders (target/dataset).
+ *
+ * Run with: mvn gatling:test -Dgatling.simulationClass=com.belezza.api.performance.ImageUploadMixSimulation
+ */
+public class ImageUploadMixSimulation extends Simulation {
+
+    private static final byte[] RETRATO = jpeg(1080, 1350);
+    private static final byte[] FULL_HD = jpeg(1920, 1080);
+    private static final byte[] CELULAR = jpeg(4032, 3024);
+
+    private final AtomicLong uploads = new AtomicLong();
+
+    HttpProtocolBuilder httpProtocol = httpProtocol();
+
+    ScenarioBuilder mix = scenario("Image Upload Mix")
+            .feed(datasetFeeder("salons.csv").random())
+            .exec(login())
+            .exec(session -> escolherImagem(session))
+            .exec(
+                http("Upload Image")
+                    .post("/api/images/upload?salonId=#{salonId}")
+                    .header("Authorization", "Bearer #{token}")
+                    .asMultipartForm()
+                    .bodyPart(ByteArrayBodyPart("file", session -> session.get("arquivo"))
+                        .fileName("#{nomeArquivo}")
+                        .contentType("image/jpeg"))
+                    .check(status().is(201))
+                    .check(jsonPath("$.id").saveAs("imagemId"))
+            )
+            .exec(session -> session.remove("arquivo"))
+            .pause(Duration.ofSeconds(1), Duration.ofSeconds(5))
+            .randomSwitch().on(
+                percent(60.0).then(
+                    exec(
+                        http("Get Image")
+                            .get("/api/images/#{imagemId}?salonId=#{salonId}")
+                            .header("Authorization", "Bearer #{token}")
+                            .check(status().is(200))
+                    )
+                ),
+                percent(25.0).then(
+                    exec(
+                        http("Enhance Image")
+                            .post("/api/images/#{imagemId}/enhance?salonId=#{salonId}")
+                            .header("Authorization", "Bearer #{token}")
+                            .check(status().is(200))
+                    )
+                ),
+                percent(15.0).then(
+                    exec(
+                        http("Remove Background")
+                            .post("/api/images/#{imagemId}/remove-background?salonId=#{salonId}")
+                            .header("Authorization", "Bearer #{token}")
+                            .check(status().is(200))
+                    )
+                )
+            );
+
+    {
+        List<Assertion> assertions = new ArrayList<>();
+        assertions.addAll(slo("Login", 1500, 3000));
+        assertions.addAll(slo("Upload Image", 1500, 4000));
+        assertions.addAll(slo("Get Image", 300, 800));
+        // Replicate mock latency (3s by default) plus one polling interval (2s)
+        assertions.addAll(slo("Enhance Image", 6000, 9000));
+        assertions.addAll(slo("Remove Background", 6000, 9000));
+        assertions.add(global().successfulRequests().percent().gt(99.0));
+
+        setUp(
+            mix.injectOpen(
+                rampUsersPerSec(rate(0.5)).to(rate(3)).during(Duration.ofMinutes(1)),
+                constantUsersPerSec(rate(3)).during(Duration.ofMinutes(4))
+            )
+        )
+        .protocols(httpProtocol)
+        .assertions(assertions);
+    }
+
+    /**
+     * Half feed portraits, a fifth Full HD and the rest straight from the phone camera.
+     */
+    private Session escolherImagem(Session session) {
+        double r = ThreadLocalRandom.current().nextDouble();
+        byte[] imagem = r < 0.5 ? RETRATO : r < 0.7 ? FULL_HD : CELULAR;
+        long numero = uploads.incrementAndGet();
+        return session
+                .set("arquivo", unica(imagem, numero))
+                .set("nomeArquivo", "foto-" + numero + ".jpg");
+    }
+
+    /**
+     * The same picture with a COM segment right after SOI, so its content hash is unique.
+     */
+    static byte[] unica(byte[] jpeg, long numero) {
+        byte[] comentario = ("loadtest " + numero).getBytes(StandardCharsets.US_ASCII);
+        int tamanhoSegmento = comentario.length + 2;
+
+        byte[] resultado = new byte[jpeg.length + 2 + tamanhoSegmento];
+        resultado[0] = (byte) 0xFF;
+        resultado[1] = (byte) 0xD8;
+        resultado[2] = (byte) 0xFF;
+        resultado[3] = (byte) 0xFE;
+        resultado[4] = (byte) (tamanhoSegmento >> 8);
+        resultado[5] = (byte) tamanhoSegmento;
+        System.arraycopy(comentario, 0, resultado, 6, comentario.length);
+        System.arraycopy(jpeg, 2, resultado, 6 + comentario.length, jpeg.length - 2);
+        return resultado;
+    }
+
+    /**
+     * Gradient with sensor-like noise, so it compresses like a photo and not like a flat image.
+     */
+    private static byte[] jpeg(int largura, int altura) {
+        BufferedImage image = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(largura * 31L + altura);
+        for (int y = 0; y < altura; y++) {
+            for (int x = 0; x < largura; x++) {
+                int ruido = random.nextInt(24) - 12;
+                int red = Math.clamp(x * 255L / largura + ruido, 0, 255);
+                int green = Math.clamp(y * 255L / altura + ruido, 0, 255);
+                int blue = Math.clamp(160L + ruido, 0, 255);
+                image.setRGB(x, y, red << 16 | green << 8 | blue);
+            }
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(0.9f);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package com.belezza.api.performance;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.List;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Settings and building blocks shared by the simulations.
+ *
+ * System properties:
+ * - baseUrl: API under test (default http://localhost:8080)
+ * - scale: multiplies every injection rate and user count (default 1; 0.1 for a smoke run)
+ * - dataset.dir: feeders written by the dataset loader (default target/dataset)
+ * - meta.appSecret: secret to sign webhooks with (default the one of the loadtest profile)
+ */
+final class LoadTestSupport {
+
+    static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    static final double SCALE = Double.parseDouble(System.getProperty("scale", "1"));
+    static final Path DATASET_DIR = Path.of(System.getProperty("dataset.dir", "target/dataset"));
+    static final String APP_SECRET = System.getProperty("meta.appSecret", "loadtest-secret");
+
+    private LoadTestSupport() {
+    }
+
+    static HttpProtocolBuilder httpProtocol() {
+        return http
+                .baseUrl(BASE_URL)
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json")
+                .userAgentHeader("Gatling/Belezza-Performance-Test");
+    }
+
+    /**
+     * Feeder written by the dataset loader; the simulations that need one cannot run without it.
+     */
+    static Path datasetFile(String name) {
+        Path file = DATASET_DIR.resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException(file.toAbsolutePath() + " not found. Load the dataset first: "
+                    + "mvn -Pload-stack test-compile exec:java (or -Pdataset against a running API)");
+        }
+        return file;
+    }
+
+    static FeederBuilder<String> datasetFeeder(String name) {
+        return csv(datasetFile(name).toAbsolutePath().toString());
+    }
+
+    static int users(int count) {
+        return Math.max(1, (int) Math.round(count * SCALE));
+    }
+
+    static double rate(double perSecond) {
+        return perSecond * SCALE;
+    }
+
+    /**
+     * Login as #{email} / #{password}, keeping the access token as #{token}.
+     */
+    static ChainBuilder login() {
+        return exec(
+            http("Login")
+                .post("/api/auth/login")
+                .body(StringBody("""
+                    {"email": "#{email}", "password": "#{password}"}"""))
+                .check(status().is(200))
+                .check(jsonPath("$.accessToken").saveAs("token"))
+        );
+    }
+
+    /**
+     * 95th and 99th percentile response time objectives of one request.
+     */
+    static List<Assertion> slo(String request, int p95Millis, int p99Millis) {
+        return List.of(
+            details(request).responseTime().percentile(95.0).lt(p95Millis),
+            details(request).responseTime().percentile(99.0).lt(p99Millis)
+        );
+    }
+
+    /**
+     * X-Hub-Signature-256 of a webhook body, as Meta computes it.
+     */
+    static String signature(String body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(APP_SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.belezza.api.performance;
+
+import io.gatling.javaapi.core.*;
+import io.gatling.javaapi.http.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.belezza.api.performance.LoadTestSupport.*;
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * WhatsApp webhook flood: Meta delivering status callbacks after a reminder broadcast.
+ *
+ * Each delivery is signed like Meta does and mostly carries one status, sometimes a batch, for
+ * messages of the dataset; a few refer to messages the API does not know (other numbers of the
+ * business account). The rate climbs from the usual trickle to a broadcast peak and back. The
+ * endpoint only verifies and enqueues, so its objectives are far tighter than the rest of the API.
+ *
+ * Needs the dataset feeders (target/dataset) and the API's app secret (-Dmeta.appSecret, the
+ * loadtest profile's by default).
+ *
+ * Run with: mvn gatling:test -Dgatling.simulationClass=com.belezza.api.performance.WebhookFloodSimulation
+ */
+public class WebhookFloodSimulation extends Simulation {
+
+    private static final String[] STATUSES = {"sent", "delivered", "read", "failed"};
+
+    private final List<Map<String, Object>> mensagens = datasetFeeder("whatsapp.csv").readRecords();
+    private final AtomicLong desconhecidas = new AtomicLong();
+
+    HttpProtocolBuilder httpProtocol = httpProtocol();
+
+    ScenarioBuilder flood = scenario("WhatsApp Webhook Flood")
+            .exec(session -> {
+                String payload = payload();
+                return session.set("payload", payload).set("signature", signature(payload));
+            })
+            .exec(
+                http("WhatsApp Status Webhook")
+                    .post("/api/webhooks/whatsapp")
+                    .header("X-Hub-Signature-256", "#{signature}")
+                    .body(StringBody("#{payload}"))
+                    .check(status().is(200))
+                    .check(bodyString().is("EVENT_RECEIVED"))
+            );
+
+    {
+        List<Assertion> assertions = new ArrayList<>(slo("WhatsApp Status Webhook", 100, 250));
+        assertions.add(global().successfulRequests().percent().gt(99.9));
+
+        setUp(
+            flood.injectOpen(
+                constantUsersPerSec(rate(50)).during(Duration.ofMinutes(1)),
+                rampUsersPerSec(rate(50)).to(rate(500)).during(Duration.ofSeconds(30)),
+                constantUsersPerSec(rate(500)).during(Duration.ofMinutes(2)),
+                rampUsersPerSec(rate(500)).to(rate(50)).during(Duration.ofSeconds(30))
+            )
+        )
+        .protocols(httpProtocol)
+        .assertions(assertions);
+    }
+
+    /**
+     * A status notification as sent by the Cloud API, with one to ten statuses.
+     */
+    private String payload() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int quantidade = 1 + (int) (9 * Math.pow(random.nextDouble(), 4));
+        long timestamp = Instant.now().getEpochSecond();
+
+        StringBuilder statuses = new StringBuilder();
+        for (int i = 0; i < quantidade; i++) {
+            String messageId;
+            String telefone;
+            if (random.nextDouble() < 0.05) {
+                messageId = "wamid.unknown." + desconhecidas.incrementAndGet();
+                telefone = "5511900000000";
+            } else {
+                Map<String, Object> mensagem = mensagens.get(random.nextInt(mensagens.size()));
+                messageId = (String) mensagem.get("messageId");
+                telefone = ((String) mensagem.get("telefone")).replace("+", "");
+            }
+            double r = random.nextDouble();
+            String status = STATUSES[r < 0.05 ? 0 : r < 0.55 ? 1 : r < 0.95 ? 2 : 3];
+
+            if (i > 0) {
+                statuses.append(',');
+            }
+            statuses.append("""
+                {"id": "%s", "status": "%s", "timestamp": "%d", "recipient_id": "%s"%s}"""
+                .formatted(messageId, status, timestamp, telefone, status.equals("failed")
+                    ? ", \"errors\": [{\"code\": 131026, \"title\": \"Message undeliverable\"}]" : ""));
+        }
+
+        return """
+            {"object": "whatsapp_business_account", "entry": [{"id": "102290129340398", "changes": [{"field": "messages",
+             "value": {"messaging_product": "whatsapp",
+              "metadata": {"display_phone_number": "15550000000", "phone_number_id": "loadtest"},
+              "statuses": [%s]}}]}]}""".formatted(statuses);
+    }
+}
@@ -0,0 +1,103 @@
+package com.belezza.api.performance.dataset;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Streams rows into one table with {@code COPY ... FROM STDIN} (text format).
+ *
+ * Rows are encoded into a buffer and sent in large chunks, so loading millions of rows costs
+ * one statement and no per-row round trip or parsing.
+ */
+class CopyWriter implements AutoCloseable {
+
+    private static final int FLUSH_SIZE = 256 * 1024;
+
+    private final CopyIn copyIn;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 4096);
+    private long rows;
+
+    CopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    static CopyWriter open(CopyManager copyManager, String table, String... columns) throws SQLException {
+        return new CopyWriter(copyManager.copyIn(
+            "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN"));
+    }
+
+    /**
+     * Add a row; enums are written by name, other values with {@code toString()}, nulls as SQL NULL.
+     */
+    CopyWriter row(Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            append(values[i]);
+        }
+        buffer.append('\n');
+        rows++;
+        if (buffer.length() >= FLUSH_SIZE) {
+            flush();
+        }
+        return this;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            buffer.append("\\N");
+        } else if (value instanceof LocalDateTime dateTime) {
+            buffer.append(dateTime.toLocalDate()).append(' ').append(dateTime.toLocalTime());
+        } else if (value instanceof Enum<?> constant) {
+            buffer.append(constant.name());
+        } else if (value instanceof LocalTime || value instanceof Number || value instanceof Boolean) {
+            buffer.append(value);
+        } else {
+            escape(value.toString());
+        }
+    }
+
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
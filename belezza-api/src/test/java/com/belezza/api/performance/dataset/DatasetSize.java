@@ -0,0 +1,68 @@
+package com.belezza.api.performance.dataset;
+
+import java.util.Locale;
+
+/**
+ * Shape of a synthetic dataset: how many tenants, how big each one is and how much history.
+ *
+ * The presets go from a quick local run to a multi-million row tenant base; any value can be
+ * overridden with a {@code dataset.*} system property, e.g. {@code -Ddataset.size=LARGE -Ddataset.anos=4}.
+ *
+ * @param salons                    number of tenants
+ * @param profissionaisPorSalon     professionals per salon
+ * @param clientesPorSalon          clients per salon
+ * @param servicosPorSalon          services per salon
+ * @param anos                      years of appointment history up to today
+ * @param atendimentosPorDia        average appointments per professional per working day
+ * @param postsPorSemana            average social posts per salon per week
+ * @param auditLogsPorDia           average audit entries per salon per day
+ * @param seed                      random seed; the same seed gives the same dataset
+ */
+public record DatasetSize(
+    int salons,
+    int profissionaisPorSalon,
+    int clientesPorSalon,
+    int servicosPorSalon,
+    int anos,
+    int atendimentosPorDia,
+    int postsPorSemana,
+    int auditLogsPorDia,
+    long seed
+) {
+
+    /** About 40k appointments: a few seconds, for trying queries locally. */
+    public static final DatasetSize SMALL = new DatasetSize(5, 4, 300, 10, 1, 6, 3, 20, 42);
+
+    /** About 1.3M appointments. */
+    public static final DatasetSize MEDIUM = new DatasetSize(50, 6, 1_500, 15, 2, 7, 4, 40, 42);
+
+    /** About 6M appointments, 5M payments and 12M WhatsApp messages. */
+    public static final DatasetSize LARGE = new DatasetSize(150, 6, 4_000, 20, 3, 7, 5, 60, 42);
+
+    /**
+     * Preset named by {@code dataset.size} (SMALL by default) with the {@code dataset.*} overrides applied.
+     */
+    public static DatasetSize fromSystemProperties() {
+        DatasetSize base = switch (System.getProperty("dataset.size", "SMALL").toUpperCase(Locale.ROOT)) {
+            case "SMALL" -> SMALL;
+            case "MEDIUM" -> MEDIUM;
+            case "LARGE" -> LARGE;
+            default -> throw new IllegalArgumentException(
+                "dataset.size must be SMALL, MEDIUM or LARGE: " + System.getProperty("dataset.size"));
+        };
+        return new DatasetSize(
+            intProperty("dataset.salons", base.salons),
+            intProperty("dataset.profissionais-por-salon", base.profissionaisPorSalon),
+            intProperty("dataset.clientes-por-salon", base.clientesPorSalon),
+            intProperty("dataset.servicos-por-salon", base.servicosPorSalon),
+            intProperty("dataset.anos", base.anos),
+            intProperty("dataset.atendimentos-por-dia", base.atendimentosPorDia),
+            intProperty("dataset.posts-por-semana", base.postsPorSemana),
+            intProperty("dataset.audit-logs-por-dia", base.auditLogsPorDia),
+            Long.getLong("dataset.seed", base.seed));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+}
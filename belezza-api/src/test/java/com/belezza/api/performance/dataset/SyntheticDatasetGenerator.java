@@ -0,0 +1,635 @@
+package com.belezza.api.performance.dataset;
+
+import com.belezza.api.entity.DiaSemana;
+import com.belezza.api.entity.FormaPagamento;
+import com.belezza.api.entity.Plano;
+import com.belezza.api.entity.Role;
+import com.belezza.api.entity.StatusAgendamento;
+import com.belezza.api.entity.StatusPagamento;
+import com.belezza.api.entity.StatusPost;
+import com.belezza.api.entity.TipoServico;
+import com.belezza.api.entity.WhatsAppMessageStatus;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Generates a production-like dataset and bulk loads it with COPY.
+ *
+ * Every salon gets its admin, professionals with their work hours, services and clients; then
+ * years of appointments up to two months ahead, with payments for the finished ones, the WhatsApp
+ * messages they triggered, social posts and the audit trail. Volumes follow the shape of real
+ * traffic: busy Fridays, Saturdays and Monday mornings, a December peak, a few popular
+ * professionals and regular clients, and a business that grew over the years.
+ *
+ * Rows get ids above the current maximum, so the dataset can be added to a database that already
+ * has data, and everything is derived from the seed: the same {@link DatasetSize} and reference
+ * time always produce the same rows.
+ */
+public class SyntheticDatasetGenerator {
+
+    /** Password of every generated user, to log in from load tests. */
+    public static final String SENHA = "Test123!";
+
+    static final String EMAIL_DOMAIN = "dataset.belezza.ai";
+
+    private static final int DIAS_FUTUROS = 60;
+    private static final int SLOT_MINUTOS = 30;
+
+    private static final String[] TABELAS_COM_ID =
+        {"usuarios", "salons", "servicos", "profissionais", "clientes", "agendamentos"};
+
+    // Demand by day of the week, Monday first
+    private static final double[] FATOR_DIA = {1.1, 0.8, 0.85, 0.95, 1.2, 1.4, 0};
+    // Demand by month, January first
+    private static final double[] FATOR_MES = {0.8, 0.9, 1.0, 1.0, 1.05, 1.0, 0.95, 1.0, 1.0, 1.05, 1.1, 1.3};
+
+    private static final Set<StatusAgendamento> ATENDIDOS = EnumSet.of(
+        StatusAgendamento.CONFIRMADO, StatusAgendamento.EM_ANDAMENTO,
+        StatusAgendamento.CONCLUIDO, StatusAgendamento.NO_SHOW);
+
+    private static final String[] USER_AGENTS = {
+        "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) AppleWebKit/605.1.15 Mobile/15E148",
+        "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 Chrome/120.0 Mobile Safari/537.36",
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/120.0 Safari/537.36"
+    };
+
+    private final DatasetSize size;
+    private final LocalDateTime agora;
+    private final LocalDate inicioHistorico;
+    private final String senhaHash;
+
+    /**
+     * @param agora     reference time: appointments before it are history, after it upcoming
+     * @param senhaHash password hash stored for every user, normally the BCrypt hash of {@link #SENHA}
+     */
+    public SyntheticDatasetGenerator(DatasetSize size, LocalDateTime agora, String senhaHash) {
+        this.size = size;
+        this.agora = agora.truncatedTo(ChronoUnit.MINUTES);
+        this.inicioHistorico = agora.toLocalDate().minusYears(size.anos());
+        this.senhaHash = senhaHash;
+    }
+
+    /** Rows loaded per table, and the ids they were given (for load test feeders). */
+    public record Resumo(Map<String, Long> linhas, Ids ids) {
+
+        public long clientes() {
+            return (long) ids.size().salons() * ids.size().clientesPorSalon();
+        }
+    }
+
+    /**
+     * Loads the dataset in one transaction, then moves the id sequences past it and refreshes
+     * the planner statistics.
+     */
+    public Resumo generate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            Ids ids = Ids.after(maxIds(connection), size);
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            Map<String, Long> linhas = new LinkedHashMap<>();
+
+            linhas.put("usuarios", copyUsuarios(copy, ids));
+            linhas.put("salons", copySalons(copy, ids));
+            linhas.put("servicos", copyServicos(copy, ids));
+            linhas.put("profissionais", copyProfissionais(copy, ids));
+            linhas.put("profissional_servicos", copyProfissionalServicos(copy, ids));
+            linhas.put("horarios_trabalho", copyHorarios(copy, ids));
+            linhas.put("clientes", copyClientes(copy, ids));
+            linhas.put("agendamentos", copyAgendamentos(copy, ids));
+            linhas.put("pagamentos", copyPagamentos(copy, ids));
+            linhas.put("whatsapp_messages", copyMensagens(copy, ids));
+            linhas.put("posts", copyPosts(copy, ids));
+            linhas.put("audit_logs", copyAuditLogs(copy, ids));
+
+            try (Statement statement = connection.createStatement()) {
+                for (String tabela : TABELAS_COM_ID) {
+                    statement.execute("SELECT setval(pg_get_serial_sequence('" + tabela + "', 'id'), "
+                        + "(SELECT MAX(id) FROM " + tabela + "))");
+                }
+            }
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            return new Resumo(linhas, ids);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    // ====================================
+    // Tenants, staff and clients
+    // ====================================
+
+    private long copyUsuarios(CopyManager copy, Ids ids) throws SQLException {
+        LocalDateTime criadoEm = inicioHistorico.atStartOfDay();
+        try (CopyWriter out = CopyWriter.open(copy, "usuarios",
+                "id", "email", "password", "nome", "telefone", "role", "plano", "ativo", "email_verificado",
+                "criado_em", "atualizado_em")) {
+            for (int s = 0; s < size.salons(); s++) {
+                long id = ids.admin(s);
+                out.row(id, email("admin", id), senhaHash, "Admin Salon " + (s + 1), telefone(id),
+                    Role.ADMIN, s % 3 == 0 ? Plano.PREMIUM : Plano.PRO, true, true, criadoEm, criadoEm);
+            }
+            for (int p = 0; p < totalProfissionais(); p++) {
+                long id = ids.profissionalUsuario(p);
+                out.row(id, email("profissional", id), senhaHash, "Profissional " + (p + 1), telefone(id),
+                    Role.PROFISSIONAL, Plano.FREE, true, true, criadoEm, criadoEm);
+            }
+            for (int c = 0; c < totalClientes(); c++) {
+                long id = ids.clienteUsuario(c);
+                out.row(id, email("cliente", id), senhaHash, "Cliente " + (c + 1), telefone(id),
+                    Role.CLIENTE, Plano.FREE, true, c % 5 != 0, criadoEm, criadoEm);
+            }
+            return out.rows();
+        }
+    }
+
+    private long copySalons(CopyManager copy, Ids ids) throws SQLException {
+        LocalDateTime criadoEm = inicioHistorico.atStartOfDay();
+        try (CopyWriter out = CopyWriter.open(copy, "salons",
+                "id", "nome", "cidade", "estado", "telefone", "horario_abertura", "horario_fechamento",
+                "admin_id", "criado_em", "atualizado_em")) {
+            for (int s = 0; s < size.salons(); s++) {
+                out.row(ids.salon(s), "Salon Dataset " + (s + 1), s % 2 == 0 ? "São Paulo" : "Rio de Janeiro",
+                    s % 2 == 0 ? "SP" : "RJ", telefone(ids.admin(s)), LocalTime.of(8, 0), LocalTime.of(20, 0),
+                    ids.admin(s), criadoEm, criadoEm);
+            }
+            return out.rows();
+        }
+    }
+
+    private long copyServicos(CopyManager copy, Ids ids) throws SQLException {
+        LocalDateTime criadoEm = inicioHistorico.atStartOfDay();
+        TipoServico[] tipos = TipoServico.values();
+        try (CopyWriter out = CopyWriter.open(copy, "servicos",
+                "id", "nome", "preco", "duracao_minutos", "tipo", "salon_id", "criado_em", "atualizado_em")) {
+            for (int s = 0; s < size.salons(); s++) {
+                for (int j = 0; j < size.servicosPorSalon(); j++) {
+                    out.row(ids.servico(s, j), "Servico " + (j + 1), preco(j), duracaoMinutos(j),
+                        tipos[j % tipos.length], ids.salon(s), criadoEm, criadoEm);
+                }
+            }
+            return out.rows();
+        }
+    }
+
+    private long copyProfissionais(CopyManager copy, Ids ids) throws SQLException {
+        LocalDateTime criadoEm = inicioHistorico.atStartOfDay();
+        try (CopyWriter out = CopyWriter.open(copy, "profissionais",
+                "id", "usuario_id", "salon_id", "criado_em", "atualizado_em")) {
+            for (int p = 0; p < totalProfissionais(); p++) {
+                out.row(ids.profissional(p), ids.profissionalUsuario(p),
+                    ids.salon(p / size.profissionaisPorSalon()), criadoEm, criadoEm);
+            }
+            return out.rows();
+        }
+    }
+
+    private long copyProfissionalServicos(CopyManager copy, Ids ids) throws SQLException {
+        try (CopyWriter out = CopyWriter.open(copy, "profissional_servicos", "profissional_id", "servico_id")) {
+            for (int p = 0; p < totalProfissionais(); p++) {
+                for (int j = 0; j < size.servicosPorSalon(); j++) {
+                    out.row(ids.profissional(p), ids.servico(p / size.profissionaisPorSalon(), j));
+                }
+            }
+            return out.rows();
+        }
+    }
+
+    private long copyHorarios(CopyManager copy, Ids ids) throws SQLException {
+        DiaSemana[] dias = DiaSemana.values();
+        try (CopyWriter out = CopyWriter.open(copy, "horarios_trabalho",
+                "profissional_id", "dia_semana", "hora_inicio", "hora_fim", "intervalo_inicio", "intervalo_fim")) {
+            for (int p = 0; p < totalProfissionais(); p++) {
+                for (DayOfWeek dia : DayOfWeek.values()) {
+                    if (trabalha(p, dia)) {
+                        Turno turno = turno(p);
+                        out.row(ids.profissional(p), dias[dia.ordinal()], turno.inicio(), turno.fim(),
+                            turno.intervaloInicio(), turno.intervaloFim());
+                    }
+                }
+            }
+            return out.rows();
+        }
+    }
+
+    private long copyClientes(CopyManager copy, Ids ids) throws SQLException {
+        LocalDateTime criadoEm = inicioHistorico.atStartOfDay();
+        try (CopyWriter out = CopyWriter.open(copy, "clientes",
+                "id", "usuario_id", "salon_id", "criado_em", "atualizado_em")) {
+            for (int c = 0; c < totalClientes(); c++) {
+                out.row(ids.cliente(c), ids.clienteUsuario(c), ids.salon(c / size.clientesPorSalon()),
+                    criadoEm, criadoEm);
+            }
+            return out.rows();
+        }
+    }
+
+    // ====================================
+    // Appointments and what they trigger
+    // ====================================
+
+    private long copyAgendamentos(CopyManager copy, Ids ids) throws SQLException {
+        try (CopyWriter out = CopyWriter.open(copy, "agendamentos",
+                "id", "salon_id", "cliente_id", "profissional_id", "servico_id", "data_hora", "fim_previsto",
+                "status", "valor_cobrado", "lembrete_enviado24h", "lembrete_enviado2h", "criado_em",
+                "atualizado_em")) {
+            forEachAgendamento(ids, unchecked(a -> out.row(a.id(), a.salonId(), a.clienteId(), a.profissionalId(),
+                a.servicoId(), a.inicio(), a.fim(), a.status(),
+                a.status() == StatusAgendamento.CONCLUIDO ? a.valor() : null,
+                a.lembrete24h(), a.lembrete2h(), a.criadoEm(), a.criadoEm())));
+            return out.rows();
+        }
+    }
+
+    private long copyPagamentos(CopyManager copy, Ids ids) throws SQLException {
+        try (CopyWriter out = CopyWriter.open(copy, "pagamentos",
+                "agendamento_id", "salon_id", "valor", "forma", "status", "transacao_id", "processado_em",
+                "criado_em")) {
+            forEachAgendamento(ids, unchecked(a -> {
+                if (a.status() != StatusAgendamento.CONCLUIDO) {
+                    return;
+                }
+                SplittableRandom random = random(a.id(), 1);
+                double r = random.nextDouble();
+                StatusPagamento status = r < 0.96 ? StatusPagamento.APROVADO
+                    : r < 0.98 ? StatusPagamento.RECUSADO : StatusPagamento.ESTORNADO;
+                FormaPagamento forma = formaPagamento(random.nextDouble());
+                out.row(a.id(), a.salonId(), a.valor(), forma, status,
+                    forma == FormaPagamento.DINHEIRO ? null : "txn_" + Long.toString(a.id(), 36),
+                    a.fim(), a.fim());
+            }));
+            return out.rows();
+        }
+    }
+
+    private long copyMensagens(CopyManager copy, Ids ids) throws SQLException {
+        try (CopyWriter out = CopyWriter.open(copy, "whatsapp_messages",
+                "message_id", "telefone", "tipo", "template_name", "status", "error_message", "agendamento_id",
+                "salon_id", "criado_em", "entregue_em", "lido_em", "tentativas")) {
+            forEachAgendamento(ids, unchecked(a -> {
+                SplittableRandom random = random(a.id(), 2);
+                String telefone = telefone(a.clienteUsuarioId());
+                mensagem(out, random, a, telefone, "confirmacao_agendamento", a.criadoEm(), 0);
+                if (a.lembrete24h()) {
+                    mensagem(out, random, a, telefone, "lembrete_24h", a.inicio().minusHours(24), 1);
+                }
+                if (a.lembrete2h()) {
+                    mensagem(out, random, a, telefone, "lembrete_2h", a.inicio().minusHours(2), 2);
+                }
+                if (a.status() == StatusAgendamento.CONCLUIDO && random.nextDouble() < 0.5
+                        && a.fim().plusHours(2).isBefore(agora)) {
+                    mensagem(out, random, a, telefone, "pos_atendimento", a.fim().plusHours(2), 3);
+                }
+            }));
+            return out.rows();
+        }
+    }
+
+    private void mensagem(CopyWriter out, SplittableRandom random, AgendamentoRow a, String telefone,
+                          String template, LocalDateTime enviadaEm, int sequencia) throws SQLException {
+        double r = random.nextDouble();
+        if (r < 0.02) {
+            out.row(null, telefone, "template", template, WhatsAppMessageStatus.FAILED,
+                "(#131026) Message undeliverable", a.id(), a.salonId(), enviadaEm, null, null,
+                random.nextInt(1, 4));
+            return;
+        }
+        // Recent messages have not been delivered or read yet
+        WhatsAppMessageStatus status = r < 0.15 || enviadaEm.isAfter(agora.minusMinutes(5))
+            ? WhatsAppMessageStatus.SENT
+            : r < 0.40 ? WhatsAppMessageStatus.DELIVERED : WhatsAppMessageStatus.READ;
+        LocalDateTime entregueEm = status == WhatsAppMessageStatus.SENT ? null
+            : enviadaEm.plusSeconds(random.nextInt(1, 120));
+        LocalDateTime lidoEm = status == WhatsAppMessageStatus.READ
+            ? entregueEm.plusMinutes(random.nextInt(1, 600)) : null;
+        out.row("wamid.dataset." + a.id() + "." + sequencia, telefone, "template", template, status, null,
+            a.id(), a.salonId(), enviadaEm, entregueEm, lidoEm, 1);
+    }
+
+    /**
+     * Walks every generated appointment in id order. The walk is deterministic, so the tables
+     * that depend on appointments are loaded with further walks instead of keeping millions of
+     * rows in memory.
+     */
+    void forEachAgendamento(Ids ids, Consumer<AgendamentoRow> action) {
+        long proximoId = ids.agendamento() + 1;
+        LocalDate fim = agora.toLocalDate().plusDays(DIAS_FUTUROS);
+        double diasHistorico = ChronoUnit.DAYS.between(inicioHistorico, agora.toLocalDate());
+
+        for (int p = 0; p < totalProfissionais(); p++) {
+            int s = p / size.profissionaisPorSalon();
+            SplittableRandom random = random(p, 0);
+            // A salon has one star professional; the others vary around the average
+            double popularidade = p % size.profissionaisPorSalon() == 0 ? 1.5 : 0.6 + 0.8 * random.nextDouble();
+            Turno turno = turno(p);
+
+            for (LocalDate dia = inicioHistorico; dia.isBefore(fim); dia = dia.plusDays(1)) {
+                if (!trabalha(p, dia.getDayOfWeek())) {
+                    continue;
+                }
+                double crescimento = 0.6 + 0.4 * Math.min(1, ChronoUnit.DAYS.between(inicioHistorico, dia) / diasHistorico);
+                long diasAFrente = ChronoUnit.DAYS.between(agora.toLocalDate(), dia);
+                double reservado = diasAFrente <= 0 ? 1 : Math.max(0.05, 1 - diasAFrente / 45.0);
+                double media = size.atendimentosPorDia() * popularidade * crescimento * reservado
+                    * FATOR_DIA[dia.getDayOfWeek().ordinal()] * FATOR_MES[dia.getMonthValue() - 1];
+                int quantidade = (int) Math.max(0, Math.round(media + random.nextGaussian() * Math.sqrt(media)));
+                if (quantidade == 0) {
+                    continue;
+                }
+
+                int livres = turno.slots() - quantidade * 2;
+                int maxIntervalo = Math.max(0, livres / quantidade);
+                LocalDateTime cursor = dia.atTime(turno.inicio());
+                LocalDateTime fimTurno = dia.atTime(turno.fim());
+                LocalDateTime intervaloInicio = dia.atTime(turno.intervaloInicio());
+                LocalDateTime intervaloFim = dia.atTime(turno.intervaloFim());
+
+                for (int k = 0; k < quantidade; k++) {
+                    int j = random.nextInt(size.servicosPorSalon());
+                    int duracao = duracaoMinutos(j);
+                    LocalDateTime inicio = cursor.plusMinutes((long) SLOT_MINUTOS * random.nextInt(maxIntervalo + 1));
+                    if (inicio.isBefore(intervaloFim) && inicio.plusMinutes(duracao).isAfter(intervaloInicio)) {
+                        inicio = intervaloFim;
+                    }
+                    LocalDateTime termino = inicio.plusMinutes(duracao);
+                    if (termino.isAfter(fimTurno)) {
+                        break;
+                    }
+                    // Regular clients come back far more often than the rest
+                    int c = s * size.clientesPorSalon()
+                        + (int) (size.clientesPorSalon() * Math.pow(random.nextDouble(), 2));
+                    StatusAgendamento status = status(inicio, termino, random.nextDouble());
+                    LocalDateTime criadoEm = inicio.minusHours(random.nextInt(2, 24 * 21));
+
+                    action.accept(new AgendamentoRow(proximoId++, ids.salon(s), ids.cliente(c),
+                        ids.clienteUsuario(c), ids.profissional(p), ids.servico(s, j), inicio, termino, status,
+                        preco(j), ATENDIDOS.contains(status) && !inicio.minusHours(24).isAfter(agora),
+                        ATENDIDOS.contains(status) && !inicio.minusHours(2).isAfter(agora),
+                        criadoEm.isAfter(agora) ? agora : criadoEm));
+
+                    cursor = inicio.plusMinutes((long) Math.ceil(duracao / (double) SLOT_MINUTOS) * SLOT_MINUTOS);
+                }
+            }
+        }
+    }
+
+    private StatusAgendamento status(LocalDateTime inicio, LocalDateTime fim, double r) {
+        if (!fim.isAfter(agora)) {
+            if (r < 0.80) {
+                return StatusAgendamento.CONCLUIDO;
+            }
+            if (r < 0.90) {
+                return StatusAgendamento.CANCELADO;
+            }
+            if (r < 0.95) {
+                return StatusAgendamento.NO_SHOW;
+            }
+            // Still waiting for the no-show job only if recent
+            return inicio.isAfter(agora.minusHours(48)) ? StatusAgendamento.CONFIRMADO : StatusAgendamento.CONCLUIDO;
+        }
+        if (!inicio.isAfter(agora)) {
+            return StatusAgendamento.EM_ANDAMENTO;
+        }
+        return r < 0.55 ? StatusAgendamento.CONFIRMADO
+            : r < 0.90 ? StatusAgendamento.PENDENTE : StatusAgendamento.CANCELADO;
+    }
+
+    // ====================================
+    // Social posts and audit trail
+    // ====================================
+
+    private long copyPosts(CopyManager copy, Ids ids) throws SQLException {
+        try (CopyWriter out = CopyWriter.open(copy, "posts",
+                "salon_id", "criador_id", "imagem_url", "legenda", "status", "agendado_para", "publicado_em",
+                "tentativas_publicacao", "curtidas", "comentarios", "compartilhamentos", "alcance", "criado_em",
+                "atualizado_em")) {
+            for (int s = 0; s < size.salons(); s++) {
+                SplittableRandom random = random(s, 3);
+                int numero = 0;
+                for (LocalDate semana = inicioHistorico; semana.isBefore(agora.toLocalDate()); semana = semana.plusWeeks(1)) {
+                    int quantidade = random.nextInt(size.postsPorSemana() * 2 + 1);
+                    for (int k = 0; k < quantidade; k++) {
+                        LocalDateTime criadoEm = semana.atTime(9, 0).plusMinutes(random.nextInt(7 * 24 * 60));
+                        if (criadoEm.isAfter(agora)) {
+                            continue;
+                        }
+                        numero++;
+                        double r = random.nextDouble();
+                        StatusPost status;
+                        LocalDateTime agendadoPara = null;
+                        LocalDateTime publicadoEm = null;
+                        if (criadoEm.isAfter(agora.minusDays(14)) && r < 0.4) {
+                            status = StatusPost.AGENDADO;
+                            agendadoPara = agora.plusHours(random.nextInt(1, 24 * 14));
+                        } else if (r < 0.85) {
+                            status = StatusPost.PUBLICADO;
+                            publicadoEm = criadoEm.plusMinutes(random.nextInt(1, 24 * 60));
+                        } else if (r < 0.95) {
+                            status = StatusPost.RASCUNHO;
+                        } else {
+                            status = StatusPost.FALHOU;
+                        }
+                        boolean publicado = status == StatusPost.PUBLICADO;
+                        int alcance = publicado ? (int) (200 + 5000 * Math.pow(random.nextDouble(), 3)) : 0;
+                        out.row(ids.salon(s), ids.admin(s),
+                            "https://cdn.belezza.ai/dataset/" + ids.salon(s) + "/" + numero + ".jpg",
+                            "Resultado do dia ✨\n#beleza #cabelo #salao" + (s + 1), status, agendadoPara,
+                            publicadoEm, status == StatusPost.FALHOU ? 3 : publicado ? 1 : 0,
+                            publicado ? alcance / 20 : 0, publicado ? alcance / 200 : 0,
+                            publicado ? alcance / 500 : 0, alcance, criadoEm,
+                            publicadoEm != null ? publicadoEm : criadoEm);
+                    }
+                }
+            }
+            return out.rows();
+        }
+    }
+
+    private long copyAuditLogs(CopyManager copy, Ids ids) throws SQLException {
+        String[] entidades = {"Agendamento", "Agendamento", "Agendamento", "Cliente", "Servico", "Post"};
+        try (CopyWriter out = CopyWriter.open(copy, "audit_logs",
+                "acao", "entidade", "entidade_id", "usuario_id", "usuario_nome", "ip_address", "user_agent",
+                "sucesso", "mensagem_erro", "criado_em")) {
+            for (int s = 0; s < size.salons(); s++) {
+                SplittableRandom random = random(s, 4);
+                for (LocalDate dia = inicioHistorico; !dia.isAfter(agora.toLocalDate()); dia = dia.plusDays(1)) {
+                    double media = size.auditLogsPorDia() * Math.max(0.2, FATOR_DIA[dia.getDayOfWeek().ordinal()]);
+                    int quantidade = random.nextInt((int) (media * 2) + 1);
+                    for (int k = 0; k < quantidade; k++) {
+                        LocalDateTime criadoEm = dia.atTime(8, 0).plusSeconds(random.nextInt(12 * 3600));
+                        if (criadoEm.isAfter(agora)) {
+                            continue;
+                        }
+                        int ator = random.nextInt(size.profissionaisPorSalon() + 1);
+                        long usuarioId = ator == 0 ? ids.admin(s)
+                            : ids.profissionalUsuario(s * size.profissionaisPorSalon() + ator - 1);
+                        double r = random.nextDouble();
+                        String acao = r < 0.35 ? "CREATE" : r < 0.70 ? "UPDATE" : r < 0.90 ? "LOGIN" : "DELETE";
+                        String entidade = acao.equals("LOGIN") ? "Usuario" : entidades[random.nextInt(entidades.length)];
+                        boolean sucesso = random.nextDouble() >= 0.02;
+                        out.row(acao, entidade, acao.equals("LOGIN") ? usuarioId : random.nextLong(1, 1_000_000),
+                            usuarioId, (ator == 0 ? "Admin Salon " : "Profissional ") + usuarioId,
+                            "10." + (s % 256) + "." + random.nextInt(256) + "." + random.nextInt(1, 255),
+                            USER_AGENTS[random.nextInt(USER_AGENTS.length)], sucesso,
+                            sucesso ? null : "Acesso negado", criadoEm);
+                    }
+                }
+            }
+            return out.rows();
+        }
+    }
+
+    // ====================================
+    // Shared shape of the dataset
+    // ====================================
+
+    record AgendamentoRow(long id, long salonId, long clienteId, long clienteUsuarioId, long profissionalId,
+                          long servicoId, LocalDateTime inicio, LocalDateTime fim, StatusAgendamento status,
+                          BigDecimal valor, boolean lembrete24h, boolean lembrete2h, LocalDateTime criadoEm) {
+    }
+
+    record Turno(LocalTime inicio, LocalTime fim, LocalTime intervaloInicio, LocalTime intervaloFim) {
+        int slots() {
+            long minutos = ChronoUnit.MINUTES.between(inicio, fim) - ChronoUnit.MINUTES.between(intervaloInicio, intervaloFim);
+            return (int) (minutos / SLOT_MINUTOS);
+        }
+    }
+
+    /**
+     * Ids of the generated rows, numbered after the largest id already in each table.
+     */
+    record Ids(DatasetSize size, long usuario, long salon, long servico, long profissional, long cliente,
+               long agendamento) {
+
+        static Ids after(long[] max, DatasetSize size) {
+            return new Ids(size, max[0], max[1], max[2], max[3], max[4], max[5]);
+        }
+
+        long admin(int s) {
+            return usuario + 1 + s;
+        }
+
+        long profissionalUsuario(int p) {
+            return usuario + 1 + size.salons() + p;
+        }
+
+        long clienteUsuario(int c) {
+            return usuario + 1 + size.salons() + (long) size.salons() * size.profissionaisPorSalon() + c;
+        }
+
+        long salon(int s) {
+            return salon + 1 + s;
+        }
+
+        long servico(int s, int j) {
+            return servico + 1 + (long) s * size.servicosPorSalon() + j;
+        }
+
+        long profissional(int p) {
+            return profissional + 1 + p;
+        }
+
+        long cliente(int c) {
+            return cliente + 1 + c;
+        }
+    }
+
+    boolean trabalha(int p, DayOfWeek dia) {
+        if (dia == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        // Half the team takes a weekday off; everybody works Mondays and Saturdays
+        return p % 2 != 0 || dia != DayOfWeek.of(2 + (p / 2) % 3);
+    }
+
+    Turno turno(int p) {
+        return p % 2 == 0
+            ? new Turno(LocalTime.of(9, 0), LocalTime.of(19, 0), LocalTime.of(12, 0), LocalTime.of(13, 0))
+            : new Turno(LocalTime.of(10, 0), LocalTime.of(20, 0), LocalTime.of(13, 0), LocalTime.of(14, 0));
+    }
+
+    private int totalProfissionais() {
+        return size.salons() * size.profissionaisPorSalon();
+    }
+
+    private int totalClientes() {
+        return size.salons() * size.clientesPorSalon();
+    }
+
+    private static int duracaoMinutos(int servico) {
+        return 30 + (servico % 4) * 15;
+    }
+
+    private static BigDecimal preco(int servico) {
+        return BigDecimal.valueOf(40 + (servico % 8) * 20L).setScale(2);
+    }
+
+    private static FormaPagamento formaPagamento(double r) {
+        return r < 0.40 ? FormaPagamento.PIX
+            : r < 0.70 ? FormaPagamento.CARTAO_CREDITO
+            : r < 0.90 ? FormaPagamento.CARTAO_DEBITO : FormaPagamento.DINHEIRO;
+    }
+
+    static String email(String prefixo, long usuarioId) {
+        return prefixo + usuarioId + "@" + EMAIL_DOMAIN;
+    }
+
+    static String telefone(long usuarioId) {
+        return String.format("+55119%08d", usuarioId % 100_000_000);
+    }
+
+    private SplittableRandom random(long chave, int fluxo) {
+        return new SplittableRandom(size.seed() * 1_000_003L + chave * 31 + fluxo);
+    }
+
+    private long[] maxIds(Connection connection) throws SQLException {
+        long[] max = new long[TABELAS_COM_ID.length];
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i < TABELAS_COM_ID.length; i++) {
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + TABELAS_COM_ID[i])) {
+                    rs.next();
+                    max[i] = rs.getLong(1);
+                }
+            }
+        }
+        return max;
+    }
+
+    private interface SqlConsumer<T> {
+        void accept(T value) throws SQLException;
+    }
+
+    private static <T> Consumer<T> unchecked(SqlConsumer<T> consumer) {
+        return value -> {
+            try {
+                consumer.accept(value);
+            } catch (SQLException e) {
+                throw new IllegalStateException("COPY failed", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.belezza.api.performance.dataset;
+
+import com.belezza.api.entity.StatusAgendamento;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Synthetic Dataset Tests")
+class SyntheticDatasetGeneratorTest {
+
+    private static final DatasetSize SIZE = new DatasetSize(2, 3, 50, 6, 1, 6, 3, 10, 7);
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 6, 2, 10, 30);
+
+    private final SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(SIZE, AGORA, "hash");
+    private final SyntheticDatasetGenerator.Ids ids = new SyntheticDatasetGenerator.Ids(SIZE, 100, 10, 20, 30, 40, 5000);
+
+    @Nested
+    @DisplayName("Appointment Tests")
+    class AgendamentoTests {
+
+        @Test
+        @DisplayName("Should generate the same appointments for the same seed")
+        void shouldBeDeterministic() {
+            assertThat(agendamentos()).isEqualTo(agendamentos());
+        }
+
+        @Test
+        @DisplayName("Should number appointments after the existing ids")
+        void shouldNumberAfterExistingIds() {
+            List<SyntheticDatasetGenerator.AgendamentoRow> agendamentos = agendamentos();
+
+            assertThat(agendamentos.get(0).id()).isEqualTo(5001);
+            assertThat(agendamentos.get(agendamentos.size() - 1).id()).isEqualTo(5000 + agendamentos.size());
+        }
+
+        @Test
+        @DisplayName("Should not overlap appointments of the same professional")
+        void shouldNotOverlap() {
+            Map<Long, List<SyntheticDatasetGenerator.AgendamentoRow>> porProfissional = agendamentos().stream()
+                    .collect(Collectors.groupingBy(SyntheticDatasetGenerator.AgendamentoRow::profissionalId));
+
+            porProfissional.values().forEach(agenda -> {
+                agenda.sort(Comparator.comparing(SyntheticDatasetGenerator.AgendamentoRow::inicio));
+                for (int i = 1; i < agenda.size(); i++) {
+                    assertThat(agenda.get(i).inicio()).isAfterOrEqualTo(agenda.get(i - 1).fim());
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("Should schedule within work hours on working days")
+        void shouldRespectWorkHours() {
+            assertThat(agendamentos()).allSatisfy(a -> {
+                int p = (int) (a.profissionalId() - 31);
+                SyntheticDatasetGenerator.Turno turno = generator.turno(p);
+
+                assertThat(generator.trabalha(p, a.inicio().getDayOfWeek())).isTrue();
+                assertThat(a.inicio().toLocalTime()).isAfterOrEqualTo(turno.inicio());
+                assertThat(a.fim().toLocalTime()).isBeforeOrEqualTo(turno.fim());
+                assertThat(a.inicio().toLocalTime().isBefore(turno.intervaloFim())
+                        && a.fim().toLocalTime().isAfter(turno.intervaloInicio())).isFalse();
+            });
+        }
+
+        @Test
+        @DisplayName("Should keep appointments within the salon of the professional")
+        void shouldKeepTenantsApart() {
+            assertThat(agendamentos()).allSatisfy(a -> {
+                long salon = (a.profissionalId() - 31) / SIZE.profissionaisPorSalon();
+
+                assertThat(a.salonId()).isEqualTo(11 + salon);
+                assertThat((a.clienteId() - 41) / SIZE.clientesPorSalon()).isEqualTo(salon);
+                assertThat((a.servicoId() - 21) / SIZE.servicosPorSalon()).isEqualTo(salon);
+            });
+        }
+
+        @Test
+        @DisplayName("Should finish the history and leave upcoming appointments open")
+        void shouldSetStatusByTime() {
+            List<SyntheticDatasetGenerator.AgendamentoRow> agendamentos = agendamentos();
+
+            assertThat(agendamentos).filteredOn(a -> a.inicio().isAfter(AGORA)).isNotEmpty()
+                    .allSatisfy(a -> assertThat(a.status()).isIn(
+                            StatusAgendamento.CONFIRMADO, StatusAgendamento.PENDENTE, StatusAgendamento.CANCELADO))
+                    .allSatisfy(a -> assertThat(a.inicio()).isBefore(AGORA.plusDays(61)));
+            assertThat(agendamentos).filteredOn(a -> a.fim().isBefore(AGORA.minusDays(2)))
+                    .isNotEmpty()
+                    .allSatisfy(a -> assertThat(a.status()).isIn(
+                            StatusAgendamento.CONCLUIDO, StatusAgendamento.CANCELADO, StatusAgendamento.NO_SHOW))
+                    .allSatisfy(a -> assertThat(a.lembrete24h()).isEqualTo(a.status() != StatusAgendamento.CANCELADO));
+            assertThat(agendamentos).filteredOn(a -> a.status() == StatusAgendamento.CONCLUIDO)
+                    .hasSizeGreaterThan(agendamentos.size() / 2);
+        }
+
+        @Test
+        @DisplayName("Should book Saturdays more than Tuesdays")
+        void shouldFollowWeeklyDemand() {
+            Map<DayOfWeek, Long> porDia = agendamentos().stream()
+                    .collect(Collectors.groupingBy(a -> a.inicio().getDayOfWeek(), Collectors.counting()));
+
+            assertThat(porDia).doesNotContainKey(DayOfWeek.SUNDAY);
+            assertThat(porDia.get(DayOfWeek.SATURDAY)).isGreaterThan(porDia.get(DayOfWeek.TUESDAY));
+        }
+
+        private List<SyntheticDatasetGenerator.AgendamentoRow> agendamentos() {
+            List<SyntheticDatasetGenerator.AgendamentoRow> agendamentos = new ArrayList<>();
+            generator.forEachAgendamento(ids, agendamentos::add);
+            return agendamentos;
+        }
+    }
+
+    @Nested
+    @DisplayName("Copy Encoding Tests")
+    class CopyEncodingTests {
+
+        @Test
+        @DisplayName("Should encode rows in the COPY text format")
+        void shouldEncodeRows() throws Exception {
+            CopyIn copyIn = mock(CopyIn.class);
+            ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+
+            try (CopyWriter writer = new CopyWriter(copyIn)) {
+                writer.row(1L, "Resultado\tdo dia\n#beleza \\o/", null, StatusAgendamento.NO_SHOW,
+                        LocalDateTime.of(2025, 6, 2, 9, 30), LocalTime.of(12, 0), true);
+                assertThat(writer.rows()).isEqualTo(1);
+            }
+
+            verify(copyIn).writeToCopy(bytes.capture(), eq(0), anyInt());
+            verify(copyIn).endCopy();
+            assertThat(new String(bytes.getValue(), StandardCharsets.UTF_8)).isEqualTo(
+                    "1\tResultado\\tdo dia\\n#beleza \\\\o/\t\\N\tNO_SHOW\t2025-06-02 09:30\t12:00\ttrue\n");
+        }
+    }
+}
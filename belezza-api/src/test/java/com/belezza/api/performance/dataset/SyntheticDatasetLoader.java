@@ -0,0 +1,177 @@
+package com.belezza.api.performance.dataset;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a synthetic dataset into Postgres for load tests and query benchmarks.
+ *
+ * Targets the database given by {@code dataset.jdbc-url} (with {@code dataset.username} and
+ * {@code dataset.password}), or starts a Testcontainers Postgres when there is none. The schema is
+ * migrated with Flyway first, then {@link SyntheticDatasetGenerator} loads the rows sized by
+ * {@link DatasetSize#fromSystemProperties()}. Gatling feeders for the generated clients, salons and
+ * WhatsApp messages are written to {@code dataset.dir} (target/dataset by default).
+ *
+ * Run with: mvn -Pdataset test-compile exec:java -Ddataset.size=MEDIUM
+ */
+public final class SyntheticDatasetLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDatasetLoader.class);
+
+    private static final int MAX_FEEDER_ROWS = 50_000;
+
+    private SyntheticDatasetLoader() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("dataset.jdbc-url");
+        String username = System.getProperty("dataset.username", "belezza");
+        String password = System.getProperty("dataset.password", "belezza_dev");
+
+        if (url == null) {
+            url = startPostgres(username, password).getJdbcUrl();
+            log.info("Database available at {} (user {}, password {})", url, username, password);
+        }
+        load(url, username, password);
+    }
+
+    /**
+     * Postgres tuned for bulk loading. Kept running after the JVM exits only with
+     * testcontainers.reuse.enable=true.
+     */
+    public static PostgreSQLContainer<?> startPostgres(String username, String password) {
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                .withDatabaseName("belezza_dataset")
+                .withUsername(username)
+                .withPassword(password)
+                .withCommand("postgres", "-c", "fsync=off", "-c", "synchronous_commit=off",
+                        "-c", "max_wal_size=4GB", "-c", "max_connections=200")
+                .withReuse(true);
+        container.start();
+        return container;
+    }
+
+    /**
+     * Migrates the database, loads the dataset sized by the {@code dataset.*} properties and writes
+     * the feeders.
+     */
+    public static SyntheticDatasetGenerator.Resumo load(String url, String username, String password) throws Exception {
+        DatasetSize size = DatasetSize.fromSystemProperties();
+
+        log.info("Migrating {}", url);
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        log.info("Generating dataset {}", size);
+        long start = System.nanoTime();
+        Path dir = Path.of(System.getProperty("dataset.dir", "target/dataset"));
+        SyntheticDatasetGenerator.Resumo resumo;
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            String senhaHash = new BCryptPasswordEncoder(12).encode(SyntheticDatasetGenerator.SENHA);
+            resumo = new SyntheticDatasetGenerator(size, LocalDateTime.now(), senhaHash).generate(connection);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            resumo.linhas().forEach((tabela, linhas) -> log.info("{}: {} rows", tabela, linhas));
+            log.info("Loaded {} rows in {}s",
+                    resumo.linhas().values().stream().mapToLong(Long::longValue).sum(), elapsed.toSeconds());
+
+            writeUsersFeeder(dir.resolve("users.csv"), resumo);
+            writeSalonsFeeder(dir.resolve("salons.csv"), resumo);
+            writeWhatsAppFeeder(dir.resolve("whatsapp.csv"), connection, resumo);
+        }
+        log.info("Gatling feeders written to {}", dir.toAbsolutePath());
+        return resumo;
+    }
+
+    /**
+     * Clients in the users.csv layout the simulations already read, all with the generated password.
+     */
+    static void writeUsersFeeder(Path file, SyntheticDatasetGenerator.Resumo resumo) throws IOException {
+        long rows = Math.min(resumo.clientes(), MAX_FEEDER_ROWS);
+        try (BufferedWriter writer = newFeeder(file, "email,password,nome,telefone")) {
+            for (long i = 0; i < rows; i++) {
+                long usuarioId = resumo.ids().clienteUsuario((int) i);
+                writer.write(String.join(",", SyntheticDatasetGenerator.email("cliente", usuarioId),
+                        SyntheticDatasetGenerator.SENHA, "Cliente " + (i + 1),
+                        SyntheticDatasetGenerator.telefone(usuarioId)));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * One row per salon: its admin, its most booked professional, and the ids of all its
+     * professionals and services (separated by ';').
+     */
+    static void writeSalonsFeeder(Path file, SyntheticDatasetGenerator.Resumo resumo) throws IOException {
+        SyntheticDatasetGenerator.Ids ids = resumo.ids();
+        DatasetSize size = ids.size();
+        try (BufferedWriter writer = newFeeder(file,
+                "salonId,email,password,profissionalDestaque,profissionais,servicos")) {
+            for (int s = 0; s < size.salons(); s++) {
+                int primeiro = s * size.profissionaisPorSalon();
+                writer.write(String.join(",", String.valueOf(ids.salon(s)),
+                        SyntheticDatasetGenerator.email("admin", ids.admin(s)), SyntheticDatasetGenerator.SENHA,
+                        String.valueOf(ids.profissional(primeiro)),
+                        joinIds(size.profissionaisPorSalon(), p -> ids.profissional(primeiro + p)),
+                        joinIds(size.servicosPorSalon(), j -> ids.servico(primeiro / size.profissionaisPorSalon(), j))));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * The most recent delivered-or-not messages, whose ids Meta would send status callbacks for.
+     */
+    static void writeWhatsAppFeeder(Path file, Connection connection, SyntheticDatasetGenerator.Resumo resumo)
+            throws IOException, SQLException {
+        try (BufferedWriter writer = newFeeder(file, "messageId,telefone");
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT message_id, telefone FROM whatsapp_messages "
+                             + "WHERE message_id IS NOT NULL AND salon_id > ? ORDER BY criado_em DESC LIMIT ?")) {
+            statement.setLong(1, resumo.ids().salon());
+            statement.setInt(2, MAX_FEEDER_ROWS);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    writer.write(rs.getString(1) + "," + rs.getString(2));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private static BufferedWriter newFeeder(Path file, String header) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        BufferedWriter writer = Files.newBufferedWriter(file);
+        writer.write(header);
+        writer.newLine();
+        return writer;
+    }
+
+    private static String joinIds(int count, IntToLongFunction id) {
+        return IntStream.range(0, count).mapToObj(i -> String.valueOf(id.applyAsLong(i)))
+                .collect(Collectors.joining(";"));
+    }
+}
@@ -0,0 +1,210 @@
+package com.belezza.api.performance.stack;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for Meta (Graph and WhatsApp Cloud API), OpenAI and Replicate during load tests.
+ *
+ * One {@link MockWebServer} answers all three with the response shapes the real clients parse,
+ * after a configurable latency, so a load test measures the API and not the providers (and does
+ * not spend quota). Point the clients at it with:
+ * <ul>
+ *   <li>{@code belezza.whatsapp.api-url} and {@code meta.api.base-url}: {@link #url()}</li>
+ *   <li>{@code belezza.ai.openai.api-url} and {@code belezza.ai.replicate.api-url}: {@link #url()} + "/v1"</li>
+ * </ul>
+ * Replicate predictions stay "processing" until their latency has passed, like the real API, and
+ * their output is an image served by this same server.
+ */
+public class ExternalApiMock extends Dispatcher implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String CAPTION = """
+        {"legenda": "Transformação do dia ✨ Cabelo renovado com muito brilho!",
+         "hashtags": ["#beleza", "#cabelo", "#salao"],
+         "callToAction": "Agende pelo link da bio",
+         "engajamentoEstimado": 80}""";
+
+    private final MockWebServer server = new MockWebServer();
+    private final Latencias latencias;
+    private final Map<String, Long> predictions = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final byte[] outputImage = outputImage();
+
+    /**
+     * Response time of each provider; predictions take {@code replicate} from creation to "succeeded".
+     */
+    public record Latencias(Duration meta, Duration openai, Duration replicate) {
+
+        public static Latencias fromSystemProperties() {
+            return new Latencias(
+                Duration.ofMillis(Long.getLong("mock.meta-latency-ms", 150)),
+                Duration.ofMillis(Long.getLong("mock.openai-latency-ms", 1500)),
+                Duration.ofMillis(Long.getLong("mock.replicate-latency-ms", 3000)));
+        }
+    }
+
+    public ExternalApiMock(Latencias latencias) {
+        this.latencias = latencias;
+        server.setDispatcher(this);
+    }
+
+    public void start(int port) throws IOException {
+        server.start(port);
+    }
+
+    /** Base URL without a trailing slash. */
+    public String url() {
+        String url = server.url("/").toString();
+        return url.substring(0, url.length() - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath() == null ? "/" : request.getPath();
+        try {
+            if (path.startsWith("/v1/chat/completions")) {
+                return delayed(openai(request), latencias.openai());
+            }
+            if (path.startsWith("/v1/predictions")) {
+                return replicate(request, path);
+            }
+            if (path.startsWith("/files/")) {
+                return new MockResponse().setHeader("Content-Type", "image/png").setBody(new Buffer().write(outputImage));
+            }
+            return delayed(meta(request, path), latencias.meta());
+        } catch (IOException e) {
+            return json(400, "{\"error\": {\"message\": \"" + e.getMessage() + "\"}}");
+        }
+    }
+
+    // ====================================
+    // Meta Graph API and WhatsApp Cloud API
+    // ====================================
+
+    private MockResponse meta(RecordedRequest request, String path) {
+        if ("POST".equals(request.getMethod()) && path.endsWith("/messages")) {
+            return json(200, """
+                {"messaging_product": "whatsapp",
+                 "contacts": [{"input": "5511999999999", "wa_id": "5511999999999"}],
+                 "messages": [{"id": "wamid.mock.%d"}]}""".formatted(sequence.incrementAndGet()));
+        }
+        if ("POST".equals(request.getMethod())) {
+            return json(200, "{\"id\": \"mock_" + sequence.incrementAndGet() + "\"}");
+        }
+        return json(200, "{\"data\": []}");
+    }
+
+    // ====================================
+    // OpenAI
+    // ====================================
+
+    private MockResponse openai(RecordedRequest request) throws IOException {
+        JsonNode body = MAPPER.readTree(request.getBody().readUtf8());
+        if (body.path("stream").asBoolean()) {
+            StringBuilder events = new StringBuilder();
+            // A few fragments, so clients see a real stream and not a single event
+            for (String fragment : CAPTION.split("(?<=,)")) {
+                ObjectNode chunk = MAPPER.createObjectNode();
+                chunk.putArray("choices").addObject().putObject("delta").put("content", fragment);
+                events.append("data: ").append(MAPPER.writeValueAsString(chunk)).append("\n\n");
+            }
+            events.append("data: [DONE]\n\n");
+            return new MockResponse().setHeader("Content-Type", "text/event-stream").setBody(events.toString());
+        }
+
+        ObjectNode completion = MAPPER.createObjectNode()
+            .put("id", "chatcmpl-mock-" + sequence.incrementAndGet())
+            .put("object", "chat.completion")
+            .put("model", body.path("model").asText());
+        ArrayNode choices = completion.putArray("choices");
+        for (int i = 0; i < Math.max(1, body.path("n").asInt(1)); i++) {
+            ObjectNode choice = choices.addObject().put("index", i).put("finish_reason", "stop");
+            choice.putObject("message").put("role", "assistant").put("content", CAPTION);
+        }
+        completion.putObject("usage").put("prompt_tokens", 200).put("completion_tokens", 80).put("total_tokens", 280);
+        return json(200, MAPPER.writeValueAsString(completion));
+    }
+
+    // ====================================
+    // Replicate
+    // ====================================
+
+    private MockResponse replicate(RecordedRequest request, String path) {
+        if ("POST".equals(request.getMethod())) {
+            String id = "mock" + sequence.incrementAndGet();
+            predictions.put(id, System.nanoTime() + latencias.replicate().toNanos());
+            return json(201, prediction(id, "starting"));
+        }
+
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        Long pronta = predictions.get(id);
+        if (pronta == null) {
+            return json(404, "{\"detail\": \"Not found.\"}");
+        }
+        if (System.nanoTime() < pronta) {
+            return json(200, prediction(id, "processing"));
+        }
+        predictions.remove(id);
+        return json(200, prediction(id, "succeeded"));
+    }
+
+    private String prediction(String id, String status) {
+        String output = "succeeded".equals(status) ? "\"" + url() + "/files/" + id + ".png\"" : "null";
+        return """
+            {"id": "%s", "status": "%s", "output": %s, "error": null,
+             "urls": {"get": "%s/v1/predictions/%s"}}""".formatted(id, status, output, url(), id);
+    }
+
+    // ====================================
+    // Helpers
+    // ====================================
+
+    private static MockResponse json(int status, String body) {
+        return new MockResponse().setResponseCode(status).setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    private static MockResponse delayed(MockResponse response, Duration latency) {
+        return response.setHeadersDelay(latency.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static byte[] outputImage() {
+        BufferedImage image = new BufferedImage(1080, 1350, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 255 / image.getWidth()) << 16 | (y * 255 / image.getHeight()) << 8 | 0x80);
+            }
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.belezza.api.performance.stack;
+
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.entity.TipoServico;
+import com.belezza.api.integration.CaptionAIService;
+import com.belezza.api.integration.ImageAIService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("External API Mock Tests")
+class ExternalApiMockTest {
+
+    private static final Duration META_LATENCY = Duration.ofMillis(200);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RestTemplate restTemplate = new RestTemplate();
+    private ExternalApiMock mock;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mock = new ExternalApiMock(new ExternalApiMock.Latencias(META_LATENCY, Duration.ZERO, Duration.ZERO));
+        mock.start(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mock.close();
+    }
+
+    @Nested
+    @DisplayName("WhatsApp Tests")
+    class WhatsAppTests {
+
+        @Test
+        @DisplayName("Should answer sends with a message id after the Meta latency")
+        void shouldAnswerSends() throws Exception {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            long start = System.nanoTime();
+            String response = restTemplate.postForObject(mock.url() + "/v18.0/loadtest/messages",
+                new HttpEntity<>("{\"messaging_product\": \"whatsapp\"}", headers), String.class);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            JsonNode body = objectMapper.readTree(response);
+            assertThat(body.path("messages").path(0).path("id").asText()).startsWith("wamid.mock.");
+            assertThat(elapsed).isGreaterThanOrEqualTo(META_LATENCY);
+        }
+    }
+
+    @Nested
+    @DisplayName("OpenAI Tests")
+    class OpenAITests {
+
+        private final CaptionAIService captionAIService = new CaptionAIService(objectMapper);
+        private final CaptionAIService.CaptionRequest request = new CaptionAIService.CaptionRequest(
+            "Corte moderno", TipoServico.CABELO, "moderno", PlataformaSocial.INSTAGRAM, null, null);
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(captionAIService, "apiKey", "loadtest");
+            ReflectionTestUtils.setField(captionAIService, "model", "gpt-4o-mini");
+            ReflectionTestUtils.setField(captionAIService, "apiUrl", mock.url() + "/v1");
+        }
+
+        @Test
+        @DisplayName("Should return a caption the client parses")
+        void shouldReturnCaption() {
+            CaptionAIService.CaptionResponse caption = captionAIService.generate(request);
+
+            assertThat(caption.legenda()).startsWith("Transformação do dia");
+            assertThat(caption.hashtags()).containsExactly("#beleza", "#cabelo", "#salao");
+            assertThat(caption.engajamentoEstimado()).isEqualTo(80);
+        }
+
+        @Test
+        @DisplayName("Should return as many choices as variations requested")
+        void shouldReturnVariations() {
+            assertThat(captionAIService.generateVariations(request, 3)).hasSize(3);
+        }
+
+        @Test
+        @DisplayName("Should stream the caption as server-sent events")
+        void shouldStreamCaption() {
+            List<CaptionAIService.CaptionStreamEvent> events = captionAIService.generateStream(request)
+                .collectList().block();
+
+            assertThat(events.get(0).delta()).startsWith("Transformação do dia");
+            assertThat(events.get(events.size() - 1).caption().callToAction()).isEqualTo("Agende pelo link da bio");
+        }
+    }
+
+    @Nested
+    @DisplayName("Replicate Tests")
+    class ReplicateTests {
+
+        @Test
+        @DisplayName("Should complete predictions with an image served by the mock")
+        void shouldCompletePredictions() throws Exception {
+            ImageAIService imageAIService = new ImageAIService(objectMapper);
+            ReflectionTestUtils.setField(imageAIService, "apiToken", "loadtest");
+            ReflectionTestUtils.setField(imageAIService, "apiUrl", mock.url() + "/v1");
+            ReflectionTestUtils.setField(imageAIService, "enhanceModel", "tencentarc/gfpgan");
+
+            String output = imageAIService.enhance("https://cdn.belezza.ai/original.jpg");
+
+            assertThat(output).startsWith(mock.url() + "/files/");
+            byte[] image = restTemplate.getForObject(output, byte[].class);
+            assertThat(ImageIO.read(new ByteArrayInputStream(image)).getWidth()).isEqualTo(1080);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.belezza.api.performance.stack;
+
+import com.belezza.api.BelezzaApiApplication;
+import com.belezza.api.performance.dataset.SyntheticDatasetLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts everything the Gatling simulations run against, on this machine.
+ *
+ * <ul>
+ *   <li>Postgres ({@code dataset.jdbc-url}, or a Testcontainers one) loaded with the synthetic
+ *       dataset and its feeders, see {@link SyntheticDatasetLoader}</li>
+ *   <li>Redis and MinIO (for S3) containers</li>
+ *   <li>{@link ExternalApiMock} in place of Meta, OpenAI and Replicate</li>
+ *   <li>the API itself on port 8080 (profiles dev and loadtest)</li>
+ * </ul>
+ *
+ * Run with: mvn -Pload-stack test-compile exec:java -Ddataset.size=MEDIUM
+ * and stop with Ctrl+C once the simulations are done.
+ */
+public final class LoadTestStack {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestStack.class);
+
+    private static final String BUCKET = "belezza-loadtest";
+    private static final String MINIO_USER = "minioadmin";
+    private static final String MINIO_PASSWORD = "minioadmin";
+
+    private LoadTestStack() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("dataset.jdbc-url");
+        String username = System.getProperty("dataset.username", "belezza");
+        String password = System.getProperty("dataset.password", "belezza_dev");
+        if (url == null) {
+            url = SyntheticDatasetLoader.startPostgres(username, password).getJdbcUrl();
+        }
+
+        GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine")
+                .withExposedPorts(6379)
+                .waitingFor(Wait.forListeningPort());
+        GenericContainer<?> minio = new GenericContainer<>("minio/minio:latest")
+                .withCommand("server", "/data")
+                .withEnv("MINIO_ROOT_USER", MINIO_USER)
+                .withEnv("MINIO_ROOT_PASSWORD", MINIO_PASSWORD)
+                .withExposedPorts(9000)
+                .waitingFor(Wait.forHttp("/minio/health/live").forPort(9000));
+        redis.start();
+        minio.start();
+        String s3Endpoint = "http://" + minio.getHost() + ":" + minio.getMappedPort(9000);
+        createBucket(s3Endpoint);
+
+        ExternalApiMock mock = new ExternalApiMock(ExternalApiMock.Latencias.fromSystemProperties());
+        mock.start(Integer.getInteger("mock.port", 0));
+        log.info("External APIs mocked at {} ({})", mock.url(), ExternalApiMock.Latencias.fromSystemProperties());
+
+        if (!Boolean.getBoolean("stack.skip-dataset")) {
+            SyntheticDatasetLoader.load(url, username, password);
+        }
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", url);
+        properties.put("spring.datasource.username", username);
+        properties.put("spring.datasource.password", password);
+        properties.put("spring.data.redis.host", redis.getHost());
+        properties.put("spring.data.redis.port", redis.getMappedPort(6379));
+        properties.put("belezza.aws.s3.endpoint", s3Endpoint);
+        properties.put("belezza.aws.s3.path-style-access", true);
+        properties.put("belezza.aws.s3.bucket", BUCKET);
+        properties.put("belezza.aws.s3.region", Region.US_EAST_1.id());
+        properties.put("belezza.aws.s3.access-key", MINIO_USER);
+        properties.put("belezza.aws.s3.secret-key", MINIO_PASSWORD);
+        properties.put("belezza.whatsapp.api-url", mock.url());
+        properties.put("meta.api.base-url", mock.url());
+        properties.put("belezza.ai.openai.api-url", mock.url() + "/v1");
+        properties.put("belezza.ai.replicate.api-url", mock.url() + "/v1");
+
+        new SpringApplicationBuilder(BelezzaApiApplication.class)
+                .profiles("dev", "loadtest")
+                .properties(properties)
+                .run(args);
+        log.info("Load test stack ready at http://localhost:8080, run the simulations with mvn gatling:test");
+    }
+
+    private static void createBucket(String endpoint) {
+        try (S3Client s3 = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(endpoint))
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(MINIO_USER, MINIO_PASSWORD)))
+                .build()) {
+            s3.createBucket(request -> request.bucket(BUCKET));
+        }
+    }
+}
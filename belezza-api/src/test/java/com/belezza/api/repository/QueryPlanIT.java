@@ -0,0 +1,148 @@
+package com.belezza.api.repository;
+
+import com.belezza.api.BaseIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of the hot repository queries on a synthetic dataset: each one must be served by the
+ * index written for its shape, without a sequential scan of the table. The SQL mirrors the
+ * JPQL of the repository methods.
+ */
+@DisplayName("Query Plan Integration Tests")
+@Sql("/db/synthetic-dataset.sql")
+class QueryPlanIT extends BaseIntegrationTest {
+
+    private static final List<String> INDEX_SCANS = List.of("Index Scan", "Index Only Scan", "Bitmap Index Scan");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("findConflicts should use the active appointments index")
+    void findConflicts() {
+        assertPlan("""
+                SELECT * FROM agendamentos a
+                WHERE a.profissional_id = 900042
+                AND a.status NOT IN ('CANCELADO', 'NO_SHOW')
+                AND a.data_hora < '2025-06-10 11:00' AND a.fim_previsto > '2025-06-10 10:00'
+                """, "agendamentos", "idx_agendamento_profissional_ativos");
+    }
+
+    @Test
+    @DisplayName("findDailyByProfissional should use the active appointments index")
+    void findDailyByProfissional() {
+        assertPlan("""
+                SELECT * FROM agendamentos a
+                WHERE a.profissional_id = 900042
+                AND a.data_hora >= '2025-06-10' AND a.data_hora < '2025-06-11'
+                AND a.status NOT IN ('CANCELADO', 'NO_SHOW')
+                ORDER BY a.data_hora
+                """, "agendamentos", "idx_agendamento_profissional_ativos");
+    }
+
+    @Test
+    @DisplayName("findNeedingReminder24h should use the pending 24h reminders index")
+    void findNeedingReminder24h() {
+        assertPlan("""
+                SELECT * FROM agendamentos a
+                WHERE a.status = 'CONFIRMADO' AND a.lembrete_enviado24h = FALSE
+                AND a.data_hora BETWEEN '2025-06-02 00:00' AND '2025-06-02 01:00'
+                """, "agendamentos", "idx_agendamento_lembrete_24h");
+    }
+
+    @Test
+    @DisplayName("findNeedingReminder2h should use the pending 2h reminders index")
+    void findNeedingReminder2h() {
+        assertPlan("""
+                SELECT * FROM agendamentos a
+                WHERE a.status = 'CONFIRMADO' AND a.lembrete_enviado2h = FALSE
+                AND a.data_hora BETWEEN '2025-06-01 02:00' AND '2025-06-01 02:30'
+                """, "agendamentos", "idx_agendamento_lembrete_2h");
+    }
+
+    @Test
+    @DisplayName("findNoShowCandidates should use the confirmed appointments index")
+    void findNoShowCandidates() {
+        assertPlan("""
+                SELECT * FROM agendamentos a
+                WHERE a.status = 'CONFIRMADO' AND a.data_hora < '2025-05-31 23:00'
+                """, "agendamentos", "idx_agendamento_confirmados");
+    }
+
+    @Test
+    @DisplayName("findBySalonIdAndDataHoraBetween should use the salon and date index")
+    void findBySalonIdAndDataHoraBetween() {
+        assertPlan("""
+                SELECT * FROM agendamentos a
+                WHERE a.salon_id = 900007
+                AND a.data_hora BETWEEN '2025-05-01' AND '2025-05-31 23:59'
+                ORDER BY a.data_hora
+                """, "agendamentos", "idx_agendamento_salon_data_hora");
+    }
+
+    @Test
+    @DisplayName("findBySalonIdAndStatusAndPeriod should use the salon, status and date index")
+    void findBySalonIdAndStatusAndPeriod() {
+        assertPlan("""
+                SELECT * FROM pagamentos p
+                WHERE p.salon_id = 900007
+                AND p.status = 'APROVADO' AND p.processado_em BETWEEN '2025-05-01' AND '2025-05-31 23:59'
+                ORDER BY p.processado_em
+                """, "pagamentos", "idx_pagamento_salon_status_processado");
+    }
+
+    @Test
+    @DisplayName("findRetryableFailed should use the retry index")
+    void findRetryableFailed() {
+        assertPlan("""
+                SELECT * FROM whatsapp_messages m
+                WHERE m.status = 'FAILED' AND m.tentativas < 3
+                AND m.criado_em > '2025-11-01'
+                ORDER BY m.criado_em ASC
+                """, "whatsapp_messages", "idx_whatsapp_messages_retry");
+    }
+
+    private void assertPlan(String sql, String table, String index) {
+        List<JsonNode> nodes = planNodes(sql);
+
+        assertThat(nodes)
+                .as("plan of %s", sql)
+                .anySatisfy(node -> {
+                    assertThat(INDEX_SCANS).contains(node.path("Node Type").asText());
+                    assertThat(node.path("Index Name").asText()).isEqualTo(index);
+                })
+                .noneSatisfy(node -> {
+                    assertThat(node.path("Node Type").asText()).isEqualTo("Seq Scan");
+                    assertThat(node.path("Relation Name").asText()).isEqualTo(table);
+                });
+    }
+
+    private List<JsonNode> planNodes(String sql) {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+        try {
+            List<JsonNode> nodes = new ArrayList<>();
+            collect(objectMapper.readTree(json).get(0).get("Plan"), nodes);
+            return nodes;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + json, e);
+        }
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        node.path("Plans").forEach(child -> collect(child, nodes));
+    }
+}
@@ -0,0 +1,52 @@
+package com.belezza.api.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WebhookSignatureVerifier Tests")
+class WebhookSignatureVerifierTest {
+
+    private static final String PAYLOAD = "{\"object\": \"whatsapp_business_account\", \"entry\": []}";
+
+    private final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier();
+
+    private static String sign(String secret, String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Should accept a payload signed with the app secret")
+    void shouldAcceptValidSignature() throws Exception {
+        ReflectionTestUtils.setField(verifier, "appSecret", "secret");
+
+        assertThat(verifier.isValid(PAYLOAD, sign("secret", PAYLOAD))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject a payload signed with another secret")
+    void shouldRejectWrongSignature() throws Exception {
+        ReflectionTestUtils.setField(verifier, "appSecret", "secret");
+
+        assertThat(verifier.isValid(PAYLOAD, sign("other", PAYLOAD))).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject every delivery when no app secret is configured")
+    void shouldFailClosedWithoutSecret() throws Exception {
+        ReflectionTestUtils.setField(verifier, "appSecret", "");
+
+        assertThat(verifier.isValid(PAYLOAD, null)).isFalse();
+        assertThat(verifier.isValid(PAYLOAD, sign("secret", PAYLOAD))).isFalse();
+    }
+}
@@ -0,0 +1,205 @@
+package com.belezza.api.service;
+
+import com.belezza.api.BaseIntegrationTest;
+import com.belezza.api.dto.agendamento.AgendamentoResponse;
+import com.belezza.api.entity.*;
+import com.belezza.api.integration.WhatsAppService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Appointment listings must cost the same number of statements whatever the page size:
+ * the page query (with its joins), the count and one batch per lazy collection level.
+ */
+@DisplayName("Agendamento Listing Query Count Integration Tests")
+@Import(AgendamentoService.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AgendamentoListagemQueryIT extends BaseIntegrationTest {
+
+    private static final int APPOINTMENTS = 30;
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 12, 8, 0);
+
+    @Autowired
+    private AgendamentoService agendamentoService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private SalonService salonService;
+
+    @MockBean
+    private ProfissionalService profissionalService;
+
+    @MockBean
+    private ServicoService servicoService;
+
+    @MockBean
+    private ClienteService clienteService;
+
+    @MockBean
+    private BloqueioHorarioService bloqueioHorarioService;
+
+    @MockBean
+    private WhatsAppService whatsAppService;
+
+    private Salon salon;
+    private Cliente cliente;
+    private Profissional profissional;
+
+    @BeforeEach
+    void setUp() {
+        salon = entityManager.persist(Salon.builder()
+                .nome("Query Count Salon")
+                .horarioAbertura(LocalTime.of(8, 0))
+                .horarioFechamento(LocalTime.of(20, 0))
+                .admin(usuario("admin@example.com", Role.ADMIN))
+                .build());
+
+        cliente = entityManager.persist(Cliente.builder()
+                .usuario(usuario("client@example.com", Role.CLIENTE))
+                .salon(salon)
+                .noShows(0)
+                .build());
+
+        profissional = entityManager.persist(Profissional.builder()
+                .usuario(usuario("prof@example.com", Role.PROFISSIONAL))
+                .salon(salon)
+                .aceitaAgendamentoOnline(true)
+                .build());
+
+        Servico corte = servico("Corte", 45);
+        Servico escova = servico("Escova", 30);
+
+        // Half legacy single-service appointments, half with a services list
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            LocalDateTime dataHora = DAY.plusMinutes(20L * i);
+            Agendamento agendamento = Agendamento.builder()
+                    .salon(salon)
+                    .cliente(cliente)
+                    .profissional(profissional)
+                    .dataHora(dataHora)
+                    .fimPrevisto(dataHora.plusMinutes(75))
+                    .status(StatusAgendamento.CONFIRMADO)
+                    .build();
+            if (i % 2 == 0) {
+                agendamento.setServico(corte);
+            } else {
+                agendamento.addServico(corte, null, null);
+                agendamento.addServico(escova, null, 5);
+            }
+            entityManager.persist(agendamento);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Should list a salon's appointments with a constant number of statements")
+    void shouldListBySalonWithConstantStatements() {
+        assertConstantStatements(size -> () -> agendamentoService.listarPorSalon(salon.getId(), page(size)));
+    }
+
+    @Test
+    @DisplayName("Should list a client's appointments with a constant number of statements")
+    void shouldListByClienteWithConstantStatements() {
+        assertConstantStatements(size -> () -> agendamentoService.listarPorCliente(cliente.getId(), page(size)));
+    }
+
+    @Test
+    @DisplayName("Should list a professional's appointments with a constant number of statements")
+    void shouldListByProfissionalWithConstantStatements() {
+        assertConstantStatements(size ->
+                () -> agendamentoService.listarPorProfissional(profissional.getId(), page(size)));
+    }
+
+    @Test
+    @DisplayName("Should list the daily agenda with a constant number of statements")
+    void shouldListDailyAgendaWithConstantStatements() {
+        long statements = countStatements(() -> agendamentoService.listarAgendaDiaria(profissional.getId(), DAY),
+                APPOINTMENTS);
+
+        // Appointments, their services lists, the services
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    private interface Listing {
+        Supplier<Page<AgendamentoResponse>> ofSize(int size);
+    }
+
+    private void assertConstantStatements(Listing listing) {
+        long small = countStatements(() -> listing.ofSize(5).get().getContent(), 5);
+        long large = countStatements(() -> listing.ofSize(25).get().getContent(), 25);
+
+        assertThat(large).isEqualTo(small);
+        // Page, count, services lists, services
+        assertThat(large).isLessThanOrEqualTo(4);
+    }
+
+    private long countStatements(Supplier<List<AgendamentoResponse>> listing, int expectedRows) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<AgendamentoResponse> responses = listing.get();
+
+        assertThat(responses).hasSize(expectedRows);
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getClienteNome()).isNotNull();
+            assertThat(response.getProfissionalNome()).isNotNull();
+            assertThat(response.getServicos()).isNotEmpty();
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static PageRequest page(int size) {
+        return PageRequest.of(0, size, Sort.by("dataHora"));
+    }
+
+    private Usuario usuario(String email, Role role) {
+        return entityManager.persist(Usuario.builder()
+                .email(email)
+                .password("password")
+                .nome(email.substring(0, email.indexOf('@')))
+                .telefone("11999999999")
+                .role(role)
+                .plano(Plano.FREE)
+                .ativo(true)
+                .build());
+    }
+
+    private Servico servico(String nome, int duracaoMinutos) {
+        return entityManager.persist(Servico.builder()
+                .nome(nome)
+                .preco(new BigDecimal("50.00"))
+                .duracaoMinutos(duracaoMinutos)
+                .tipo(TipoServico.CABELO)
+                .salon(salon)
+                .ativo(true)
+                .build());
+    }
+}
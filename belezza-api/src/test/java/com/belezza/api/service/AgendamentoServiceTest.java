@@ -1,5 +1,6 @@
 package com.belezza.api.service;
 
+import com.belezza.api.dto.CursorPage;
 import com.belezza.api.dto.agendamento.AgendamentoRequest;
 import com.belezza.api.dto.agendamento.AgendamentoResponse;
 import com.belezza.api.dto.agendamento.CancelamentoRequest;
@@ -10,6 +11,7 @@ import com.belezza.api.integration.WhatsAppService;
 import com.belezza.api.repository.AgendamentoRepository;
 import com.belezza.api.repository.ClienteRepository;
 import com.belezza.api.repository.HorarioTrabalhoRepository;
+import com.belezza.api.util.KeysetCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -251,6 +253,73 @@ class AgendamentoServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Listar Agendamentos por Cursor Tests")
+    class ListarAgendamentosCursorTests {
+
+        private Agendamento agendamentoEm(long id, LocalDateTime dataHora) {
+            return Agendamento.builder()
+                    .id(id)
+                    .salon(salon)
+                    .cliente(cliente)
+                    .profissional(profissional)
+                    .servico(servico)
+                    .dataHora(dataHora)
+                    .fimPrevisto(dataHora.plusMinutes(30))
+                    .status(StatusAgendamento.CONFIRMADO)
+                    .build();
+        }
+
+        @Test
+        @DisplayName("Should return a next cursor when more rows follow")
+        void shouldReturnNextCursor() {
+            // Given
+            LocalDateTime inicio = LocalDateTime.of(2024, 5, 10, 9, 0);
+            List<Agendamento> rows = List.of(
+                    agendamentoEm(1L, inicio), agendamentoEm(2L, inicio.plusHours(1)), agendamentoEm(3L, inicio.plusHours(2)));
+            when(agendamentoRepository.findBySalonIdAfter(eq(1L), any(), any(), eq(PageRequest.ofSize(3))))
+                    .thenReturn(rows);
+
+            // When
+            CursorPage<AgendamentoResponse> result = agendamentoService.listarPorSalon(1L, null, 2, false);
+
+            // Then
+            assertThat(result.getContent()).extracting(AgendamentoResponse::getId).containsExactly(1L, 2L);
+            assertThat(result.isHasNext()).isTrue();
+            assertThat(KeysetCursor.decode(result.getNextCursor(), false))
+                    .isEqualTo(KeysetCursor.of(inicio.plusHours(1), 2L));
+            assertThat(result.getTotalElements()).isNull();
+            verify(agendamentoRepository, never()).countBySalonId(any());
+        }
+
+        @Test
+        @DisplayName("Should continue after the cursor and count only when asked")
+        void shouldContinueAfterCursor() {
+            // Given
+            LocalDateTime dataHora = LocalDateTime.of(2024, 5, 10, 11, 0);
+            String cursor = KeysetCursor.of(dataHora, 7L).encode();
+            when(agendamentoRepository.findByProfissionalIdAfter(eq(1L), eq(dataHora), eq(7L), any()))
+                    .thenReturn(List.of(agendamento));
+            when(agendamentoRepository.countByProfissionalId(1L)).thenReturn(8L);
+
+            // When
+            CursorPage<AgendamentoResponse> result = agendamentoService.listarPorProfissional(1L, cursor, 20, true);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.isHasNext()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+            assertThat(result.getTotalElements()).isEqualTo(8L);
+        }
+
+        @Test
+        @DisplayName("Should reject a cursor it did not issue")
+        void shouldRejectInvalidCursor() {
+            assertThatThrownBy(() -> agendamentoService.listarPorCliente(1L, "not-a-cursor", 20, false))
+                    .isInstanceOf(BusinessException.class);
+        }
+    }
+
     @Nested
     @DisplayName("Confirmar Agendamento Tests")
     class ConfirmarAgendamentoTests {
@@ -0,0 +1,221 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.Plano;
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.entity.TipoServico;
+import com.belezza.api.integration.CaptionAIService.CaptionRequest;
+import com.belezza.api.integration.CaptionAIService.CaptionResponse;
+import com.belezza.api.integration.CaptionAIService.CaptionStreamEvent;
+import com.belezza.api.repository.SalonRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("CaptionCache Tests")
+class CaptionCacheTest {
+
+    @Mock
+    private SalonRepository salonRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CaptionCache captionCache;
+    private AtomicInteger generated;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        captionCache = cache(0.8, 100);
+        generated = new AtomicInteger();
+        when(salonRepository.findPlanoById(1L)).thenReturn(Optional.of(Plano.PRO));
+        when(salonRepository.findPlanoById(2L)).thenReturn(Optional.of(Plano.PRO));
+    }
+
+    private CaptionCache cache(double similarityThreshold, int maxEntries) {
+        // Premium salons get a TTL of zero so expiry can be observed without waiting
+        return new CaptionCache(salonRepository, true, maxEntries, similarityThreshold,
+            60, 60, 60, 0, meterRegistry);
+    }
+
+    private static CaptionRequest request(String description) {
+        return request(description, "profissional");
+    }
+
+    private static CaptionRequest request(String description, String tom) {
+        return new CaptionRequest(description, TipoServico.CABELO, "moderno",
+            PlataformaSocial.INSTAGRAM, tom, "português");
+    }
+
+    private Supplier<CaptionResponse> generator() {
+        return () -> new CaptionResponse("Legenda " + generated.incrementAndGet(), List.of("#beleza"), "Agende!", 80);
+    }
+
+    @Nested
+    @DisplayName("Exact Tier Tests")
+    class ExactTierTests {
+
+        @Test
+        @DisplayName("Should serve a repeat request from cache")
+        void shouldServeRepeatRequest() {
+            CaptionResponse first = captionCache.getOrGenerate(1L, request("Corte de cabelo moderno"), generator());
+            CaptionResponse second = captionCache.getOrGenerate(1L, request("Corte de cabelo moderno"), generator());
+
+            assertThat(second).isEqualTo(first);
+            assertThat(generated).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("Should normalise case, accents, punctuation and spacing")
+        void shouldNormaliseRequest() {
+            captionCache.getOrGenerate(1L, request("Coloração  e escova!", "Profissional"), generator());
+            captionCache.getOrGenerate(1L, request("coloracao e escova", "profissional"), generator());
+
+            assertThat(generated).hasValue(1);
+            assertThat(CaptionCache.normalize("  Coloração, Escova!! ")).isEqualTo("coloracao escova");
+        }
+
+        @Test
+        @DisplayName("Should not share captions between salons")
+        void shouldScopeBySalon() {
+            captionCache.getOrGenerate(1L, request("Corte de cabelo moderno"), generator());
+            captionCache.getOrGenerate(2L, request("Corte de cabelo moderno"), generator());
+
+            assertThat(generated).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should not reuse a caption for another tone")
+        void shouldScopeByTone() {
+            captionCache.getOrGenerate(1L, request("Corte de cabelo moderno", "profissional"), generator());
+            captionCache.getOrGenerate(1L, request("Corte de cabelo moderno", "divertido"), generator());
+
+            assertThat(generated).hasValue(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Similarity Tier Tests")
+    class SimilarityTierTests {
+
+        @Test
+        @DisplayName("Should reuse a caption for a near-identical description")
+        void shouldServeSimilarDescription() {
+            captionCache.getOrGenerate(1L, request("Foto de corte de cabelo moderno com franja lateral"), generator());
+            captionCache.getOrGenerate(1L, request("Foto do corte de cabelo moderno com franja lateral"), generator());
+
+            assertThat(generated).hasValue(1);
+            assertThat(meterRegistry.get("belezza.caption.cache.requests").tag("result", "similar").counter().count())
+                .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should generate for a different description")
+        void shouldMissDifferentDescription() {
+            captionCache.getOrGenerate(1L, request("Foto de corte de cabelo moderno com franja lateral"), generator());
+            captionCache.getOrGenerate(1L, request("Mechas loiras com tonalizante perolado"), generator());
+
+            assertThat(generated).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should only serve exact matches when the threshold is above 1")
+        void shouldDisableSimilarityTier() {
+            captionCache = cache(1.1, 100);
+
+            captionCache.getOrGenerate(1L, request("Foto de corte de cabelo moderno com franja lateral"), generator());
+            captionCache.getOrGenerate(1L, request("Foto do corte de cabelo moderno com franja lateral"), generator());
+
+            assertThat(generated).hasValue(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry Tests")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("Should use the TTL of the salon's plan")
+        void shouldUseTtlOfPlan() {
+            when(salonRepository.findPlanoById(3L)).thenReturn(Optional.of(Plano.PREMIUM));
+
+            captionCache.getOrGenerate(3L, request("Corte de cabelo moderno"), generator());
+            captionCache.getOrGenerate(3L, request("Corte de cabelo moderno"), generator());
+
+            assertThat(generated).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should evict the least recently used entry when full")
+        void shouldEvictLeastRecentlyUsed() {
+            captionCache = cache(1.1, 2);
+
+            captionCache.getOrGenerate(1L, request("primeira"), generator());
+            captionCache.getOrGenerate(1L, request("segunda"), generator());
+            captionCache.getOrGenerate(1L, request("primeira"), generator());
+            captionCache.getOrGenerate(1L, request("terceira"), generator());
+
+            assertThat(captionCache.size()).isEqualTo(2);
+            assertThat(captionCache.lookup(1L, request("primeira"))).isPresent();
+            assertThat(captionCache.lookup(1L, request("segunda"))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming Tests")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("Should cache a streamed caption and replay it as a single completed event")
+        void shouldCacheStreamedCaption() {
+            CaptionResponse caption = new CaptionResponse("Legenda", List.of("#beleza"), "Agende!", 80);
+            Supplier<Flux<CaptionStreamEvent>> stream = () -> {
+                generated.incrementAndGet();
+                return Flux.just(CaptionStreamEvent.delta("Leg"), CaptionStreamEvent.delta("enda"),
+                    CaptionStreamEvent.completed(caption));
+            };
+
+            List<CaptionStreamEvent> first = captionCache.getOrStream(1L, request("Corte moderno"), stream)
+                .collectList().block();
+            List<CaptionStreamEvent> second = captionCache.getOrStream(1L, request("Corte moderno"), stream)
+                .collectList().block();
+
+            assertThat(first).hasSize(3);
+            assertThat(second).containsExactly(CaptionStreamEvent.completed(caption));
+            assertThat(generated).hasValue(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should export the hit ratio")
+        void shouldExportHitRatio() {
+            captionCache.getOrGenerate(1L, request("Corte de cabelo moderno"), generator());
+            captionCache.getOrGenerate(1L, request("Corte de cabelo moderno"), generator());
+            captionCache.getOrGenerate(1L, request("Corte de cabelo moderno"), generator());
+            captionCache.getOrGenerate(1L, request("Manicure francesa"), generator());
+
+            assertThat(meterRegistry.get("belezza.caption.cache.hit.ratio").gauge().value()).isCloseTo(0.5, offset(0.001));
+        }
+    }
+}
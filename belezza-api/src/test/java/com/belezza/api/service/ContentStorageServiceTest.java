@@ -0,0 +1,130 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.ObjetoArmazenado;
+import com.belezza.api.integration.S3Service;
+import com.belezza.api.repository.ObjetoArmazenadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Reference counting of stored content against the H2 database of the local profile (Flyway off, schema from the entities).
+ * Each step runs in its own committed transaction, as the callers' transactions do.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("local")
+@Import(ContentStorageService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("ContentStorageService Tests")
+class ContentStorageServiceTest {
+
+    @Autowired
+    private ContentStorageService contentStorageService;
+
+    @Autowired
+    private ObjetoArmazenadoRepository objetoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private S3Service s3Service;
+
+    private TransactionTemplate transaction;
+    private String hash;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        hash = UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private ContentStorageService.Reference reference(String key) {
+        return transaction.execute(status -> contentStorageService.reference(hash, key, 512, "image/jpeg"));
+    }
+
+    private void release() {
+        transaction.executeWithoutResult(status -> contentStorageService.release(hash));
+    }
+
+    private int referencias() {
+        return objetoRepository.findReferenciasByHash(hash).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Should ask for an upload on the first reference and reuse the key afterwards")
+    void shouldReuseStoredContent() {
+        ContentStorageService.Reference first = reference("originals/first.jpg");
+        ContentStorageService.Reference second = reference("originals/second.jpg");
+
+        assertThat(first.stored()).isFalse();
+        assertThat(first.key()).isEqualTo("originals/first.jpg");
+        assertThat(second.stored()).isTrue();
+        assertThat(second.key()).isEqualTo("originals/first.jpg");
+        assertThat(referencias()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not count a reference taken by a rolled back transaction")
+    void shouldRollBackReference() {
+        transaction.executeWithoutResult(status -> {
+            contentStorageService.reference(hash, "originals/failed.jpg", 512, "image/jpeg");
+            status.setRollbackOnly();
+        });
+
+        ContentStorageService.Reference retry = reference("originals/retry.jpg");
+
+        assertThat(retry.stored()).isFalse();
+        assertThat(retry.key()).isEqualTo("originals/failed.jpg");
+        assertThat(referencias()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should delete the content after the last reference is released")
+    void shouldDeleteUnreferencedContent() {
+        reference("originals/shared.jpg");
+        reference("originals/shared.jpg");
+
+        release();
+        verify(s3Service, never()).deleteFile(anyString());
+        assertThat(referencias()).isEqualTo(1);
+
+        release();
+        verify(s3Service).deleteFile("originals/shared.jpg");
+        verify(s3Service).deleteFile("thumbnails/" + hash);
+        assertThat(objetoRepository.findByHash(hash)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the content when it is referenced again before the release commits")
+    void shouldKeepContentReferencedAgain() {
+        reference("originals/kept.jpg");
+
+        transaction.executeWithoutResult(status -> {
+            contentStorageService.release(hash);
+            contentStorageService.reference(hash, "originals/kept.jpg", 512, "image/jpeg");
+        });
+
+        verify(s3Service, never()).deleteFile(anyString());
+        assertThat(objetoRepository.findByHash(hash)).get()
+            .extracting(ObjetoArmazenado::getReferencias).isEqualTo(1);
+    }
+}
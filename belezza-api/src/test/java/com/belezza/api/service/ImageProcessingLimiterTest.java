@@ -0,0 +1,137 @@
+package com.belezza.api.service;
+
+import com.belezza.api.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageProcessingLimiter Tests")
+class ImageProcessingLimiterTest {
+
+    private static final long MB = 1024 * 1024;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageProcessingLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 100 MB budget, 60 MB per salon, 200 ms maximum wait
+        limiter = new ImageProcessingLimiter(100, 0.6, 200, meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Budget Tests")
+    class BudgetTests {
+
+        @Test
+        @DisplayName("Should estimate four bytes per pixel")
+        void shouldEstimateBytes() {
+            assertThat(ImageProcessingLimiter.estimateBytes(4000, 3000)).isEqualTo(48_000_000L);
+        }
+
+        @Test
+        @DisplayName("Should admit work within the budget and return it on close")
+        void shouldAdmitWithinBudget() {
+            try (ImageProcessingLimiter.Permit permit = limiter.acquire(1L, 40 * MB, "thumbnail")) {
+                assertThat(limiter.inUseBytes()).isEqualTo(40 * MB);
+            }
+
+            assertThat(limiter.inUseBytes()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reject with 429 after the maximum wait")
+        void shouldRejectAfterMaxWait() {
+            limiter.acquire(1L, 50 * MB, "versions");
+            limiter.acquire(2L, 50 * MB, "versions");
+
+            assertThatThrownBy(() -> limiter.acquire(3L, 10 * MB, "thumbnail"))
+                .isInstanceOf(RateLimitExceededException.class);
+            assertThat(meterRegistry.get("belezza.image.admission.wait").tag("outcome", "rejected").timer().count())
+                .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should queue work until budget is released")
+        void shouldQueueUntilReleased() throws Exception {
+            ImageProcessingLimiter slowLimiter = new ImageProcessingLimiter(100, 0.6, 5000, meterRegistry);
+            ImageProcessingLimiter.Permit first = slowLimiter.acquire(1L, 60 * MB, "versions");
+            ImageProcessingLimiter.Permit second = slowLimiter.acquire(2L, 40 * MB, "versions");
+
+            CompletableFuture<ImageProcessingLimiter.Permit> waiting =
+                CompletableFuture.supplyAsync(() -> slowLimiter.acquire(3L, 30 * MB, "thumbnail"));
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertThat(waiting).isNotDone();
+
+            first.close();
+
+            assertThat(waiting.get(2, TimeUnit.SECONDS)).isNotNull();
+            second.close();
+        }
+
+        @Test
+        @DisplayName("Should cap estimates above the salon share so large images still run")
+        void shouldCapLargeEstimates() {
+            try (ImageProcessingLimiter.Permit permit = limiter.acquire(1L, 500 * MB, "versions")) {
+                assertThat(limiter.inUseBytes()).isEqualTo(60 * MB);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Fairness Tests")
+    class FairnessTests {
+
+        @Test
+        @DisplayName("Should not let one salon hold more than its share")
+        void shouldLimitSalonShare() {
+            limiter.acquire(1L, 40 * MB, "versions");
+
+            assertThatThrownBy(() -> limiter.acquire(1L, 30 * MB, "versions"))
+                .isInstanceOf(RateLimitExceededException.class);
+        }
+
+        @Test
+        @DisplayName("Should admit another salon while one is at its share")
+        void shouldAdmitOtherSalons() throws Exception {
+            ImageProcessingLimiter slowLimiter = new ImageProcessingLimiter(100, 0.6, 2000, meterRegistry);
+            slowLimiter.acquire(1L, 50 * MB, "versions");
+
+            // Salon 1 queues behind its own share; salon 2 arrives later but fits
+            CompletableFuture<ImageProcessingLimiter.Permit> salonOne =
+                CompletableFuture.supplyAsync(() -> slowLimiter.acquire(1L, 20 * MB, "versions"));
+            TimeUnit.MILLISECONDS.sleep(50);
+
+            ImageProcessingLimiter.Permit salonTwo = slowLimiter.acquire(2L, 30 * MB, "versions");
+
+            assertThat(salonTwo).isNotNull();
+            assertThat(salonOne).isNotDone();
+        }
+    }
+
+    @Nested
+    @DisplayName("Metrics Tests")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should time admission wait and processing per operation")
+        void shouldRecordTimers() {
+            limiter.acquire(1L, 10 * MB, "thumbnail").close();
+
+            assertThat(meterRegistry.get("belezza.image.admission.wait").tag("outcome", "admitted").timer().count())
+                .isEqualTo(1);
+            assertThat(meterRegistry.get("belezza.image.processing.time").tag("operation", "thumbnail").timer().count())
+                .isEqualTo(1);
+            assertThat(meterRegistry.get("belezza.image.processing.memory.in-use").gauge().value()).isZero();
+        }
+    }
+}
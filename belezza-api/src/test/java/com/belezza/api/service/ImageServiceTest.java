@@ -0,0 +1,591 @@
+package com.belezza.api.service;
+
+import com.belezza.api.dto.imagem.ImageVersionsResponse;
+import com.belezza.api.dto.imagem.ImagemUploadResponse;
+import com.belezza.api.entity.Imagem;
+import com.belezza.api.entity.ObjetoArmazenado;
+import com.belezza.api.entity.Salon;
+import com.belezza.api.entity.StyleType;
+import com.belezza.api.entity.Usuario;
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.exception.RateLimitExceededException;
+import com.belezza.api.integration.DownloadedImage;
+import com.belezza.api.integration.ImageAIService;
+import com.belezza.api.integration.ImageDownloader;
+import com.belezza.api.integration.S3Service;
+import com.belezza.api.repository.ImagemRepository;
+import com.belezza.api.repository.ObjetoArmazenadoRepository;
+import com.belezza.api.repository.SalonRepository;
+import com.belezza.api.repository.UsuarioRepository;
+import com.belezza.api.service.RenditionCache.CachedRendition;
+import com.belezza.api.util.ContentHash;
+import com.belezza.api.util.ImageEncoder;
+import com.belezza.api.util.ImageOperations;
+import com.belezza.api.util.ImageProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("ImageService Tests")
+class ImageServiceTest {
+
+    @Mock
+    private ImagemRepository imagemRepository;
+
+    @Mock
+    private SalonRepository salonRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private ImageAIService imageAIService;
+
+    @Mock
+    private ImageDownloader imageDownloader;
+
+    @Mock
+    private ObjetoArmazenadoRepository objetoRepository;
+
+    @Mock
+    private RenditionCache renditionCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Rows of objetos_armazenados behind the mocked repository
+    private final Map<String, ObjetoArmazenado> objetos = new HashMap<>();
+
+    // Keys uploaded to the mocked S3, and uploads made while a transaction was open
+    private final Set<String> uploadedKeys = new HashSet<>();
+    private int openTransactions;
+    private int uploadsInTransaction;
+
+    private final ImageOperations imageOperations = new ImageOperations(2);
+
+    @SuppressWarnings("unchecked")
+    private final SingleFlight singleFlight = new SingleFlight(mock(ObjectProvider.class), false, 300, 600, 300, 1000);
+
+    private ImageService imageService;
+    private Imagem imagem;
+    private byte[] sourceData;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageService = new ImageService(imagemRepository, salonRepository, usuarioRepository,
+            s3Service, imageAIService, new ImageProcessor(new ImageEncoder()), imageOperations, imageDownloader,
+            new ContentStorageService(objetoRepository, s3Service, transactionManager), renditionCache,
+            new ImageProcessingLimiter(64, 0.5, 100, new SimpleMeterRegistry()), singleFlight,
+            new TransactionTemplate(transactionManager), Runnable::run);
+
+        ByteArrayOutputStream source = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "jpg", source);
+        sourceData = source.toByteArray();
+        when(imageDownloader.download("https://cdn/originals/source.jpg"))
+            .thenReturn(DownloadedImage.inMemory(sourceData));
+
+        Usuario admin = Usuario.builder().id(2L).build();
+        Salon salon = Salon.builder().id(1L).admin(admin).build();
+        imagem = Imagem.builder()
+            .id(5L)
+            .salon(salon)
+            .criador(admin)
+            .urlAtual("https://cdn/originals/source.jpg")
+            .tipoMime("image/jpeg")
+            .build();
+
+        when(salonRepository.findById(1L)).thenReturn(Optional.of(salon));
+        when(imagemRepository.findByIdAndSalon(5L, salon)).thenReturn(Optional.of(imagem));
+        when(usuarioRepository.findById(2L)).thenReturn(Optional.of(admin));
+        when(imagemRepository.save(any(Imagem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(s3Service.getPublicUrl(anyString())).thenAnswer(invocation -> "https://cdn/" + invocation.getArgument(0));
+        when(s3Service.uploadFileToKeyAsync(any(), anyString()))
+            .thenAnswer(invocation -> uploaded(invocation.getArgument(1)));
+        when(s3Service.uploadBytesToKeyAsync(any(), anyString(), anyString()))
+            .thenAnswer(invocation -> uploaded(invocation.getArgument(2)));
+        when(s3Service.fileExists(anyString())).thenAnswer(invocation -> uploadedKeys.contains(invocation.<String>getArgument(0)));
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions++;
+            return null;
+        });
+        doAnswer(invocation -> openTransactions--).when(transactionManager).commit(any());
+        doAnswer(invocation -> openTransactions--).when(transactionManager).rollback(any());
+        stubObjetoRepository();
+        when(renditionCache.lookup(anyString(), anyString(), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(renditionCache.store(anyString(), anyString(), anyString(), any(), anyString(), anyInt(), anyInt()))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(storedRendition(invocation.getArgument(0),
+                invocation.getArgument(2), invocation.getArgument(3), invocation.getArgument(4),
+                invocation.getArgument(5), invocation.getArgument(6))));
+    }
+
+    private void stubObjetoRepository() {
+        when(objetoRepository.findByHash(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(objetos.get(invocation.<String>getArgument(0))));
+        when(objetoRepository.findByHashForUpdate(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(objetos.get(invocation.<String>getArgument(0))));
+        when(objetoRepository.findChaveByHash(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(objetos.get(invocation.<String>getArgument(0))).map(ObjetoArmazenado::getChave));
+        when(objetoRepository.findReferenciasByHash(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(objetos.get(invocation.<String>getArgument(0))).map(ObjetoArmazenado::getReferencias));
+        when(objetoRepository.saveAndFlush(any(ObjetoArmazenado.class))).thenAnswer(invocation -> {
+            ObjetoArmazenado objeto = invocation.getArgument(0);
+            objetos.putIfAbsent(objeto.getHash(), objeto);
+            return objeto;
+        });
+        when(objetoRepository.addReference(anyString())).thenAnswer(invocation -> {
+            ObjetoArmazenado objeto = objetos.get(invocation.<String>getArgument(0));
+            if (objeto == null) {
+                return 0;
+            }
+            objeto.setReferencias(objeto.getReferencias() + 1);
+            return 1;
+        });
+        when(objetoRepository.removeReference(anyString())).thenAnswer(invocation -> {
+            ObjetoArmazenado objeto = objetos.get(invocation.<String>getArgument(0));
+            if (objeto == null || objeto.getReferencias() == 0) {
+                return 0;
+            }
+            objeto.setReferencias(objeto.getReferencias() - 1);
+            return 1;
+        });
+        when(objetoRepository.deleteIfUnreferenced(anyString())).thenAnswer(invocation ->
+            objetos.get(invocation.<String>getArgument(0)).getReferencias() == 0
+                && objetos.remove(invocation.<String>getArgument(0)) != null ? 1 : 0);
+    }
+
+    private CompletableFuture<String> uploaded(String key) {
+        uploadedKeys.add(key);
+        if (openTransactions > 0) {
+            uploadsInTransaction++;
+        }
+        return CompletableFuture.completedFuture(key);
+    }
+
+    private void givenStored(String hash, String chave, int referencias) {
+        objetos.put(hash, ObjetoArmazenado.builder().hash(hash).chave(chave).referencias(referencias).build());
+    }
+
+    private static CachedRendition storedRendition(String sourceHash, String params, byte[] data,
+                                                   String hash, int width, int height) {
+        return new CachedRendition(RenditionCache.key(sourceHash, "crop", params), hash, width, height, data.length);
+    }
+
+    @Nested
+    @DisplayName("Upload Tests")
+    class UploadTests {
+
+        @Test
+        @DisplayName("Should store original and thumbnail under content-addressed keys")
+        void shouldUploadOriginalAndThumbnail() {
+            MockMultipartFile file = new MockMultipartFile("file", "foto.JPG", "image/jpeg", sourceData);
+            String hash = ContentHash.sha256(sourceData);
+            String originalKey = "originals/" + hash.substring(0, 2) + "/" + hash + ".jpg";
+
+            ImagemUploadResponse response = imageService.upload(1L, 2L, file, "Corte");
+
+            assertThat(response.getUrlOriginal()).isEqualTo("https://cdn/" + originalKey);
+            assertThat(response.getThumbnailUrl()).isEqualTo("https://cdn/thumbnails/" + hash);
+            verify(s3Service).uploadBytesToKeyAsync(any(), eq("image/jpeg"), eq("thumbnails/" + hash));
+            assertThat(response.getLargura()).isEqualTo(1600);
+            assertThat(response.getAltura()).isEqualTo(1200);
+            verify(s3Service).uploadFileToKeyAsync(file, originalKey);
+            assertThat(objetos.get(hash).getChave()).isEqualTo(originalKey);
+            assertThat(objetos.get(hash).getReferencias()).isEqualTo(1);
+            assertThat(objetos.get(hash).getTamanhoBytes()).isEqualTo(sourceData.length);
+        }
+
+        @Test
+        @DisplayName("Should upload outside transactions and reference the content before saving")
+        void shouldUploadOutsideTransactions() {
+            MockMultipartFile file = new MockMultipartFile("file", "foto.jpg", "image/jpeg", sourceData);
+            String hash = ContentHash.sha256(sourceData);
+            when(imagemRepository.save(any(Imagem.class))).thenAnswer(invocation -> {
+                assertThat(objetos.get(hash).getReferencias()).isEqualTo(1);
+                return invocation.getArgument(0);
+            });
+
+            imageService.upload(1L, 2L, file, null);
+
+            assertThat(uploadedKeys).hasSize(2);
+            assertThat(uploadsInTransaction).isZero();
+            verify(imagemRepository).save(any(Imagem.class));
+        }
+
+        @Test
+        @DisplayName("Should upload again when the content is deleted between the lookup and the reference")
+        void shouldUploadAgainWhenDeletedAfterLookup() {
+            MockMultipartFile file = new MockMultipartFile("file", "copia.jpg", "image/jpeg", sourceData);
+            String hash = ContentHash.sha256(sourceData);
+            givenStored(hash, "originals/existing.jpg", 1);
+            uploadedKeys.add("originals/existing.jpg");
+            uploadedKeys.add("thumbnails/" + hash);
+            when(objetoRepository.findByHash(hash)).thenAnswer(invocation -> {
+                // The last reference is released and the content deleted right after the lookup
+                ObjetoArmazenado objeto = objetos.remove(hash);
+                uploadedKeys.clear();
+                return Optional.of(objeto);
+            });
+
+            ImagemUploadResponse response = imageService.upload(1L, 2L, file, null);
+
+            assertThat(response.getUrlOriginal()).isEqualTo("https://cdn/originals/existing.jpg");
+            verify(s3Service).uploadFileToKeyAsync(file, "originals/existing.jpg");
+            verify(s3Service).uploadBytesToKeyAsync(any(), eq("image/jpeg"), eq("thumbnails/" + hash));
+            assertThat(uploadsInTransaction).isZero();
+            assertThat(objetos.get(hash).getReferencias()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should release the reference when the image cannot be saved")
+        void shouldReleaseReferenceWhenSaveFails() {
+            MockMultipartFile file = new MockMultipartFile("file", "foto.jpg", "image/jpeg", sourceData);
+            String hash = ContentHash.sha256(sourceData);
+            when(imagemRepository.save(any(Imagem.class))).thenThrow(new IllegalStateException("Database unavailable"));
+
+            assertThatThrownBy(() -> imageService.upload(1L, 2L, file, null))
+                .isInstanceOf(IllegalStateException.class);
+            assertThat(objetos).doesNotContainKey(hash);
+            verify(s3Service).deleteFile(startsWith("originals/"));
+        }
+
+        @Test
+        @DisplayName("Should only add a reference when identical content is already stored")
+        void shouldReuseStoredContent() {
+            MockMultipartFile file = new MockMultipartFile("file", "copia.jpg", "image/jpeg", sourceData);
+            String hash = ContentHash.sha256(sourceData);
+            givenStored(hash, "originals/existing.jpg", 1);
+            when(s3Service.fileExists("thumbnails/" + hash)).thenReturn(true);
+
+            ImagemUploadResponse response = imageService.upload(1L, 2L, file, null);
+
+            assertThat(response.getUrlOriginal()).isEqualTo("https://cdn/originals/existing.jpg");
+            verify(s3Service, never()).uploadFileToKeyAsync(any(), anyString());
+            verify(s3Service, never()).uploadBytesToKeyAsync(any(), anyString(), anyString());
+            assertThat(objetos.get(hash).getReferencias()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should upload again when the stored row has no references left")
+        void shouldUploadAgainWhenPendingDeletion() {
+            MockMultipartFile file = new MockMultipartFile("file", "copia.jpg", "image/jpeg", sourceData);
+            String hash = ContentHash.sha256(sourceData);
+            givenStored(hash, "originals/existing.jpg", 0);
+
+            imageService.upload(1L, 2L, file, null);
+
+            verify(s3Service).uploadFileToKeyAsync(file, "originals/existing.jpg");
+            assertThat(objetos.get(hash).getReferencias()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should fail the upload when the original cannot be stored")
+        void shouldFailWhenOriginalUploadFails() {
+            MockMultipartFile file = new MockMultipartFile("file", "foto.jpg", "image/jpeg", sourceData);
+            when(s3Service.uploadFileToKeyAsync(eq(file), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Failed to upload file to S3")));
+
+            assertThatThrownBy(() -> imageService.upload(1L, 2L, file, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Failed to upload file to S3");
+            verify(imagemRepository, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("AI Edit Tests")
+    class AIEditTests {
+
+        @Test
+        @DisplayName("Should wait for the prediction outside any transaction")
+        void shouldEnhanceOutsideTransactions() {
+            List<Integer> openAtPrediction = new ArrayList<>();
+            when(imageAIService.enhance("https://cdn/originals/source.jpg")).thenAnswer(invocation -> {
+                openAtPrediction.add(openTransactions);
+                return "https://ai/enhanced.jpg";
+            });
+
+            imageService.enhance(1L, 5L);
+
+            assertThat(openAtPrediction).containsExactly(0);
+            assertThat(imagem.getUrlAtual()).isEqualTo("https://ai/enhanced.jpg");
+            assertThat(imagem.getVersoes()).singleElement()
+                .satisfies(versao -> assertThat(versao.getOperacao()).isEqualTo("enhance"));
+        }
+
+        @Test
+        @DisplayName("Should save the upscaled dimensions with the new version")
+        void shouldUpscaleOutsideTransactions() {
+            imagem.setLargura(800);
+            imagem.setAltura(600);
+            List<Integer> openAtPrediction = new ArrayList<>();
+            when(imageAIService.upscale("https://cdn/originals/source.jpg", 2)).thenAnswer(invocation -> {
+                openAtPrediction.add(openTransactions);
+                return "https://ai/upscaled.jpg";
+            });
+
+            imageService.upscale(1L, 5L, 2);
+
+            assertThat(openAtPrediction).containsExactly(0);
+            assertThat(imagem.getUrlAtual()).isEqualTo("https://ai/upscaled.jpg");
+            assertThat(imagem.getLargura()).isEqualTo(1600);
+            assertThat(imagem.getAltura()).isEqualTo(1200);
+        }
+    }
+
+    @Nested
+    @DisplayName("Local Edit Tests")
+    class LocalEditTests {
+
+        @Test
+        @DisplayName("Should apply a style locally and store it as a new version")
+        void shouldApplyStyleLocally() {
+            imageService.applyStyle(1L, 5L, StyleType.VINTAGE);
+
+            verify(imageAIService, never()).applyStyle(anyString(), any());
+            verify(imageAIService, never()).enhance(anyString());
+            verify(s3Service).uploadBytesToKeyAsync(any(), eq("image/jpeg"), startsWith("edited/"));
+            assertThat(objetos.values()).singleElement()
+                .satisfies(objeto -> assertThat(objeto.getChave()).startsWith("edited/"));
+            assertThat(imagem.getUrlAtual()).startsWith("https://cdn/edited/");
+            assertThat(imagem.getVersoes()).singleElement()
+                .satisfies(versao -> {
+                    assertThat(versao.getOperacao()).isEqualTo("apply-style");
+                    assertThat(versao.getHashConteudo()).isNotNull();
+                    assertThat(versao.getLargura()).isEqualTo(1600);
+                });
+        }
+
+        @Test
+        @DisplayName("Should only call the AI provider for the subject mask when blurring")
+        void shouldBlurLocallyWithRemoteMask() throws IOException {
+            when(imageAIService.removeBackground("https://cdn/originals/source.jpg")).thenReturn("https://ai/cutout.png");
+            ByteArrayOutputStream cutout = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_ARGB), "png", cutout);
+            when(imageDownloader.download("https://ai/cutout.png")).thenReturn(DownloadedImage.inMemory(cutout.toByteArray()));
+
+            imageService.blurBackground(1L, 5L, 60);
+
+            verify(imageAIService, never()).blurBackground(anyString(), anyInt());
+            verify(s3Service).uploadBytesToKeyAsync(any(), eq("image/jpeg"), startsWith("edited/"));
+            assertThat(imagem.getVersoes()).singleElement()
+                .satisfies(versao -> assertThat(versao.getParametros()).contains("60"));
+        }
+
+        @Test
+        @DisplayName("Should reject with 429 before decoding when the memory budget stays exhausted")
+        void shouldRejectEditWhenBudgetExhausted() {
+            ImageProcessingLimiter limiter = new ImageProcessingLimiter(1, 1.0, 50, new SimpleMeterRegistry());
+            limiter.acquire(99L, 1024 * 1024, "versions");
+            imageService = new ImageService(imagemRepository, salonRepository, usuarioRepository,
+                s3Service, imageAIService, new ImageProcessor(new ImageEncoder()), imageOperations, imageDownloader,
+                new ContentStorageService(objetoRepository, s3Service, transactionManager), renditionCache, limiter, singleFlight,
+                new TransactionTemplate(transactionManager), Runnable::run);
+
+            assertThatThrownBy(() -> imageService.applyStyle(1L, 5L, StyleType.NATURAL))
+                .isInstanceOf(RateLimitExceededException.class);
+            verify(s3Service, never()).uploadBytesToKeyAsync(any(), anyString(), anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("Delete Tests")
+    class DeleteTests {
+
+        @Test
+        @DisplayName("Should delete S3 objects when the last reference is released")
+        void shouldDeleteUnreferencedContent() {
+            imagem.setHashConteudo("abc123");
+            givenStored("abc123", "originals/ab/abc123.jpg", 1);
+
+            imageService.delete(1L, 5L);
+
+            assertThat(imagem.isAtivo()).isFalse();
+            assertThat(objetos).doesNotContainKey("abc123");
+            verify(s3Service).deleteFile("originals/ab/abc123.jpg");
+            verify(s3Service).deleteFile("thumbnails/abc123");
+        }
+
+        @Test
+        @DisplayName("Should keep S3 objects still referenced by other images")
+        void shouldKeepSharedContent() {
+            imagem.setHashConteudo("abc123");
+            givenStored("abc123", "originals/ab/abc123.jpg", 2);
+
+            imageService.delete(1L, 5L);
+
+            verify(s3Service, never()).deleteFile(anyString());
+            assertThat(objetos.get("abc123").getReferencias()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Generate Versions Tests")
+    class GenerateVersionsTests {
+
+        @Test
+        @DisplayName("Should generate every aspect ratio with dimensions from the crop")
+        void shouldGenerateAllVersions() {
+            ImageVersionsResponse response = imageService.generateVersions(1L, 5L);
+
+            assertThat(response.getVersions()).hasSize(ImageProcessor.AspectRatio.values().length);
+            assertThat(response.getVersions().get("square_1_1").getWidth()).isEqualTo(1200);
+            assertThat(response.getVersions().get("story_9_16").getWidth()).isEqualTo(675);
+            assertThat(response.getVersions().get("story_9_16").getHeight()).isEqualTo(1200);
+            assertThat(imagem.getVersoes()).hasSize(ImageProcessor.AspectRatio.values().length);
+            assertThat(imagem.getVersoes()).allSatisfy(versao -> assertThat(versao.getHashConteudo()).hasSize(64));
+            assertThat(response.getVersions().get("square_1_1").getUrl())
+                .isEqualTo("https://cdn/" + RenditionCache.key(ContentHash.sha256(sourceData), "crop", "square_1_1_q85p"));
+            verify(renditionCache, times(ImageProcessor.AspectRatio.values().length))
+                .store(eq(ContentHash.sha256(sourceData)), eq("crop"), anyString(), any(), anyString(), anyInt(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should keep the other versions when one upload fails")
+        void shouldSkipFailedUpload() {
+            when(renditionCache.store(anyString(), eq("crop"), eq("portrait_4_5_q85p"), any(), anyString(), anyInt(), anyInt()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("S3 indisponível")));
+
+            ImageVersionsResponse response = imageService.generateVersions(1L, 5L);
+
+            assertThat(response.getVersions()).hasSize(ImageProcessor.AspectRatio.values().length - 1);
+            verify(imagemRepository).save(imagem);
+        }
+
+        @Test
+        @DisplayName("Should reference cached renditions without downloading or decoding")
+        void shouldReuseCachedRenditions() throws IOException {
+            imagem.setUrlOriginal(imagem.getUrlAtual());
+            imagem.setHashConteudo("ab12");
+            when(renditionCache.lookup(eq("ab12"), eq("crop"), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(Optional.of(new CachedRendition(
+                    RenditionCache.key("ab12", "crop", invocation.getArgument(2)), "cd34", 1200, 1200, 512))));
+            givenStored("cd34", RenditionCache.key("ab12", "crop", "square_1_1_q85p"), 1);
+
+            ImageVersionsResponse response = imageService.generateVersions(1L, 5L);
+
+            assertThat(response.getVersions()).hasSize(ImageProcessor.AspectRatio.values().length);
+            verify(imageDownloader, never()).download(anyString());
+            verify(renditionCache, never()).store(anyString(), anyString(), anyString(), any(), anyString(), anyInt(), anyInt());
+            assertThat(objetos.get("cd34").getReferencias()).isEqualTo(1 + ImageProcessor.AspectRatio.values().length);
+        }
+
+        @Test
+        @DisplayName("Should skip a cached rendition deleted before it was referenced")
+        void shouldSkipDeletedCachedRendition() {
+            String sourceHash = ContentHash.sha256(sourceData);
+            when(renditionCache.lookup(sourceHash, "crop", "square_1_1_q85p")).thenReturn(CompletableFuture.completedFuture(
+                Optional.of(new CachedRendition(RenditionCache.key(sourceHash, "crop", "square_1_1_q85p"), "cd34", 1200, 1200, 512))));
+            when(s3Service.fileExists(anyString())).thenReturn(false);
+
+            ImageVersionsResponse response = imageService.generateVersions(1L, 5L);
+
+            assertThat(response.getVersions()).hasSize(ImageProcessor.AspectRatio.values().length - 1)
+                .doesNotContainKey("square_1_1");
+            verify(renditionCache, never()).store(anyString(), eq("crop"), eq("square_1_1_q85p"), any(), anyString(), anyInt(), anyInt());
+            assertThat(objetos).doesNotContainKey("cd34");
+        }
+
+        @Test
+        @DisplayName("Should release the memory permit before starting a transaction")
+        void shouldRenderOutsideTransactions() {
+            ImageProcessingLimiter limiter = new ImageProcessingLimiter(64, 0.5, 100, new SimpleMeterRegistry());
+            List<Long> inUseAtTransactionStart = new ArrayList<>();
+            when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+                inUseAtTransactionStart.add(limiter.inUseBytes());
+                return null;
+            });
+            imageService = new ImageService(imagemRepository, salonRepository, usuarioRepository,
+                s3Service, imageAIService, new ImageProcessor(new ImageEncoder()), imageOperations, imageDownloader,
+                new ContentStorageService(objetoRepository, s3Service, transactionManager), renditionCache,
+                limiter, singleFlight, new TransactionTemplate(transactionManager), Runnable::run);
+
+            imageService.generateVersions(1L, 5L);
+
+            // Reading the image, saving the versions and inserting each new crop's row
+            assertThat(inUseAtTransactionStart).hasSizeGreaterThanOrEqualTo(2).containsOnly(0L);
+            assertThat(imagem.getVersoes()).hasSize(ImageProcessor.AspectRatio.values().length);
+        }
+
+        @Test
+        @DisplayName("Should render only the renditions missing from the cache")
+        void shouldRenderOnlyMissingRenditions() {
+            String sourceHash = ContentHash.sha256(sourceData);
+            when(renditionCache.lookup(sourceHash, "crop", "square_1_1_q85p")).thenReturn(CompletableFuture.completedFuture(
+                Optional.of(new CachedRendition(RenditionCache.key(sourceHash, "crop", "square_1_1"), "cd34", 1200, 1200, 512))));
+            givenStored("cd34", RenditionCache.key(sourceHash, "crop", "square_1_1"), 1);
+
+            ImageVersionsResponse response = imageService.generateVersions(1L, 5L);
+
+            assertThat(response.getVersions()).hasSize(ImageProcessor.AspectRatio.values().length);
+            verify(renditionCache, never()).store(anyString(), anyString(), eq("square_1_1_q85p"), any(), anyString(), anyInt(), anyInt());
+            verify(renditionCache, times(ImageProcessor.AspectRatio.values().length - 1))
+                .store(eq(sourceHash), eq("crop"), anyString(), any(), anyString(), anyInt(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should reject with 429 when the memory budget stays exhausted")
+        void shouldRejectWhenBudgetExhausted() {
+            imageService = new ImageService(imagemRepository, salonRepository, usuarioRepository,
+                s3Service, imageAIService, new ImageProcessor(new ImageEncoder()), imageOperations, imageDownloader,
+                new ContentStorageService(objetoRepository, s3Service, transactionManager), renditionCache,
+                limiterHoldingBudget(), singleFlight, new TransactionTemplate(transactionManager), Runnable::run);
+
+            assertThatThrownBy(() -> imageService.generateVersions(1L, 5L))
+                .isInstanceOf(RateLimitExceededException.class);
+            verify(renditionCache, never()).store(anyString(), anyString(), anyString(), any(), anyString(), anyInt(), anyInt());
+        }
+
+        private ImageProcessingLimiter limiterHoldingBudget() {
+            ImageProcessingLimiter limiter = new ImageProcessingLimiter(1, 1.0, 50, new SimpleMeterRegistry());
+            limiter.acquire(99L, 1024 * 1024, "versions");
+            return limiter;
+        }
+
+        @Test
+        @DisplayName("Should fail without versions when the download is rejected")
+        void shouldFailWhenDownloadRejected() throws IOException {
+            when(imageDownloader.download(anyString()))
+                .thenThrow(new IOException("Image exceeds maximum download size of 52428800 bytes"));
+
+            assertThatThrownBy(() -> imageService.generateVersions(1L, 5L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("maximum download size");
+            verifyNoInteractions(s3Service);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.belezza.api.service;
+
+import com.belezza.api.repository.PostPublicacaoRepository;
+import com.belezza.api.service.PostEngagementService.EngagementDelta;
+import com.belezza.api.service.PostEngagementService.EngagementType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostEngagementService Tests")
+class PostEngagementServiceTest {
+
+    @Mock
+    private PostPublicacaoRepository postPublicacaoRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private PostEngagementService engagementService;
+
+    @Nested
+    @DisplayName("Aggregation Tests")
+    class AggregationTests {
+
+        @Test
+        @DisplayName("Should aggregate concurrent events per Meta post id")
+        void shouldAggregateConcurrentEvents() {
+            IntStream.range(0, 1000).parallel().forEach(i ->
+                engagementService.record("ig_1", EngagementType.CURTIDA, 1));
+            engagementService.record("ig_1", EngagementType.CURTIDA, -1);
+            engagementService.record("ig_1", EngagementType.COMENTARIO, 1);
+            engagementService.record("fb_2", EngagementType.COMPARTILHAMENTO, 1);
+
+            Map<String, EngagementDelta> deltas = engagementService.drain();
+
+            assertThat(deltas).containsEntry("ig_1", new EngagementDelta(999, 1, 0));
+            assertThat(deltas).containsEntry("fb_2", new EngagementDelta(0, 0, 1));
+            assertThat(engagementService.drain()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should keep deltas restored after a failed flush")
+        void shouldRestoreDeltas() {
+            engagementService.record("ig_1", EngagementType.CURTIDA, 2);
+            Map<String, EngagementDelta> deltas = engagementService.drain();
+
+            engagementService.record("ig_1", EngagementType.CURTIDA, 1);
+            engagementService.restore(deltas);
+
+            assertThat(engagementService.drain()).containsEntry("ig_1", new EngagementDelta(3, 0, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Apply Tests")
+    class ApplyTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Should merge deltas per post and apply them in one batch")
+        void shouldApplyInSingleBatch() {
+            when(postPublicacaoRepository.findPostIdsByExternalPostIds(anyCollection())).thenReturn(List.of(
+                new Object[]{"ig_1", 10L},
+                new Object[]{"fb_1", 10L}
+            ));
+
+            int updated = engagementService.apply(Map.of(
+                "ig_1", new EngagementDelta(5, 1, 0),
+                "fb_1", new EngagementDelta(2, 0, 1),
+                "unknown", new EngagementDelta(7, 7, 7)
+            ));
+
+            ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+
+            assertThat(updated).isEqualTo(1);
+            assertThat(batch.getValue()).hasSize(1);
+            assertThat(batch.getValue().get(0)).containsExactly(7, 1, 1, 10L);
+        }
+
+        @Test
+        @DisplayName("Should not touch the database when there is nothing to flush")
+        void shouldSkipEmptyFlush() {
+            assertThat(engagementService.apply(Map.of())).isZero();
+
+            verifyNoInteractions(postPublicacaoRepository, jdbcTemplate);
+        }
+    }
+}
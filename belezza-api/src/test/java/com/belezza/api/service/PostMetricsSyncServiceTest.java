@@ -0,0 +1,181 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.ContaSocial;
+import com.belezza.api.entity.PlataformaSocial;
+import com.belezza.api.entity.Post;
+import com.belezza.api.entity.PostPublicacao;
+import com.belezza.api.integration.MetaGraphAPIService;
+import com.belezza.api.integration.MetaGraphAPIService.BatchMetricsResult;
+import com.belezza.api.integration.MetaGraphAPIService.PostMetrics;
+import com.belezza.api.repository.ContaSocialRepository;
+import com.belezza.api.repository.PostPublicacaoRepository;
+import com.belezza.api.service.PostEngagementService.PublicationMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PostMetricsSyncService Tests")
+class PostMetricsSyncServiceTest {
+
+    @Mock
+    private PostPublicacaoRepository postPublicacaoRepository;
+
+    @Mock
+    private ContaSocialRepository contaSocialRepository;
+
+    @Mock
+    private MetaGraphAPIService metaGraphAPIService;
+
+    @Mock
+    private PostEngagementService engagementService;
+
+    @InjectMocks
+    private PostMetricsSyncService syncService;
+
+    private ContaSocial instagram;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(syncService, "maxAgeDays", 90);
+        ReflectionTestUtils.setField(syncService, "usageThresholdPercent", 80);
+        ReflectionTestUtils.setField(syncService, "cooldownMinutes", 15);
+
+        instagram = ContaSocial.builder()
+            .id(1L)
+            .plataforma(PlataformaSocial.INSTAGRAM)
+            .accountId("ig-account")
+            .accessToken("token")
+            .build();
+    }
+
+    private static PostPublicacao publicacao(long id, LocalDateTime publicadoEm, LocalDateTime syncedAt) {
+        return PostPublicacao.builder()
+            .id(id)
+            .post(Post.builder().id(id).build())
+            .plataforma(PlataformaSocial.INSTAGRAM)
+            .externalPostId("ig_" + id)
+            .publicadoEm(publicadoEm)
+            .metricasAtualizadasEm(syncedAt)
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BatchMetricsResult allMetrics(Object postIds, int usagePercent) {
+        Map<String, PostMetrics> metrics = new HashMap<>();
+        for (String postId : (List<String>) postIds) {
+            metrics.put(postId, PostMetrics.builder().likes(10).comments(2).build());
+        }
+        return new BatchMetricsResult(metrics, usagePercent, 0, false);
+    }
+
+    @Nested
+    @DisplayName("Refresh Tier Tests")
+    class RefreshTierTests {
+
+        @Test
+        @DisplayName("Should refresh older posts less often")
+        void shouldRefreshOlderPostsLessOften() {
+            LocalDateTime now = LocalDateTime.now();
+
+            assertThat(PostMetricsSyncService.isDue(publicacao(1, now.minusHours(2), null), now)).isTrue();
+            assertThat(PostMetricsSyncService.isDue(
+                publicacao(1, now.minusHours(2), now.minusMinutes(20)), now)).isTrue();
+            assertThat(PostMetricsSyncService.isDue(
+                publicacao(1, now.minusDays(3), now.minusMinutes(20)), now)).isFalse();
+            assertThat(PostMetricsSyncService.isDue(
+                publicacao(1, now.minusDays(10), now.minusHours(3)), now)).isFalse();
+            assertThat(PostMetricsSyncService.isDue(
+                publicacao(1, now.minusDays(60), now.minusHours(23)), now)).isFalse();
+            assertThat(PostMetricsSyncService.isDue(
+                publicacao(1, now.minusDays(60), now.minusHours(25)), now)).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Sync Tests")
+    class BatchSyncTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Should fetch metrics in batches of 25 posts and store them in one write")
+        void shouldFetchInBatchesOfTwentyFive() {
+            LocalDateTime publishedAt = LocalDateTime.now().minusHours(1);
+            List<PostPublicacao> publicacoes = LongStream.rangeClosed(1, 120)
+                .mapToObj(id -> publicacao(id, publishedAt, null))
+                .toList();
+
+            when(postPublicacaoRepository.findMetricsSyncCandidates(eq(10L), anyCollection(), any()))
+                .thenReturn(publicacoes);
+            when(contaSocialRepository.findBySalonIdAndPlataformaAndAtivaTrue(10L, PlataformaSocial.INSTAGRAM))
+                .thenReturn(Optional.of(instagram));
+            when(metaGraphAPIService.getPostMetricsBatch(eq("token"), eq(PlataformaSocial.INSTAGRAM), anyList()))
+                .thenAnswer(invocation -> allMetrics(invocation.getArgument(2), 10));
+            when(engagementService.applySyncedMetrics(anyList(), any())).thenReturn(120);
+
+            int updated = syncService.syncSalon(10L);
+
+            ArgumentCaptor<List<String>> batches = ArgumentCaptor.forClass(List.class);
+            verify(metaGraphAPIService, times(5)).getPostMetricsBatch(eq("token"), any(), batches.capture());
+            assertThat(batches.getAllValues()).extracting(List::size).containsExactly(25, 25, 25, 25, 20);
+
+            ArgumentCaptor<List<PublicationMetrics>> stored = ArgumentCaptor.forClass(List.class);
+            verify(engagementService).applySyncedMetrics(stored.capture(), any());
+            assertThat(stored.getValue()).hasSize(120);
+            assertThat(stored.getValue().get(0).curtidas()).isEqualTo(10);
+            assertThat(updated).isEqualTo(120);
+        }
+
+        @Test
+        @DisplayName("Should pause a token once Meta reports high usage")
+        void shouldPauseThrottledToken() {
+            LocalDateTime publishedAt = LocalDateTime.now().minusHours(1);
+            List<PostPublicacao> publicacoes = LongStream.rangeClosed(1, 120)
+                .mapToObj(id -> publicacao(id, publishedAt, null))
+                .toList();
+
+            when(contaSocialRepository.findBySalonIdAndPlataformaAndAtivaTrue(10L, PlataformaSocial.INSTAGRAM))
+                .thenReturn(Optional.of(instagram));
+            when(metaGraphAPIService.getPostMetricsBatch(eq("token"), eq(PlataformaSocial.INSTAGRAM), anyList()))
+                .thenAnswer(invocation -> allMetrics(invocation.getArgument(2), 95));
+
+            Map<Long, PostMetrics> metrics = syncService.fetchMetrics(10L, publicacoes);
+            Map<Long, PostMetrics> afterPause = syncService.fetchMetrics(10L, publicacoes);
+
+            verify(metaGraphAPIService, times(1)).getPostMetricsBatch(anyString(), any(), anyList());
+            assertThat(metrics).hasSize(25);
+            assertThat(afterPause).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should skip platforms without an active account")
+        void shouldSkipPlatformWithoutAccount() {
+            when(contaSocialRepository.findBySalonIdAndPlataformaAndAtivaTrue(10L, PlataformaSocial.INSTAGRAM))
+                .thenReturn(Optional.empty());
+
+            Map<Long, PostMetrics> metrics = syncService.fetchMetrics(10L,
+                List.of(publicacao(1, LocalDateTime.now(), null)));
+
+            assertThat(metrics).isEmpty();
+            verifyNoInteractions(metaGraphAPIService);
+        }
+    }
+}
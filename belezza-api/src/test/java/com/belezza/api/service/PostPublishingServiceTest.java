@@ -0,0 +1,243 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.*;
+import com.belezza.api.integration.MetaGraphAPIService;
+import com.belezza.api.repository.PostPublicacaoRepository;
+import com.belezza.api.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("PostPublishingService Tests")
+class PostPublishingServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private PostPublicacaoRepository postPublicacaoRepository;
+
+    @Mock
+    private SocialAccountService socialAccountService;
+
+    @Mock
+    private MetaGraphAPIService metaGraphAPIService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private PostPublishingService publishingService;
+
+    private Post post;
+    private PostPublicacao instagram;
+    private PostPublicacao facebook;
+
+    @BeforeEach
+    void setUp() {
+        publishingService = new PostPublishingService(postRepository, postPublicacaoRepository,
+            socialAccountService, metaGraphAPIService, transactionTemplate, Runnable::run);
+        ReflectionTestUtils.setField(publishingService, "claimTimeoutMinutes", 15);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        Salon salon = Salon.builder().id(1L).nome("Salão Teste").build();
+        post = Post.builder()
+            .id(10L)
+            .salon(salon)
+            .imagemUrl("https://example.com/image.jpg")
+            .legenda("Legenda")
+            .plataformas(new ArrayList<>(List.of(PlataformaSocial.INSTAGRAM, PlataformaSocial.FACEBOOK)))
+            .status(StatusPost.AGENDADO)
+            .build();
+
+        instagram = PostPublicacao.builder().post(post).plataforma(PlataformaSocial.INSTAGRAM).build();
+        facebook = PostPublicacao.builder().post(post).plataforma(PlataformaSocial.FACEBOOK).build();
+
+        when(postRepository.findById(10L)).thenReturn(Optional.of(post));
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(postPublicacaoRepository.findByPostId(10L)).thenReturn(List.of(instagram, facebook));
+        when(socialAccountService.hasActiveAccount(eq(1L), any())).thenReturn(true);
+        when(socialAccountService.getAccountByPlatform(eq(1L), any())).thenReturn(
+            ContaSocial.builder().accountId("account").accessToken("token").build());
+
+        // Claimed publications move to PUBLICANDO; results are written back like the repository would
+        when(postPublicacaoRepository.claimForPublishing(eq(10L), any(), anyString(), any(), any()))
+            .thenAnswer(invocation -> {
+                PostPublicacao publicacao = publicacao(invocation.getArgument(1));
+                if (publicacao.getStatus() == StatusPublicacao.PUBLICADO
+                    || publicacao.getStatus() == StatusPublicacao.PUBLICANDO) {
+                    return 0;
+                }
+                publicacao.setStatus(StatusPublicacao.PUBLICANDO);
+                return 1;
+            });
+        when(postPublicacaoRepository.markPublished(eq(10L), any(), anyString(), anyString(), any()))
+            .thenAnswer(invocation -> {
+                PostPublicacao publicacao = publicacao(invocation.getArgument(1));
+                publicacao.setStatus(StatusPublicacao.PUBLICADO);
+                publicacao.setExternalPostId(invocation.getArgument(3));
+                publicacao.setPublicadoEm(invocation.getArgument(4));
+                return 1;
+            });
+        when(postPublicacaoRepository.markFailed(eq(10L), any(), anyString(), any(), any()))
+            .thenAnswer(invocation -> {
+                PostPublicacao publicacao = publicacao(invocation.getArgument(1));
+                publicacao.setStatus(StatusPublicacao.FALHOU);
+                publicacao.setErro(invocation.getArgument(3));
+                return 1;
+            });
+    }
+
+    private PostPublicacao publicacao(PlataformaSocial plataforma) {
+        return plataforma == PlataformaSocial.INSTAGRAM ? instagram : facebook;
+    }
+
+    @Nested
+    @DisplayName("Publish Tests")
+    class PublishTests {
+
+        @Test
+        @DisplayName("Should publish every platform and mark the post as published")
+        void shouldPublishAllPlatforms() {
+            when(metaGraphAPIService.publishToInstagram(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "ig_1", null));
+            when(metaGraphAPIService.publishToFacebook(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "fb_1", null));
+
+            Post result = publishingService.publish(1L, 10L);
+
+            assertThat(result.getStatus()).isEqualTo(StatusPost.PUBLICADO);
+            assertThat(result.getPublicadoEm()).isNotNull();
+            assertThat(instagram.getExternalPostId()).isEqualTo("ig_1");
+            assertThat(facebook.getExternalPostId()).isEqualTo("fb_1");
+        }
+
+        @Test
+        @DisplayName("Should only republish platforms that failed on retry")
+        void shouldOnlyRetryFailedPlatforms() {
+            instagram.setStatus(StatusPublicacao.PUBLICADO);
+            instagram.setPublicadoEm(LocalDateTime.now().minusMinutes(5));
+            facebook.setStatus(StatusPublicacao.FALHOU);
+            post.setStatus(StatusPost.FALHOU);
+
+            when(metaGraphAPIService.publishToFacebook(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "fb_1", null));
+
+            Post result = publishingService.publish(1L, 10L);
+
+            verify(metaGraphAPIService, never()).publishToInstagram(any(), any(), any());
+            verify(metaGraphAPIService).publishToFacebook(anyString(), anyString(), any());
+            assertThat(result.getStatus()).isEqualTo(StatusPost.PUBLICADO);
+        }
+
+        @Test
+        @DisplayName("Should not call Meta when another attempt holds the claim")
+        void shouldSkipPublicationClaimedElsewhere() {
+            instagram.setStatus(StatusPublicacao.PUBLICANDO);
+            facebook.setStatus(StatusPublicacao.PUBLICANDO);
+
+            Post result = publishingService.publish(1L, 10L);
+
+            verifyNoInteractions(metaGraphAPIService);
+            assertThat(result.getStatus()).isEqualTo(StatusPost.PUBLICANDO);
+        }
+
+        @Test
+        @DisplayName("Should mark post as failed when a platform fails")
+        void shouldMarkPostFailed() {
+            when(metaGraphAPIService.publishToInstagram(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "ig_1", null));
+            when(metaGraphAPIService.publishToFacebook(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(false, null, "API Error"));
+
+            Post result = publishingService.publish(1L, 10L);
+
+            assertThat(result.getStatus()).isEqualTo(StatusPost.FALHOU);
+            assertThat(result.getPublishErrorMessage()).contains("FACEBOOK: API Error");
+            assertThat(instagram.getStatus()).isEqualTo(StatusPublicacao.PUBLICADO);
+        }
+
+        @Test
+        @DisplayName("Should retry storing the result and never mark a live post as failed")
+        void shouldRetryRecordingPublishedPost() {
+            when(metaGraphAPIService.publishToInstagram(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "ig_1", null));
+            when(metaGraphAPIService.publishToFacebook(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "fb_1", null));
+            when(postPublicacaoRepository.markPublished(eq(10L), eq(PlataformaSocial.FACEBOOK), anyString(), anyString(), any()))
+                .thenThrow(new IllegalStateException("Connection reset"))
+                .thenAnswer(invocation -> {
+                    facebook.setStatus(StatusPublicacao.PUBLICADO);
+                    facebook.setExternalPostId(invocation.getArgument(3));
+                    return 1;
+                });
+
+            Post result = publishingService.publish(1L, 10L);
+
+            verify(postPublicacaoRepository, never()).markFailed(any(), any(), any(), any(), any());
+            assertThat(facebook.getExternalPostId()).isEqualTo("fb_1");
+            assertThat(result.getStatus()).isEqualTo(StatusPost.PUBLICADO);
+        }
+
+        @Test
+        @DisplayName("Should leave the publication in progress when the result cannot be stored")
+        void shouldLeavePublishingWhenResultCannotBeStored() {
+            when(metaGraphAPIService.publishToInstagram(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "ig_1", null));
+            when(metaGraphAPIService.publishToFacebook(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "fb_1", null));
+            when(postPublicacaoRepository.markPublished(eq(10L), eq(PlataformaSocial.FACEBOOK), anyString(), anyString(), any()))
+                .thenThrow(new IllegalStateException("Connection reset"));
+
+            Post result = publishingService.publish(1L, 10L);
+
+            verify(postPublicacaoRepository, never()).markFailed(any(), any(), any(), any(), any());
+            assertThat(facebook.getStatus()).isEqualTo(StatusPublicacao.PUBLICANDO);
+            assertThat(result.getStatus()).isEqualTo(StatusPost.PUBLICANDO);
+        }
+
+        @Test
+        @DisplayName("Should keep the post id when the claim was taken over by another attempt")
+        void shouldRecordPostIdAfterTakeover() {
+            when(metaGraphAPIService.publishToInstagram(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "ig_1", null));
+            when(metaGraphAPIService.publishToFacebook(anyString(), anyString(), any()))
+                .thenReturn(new MetaGraphAPIService.PublishResponse(true, "fb_1", null));
+            when(postPublicacaoRepository.markPublished(eq(10L), eq(PlataformaSocial.FACEBOOK), anyString(), anyString(), any()))
+                .thenReturn(0);
+            when(postPublicacaoRepository.markPublishedAfterTakeover(eq(10L), eq(PlataformaSocial.FACEBOOK), eq("fb_1"), any()))
+                .thenAnswer(invocation -> {
+                    facebook.setStatus(StatusPublicacao.PUBLICADO);
+                    facebook.setExternalPostId(invocation.getArgument(2));
+                    return 1;
+                });
+
+            publishingService.publish(1L, 10L);
+
+            verify(postPublicacaoRepository).markPublishedAfterTakeover(eq(10L), eq(PlataformaSocial.FACEBOOK), eq("fb_1"), any());
+            assertThat(facebook.getExternalPostId()).isEqualTo("fb_1");
+            assertThat(facebook.getStatus()).isEqualTo(StatusPublicacao.PUBLICADO);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.belezza.api.entity.*;
 import com.belezza.api.exception.BusinessException;
 import com.belezza.api.exception.ResourceNotFoundException;
 import com.belezza.api.integration.MetaGraphAPIService;
+import com.belezza.api.repository.PostPublicacaoRepository;
 import com.belezza.api.repository.PostRepository;
 import com.belezza.api.repository.SalonRepository;
 import com.belezza.api.repository.UsuarioRepository;
@@ -36,6 +37,9 @@ class PostServiceTest {
     @Mock
     private PostRepository postRepository;
 
+    @Mock
+    private PostPublicacaoRepository postPublicacaoRepository;
+
     @Mock
     private SalonRepository salonRepository;
 
@@ -48,6 +52,12 @@ class PostServiceTest {
     @Mock
     private MetaGraphAPIService metaGraphAPIService;
 
+    @Mock
+    private PostMetricsSyncService postMetricsSyncService;
+
+    @Mock
+    private PostPublishingService postPublishingService;
+
     @InjectMocks
     private PostService postService;
 
@@ -0,0 +1,174 @@
+package com.belezza.api.service;
+
+import com.belezza.api.integration.S3Service;
+import com.belezza.api.service.RenditionCache.CachedRendition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("RenditionCache Tests")
+class RenditionCacheTest {
+
+    private static final String SOURCE_HASH = "ab12ef";
+
+    @Mock
+    private S3Service s3Service;
+
+    @Mock
+    private ContentStorageService contentStorageService;
+
+    @TempDir
+    private Path directory;
+
+    private RenditionCache renditionCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        renditionCache = new RenditionCache(s3Service, contentStorageService);
+        ReflectionTestUtils.setField(renditionCache, "directory", directory.resolve("renditions").toString());
+        ReflectionTestUtils.setField(renditionCache, "maxBytes", 100L);
+        renditionCache.init();
+
+        when(s3Service.uploadBytesToKeyAsync(any(), anyString(), anyString(), anyMap()))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(2)));
+        when(s3Service.getObjectMetadataAsync(anyString()))
+            .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(contentStorageService.findKey(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Nested
+    @DisplayName("Key Tests")
+    class KeyTests {
+
+        @Test
+        @DisplayName("Should derive the key from source hash, operation and parameters")
+        void shouldBuildKey() {
+            assertThat(RenditionCache.key(SOURCE_HASH, "crop", "square_1_1"))
+                .isEqualTo("renditions/ab/ab12ef/crop-square_1_1.jpg");
+        }
+
+        @Test
+        @DisplayName("Should reject parameters that would escape the key")
+        void shouldRejectInvalidParams() {
+            assertThatThrownBy(() -> RenditionCache.key(SOURCE_HASH, "crop", "../x"))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        @Test
+        @DisplayName("Should miss when neither tier has the rendition")
+        void shouldMiss() {
+            assertThat(renditionCache.lookup(SOURCE_HASH, "crop", "square_1_1").join()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should read a rendition from S3 metadata with a HEAD")
+        void shouldHitS3() {
+            String key = RenditionCache.key(SOURCE_HASH, "crop", "square_1_1");
+            when(s3Service.getObjectMetadataAsync(key)).thenReturn(CompletableFuture.completedFuture(Optional.of(
+                Map.of("sha256", "cd34", "width", "1200", "height", "1200", "size", "512"))));
+
+            Optional<CachedRendition> rendition = renditionCache.lookup(SOURCE_HASH, "crop", "square_1_1").join();
+
+            assertThat(rendition).contains(new CachedRendition(key, "cd34", 1200, 1200, 512));
+        }
+
+        @Test
+        @DisplayName("Should treat objects without metadata as a miss")
+        void shouldMissWithoutMetadata() {
+            when(s3Service.getObjectMetadataAsync(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(Map.of())));
+
+            assertThat(renditionCache.lookup(SOURCE_HASH, "crop", "square_1_1").join()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should answer from local disk without a HEAD while the content is stored")
+        void shouldHitLocalDisk() {
+            renditionCache.store(SOURCE_HASH, "crop", "square_1_1", new byte[10], "cd34", 100, 100).join();
+            when(contentStorageService.findKey("cd34")).thenReturn(Optional.of("renditions/ab/x.jpg"));
+
+            Optional<CachedRendition> rendition = renditionCache.lookup(SOURCE_HASH, "crop", "square_1_1").join();
+
+            assertThat(rendition).map(CachedRendition::hash).contains("cd34");
+            verify(s3Service, never()).getObjectMetadataAsync(anyString());
+        }
+
+        @Test
+        @DisplayName("Should restore a deleted S3 object from local disk without re-rendering")
+        void shouldRestoreFromLocalDisk() {
+            byte[] data = {1, 2, 3};
+            renditionCache.store(SOURCE_HASH, "crop", "square_1_1", data, "cd34", 100, 100).join();
+            String key = RenditionCache.key(SOURCE_HASH, "crop", "square_1_1");
+
+            Optional<CachedRendition> rendition = renditionCache.lookup(SOURCE_HASH, "crop", "square_1_1").join();
+
+            assertThat(rendition).map(CachedRendition::key).contains(key);
+            verify(s3Service, times(2)).uploadBytesToKeyAsync(eq(data), eq("image/jpeg"), eq(key), anyMap());
+        }
+
+        @Test
+        @DisplayName("Should treat S3 errors as a miss")
+        void shouldMissOnS3Error() {
+            when(s3Service.getObjectMetadataAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Failed to read object metadata from S3")));
+
+            assertThat(renditionCache.lookup(SOURCE_HASH, "crop", "square_1_1").join()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Store Tests")
+    class StoreTests {
+
+        @Test
+        @DisplayName("Should upload with hash and dimensions as metadata")
+        void shouldUploadWithMetadata() {
+            renditionCache.store(SOURCE_HASH, "crop", "story_9_16", new byte[20], "cd34", 675, 1200).join();
+
+            verify(s3Service).uploadBytesToKeyAsync(any(), eq("image/jpeg"),
+                eq("renditions/ab/ab12ef/crop-story_9_16.jpg"),
+                eq(Map.of("sha256", "cd34", "width", "675", "height", "1200", "size", "20")));
+        }
+
+        @Test
+        @DisplayName("Should evict least recently used renditions over the disk budget")
+        void shouldEvictLeastRecentlyUsed() {
+            renditionCache.store(SOURCE_HASH, "crop", "a", new byte[40], "h1", 1, 1).join();
+            renditionCache.store(SOURCE_HASH, "crop", "b", new byte[40], "h2", 1, 1).join();
+            renditionCache.store(SOURCE_HASH, "crop", "c", new byte[40], "h3", 1, 1).join();
+            when(contentStorageService.findKey(anyString())).thenReturn(Optional.of("stored"));
+
+            assertThat(renditionCache.localBytes()).isEqualTo(80);
+            renditionCache.lookup(SOURCE_HASH, "crop", "a").join();
+            verify(s3Service).getObjectMetadataAsync(RenditionCache.key(SOURCE_HASH, "crop", "a"));
+            renditionCache.lookup(SOURCE_HASH, "crop", "c").join();
+            verify(s3Service, never()).getObjectMetadataAsync(RenditionCache.key(SOURCE_HASH, "crop", "c"));
+        }
+    }
+}
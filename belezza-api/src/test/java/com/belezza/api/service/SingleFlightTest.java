@@ -0,0 +1,205 @@
+package com.belezza.api.service;
+
+import com.belezza.api.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+
+    private static final String KEY = SingleFlight.key("https://cdn/source.jpg", "enhance", null);
+
+    @SuppressWarnings("unchecked")
+    private static SingleFlight singleFlight(StringRedisTemplate redisTemplate) {
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(redisTemplate);
+        return new SingleFlight(provider, redisTemplate != null, 300, 600, 5, 10);
+    }
+
+    @Test
+    @DisplayName("Should key by image version, operation and parameters")
+    void shouldKeyByVersionOperationAndParams() {
+        String key = SingleFlight.key("https://cdn/a.jpg", "upscale", "{\"factor\": 2}");
+
+        assertThat(key).startsWith("upscale:");
+        assertThat(key).isEqualTo(SingleFlight.key("https://cdn/a.jpg", "upscale", "{\"factor\": 2}"));
+        assertThat(key).isNotEqualTo(SingleFlight.key("https://cdn/a.jpg", "upscale", "{\"factor\": 4}"));
+        assertThat(key).isNotEqualTo(SingleFlight.key("https://cdn/b.jpg", "upscale", "{\"factor\": 2}"));
+    }
+
+    @Nested
+    @DisplayName("Local Tests")
+    class LocalTests {
+
+        private SingleFlight singleFlight;
+
+        @BeforeEach
+        void setUp() {
+            singleFlight = singleFlight(null);
+        }
+
+        @Test
+        @DisplayName("Should run concurrent identical calls once")
+        void shouldCoalesceConcurrentCalls() throws Exception {
+            AtomicInteger calls = new AtomicInteger();
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+
+            try {
+                Future<String> leader = executor.submit(() -> singleFlight.execute(KEY, () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return "https://replicate/out.png";
+                }));
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+                List<Future<String>> followers = List.of(
+                    executor.submit(() -> singleFlight.execute(KEY, () -> "https://replicate/other.png")),
+                    executor.submit(() -> singleFlight.execute(KEY, () -> "https://replicate/other.png")));
+                Thread.sleep(100);
+                release.countDown();
+
+                assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("https://replicate/out.png");
+                for (Future<String> follower : followers) {
+                    assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("https://replicate/out.png");
+                }
+                assertThat(calls).hasValue(1);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should run again once the previous call finished")
+        void shouldRunAgainAfterCompletion() {
+            AtomicInteger calls = new AtomicInteger();
+
+            singleFlight.execute(KEY, () -> String.valueOf(calls.incrementAndGet()));
+            singleFlight.execute(KEY, () -> String.valueOf(calls.incrementAndGet()));
+
+            assertThat(calls).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("Should rethrow the failure to the caller and not remember it")
+        void shouldRethrowFailure() {
+            assertThatThrownBy(() -> singleFlight.execute(KEY, () -> {
+                throw new BusinessException("Replicate failed");
+            })).isInstanceOf(BusinessException.class).hasMessage("Replicate failed");
+
+            assertThat(singleFlight.execute(KEY, () -> "https://replicate/out.png"))
+                .isEqualTo("https://replicate/out.png");
+        }
+
+        private static void await(CountDownLatch latch) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Redis Tests")
+    class RedisTests {
+
+        private StringRedisTemplate redisTemplate;
+        private ValueOperations<String, String> valueOperations;
+        private SingleFlight singleFlight;
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUp() {
+            redisTemplate = mock(StringRedisTemplate.class);
+            valueOperations = mock(ValueOperations.class);
+            when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+            singleFlight = singleFlight(redisTemplate);
+        }
+
+        @Test
+        @DisplayName("Should reuse the result published by another node")
+        void shouldReusePublishedResult() {
+            when(valueOperations.get("ai:single-flight:result:" + KEY)).thenReturn("https://replicate/out.png");
+
+            String result = singleFlight.execute(KEY, () -> {
+                throw new AssertionError("should not run");
+            });
+
+            assertThat(result).isEqualTo("https://replicate/out.png");
+            verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        }
+
+        @Test
+        @DisplayName("Should publish the result and release the lock when holding it")
+        void shouldPublishAndRelease() {
+            when(valueOperations.setIfAbsent(eq("ai:single-flight:lock:" + KEY), anyString(), any(Duration.class)))
+                .thenReturn(true);
+
+            String result = singleFlight.execute(KEY, () -> "https://replicate/out.png");
+
+            assertThat(result).isEqualTo("https://replicate/out.png");
+            verify(valueOperations).set("ai:single-flight:result:" + KEY, "https://replicate/out.png",
+                Duration.ofSeconds(600));
+            verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("ai:single-flight:lock:" + KEY)),
+                anyString());
+        }
+
+        @Test
+        @DisplayName("Should wait for the node holding the lock and take its result")
+        void shouldWaitForLockHolder() {
+            when(valueOperations.get("ai:single-flight:result:" + KEY))
+                .thenReturn(null, null, "https://replicate/out.png");
+            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+            String result = singleFlight.execute(KEY, () -> {
+                throw new AssertionError("should not run");
+            });
+
+            assertThat(result).isEqualTo("https://replicate/out.png");
+        }
+
+        @Test
+        @DisplayName("Should run the call when the lock holder went away without a result")
+        void shouldTakeOverExpiredLock() {
+            when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false, true);
+
+            String result = singleFlight.execute(KEY, () -> "https://replicate/out.png");
+
+            assertThat(result).isEqualTo("https://replicate/out.png");
+        }
+
+        @Test
+        @DisplayName("Should run the call when Redis is unavailable")
+        void shouldFailOpen() {
+            when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+            String result = singleFlight.execute(KEY, () -> "https://replicate/out.png");
+
+            assertThat(result).isEqualTo("https://replicate/out.png");
+        }
+    }
+}
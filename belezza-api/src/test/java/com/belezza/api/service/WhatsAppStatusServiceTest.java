@@ -0,0 +1,126 @@
+package com.belezza.api.service;
+
+import com.belezza.api.dto.whatsapp.WhatsAppWebhookPayload;
+import com.belezza.api.entity.WhatsAppMessage;
+import com.belezza.api.entity.WhatsAppMessageStatus;
+import com.belezza.api.repository.WhatsAppMessageRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WhatsAppStatusService Tests")
+class WhatsAppStatusServiceTest {
+
+    @Mock
+    private WhatsAppMessageRepository messageRepository;
+
+    @InjectMocks
+    private WhatsAppStatusService statusService;
+
+    private static WhatsAppWebhookPayload.Status status(String id, String value, long timestamp) {
+        return new WhatsAppWebhookPayload.Status(id, value, String.valueOf(timestamp), "5511999999999", null);
+    }
+
+    @Nested
+    @DisplayName("Enqueue Tests")
+    class EnqueueTests {
+
+        @Test
+        @DisplayName("Should coalesce statuses per message keeping the latest")
+        void shouldCoalesceStatusesPerMessage() {
+            statusService.enqueue(List.of(
+                status("wamid.1", "sent", 1000),
+                status("wamid.1", "read", 1002),
+                status("wamid.1", "delivered", 1001),
+                status("wamid.2", "delivered", 1000)
+            ));
+
+            assertThat(statusService.getPendingCount()).isEqualTo(2);
+
+            List<WhatsAppStatusService.StatusUpdate> batch = statusService.drain(10);
+            WhatsAppStatusService.StatusUpdate first = batch.stream()
+                .filter(u -> u.messageId().equals("wamid.1"))
+                .findFirst()
+                .orElseThrow();
+
+            assertThat(first.status()).isEqualTo(WhatsAppMessageStatus.READ);
+            assertThat(first.entregueEm()).isNotNull();
+            assertThat(first.lidoEm()).isNotNull();
+            assertThat(statusService.getPendingCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should ignore unknown statuses")
+        void shouldIgnoreUnknownStatuses() {
+            int accepted = statusService.enqueue(List.of(status("wamid.1", "deleted", 1000)));
+
+            assertThat(accepted).isZero();
+            assertThat(statusService.getPendingCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should drain at most the requested batch size")
+        void shouldDrainAtMostBatchSize() {
+            statusService.enqueue(List.of(
+                status("wamid.1", "sent", 1000),
+                status("wamid.2", "sent", 1000),
+                status("wamid.3", "sent", 1000)
+            ));
+
+            assertThat(statusService.drain(2)).hasSize(2);
+            assertThat(statusService.getPendingCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Apply Batch Tests")
+    class ApplyBatchTests {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Should load messages in one query and save only changed ones")
+        void shouldApplyBatchWithSingleLookup() {
+            WhatsAppMessage sent = WhatsAppMessage.builder()
+                .messageId("wamid.1").telefone("+5511999999999").tipo("text")
+                .status(WhatsAppMessageStatus.SENT).build();
+            WhatsAppMessage alreadyRead = WhatsAppMessage.builder()
+                .messageId("wamid.2").telefone("+5511999999999").tipo("text")
+                .status(WhatsAppMessageStatus.READ).build();
+            alreadyRead.setEntregueEm(java.time.LocalDateTime.now());
+            alreadyRead.setLidoEm(java.time.LocalDateTime.now());
+
+            when(messageRepository.findByMessageIdIn(anyCollection())).thenReturn(List.of(sent, alreadyRead));
+
+            statusService.enqueue(List.of(
+                status("wamid.1", "delivered", 1000),
+                status("wamid.2", "delivered", 1000),
+                status("wamid.3", "read", 1000)
+            ));
+
+            int updated = statusService.applyBatch(statusService.drain(10));
+
+            assertThat(updated).isEqualTo(1);
+            assertThat(sent.getStatus()).isEqualTo(WhatsAppMessageStatus.DELIVERED);
+            assertThat(sent.getEntregueEm()).isNotNull();
+            assertThat(alreadyRead.getStatus()).isEqualTo(WhatsAppMessageStatus.READ);
+
+            ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+            verify(messageRepository, times(1)).findByMessageIdIn(ids.capture());
+            assertThat(ids.getValue()).containsExactlyInAnyOrder("wamid.1", "wamid.2", "wamid.3");
+            verify(messageRepository).saveAll(List.of(sent));
+        }
+    }
+}
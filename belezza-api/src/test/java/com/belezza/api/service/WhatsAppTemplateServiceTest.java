@@ -0,0 +1,196 @@
+package com.belezza.api.service;
+
+import com.belezza.api.entity.Salon;
+import com.belezza.api.entity.TipoMensagemWhatsApp;
+import com.belezza.api.entity.WhatsAppTemplate;
+import com.belezza.api.exception.BusinessException;
+import com.belezza.api.exception.ResourceNotFoundException;
+import com.belezza.api.repository.WhatsAppTemplateRepository;
+import com.belezza.api.util.MessageTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WhatsAppTemplateService Tests")
+class WhatsAppTemplateServiceTest {
+
+    @Mock
+    private WhatsAppTemplateRepository templateRepository;
+
+    @Mock
+    private SalonService salonService;
+
+    @InjectMocks
+    private WhatsAppTemplateService templateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(templateService, "cacheTtlSeconds", 300L);
+    }
+
+    @Nested
+    @DisplayName("Rendering Tests")
+    class RenderingTests {
+
+        @Test
+        @DisplayName("Should render default template like the previous String.format text")
+        void shouldRenderDefaultTemplate() {
+            String expected = String.format(
+                """
+                Olá %s! ⏰
+
+                Seu horário está chegando!
+                ⏰ Daqui a 2 horas: %s
+                💇 %s
+                📍 %s
+
+                Aguardamos você!
+                """,
+                "Maria", "14:30", "Corte", "Rua ABC, 123"
+            );
+
+            String rendered = WhatsAppTemplateService.defaultTemplate(TipoMensagemWhatsApp.LEMBRETE_2H)
+                .render("Maria", "14:30", "Corte", "Rua ABC, 123");
+
+            assertThat(rendered).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("Should allow variables in any order, repeated or omitted")
+        void shouldRenderVariablesInAnyOrder() {
+            MessageTemplate template = MessageTemplate.compile(
+                "{{ hora }} - {{nome}}, até {{hora}}!", List.of("nome", "hora", "servico"));
+
+            assertThat(template.render("Ana", "10:00", null)).isEqualTo("10:00 - Ana, até 10:00!");
+        }
+
+        @Test
+        @DisplayName("Should reject unknown and unclosed placeholders")
+        void shouldRejectInvalidPlaceholders() {
+            assertThatThrownBy(() -> MessageTemplate.compile("Olá {{cliente}}", List.of("nome")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cliente");
+            assertThatThrownBy(() -> MessageTemplate.compile("Olá {{nome", List.of("nome")))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Salon Template Tests")
+    class SalonTemplateTests {
+
+        private static final String ADMIN_A = "admin@salao-a.com";
+
+        @Test
+        @DisplayName("Should use salon template and compile it only once")
+        void shouldUseCachedSalonTemplate() {
+            WhatsAppTemplate custom = WhatsAppTemplate.builder()
+                .tipo(TipoMensagemWhatsApp.POS_ATENDIMENTO)
+                .conteudo("Valeu, {{nome}}! Avalie: {{linkAvaliacao}}")
+                .build();
+            when(templateRepository.findBySalonIdAndTipo(1L, TipoMensagemWhatsApp.POS_ATENDIMENTO))
+                .thenReturn(Optional.of(custom));
+
+            String first = templateService.getTemplate(1L, TipoMensagemWhatsApp.POS_ATENDIMENTO)
+                .render("Ana", "https://belezza.ai/avaliar/x");
+            templateService.getTemplate(1L, TipoMensagemWhatsApp.POS_ATENDIMENTO);
+
+            assertThat(first).isEqualTo("Valeu, Ana! Avalie: https://belezza.ai/avaliar/x");
+            verify(templateRepository, times(1)).findBySalonIdAndTipo(1L, TipoMensagemWhatsApp.POS_ATENDIMENTO);
+        }
+
+        @Test
+        @DisplayName("Should fall back to default template without salon")
+        void shouldUseDefaultWithoutSalon() {
+            MessageTemplate template = templateService.getTemplate(null, TipoMensagemWhatsApp.CANCELAMENTO);
+
+            assertThat(template).isSameAs(WhatsAppTemplateService.defaultTemplate(TipoMensagemWhatsApp.CANCELAMENTO));
+            verifyNoInteractions(templateRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject custom template with unknown variable")
+        void shouldRejectInvalidCustomTemplate() {
+            assertThatThrownBy(() -> templateService.saveTemplate(ADMIN_A, TipoMensagemWhatsApp.LEMBRETE_2H,
+                "Olá {{nome}}, seu horário é {{data}}"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("data");
+
+            verify(templateRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should save custom template and serve it immediately")
+        void shouldSaveCustomTemplate() {
+            when(templateRepository.findBySalonIdAndTipo(1L, TipoMensagemWhatsApp.LEMBRETE_2H))
+                .thenReturn(Optional.empty());
+            when(salonService.getSalonByAdminEmail(ADMIN_A)).thenReturn(Salon.builder().id(1L).build());
+            when(templateRepository.save(any(WhatsAppTemplate.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            templateService.saveTemplate(ADMIN_A, TipoMensagemWhatsApp.LEMBRETE_2H, "{{nome}}, te esperamos às {{hora}}");
+
+            String rendered = templateService.getTemplate(1L, TipoMensagemWhatsApp.LEMBRETE_2H)
+                .render("Ana", "15:00", "Corte", "Rua ABC");
+            assertThat(rendered).isEqualTo("Ana, te esperamos às 15:00");
+            verify(templateRepository, times(1)).findBySalonIdAndTipo(1L, TipoMensagemWhatsApp.LEMBRETE_2H);
+        }
+
+        @Test
+        @DisplayName("Should only touch the templates of the admin's own salon")
+        void shouldNotTouchOtherSalonTemplates() {
+            WhatsAppTemplate templateA = WhatsAppTemplate.builder()
+                .salon(Salon.builder().id(1L).build())
+                .tipo(TipoMensagemWhatsApp.POS_ATENDIMENTO)
+                .conteudo("Salão A: obrigado, {{nome}}!")
+                .build();
+            WhatsAppTemplate templateB = WhatsAppTemplate.builder()
+                .salon(Salon.builder().id(2L).build())
+                .tipo(TipoMensagemWhatsApp.POS_ATENDIMENTO)
+                .conteudo("Salão B: obrigado, {{nome}}!")
+                .build();
+            when(salonService.getSalonByAdminEmail(ADMIN_A)).thenReturn(templateA.getSalon());
+            when(templateRepository.findBySalonIdAndTipo(1L, TipoMensagemWhatsApp.POS_ATENDIMENTO))
+                .thenReturn(Optional.of(templateA));
+            when(templateRepository.findBySalonIdAndTipo(2L, TipoMensagemWhatsApp.POS_ATENDIMENTO))
+                .thenReturn(Optional.of(templateB));
+            when(templateRepository.save(any(WhatsAppTemplate.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            templateService.saveTemplate(ADMIN_A, TipoMensagemWhatsApp.POS_ATENDIMENTO, "Valeu, {{nome}}!");
+            templateService.resetTemplate(ADMIN_A, TipoMensagemWhatsApp.POS_ATENDIMENTO);
+
+            verify(templateRepository).save(templateA);
+            verify(templateRepository).delete(templateA);
+            verify(templateRepository, never()).save(templateB);
+            verify(templateRepository, never()).delete(templateB);
+            assertThat(templateB.getConteudo()).isEqualTo("Salão B: obrigado, {{nome}}!");
+            assertThat(templateService.getTemplate(2L, TipoMensagemWhatsApp.POS_ATENDIMENTO).render("Ana", null))
+                .isEqualTo("Salão B: obrigado, Ana!");
+        }
+
+        @Test
+        @DisplayName("Should reject admins without a salon")
+        void shouldRejectAdminWithoutSalon() {
+            when(salonService.getSalonByAdminEmail("admin@sem-salao.com"))
+                .thenThrow(new ResourceNotFoundException("Salon not found for admin"));
+
+            assertThatThrownBy(() -> templateService.listTemplates("admin@sem-salao.com"))
+                .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(templateRepository);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.belezza.api.util;
+
+import com.belezza.api.util.ImageEncoder.EncodedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("ImageEncoder Tests")
+class ImageEncoderTest {
+
+    private ImageEncoder imageEncoder;
+
+    @BeforeEach
+    void setUp() {
+        imageEncoder = new ImageEncoder();
+    }
+
+    private static BufferedImage noise(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static boolean containsMarker(byte[] data, int marker) {
+        for (int i = 0; i < data.length - 1; i++) {
+            if ((data[i] & 0xff) == 0xff && (data[i + 1] & 0xff) == marker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nested
+    @DisplayName("JPEG Tests")
+    class JpegTests {
+
+        @Test
+        @DisplayName("Should write a progressive JPEG without EXIF metadata")
+        void shouldWriteProgressiveJpegWithoutMetadata() {
+            EncodedImage encoded = encode(noise(64, 64, BufferedImage.TYPE_INT_RGB), Long.MAX_VALUE);
+
+            assertThat(encoded.contentType()).isEqualTo("image/jpeg");
+            assertThat(containsMarker(encoded.data(), 0xC2)).as("progressive SOF2").isTrue();
+            assertThat(containsMarker(encoded.data(), 0xE1)).as("APP1 (EXIF/XMP)").isFalse();
+        }
+
+        @Test
+        @DisplayName("Should flatten transparency instead of failing")
+        void shouldFlattenTransparency() throws IOException {
+            EncodedImage encoded = encode(noise(32, 32, BufferedImage.TYPE_INT_ARGB), Long.MAX_VALUE);
+
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(encoded.data()));
+            assertThat(decoded.getWidth()).isEqualTo(32);
+            assertThat(decoded.getColorModel().hasAlpha()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should tag the settings so cached renditions follow changes")
+        void shouldTagSettings() {
+            assertThat(imageEncoder.settingsTag()).isEqualTo("q85p");
+            assertThat(new ImageEncoder(0.7f, false).settingsTag()).isEqualTo("q70");
+        }
+    }
+
+    @Nested
+    @DisplayName("Size Budget Tests")
+    class SizeBudgetTests {
+
+        @Test
+        @DisplayName("Should keep full size when the image fits the budget")
+        void shouldKeepSizeWithinBudget() {
+            EncodedImage encoded = encode(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), 1024 * 1024);
+
+            assertThat(encoded.width()).isEqualTo(400);
+            assertThat(encoded.height()).isEqualTo(300);
+        }
+
+        @Test
+        @DisplayName("Should lower quality and then downscale to fit the budget")
+        void shouldFitBudget() {
+            BufferedImage image = noise(800, 600, BufferedImage.TYPE_INT_RGB);
+            int fullSize = encode(image, Long.MAX_VALUE).data().length;
+            int budget = fullSize / 6;
+
+            EncodedImage encoded = encode(image, budget);
+
+            assertThat(encoded.data().length).isLessThanOrEqualTo(budget);
+            assertThat(encoded.width()).isLessThan(800);
+            assertThat((double) encoded.width() / encoded.height()).isCloseTo(800.0 / 600, offset(0.02));
+        }
+    }
+
+    private EncodedImage encode(BufferedImage image, long maxBytes) {
+        try {
+            return imageEncoder.encodeJpeg(image, maxBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
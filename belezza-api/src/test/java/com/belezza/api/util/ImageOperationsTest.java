@@ -0,0 +1,235 @@
+package com.belezza.api.util;
+
+import com.belezza.api.entity.StyleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+@DisplayName("ImageOperations Tests")
+class ImageOperationsTest {
+
+    private ImageOperations imageOperations;
+
+    @BeforeEach
+    void setUp() {
+        imageOperations = new ImageOperations(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageOperations.shutdown();
+    }
+
+    private static BufferedImage noise(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage filled(int width, int height, int argb, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    private static double variance(BufferedImage image) {
+        double sum = 0;
+        double sumSquares = 0;
+        int count = image.getWidth() * image.getHeight();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int green = (image.getRGB(x, y) >> 8) & 0xff;
+                sum += green;
+                sumSquares += green * green;
+            }
+        }
+        double mean = sum / count;
+        return sumSquares / count - mean * mean;
+    }
+
+    private static int red(int rgb) {
+        return (rgb >> 16) & 0xff;
+    }
+
+    private static int blue(int rgb) {
+        return rgb & 0xff;
+    }
+
+    @Nested
+    @DisplayName("Blur Tests")
+    class BlurTests {
+
+        @Test
+        @DisplayName("Should use a normalised kernel covering three sigmas")
+        void shouldNormaliseKernel() {
+            float[] kernel = ImageOperations.kernel(2.0);
+
+            float sum = 0;
+            for (float weight : kernel) {
+                sum += weight;
+            }
+            assertThat(kernel).hasSize(13);
+            assertThat(sum).isCloseTo(1f, offset(0.0001f));
+            assertThat(kernel[6]).isGreaterThan(kernel[5]);
+        }
+
+        @Test
+        @DisplayName("Should smooth noise and keep the image size")
+        void shouldSmoothNoise() {
+            BufferedImage image = noise(300, 200, BufferedImage.TYPE_INT_RGB);
+
+            BufferedImage blurred = imageOperations.gaussianBlur(image, 3.0);
+
+            assertThat(blurred.getWidth()).isEqualTo(300);
+            assertThat(blurred.getHeight()).isEqualTo(200);
+            assertThat(variance(blurred)).isLessThan(variance(image) / 10);
+        }
+
+        @Test
+        @DisplayName("Should leave a flat image unchanged")
+        void shouldKeepFlatImage() {
+            BufferedImage image = filled(130, 90, 0xff336699, BufferedImage.TYPE_INT_RGB);
+
+            BufferedImage blurred = imageOperations.gaussianBlur(image, 4.0);
+
+            assertThat(blurred.getRGB(0, 0) & 0xffffff).isEqualTo(0x336699);
+            assertThat(blurred.getRGB(129, 89) & 0xffffff).isEqualTo(0x336699);
+        }
+
+        @Test
+        @DisplayName("Should give the same result regardless of the number of threads")
+        void shouldMatchSingleThreaded() {
+            BufferedImage image = noise(257, 300, BufferedImage.TYPE_INT_RGB);
+            ImageOperations singleThreaded = new ImageOperations(1);
+
+            BufferedImage parallel = imageOperations.gaussianBlur(image, 2.5);
+            BufferedImage sequential = singleThreaded.gaussianBlur(image, 2.5);
+            singleThreaded.shutdown();
+
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertThat(parallel.getRGB(x, y)).isEqualTo(sequential.getRGB(x, y));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should blur large radii on a downscaled copy")
+        void shouldBlurLargeSigma() {
+            BufferedImage image = noise(400, 300, BufferedImage.TYPE_INT_RGB);
+
+            BufferedImage blurred = imageOperations.gaussianBlur(image, 40.0);
+
+            assertThat(blurred.getWidth()).isEqualTo(400);
+            assertThat(variance(blurred)).isLessThan(variance(image) / 50);
+        }
+    }
+
+    @Nested
+    @DisplayName("Grade Tests")
+    class GradeTests {
+
+        @Test
+        @DisplayName("Should leave the image unchanged with a neutral grade")
+        void shouldKeepImageWithNeutralGrade() {
+            BufferedImage image = noise(64, 64, BufferedImage.TYPE_INT_RGB);
+
+            BufferedImage graded = imageOperations.applyGrade(image, new ColorGrade(0, 1, 1, 0, 1, 0));
+
+            assertThat(graded.getRGB(10, 20)).isEqualTo(image.getRGB(10, 20));
+            assertThat(graded.getRGB(63, 63)).isEqualTo(image.getRGB(63, 63));
+        }
+
+        @Test
+        @DisplayName("Should warm and desaturate for the vintage preset")
+        void shouldWarmVintage() {
+            BufferedImage image = filled(32, 32, 0xff808080, BufferedImage.TYPE_INT_RGB);
+
+            int graded = imageOperations.applyGrade(image, ColorGrade.of(StyleType.VINTAGE)).getRGB(0, 0);
+
+            assertThat(red(graded)).isGreaterThan(blue(graded));
+        }
+
+        @Test
+        @DisplayName("Should turn the image grey with zero saturation")
+        void shouldDesaturate() {
+            BufferedImage image = filled(16, 16, 0xffcc3322, BufferedImage.TYPE_INT_RGB);
+
+            int graded = imageOperations.applyGrade(image, new ColorGrade(0, 1, 0, 0, 1, 0)).getRGB(0, 0);
+
+            assertThat(red(graded)).isEqualTo(blue(graded));
+        }
+
+        @Test
+        @DisplayName("Should keep transparency")
+        void shouldKeepAlpha() {
+            BufferedImage image = filled(16, 16, 0x40cc3322, BufferedImage.TYPE_INT_ARGB);
+
+            BufferedImage graded = imageOperations.applyGrade(image, ColorGrade.of(StyleType.DRAMATIC));
+
+            assertThat(graded.getColorModel().hasAlpha()).isTrue();
+            assertThat(graded.getRGB(5, 5) >>> 24).isEqualTo(0x40);
+        }
+
+        @Test
+        @DisplayName("Should define a grade for every style")
+        void shouldDefineEveryStyle() {
+            for (StyleType style : StyleType.values()) {
+                assertThat(ColorGrade.of(style)).isNotNull();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Composite Tests")
+    class CompositeTests {
+
+        @Test
+        @DisplayName("Should take the foreground where the mask is opaque and the background elsewhere")
+        void shouldFollowMaskAlpha() {
+            BufferedImage foreground = filled(100, 100, 0xffff0000, BufferedImage.TYPE_INT_RGB);
+            BufferedImage background = filled(100, 100, 0xff0000ff, BufferedImage.TYPE_INT_RGB);
+            BufferedImage mask = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+            for (int y = 0; y < 100; y++) {
+                for (int x = 0; x < 50; x++) {
+                    mask.setRGB(x, y, 0xff000000);
+                }
+            }
+
+            BufferedImage result = imageOperations.composite(foreground, background, mask);
+
+            assertThat(result.getRGB(10, 10) & 0xffffff).isEqualTo(0xff0000);
+            assertThat(result.getRGB(90, 10) & 0xffffff).isEqualTo(0x0000ff);
+        }
+
+        @Test
+        @DisplayName("Should use luminance for masks without alpha and scale them to fit")
+        void shouldUseLuminanceAndScaleMask() {
+            BufferedImage foreground = filled(200, 100, 0xffff0000, BufferedImage.TYPE_INT_RGB);
+            BufferedImage background = filled(200, 100, 0xff0000ff, BufferedImage.TYPE_INT_RGB);
+            BufferedImage mask = filled(20, 10, 0xffffffff, BufferedImage.TYPE_INT_RGB);
+
+            BufferedImage result = imageOperations.composite(foreground, background, mask);
+
+            assertThat(result.getWidth()).isEqualTo(200);
+            assertThat(result.getRGB(100, 50) & 0xffffff).isEqualTo(0xff0000);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.belezza.api.util;
+
+import com.belezza.api.util.ImageEncoder.EncodedImage;
+import com.belezza.api.util.ImageProcessor.AspectRatio;
+import com.belezza.api.util.ImageProcessor.ImageDimensions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ImageProcessor Tests")
+class ImageProcessorTest {
+
+    private ImageProcessor imageProcessor;
+
+    @BeforeEach
+    void setUp() {
+        imageProcessor = new ImageProcessor(new ImageEncoder());
+    }
+
+    private static byte[] image(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    @Nested
+    @DisplayName("Dimension Tests")
+    class DimensionTests {
+
+        @Test
+        @DisplayName("Should read dimensions from the image header")
+        void shouldReadDimensionsFromHeader() throws IOException {
+            assertThat(imageProcessor.readDimensions(new ByteArrayInputStream(image(640, 480, "jpg"))))
+                .isEqualTo(new ImageDimensions(640, 480));
+            assertThat(imageProcessor.getDimensions(image(120, 90, "png")))
+                .isEqualTo(new ImageDimensions(120, 90));
+        }
+
+        @Test
+        @DisplayName("Should reject data that is not an image")
+        void shouldRejectUnknownFormat() {
+            byte[] notAnImage = "not an image".getBytes();
+
+            assertThatThrownBy(() -> imageProcessor.readDimensions(new ByteArrayInputStream(notAnImage)))
+                .isInstanceOf(IOException.class);
+            assertThatThrownBy(() -> imageProcessor.decode(new ByteArrayInputStream(notAnImage)))
+                .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Shared Source Tests")
+    class SharedSourceTests {
+
+        @Test
+        @DisplayName("Should generate thumbnail and crops from one decoded image")
+        void shouldGenerateRenditionsFromDecodedImage() throws IOException {
+            BufferedImage source = imageProcessor.decode(new ByteArrayInputStream(image(800, 600, "jpg")));
+
+            EncodedImage thumbnail = imageProcessor.generateThumbnail(source);
+            EncodedImage square = imageProcessor.cropToRatio(source, AspectRatio.SQUARE_1_1);
+            EncodedImage landscape = imageProcessor.cropToRatio(source, AspectRatio.LANDSCAPE_16_9);
+
+            assertThat(imageProcessor.getDimensions(thumbnail.data())).isEqualTo(new ImageDimensions(300, 300));
+            assertThat(imageProcessor.getDimensions(square.data())).isEqualTo(new ImageDimensions(600, 600));
+            assertThat(imageProcessor.getDimensions(landscape.data())).isEqualTo(new ImageDimensions(800, 450));
+            assertThat(square.contentType()).isEqualTo("image/jpeg");
+            assertThat(source.getWidth()).isEqualTo(800);
+            assertThat(source.getHeight()).isEqualTo(600);
+        }
+    }
+
+    @Nested
+    @DisplayName("Region Decoding Tests")
+    class RegionDecodingTests {
+
+        @Test
+        @DisplayName("Should generate thumbnail from a subsampled stream decode")
+        void shouldGenerateThumbnailFromStream() throws IOException {
+            EncodedImage thumbnail = imageProcessor.generateThumbnail(image(4000, 3000, "jpg"));
+
+            assertThat(imageProcessor.getDimensions(thumbnail.data())).isEqualTo(new ImageDimensions(300, 300));
+        }
+
+        @Test
+        @DisplayName("Should decode only the crop region at full resolution")
+        void shouldCropRegionFromStream() throws IOException {
+            EncodedImage story = imageProcessor.cropFromUrl(
+                new ByteArrayInputStream(image(1600, 1200, "png")), AspectRatio.STORY_9_16);
+
+            assertThat(imageProcessor.getDimensions(story.data())).isEqualTo(new ImageDimensions(675, 1200));
+            assertThat(story.contentType()).isEqualTo("image/jpeg");
+        }
+
+        @Test
+        @DisplayName("Should compute centered crop rectangle")
+        void shouldComputeCropRectangle() {
+            assertThat(ImageProcessor.cropRectangle(1600, 1200, 1.0))
+                .isEqualTo(new Rectangle(200, 0, 1200, 1200));
+            assertThat(ImageProcessor.cropRectangle(1200, 1600, AspectRatio.LANDSCAPE_16_9.getRatioValue()))
+                .isEqualTo(new Rectangle(0, 462, 1200, 675));
+        }
+    }
+}
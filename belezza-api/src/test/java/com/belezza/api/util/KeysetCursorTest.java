@@ -0,0 +1,100 @@
+package com.belezza.api.util;
+
+import com.belezza.api.dto.CursorPage;
+import com.belezza.api.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KeysetCursor Tests")
+class KeysetCursorTest {
+
+    @Nested
+    @DisplayName("Token Tests")
+    class TokenTests {
+
+        @Test
+        @DisplayName("Should decode the position it encoded")
+        void shouldRoundTrip() {
+            KeysetCursor cursor = KeysetCursor.of(LocalDateTime.of(2024, 2, 29, 13, 45, 7, 123_000_000), 42L);
+
+            String token = cursor.encode();
+
+            assertThat(token).doesNotContain("2024").doesNotContain("=");
+            assertThat(KeysetCursor.decode(token, false)).isEqualTo(cursor);
+        }
+
+        @Test
+        @DisplayName("Should start before every row ascending and after every row descending")
+        void shouldStartAtTheEdges() {
+            LocalDateTime now = LocalDateTime.now();
+
+            KeysetCursor ascending = KeysetCursor.decode(null, false);
+            KeysetCursor descending = KeysetCursor.decode("", true);
+
+            assertThat(ascending.valor()).isBefore(now);
+            assertThat(descending.valor()).isAfter(now);
+            assertThat(descending.id()).isEqualTo(Long.MAX_VALUE);
+        }
+
+        @Test
+        @DisplayName("Should reject tokens it did not issue")
+        void shouldRejectForeignTokens() {
+            String noSeparator = Base64.getUrlEncoder().encodeToString("2024-01-01T10:00".getBytes());
+            String badDate = Base64.getUrlEncoder().encodeToString("yesterday|4".getBytes());
+
+            assertThatThrownBy(() -> KeysetCursor.decode("%%%", false)).isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> KeysetCursor.decode(noSeparator, false)).isInstanceOf(BusinessException.class);
+            assertThatThrownBy(() -> KeysetCursor.decode(badDate, false)).isInstanceOf(BusinessException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Page Tests")
+    class PageTests {
+
+        private final LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        private KeysetCursor cursorOf(Long id) {
+            return KeysetCursor.of(base.plusMinutes(id), id);
+        }
+
+        @Test
+        @DisplayName("Should read one row more than the page, up to the maximum size")
+        void shouldRequestOneExtraRow() {
+            assertThat(CursorPage.request(20)).isEqualTo(PageRequest.ofSize(21));
+            assertThat(CursorPage.request(0)).isEqualTo(PageRequest.ofSize(2));
+            assertThat(CursorPage.request(5000)).isEqualTo(PageRequest.ofSize(CursorPage.MAX_SIZE + 1));
+        }
+
+        @Test
+        @DisplayName("Should drop the extra row and point the cursor at the last row returned")
+        void shouldDropExtraRow() {
+            CursorPage<Long> page = CursorPage.of(List.of(1L, 2L, 3L), 2, this::cursorOf, Function.identity(), null);
+
+            assertThat(page.getContent()).containsExactly(1L, 2L);
+            assertThat(page.isHasNext()).isTrue();
+            assertThat(KeysetCursor.decode(page.getNextCursor(), false)).isEqualTo(cursorOf(2L));
+            assertThat(page.getTotalElements()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should end without a cursor and count only when asked")
+        void shouldEndWithoutCursor() {
+            CursorPage<Long> page = CursorPage.of(List.of(1L, 2L), 2, this::cursorOf, Function.identity(), () -> 2L);
+
+            assertThat(page.isHasNext()).isFalse();
+            assertThat(page.getNextCursor()).isNull();
+            assertThat(page.getTotalElements()).isEqualTo(2L);
+        }
+    }
+}
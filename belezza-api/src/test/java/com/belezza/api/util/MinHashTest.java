@@ -0,0 +1,44 @@
+package com.belezza.api.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MinHash Tests")
+class MinHashTest {
+
+    private final MinHash minHash = new MinHash(128, 42);
+
+    @Test
+    @DisplayName("Should give identical texts identical signatures")
+    void shouldMatchIdenticalTexts() {
+        assertThat(MinHash.similarity(minHash.signature("corte de cabelo moderno"),
+            minHash.signature("corte de cabelo moderno"))).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should rate near-identical descriptions as similar and unrelated ones as different")
+    void shouldEstimateSimilarity() {
+        long[] original = minHash.signature("foto de corte de cabelo moderno com franja");
+        long[] nearIdentical = minHash.signature("foto do corte de cabelo moderno com franja");
+        long[] unrelated = minHash.signature("manicure com unhas decoradas em vermelho");
+
+        assertThat(MinHash.similarity(original, nearIdentical)).isGreaterThan(0.7);
+        assertThat(MinHash.similarity(original, unrelated)).isLessThan(0.3);
+    }
+
+    @Test
+    @DisplayName("Should keep signatures comparable across instances with the same seed")
+    void shouldBeStableForSameSeed() {
+        assertThat(new MinHash(128, 42).signature("escova progressiva"))
+            .isEqualTo(minHash.signature("escova progressiva"));
+    }
+
+    @Test
+    @DisplayName("Should treat a text shorter than a shingle as a single shingle")
+    void shouldHandleShortText() {
+        assertThat(MinHash.shingles("ab")).containsExactly("ab");
+        assertThat(MinHash.shingles("abcd")).containsExactlyInAnyOrder("abc", "bcd");
+    }
+}
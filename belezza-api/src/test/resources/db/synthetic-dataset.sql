@@ -0,0 +1,75 @@
+-- Synthetic dataset for the query plan tests (QueryPlanIT).
+-- 20 salons with 5 professionals and 200 clients each, 100k appointments over four years
+-- around 2025-06-01, one payment per finished appointment and 50k WhatsApp messages.
+-- Past appointments are mostly finished with their reminders sent; upcoming ones are pending
+-- or confirmed, as in production. Ids start high to stay clear of the seed data.
+
+SELECT setseed(0.42);
+
+INSERT INTO usuarios (id, email, password, nome, telefone, role, plano, ativo)
+SELECT 900000 + s, 'admin' || s || '@synthetic.test', 'x', 'Admin ' || s, '11900000000', 'ADMIN', 'PRO', TRUE
+FROM generate_series(1, 20) s;
+
+INSERT INTO salons (id, nome, admin_id)
+SELECT 900000 + s, 'Salon ' || s, 900000 + s
+FROM generate_series(1, 20) s;
+
+INSERT INTO servicos (id, nome, preco, duracao_minutos, tipo, salon_id)
+SELECT 900000 + n, 'Servico ' || n, 50 + (n % 5) * 20, 30 + (n % 4) * 15, 'CABELO', 900000 + (n - 1) / 5 + 1
+FROM generate_series(1, 100) n;
+
+INSERT INTO usuarios (id, email, password, nome, telefone, role, plano, ativo)
+SELECT 901000 + n, 'prof' || n || '@synthetic.test', 'x', 'Profissional ' || n, '11910000000', 'PROFISSIONAL', 'FREE', TRUE
+FROM generate_series(1, 100) n;
+
+INSERT INTO profissionais (id, usuario_id, salon_id)
+SELECT 900000 + n, 901000 + n, 900000 + (n - 1) / 5 + 1
+FROM generate_series(1, 100) n;
+
+INSERT INTO usuarios (id, email, password, nome, telefone, role, plano, ativo)
+SELECT 910000 + n, 'cliente' || n || '@synthetic.test', 'x', 'Cliente ' || n, '11920000000', 'CLIENTE', 'FREE', TRUE
+FROM generate_series(1, 4000) n;
+
+INSERT INTO clientes (id, usuario_id, salon_id)
+SELECT 900000 + n, 910000 + n, 900000 + (n - 1) / 200 + 1
+FROM generate_series(1, 4000) n;
+
+-- Appointment i belongs to salon (i % 20), one of its professionals, clients and services
+INSERT INTO agendamentos (id, salon_id, cliente_id, profissional_id, servico_id, data_hora, fim_previsto,
+                          status, lembrete_enviado24h, lembrete_enviado2h)
+SELECT 900000 + i, 900001 + s, 900001 + s * 200 + (i * 7) % 200, 900001 + s * 5 + (i / 20) % 5,
+       900001 + s * 5 + i % 5, data_hora, data_hora + INTERVAL '1 hour',
+       status, data_hora < TIMESTAMP '2025-06-02 00:00', data_hora < TIMESTAMP '2025-06-01 02:00'
+FROM (
+    SELECT i, i % 20 AS s, data_hora,
+           CASE
+               WHEN data_hora < TIMESTAMP '2025-06-01' THEN
+                   CASE WHEN r < 0.85 THEN 'CONCLUIDO' WHEN r < 0.95 THEN 'CANCELADO'
+                        WHEN r < 0.99 THEN 'NO_SHOW' ELSE 'CONFIRMADO' END
+               ELSE
+                   CASE WHEN r < 0.60 THEN 'CONFIRMADO' WHEN r < 0.90 THEN 'PENDENTE' ELSE 'CANCELADO' END
+           END AS status
+    FROM (
+        SELECT i, random() AS r,
+               date_trunc('hour', TIMESTAMP '2022-01-01 08:00' + random() * INTERVAL '1460 days') AS data_hora
+        FROM generate_series(1, 100000) i
+    ) g
+) a;
+
+INSERT INTO pagamentos (id, agendamento_id, salon_id, valor, forma, status, processado_em, criado_em)
+SELECT id, id, salon_id, 80.00,
+       (ARRAY['DINHEIRO', 'CARTAO_CREDITO', 'CARTAO_DEBITO', 'PIX'])[1 + (id % 4)::int],
+       CASE WHEN id % 50 = 0 THEN 'ESTORNADO' WHEN id % 25 = 0 THEN 'RECUSADO' ELSE 'APROVADO' END,
+       fim_previsto, fim_previsto
+FROM agendamentos
+WHERE id > 900000 AND status = 'CONCLUIDO';
+
+-- About 2% of the messages failed, a quarter of those with retries left
+INSERT INTO whatsapp_messages (telefone, tipo, status, salon_id, criado_em, tentativas)
+SELECT '11930000000', 'template',
+       CASE WHEN r < 0.02 THEN 'FAILED' WHEN r < 0.30 THEN 'SENT' WHEN r < 0.60 THEN 'DELIVERED' ELSE 'READ' END,
+       900001 + n % 20, TIMESTAMP '2022-01-01' + random() * INTERVAL '1460 days',
+       CASE WHEN r < 0.005 THEN 1 WHEN r < 0.02 THEN 3 ELSE 1 END
+FROM (SELECT n, random() AS r FROM generate_series(1, 50000) n) m;
+
+ANALYZE usuarios, salons, servicos, profissionais, clientes, agendamentos, pagamentos, whatsapp_messages;